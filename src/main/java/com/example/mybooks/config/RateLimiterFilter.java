@@ -1,9 +1,11 @@
 package com.example.mybooks.config;
 
+import com.example.mybooks.monitoring.RequestMetricsContext;
 import com.example.mybooks.service.RateLimiterService;
 import com.example.mybooks.service.SecurityLogger;
 import com.example.mybooks.util.IpUtil;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -35,12 +37,15 @@ public class RateLimiterFilter extends OncePerRequestFilter {
     private final RateLimiterService rateLimiterService;
     private final SecurityLogger securityLogger;
     private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
 
     public RateLimiterFilter(RateLimiterService rateLimiterService,
-                             SecurityLogger securityLogger) {
+                             SecurityLogger securityLogger,
+                             MeterRegistry meterRegistry) {
         this.rateLimiterService = rateLimiterService;
         this.securityLogger = securityLogger;
         this.objectMapper = new ObjectMapper();
+        this.meterRegistry = meterRegistry;
     }
 
     @Override
@@ -49,6 +54,7 @@ public class RateLimiterFilter extends OncePerRequestFilter {
             HttpServletResponse response,
             FilterChain filterChain) throws ServletException, IOException {
 
+        long start = System.nanoTime();
         String ipAddress = IpUtil.getClientIpAddress(request);
         String requestUri = request.getRequestURI();
         String method = request.getMethod();
@@ -78,6 +84,7 @@ public class RateLimiterFilter extends OncePerRequestFilter {
         if (!allowed) {
             // Task 4: Log rate limit exceeded
             securityLogger.logRateLimitExceeded(ipAddress, requestUri);
+            meterRegistry.counter("mybooks.ratelimit.rejected", "tier", limitType).increment();
 
             // Return 429 Too Many Requests
             response.setStatus(429);
@@ -101,6 +108,7 @@ public class RateLimiterFilter extends OncePerRequestFilter {
             errorResponse.put("timestamp", System.currentTimeMillis());
 
             response.getWriter().write(objectMapper.writeValueAsString(errorResponse));
+            RequestMetricsContext.recordStage(RequestMetricsContext.Stage.RATE_LIMITER, System.nanoTime() - start);
             return;
         }
 
@@ -110,6 +118,7 @@ public class RateLimiterFilter extends OncePerRequestFilter {
             response.setHeader("X-RateLimit-Limit", "5");
         }
 
+        RequestMetricsContext.recordStage(RequestMetricsContext.Stage.RATE_LIMITER, System.nanoTime() - start);
         filterChain.doFilter(request, response);
     }
 }
\ No newline at end of file
@@ -118,8 +118,11 @@ public class SecurityConfig {
                                 "/api/auth/login",
                                 "/api/info",
                                 "/api/health",
-                                "/api/upload/book-covers/**"
+                                "/api/upload/book-covers/**",
+                                "/actuator/health"
                         ).permitAll()
+                        // Counters of failed logins, security events and rate limits are admin-only
+                        .requestMatchers("/actuator/prometheus").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 );
 
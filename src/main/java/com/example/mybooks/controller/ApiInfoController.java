@@ -1,6 +1,8 @@
 package com.example.mybooks.controller;
 
-import org.springframework.http.HttpHeaders;
+import org.springframework.boot.actuate.health.HealthComponent;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.health.Status;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -12,6 +14,12 @@ import java.util.Map;
 @RequestMapping("/api")
 public class ApiInfoController {
 
+    private final HealthEndpoint healthEndpoint;
+
+    public ApiInfoController(HealthEndpoint healthEndpoint) {
+        this.healthEndpoint = healthEndpoint;
+    }
+
     @RequestMapping(value = "/books", method = RequestMethod.OPTIONS)
     public ResponseEntity<?> booksOptions() {
         return ResponseEntity
@@ -42,15 +50,6 @@ public class ApiInfoController {
                 .build();
     }
 
-    @RequestMapping(value = "/books", method = RequestMethod.HEAD)
-    public ResponseEntity<?> booksHead() {
-        return ResponseEntity
-                .ok()
-                .header(HttpHeaders.CONTENT_TYPE, "application/json")
-                .header("X-Total-Count", "0")
-                .build();
-    }
-
     @GetMapping("/info")
     public ResponseEntity<Map<String, Object>> apiInfo() {
         Map<String, Object> info = new HashMap<>();
@@ -66,6 +65,7 @@ public class ApiInfoController {
         endpoints.put("books", "GET, POST /api/books");
         endpoints.put("book", "GET, PUT, DELETE /api/books/{id}");
         endpoints.put("upload", "POST /api/upload/book-cover");
+        endpoints.put("metrics", "GET /actuator/prometheus");
 
         info.put("endpoints", endpoints);
         info.put("documentation", "/api-docs");
@@ -75,16 +75,21 @@ public class ApiInfoController {
 
     @GetMapping("/health")
     public ResponseEntity<Map<String, Object>> health() {
+        // Backed by the actuator health indicators instead of a hard-coded status
+        HealthComponent overall = healthEndpoint.health();
+        HealthComponent database = healthEndpoint.healthForPath("db");
+
         Map<String, Object> health = new HashMap<>();
-        health.put("status", "UP");
+        health.put("status", overall.getStatus().getCode());
         health.put("timestamp", System.currentTimeMillis());
 
         Map<String, String> components = new HashMap<>();
-        components.put("database", "UP");
+        components.put("database", database != null ? database.getStatus().getCode() : Status.UNKNOWN.getCode());
         components.put("api", "UP");
 
         health.put("components", components);
 
-        return ResponseEntity.ok(health);
+        HttpStatus status = Status.UP.equals(overall.getStatus()) ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status).body(health);
     }
 }
\ No newline at end of file
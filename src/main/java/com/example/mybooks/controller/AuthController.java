@@ -9,6 +9,8 @@ import com.example.mybooks.service.SecurityLogger;
 import com.example.mybooks.service.UserService;
 import com.example.mybooks.util.CookieUtil;
 import com.example.mybooks.util.IpUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -45,18 +47,29 @@ public class AuthController {
     private final UserDetailsService userDetailsService;
     private final SecurityLogger securityLogger;
 
+    private final Counter loginSuccessCounter;
+    private final Counter loginFailureCounter;
+    private final Counter refreshSuccessCounter;
+    private final Counter refreshFailureCounter;
+
     public AuthController(UserService userService,
                           AuthenticationManager authenticationManager,
                           JwtService jwtService,
                           RefreshTokenService refreshTokenService,
                           UserDetailsService userDetailsService,
-                          SecurityLogger securityLogger) {
+                          SecurityLogger securityLogger,
+                          MeterRegistry meterRegistry) {
         this.userService = userService;
         this.authenticationManager = authenticationManager;
         this.jwtService = jwtService;
         this.refreshTokenService = refreshTokenService;
         this.userDetailsService = userDetailsService;
         this.securityLogger = securityLogger;
+
+        this.loginSuccessCounter = meterRegistry.counter("mybooks.auth.logins", "outcome", "success");
+        this.loginFailureCounter = meterRegistry.counter("mybooks.auth.logins", "outcome", "failure");
+        this.refreshSuccessCounter = meterRegistry.counter("mybooks.auth.token.refreshes", "outcome", "success");
+        this.refreshFailureCounter = meterRegistry.counter("mybooks.auth.token.refreshes", "outcome", "failure");
     }
 
     @PostMapping("/register")
@@ -121,6 +134,7 @@ public class AuthController {
 
                 // Task 3.1: Log successful login (WITHOUT TOKEN!)
                 securityLogger.logSuccessfulLogin(user.getEmail(), ipAddress);
+                loginSuccessCounter.increment();
 
                 JwtAuthResponse response = new JwtAuthResponse(
                         jwtToken,
@@ -141,6 +155,7 @@ public class AuthController {
                 session.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY, securityContext);
 
                 securityLogger.logSuccessfulLogin(user.getEmail(), ipAddress);
+                loginSuccessCounter.increment();
 
                 Map<String, Object> response = new HashMap<>();
                 response.put("message", "Login successful");
@@ -153,6 +168,7 @@ public class AuthController {
         } catch (BadCredentialsException e) {
             // Task 3.1: Log failed login attempt (WITHOUT PASSWORD!)
             securityLogger.logFailedLogin(request.getEmail(), ipAddress);
+            loginFailureCounter.increment();
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("error", "Invalid credentials"));
         }
@@ -183,6 +199,7 @@ public class AuthController {
 
             // Task 3: Log token refresh (WITHOUT TOKEN!)
             securityLogger.logTokenRefresh(user.getEmail(), ipAddress);
+            refreshSuccessCounter.increment();
 
             RefreshTokenResponse response = new RefreshTokenResponse(
                     newAccessToken,
@@ -194,6 +211,7 @@ public class AuthController {
             // Task 3: Log suspicious token refresh attempt
             securityLogger.logSuspiciousActivity("TOKEN_REFRESH_FAILED",
                     "Reason: " + e.getMessage(), ipAddress);
+            refreshFailureCounter.increment();
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(Map.of("error", e.getMessage()));
         }
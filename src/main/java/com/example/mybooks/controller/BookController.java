@@ -1,31 +1,90 @@
 package com.example.mybooks.controller;
 
+import com.example.mybooks.dto.BookFilter;
+import com.example.mybooks.dto.BookResponse;
+import com.example.mybooks.dto.BulkBookRequest;
 import com.example.mybooks.model.Book;
 import com.example.mybooks.model.ReadingStatus;
 import com.example.mybooks.model.User;
 import com.example.mybooks.dto.CreateBookRequest;
+import com.example.mybooks.exception.PreconditionFailedException;
+import com.example.mybooks.service.BookExportService;
+import com.example.mybooks.service.BookImportService;
 import com.example.mybooks.service.BookService;
+import com.example.mybooks.service.BookStatsService;
+import com.example.mybooks.service.BookSuggestionService;
+import com.example.mybooks.service.MergePatchParser;
+import com.example.mybooks.service.ResponseCache;
+import com.example.mybooks.service.SearchService;
 import com.example.mybooks.service.UserService;
+import com.example.mybooks.service.WorkSimilarityService;
+import com.example.mybooks.util.ETags;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
+import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/books")
 public class BookController {
 
+    private static final Logger logger = LoggerFactory.getLogger(BookController.class);
+
+    // Clients may keep book representations but must revalidate them (with the ETag) before use
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final BookService bookService;
+    private final BookStatsService bookStatsService;
+    private final BookExportService bookExportService;
+    private final BookImportService bookImportService;
     private final UserService userService;
+    private final MergePatchParser mergePatchParser;
+    private final ResponseCache responseCache;
+    private final SearchService searchService;
+    private final BookSuggestionService bookSuggestionService;
+    private final WorkSimilarityService workSimilarityService;
 
-    public BookController(BookService bookService, UserService userService) {
+    public BookController(BookService bookService,
+                          BookStatsService bookStatsService,
+                          BookExportService bookExportService,
+                          BookImportService bookImportService,
+                          UserService userService,
+                          MergePatchParser mergePatchParser,
+                          ResponseCache responseCache,
+                          SearchService searchService,
+                          BookSuggestionService bookSuggestionService,
+                          WorkSimilarityService workSimilarityService) {
         this.bookService = bookService;
+        this.bookStatsService = bookStatsService;
+        this.bookExportService = bookExportService;
+        this.bookImportService = bookImportService;
         this.userService = userService;
+        this.mergePatchParser = mergePatchParser;
+        this.responseCache = responseCache;
+        this.searchService = searchService;
+        this.bookSuggestionService = bookSuggestionService;
+        this.workSimilarityService = workSimilarityService;
     }
 
     private User getCurrentUser(Authentication authentication) {
@@ -54,18 +113,92 @@ public class BookController {
                 System.out.println("Book created via: " + userAgent);
             }
 
-            return ResponseEntity.status(HttpStatus.CREATED).body(book);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .eTag(ETags.of("book", book.getId(), book.getVersion()))
+                    .body(new BookResponse(book));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(Map.of("error", e.getMessage()));
         }
     }
 
+    /**
+     * Bulk import from an NDJSON (application/x-ndjson) or CSV (text/csv) body.
+     * Every row is validated like POST /api/books; the response reports rejected rows.
+     */
+    @PostMapping("/bulk")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> importBooks(
+            @RequestHeader(value = "Content-Type", required = false) String contentType,
+            Authentication authentication,
+            HttpServletRequest request) {
+        BookImportService.Format format = BookImportService.Format.fromContentType(contentType);
+        if (format == null) {
+            return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE)
+                    .body(Map.of("error", "Content-Type must be application/x-ndjson or text/csv"));
+        }
+
+        try {
+            User user = getCurrentUser(authentication);
+            return ResponseEntity.ok(bookImportService.importBooks(user.getId(), format, request.getInputStream()));
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Could not read request body: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Set readingStatus on all selected books (by ids and/or status/genre filter) in one statement
+     */
+    @PostMapping("/bulk-update")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> bulkUpdateBooks(
+            @Valid @RequestBody BulkBookRequest request,
+            Authentication authentication) {
+        try {
+            User user = getCurrentUser(authentication);
+            int updated = bookService.bulkUpdateStatus(request, user);
+            return ResponseEntity.ok(Map.of("updated", updated));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Delete all selected books (by ids and/or status/genre filter) in one statement
+     */
+    @PostMapping("/bulk-delete")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> bulkDeleteBooks(
+            @Valid @RequestBody BulkBookRequest request,
+            Authentication authentication) {
+        try {
+            User user = getCurrentUser(authentication);
+            int deleted = bookService.bulkDelete(request, user);
+            return ResponseEntity.ok(Map.of("deleted", deleted));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * List the user's books.
+     * Without paging parameters the whole library is returned as an array (legacy behaviour);
+     * with any of sort, direction, cursor or limit a keyset-paginated CursorPage is returned.
+     */
     @GetMapping
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
     public ResponseEntity<?> getAllBooks(
             @RequestHeader(value = "Accept", defaultValue = "application/json") String accept,
-            Authentication authentication) {
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch,
+            Authentication authentication,
+            HttpServletRequest request) {
 
         if (!accept.contains("application/json") && !accept.contains("*/*")) {
             return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE)
@@ -73,8 +206,191 @@ public class BookController {
         }
 
         User user = getCurrentUser(authentication);
-        List<Book> books = bookService.getUserBooks(user.getId());
-        return ResponseEntity.ok(books);
+        if (isPageRequest(sort, direction, cursor, limit)) {
+            return getBooksPage(user, null, sort, direction, cursor, limit, ifNoneMatch, request);
+        }
+
+        return listBooks(user, ifNoneMatch, request, () -> bookService.getUserBooks(user.getId()));
+    }
+
+    private static boolean isPageRequest(String sort, String direction, String cursor, Integer limit) {
+        return sort != null || direction != null || cursor != null || limit != null;
+    }
+
+    private ResponseEntity<?> getBooksPage(User user, BookFilter filter, String sort, String direction,
+                                           String cursor, Integer limit, String ifNoneMatch,
+                                           HttpServletRequest request) {
+        return listBooks(user, ifNoneMatch, request, () -> bookService.getUserBooksPage(
+                user.getId(), filter, sort, direction, cursor, limit));
+    }
+
+    /**
+     * Every list is tagged with the user's book collection version, which is read before the
+     * query. A matching If-None-Match is answered with 304 without running the query at all;
+     * otherwise the serialized body is served from the response cache while the version holds.
+     */
+    private ResponseEntity<?> listBooks(User user, String ifNoneMatch, HttpServletRequest request,
+                                        Supplier<?> query) {
+        String etag = bookService.getUserBooksETag(user.getId());
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
+        }
+        try {
+            byte[] body = responseCache.get(etag, cacheKey(request), query);
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(REVALIDATE)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(body);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Path plus the decoded parameters in name order, re-encoded so distinct parameter sets cannot collide
+    private static String cacheKey(HttpServletRequest request) {
+        StringJoiner key = new StringJoiner("&", request.getRequestURI() + "?", "");
+        new TreeMap<>(request.getParameterMap()).forEach((name, values) -> {
+            for (String value : values) {
+                key.add(URLEncoder.encode(name, StandardCharsets.UTF_8) + "="
+                        + URLEncoder.encode(value, StandardCharsets.UTF_8));
+            }
+        });
+        return key.toString();
+    }
+
+    /**
+     * Counts by reading status, genre and publication year plus the average rating, read from
+     * the incrementally maintained book_stats counters (cost independent of library size)
+     */
+    @GetMapping("/stats")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> getBookStats(
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch,
+            Authentication authentication,
+            HttpServletRequest request) {
+        User user = getCurrentUser(authentication);
+        return listBooks(user, ifNoneMatch, request, () -> bookStatsService.getStats(user.getId()));
+    }
+
+    /**
+     * Number of books in X-Total-Count, from the book_stats total
+     */
+    @RequestMapping(method = RequestMethod.HEAD)
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> countBooks(Authentication authentication) {
+        User user = getCurrentUser(authentication);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("X-Total-Count", String.valueOf(bookStatsService.countBooks(user.getId())))
+                .build();
+    }
+
+    /**
+     * Filter by any combination of status, genre, rating range, year range and author prefix.
+     * Always paginated; accepts the same sort, direction, cursor and limit as the listing.
+     */
+    @GetMapping("/query")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> queryBooks(
+            @ModelAttribute BookFilter filter,
+            BindingResult bindingResult,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch,
+            Authentication authentication,
+            HttpServletRequest request) {
+        if (bindingResult.hasErrors()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Invalid value for " + bindingResult.getFieldErrors().get(0).getField()));
+        }
+        User user = getCurrentUser(authentication);
+        return getBooksPage(user, filter, sort, direction, cursor, limit, ifNoneMatch, request);
+    }
+
+    /**
+     * Full-text search in title, author and notes, best matches first.
+     * Not cached: bm25 scores depend on the whole index, not only on the user's books.
+     */
+    @GetMapping("/search")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> searchBooks(
+            @RequestParam String query,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            Authentication authentication) {
+        User user = getCurrentUser(authentication);
+        try {
+            return ResponseEntity.ok(searchService.searchBooks(user.getId(), query, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Typeahead: titles, authors and genres with a word starting with q, most frequent first.
+     * Answered from memory once the user's suggestion index is loaded.
+     */
+    @GetMapping("/suggest")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> suggestBooks(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit,
+            Authentication authentication) {
+        User user = getCurrentUser(authentication);
+        try {
+            return ResponseEntity.ok(bookSuggestionService.suggest(user.getId(), q, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Typo-tolerant search in titles and authors ("dostoyevsky" finds "Dostoevsky"), most similar first
+     */
+    @GetMapping("/fuzzy")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> fuzzySearchBooks(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit,
+            Authentication authentication) {
+        User user = getCurrentUser(authentication);
+        try {
+            return ResponseEntity.ok(bookSuggestionService.fuzzySearch(user.getId(), q, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Export the whole library as NDJSON (default) or CSV.
+     * Rows are streamed from a database cursor, so memory use does not depend on library size.
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public void exportBooks(
+            @RequestParam(defaultValue = "ndjson") String format,
+            Authentication authentication,
+            HttpServletResponse response) {
+        BookExportService.Format exportFormat = BookExportService.Format.fromParam(format);
+        User user = getCurrentUser(authentication);
+
+        response.setContentType(exportFormat.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"books." + exportFormat.getExtension() + "\"");
+
+        try {
+            bookExportService.export(user.getId(), exportFormat, response.getOutputStream());
+        } catch (IOException e) {
+            // Client disconnected mid-stream; the response is unusable, so there is nothing to send
+            logger.debug("Book export aborted for user {}: {}", user.getId(), e.getMessage());
+        }
     }
 
     @GetMapping("/{id}")
@@ -85,16 +401,17 @@ public class BookController {
             Authentication authentication) {
         try {
             User user = getCurrentUser(authentication);
-            Book book = bookService.getBookById(id, user);
+            BookResponse book = bookService.getBookResponseById(id, user);
 
-            String etag = "\"book-" + book.getId() + "\"";
+            String etag = ETags.of("book", book.getId(), book.getVersion());
 
-            if (etag.equals(ifNoneMatch)) {
-                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            if (ETags.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
             }
 
             return ResponseEntity.ok()
-                    .header("ETag", etag)
+                    .eTag(etag)
+                    .cacheControl(REVALIDATE)
                     .body(book);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -105,24 +422,69 @@ public class BookController {
         }
     }
 
+    /**
+     * Books that readers who liked this one also liked, which the user does not have yet.
+     * Read from the nightly precomputed neighbours; nothing is scored per request.
+     */
+    @GetMapping("/{id}/similar")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> getSimilarBooks(
+            @PathVariable Long id,
+            @RequestParam(required = false) Integer limit,
+            Authentication authentication) {
+        int size = limit != null ? limit : WorkSimilarityService.DEFAULT_LIMIT;
+        if (size < 1 || size > workSimilarityService.getTopK()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "limit must be between 1 and " + workSimilarityService.getTopK()));
+        }
+        try {
+            User user = getCurrentUser(authentication);
+            return ResponseEntity.ok(workSimilarityService.getSimilarBooks(id, user, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (SecurityException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @GetMapping("/status/{status}")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
-    public ResponseEntity<List<Book>> getBooksByStatus(
+    public ResponseEntity<?> getBooksByStatus(
             @PathVariable ReadingStatus status,
-            Authentication authentication) {
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch,
+            Authentication authentication,
+            HttpServletRequest request) {
         User user = getCurrentUser(authentication);
-        List<Book> books = bookService.getUserBooksByStatus(user.getId(), status);
-        return ResponseEntity.ok(books);
+        if (isPageRequest(sort, direction, cursor, limit)) {
+            return getBooksPage(user, BookFilter.byStatus(status), sort, direction, cursor, limit, ifNoneMatch,
+                    request);
+        }
+        return listBooks(user, ifNoneMatch, request, () -> bookService.getUserBooksByStatus(user.getId(), status));
     }
 
     @GetMapping("/genre/{genre}")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
-    public ResponseEntity<List<Book>> getBooksByGenre(
+    public ResponseEntity<?> getBooksByGenre(
             @PathVariable String genre,
-            Authentication authentication) {
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch,
+            Authentication authentication,
+            HttpServletRequest request) {
         User user = getCurrentUser(authentication);
-        List<Book> books = bookService.getUserBooksByGenre(user.getId(), genre);
-        return ResponseEntity.ok(books);
+        if (isPageRequest(sort, direction, cursor, limit)) {
+            return getBooksPage(user, BookFilter.byGenre(genre), sort, direction, cursor, limit, ifNoneMatch,
+                    request);
+        }
+        return listBooks(user, ifNoneMatch, request, () -> bookService.getUserBooksByGenre(user.getId(), genre));
     }
 
     @PutMapping("/{id}")
@@ -131,6 +493,7 @@ public class BookController {
             @PathVariable Long id,
             @Valid @RequestBody CreateBookRequest request,
             @RequestHeader(value = "Content-Type", required = false) String contentType,
+            @RequestHeader(value = "If-Match", required = false) String ifMatch,
             Authentication authentication) {
         try {
             if (contentType == null || !contentType.contains("application/json")) {
@@ -139,14 +502,50 @@ public class BookController {
             }
 
             User user = getCurrentUser(authentication);
-            Book book = bookService.updateBook(id, request, user);
-            return ResponseEntity.ok(book);
+            BookResponse book = bookService.updateBook(id, request, user, ETags.ifMatchVersions(ifMatch, "book", id));
+            return ResponseEntity.ok().eTag(ETags.of("book", book.getId(), book.getVersion())).body(book);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(Map.of("error", e.getMessage()));
         } catch (SecurityException e) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(Map.of("error", e.getMessage()));
+        } catch (PreconditionFailedException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * JSON Merge Patch: only the members present are changed, null clears an optional field
+     */
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", "application/json"})
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> patchBook(
+            @PathVariable Long id,
+            @RequestBody JsonNode patch,
+            @RequestHeader(value = "If-Match", required = false) String ifMatch,
+            Authentication authentication) {
+        Map<String, Object> changes;
+        try {
+            changes = mergePatchParser.parse(patch, CreateBookRequest.class, Set.of("readingStatus"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+
+        try {
+            User user = getCurrentUser(authentication);
+            BookResponse book = bookService.patchBook(id, changes, user, ETags.ifMatchVersions(ifMatch, "book", id));
+            return ResponseEntity.ok().eTag(ETags.of("book", book.getId(), book.getVersion())).body(book);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (SecurityException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (PreconditionFailedException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                    .body(Map.of("error", e.getMessage()));
         }
     }
 
@@ -154,10 +553,11 @@ public class BookController {
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
     public ResponseEntity<?> deleteBook(
             @PathVariable Long id,
+            @RequestHeader(value = "If-Match", required = false) String ifMatch,
             Authentication authentication) {
         try {
             User user = getCurrentUser(authentication);
-            bookService.deleteBook(id, user);
+            bookService.deleteBook(id, user, ETags.ifMatchVersions(ifMatch, "book", id));
             return ResponseEntity.noContent().build();
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -165,13 +565,16 @@ public class BookController {
         } catch (SecurityException e) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(Map.of("error", e.getMessage()));
+        } catch (PreconditionFailedException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                    .body(Map.of("error", e.getMessage()));
         }
     }
 
     @GetMapping("/admin/all")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<Book>> getAllBooksAdmin() {
-        List<Book> allBooks = bookService.getAllBooks();
+    public ResponseEntity<List<BookResponse>> getAllBooksAdmin() {
+        List<BookResponse> allBooks = bookService.getAllBooks();
         return ResponseEntity.ok(allBooks);
     }
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.example.mybooks.controller;
 import com.example.mybooks.model.Book;
 import com.example.mybooks.model.User;
 import com.example.mybooks.dto.BookFormData;
+import com.example.mybooks.dto.BookResponse;
 import com.example.mybooks.service.BookService;
 import com.example.mybooks.service.FileStorageService;
 import com.example.mybooks.service.UserService;
@@ -133,7 +134,7 @@ public class FileUploadController {
 
             Book savedBook = bookService.saveBook(book);
 
-            return ResponseEntity.status(HttpStatus.CREATED).body(savedBook);
+            return ResponseEntity.status(HttpStatus.CREATED).body(new BookResponse(savedBook));
 
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
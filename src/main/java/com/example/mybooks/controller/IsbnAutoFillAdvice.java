@@ -0,0 +1,41 @@
+package com.example.mybooks.controller;
+
+import com.example.mybooks.dto.CreateBookRequest;
+import com.example.mybooks.service.IsbnMetadataService;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import java.lang.reflect.Type;
+
+/**
+ * Auto-fill for new books: a CreateBookRequest posted with an ISBN gets a blank title or
+ * author and a missing year from the local ISBN dump. Runs after the body is read and before
+ * @Valid, so "isbn" alone is a valid request when the dump knows the book. PUT bodies are
+ * full replacements and are left alone, so fields can be cleared.
+ */
+@ControllerAdvice
+public class IsbnAutoFillAdvice extends RequestBodyAdviceAdapter {
+
+    private final IsbnMetadataService isbnMetadataService;
+
+    public IsbnAutoFillAdvice(IsbnMetadataService isbnMetadataService) {
+        this.isbnMetadataService = isbnMetadataService;
+    }
+
+    @Override
+    public boolean supports(MethodParameter methodParameter, Type targetType,
+                            Class<? extends HttpMessageConverter<?>> converterType) {
+        return CreateBookRequest.class.equals(targetType) && methodParameter.hasMethodAnnotation(PostMapping.class);
+    }
+
+    @Override
+    public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter,
+                                Type targetType, Class<? extends HttpMessageConverter<?>> converterType) {
+        isbnMetadataService.enrich((CreateBookRequest) body);
+        return body;
+    }
+}
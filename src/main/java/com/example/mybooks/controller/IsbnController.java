@@ -0,0 +1,41 @@
+package com.example.mybooks.controller;
+
+import com.example.mybooks.service.IsbnMetadataService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/isbn")
+public class IsbnController {
+
+    private final IsbnMetadataService isbnMetadataService;
+
+    public IsbnController(IsbnMetadataService isbnMetadataService) {
+        this.isbnMetadataService = isbnMetadataService;
+    }
+
+    /**
+     * Title, author and year for an ISBN from the local dump, for filling in the add-book form
+     */
+    @GetMapping("/{isbn}")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> lookupIsbn(@PathVariable String isbn) {
+        if (!isbnMetadataService.isAvailable()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", "No ISBN index loaded yet"));
+        }
+        try {
+            return isbnMetadataService.lookup(isbn)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                            .body(Map.of("error", "ISBN not found")));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+}
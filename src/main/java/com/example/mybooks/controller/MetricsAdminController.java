@@ -0,0 +1,70 @@
+package com.example.mybooks.controller;
+
+import com.example.mybooks.monitoring.RequestMetricsRegistry;
+import com.example.mybooks.monitoring.SlowQueryLog;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admin endpoints for per-endpoint performance data
+ */
+@RestController
+@RequestMapping("/api/admin/metrics")
+public class MetricsAdminController {
+
+    private final RequestMetricsRegistry requestMetricsRegistry;
+    private final SlowQueryLog slowQueryLog;
+
+    public MetricsAdminController(RequestMetricsRegistry requestMetricsRegistry, SlowQueryLog slowQueryLog) {
+        this.requestMetricsRegistry = requestMetricsRegistry;
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    /**
+     * Latency percentiles (p50/p95/p99) per route template and status,
+     * with time attributed to filter stages, JDBC and serialization
+     * Only accessible by ADMIN role
+     */
+    @GetMapping("/requests")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<Map<String, Object>>> getRequestMetrics() {
+        return ResponseEntity.ok(requestMetricsRegistry.snapshot());
+    }
+
+    /**
+     * Clear all recorded request histograms
+     * Only accessible by ADMIN role
+     */
+    @DeleteMapping("/requests")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> resetRequestMetrics() {
+        requestMetricsRegistry.reset();
+        return ResponseEntity.ok(Map.of("message", "Request metrics reset successfully"));
+    }
+
+    /**
+     * Top slow statements by total time, with their query plans
+     * and a flag for full table scans
+     * Only accessible by ADMIN role
+     */
+    @GetMapping("/slow-queries")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<Map<String, Object>>> getSlowQueries(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(slowQueryLog.snapshot(Math.max(1, Math.min(limit, 200))));
+    }
+
+    /**
+     * Clear the aggregated slow statements
+     * Only accessible by ADMIN role
+     */
+    @DeleteMapping("/slow-queries")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> resetSlowQueries() {
+        slowQueryLog.reset();
+        return ResponseEntity.ok(Map.of("message", "Slow query log reset successfully"));
+    }
+}
@@ -4,10 +4,18 @@ import com.example.mybooks.model.Note;
 import com.example.mybooks.model.User;
 import com.example.mybooks.dto.CreateNoteRequest;
 import com.example.mybooks.dto.NoteResponse;
+import com.example.mybooks.exception.PreconditionFailedException;
+import com.example.mybooks.service.MergePatchParser;
 import com.example.mybooks.service.NoteService;
+import com.example.mybooks.service.ResponseCache;
+import com.example.mybooks.service.SearchService;
 import com.example.mybooks.service.UserService;
+import com.example.mybooks.util.ETags;
+import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -15,18 +23,29 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/notes")
 public class NoteController {
 
+    // Clients may keep note representations but must revalidate them (with the ETag) before use
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final NoteService noteService;
     private final UserService userService;
+    private final MergePatchParser mergePatchParser;
+    private final ResponseCache responseCache;
+    private final SearchService searchService;
 
-    public NoteController(NoteService noteService, UserService userService) {
+    public NoteController(NoteService noteService, UserService userService, MergePatchParser mergePatchParser,
+                          ResponseCache responseCache, SearchService searchService) {
         this.noteService = noteService;
         this.userService = userService;
+        this.mergePatchParser = mergePatchParser;
+        this.responseCache = responseCache;
+        this.searchService = searchService;
     }
 
     private User getCurrentUser(Authentication authentication) {
@@ -45,7 +64,9 @@ public class NoteController {
             Note note = noteService.createNote(request, user);
             NoteResponse response = new NoteResponse(note);
 
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .eTag(ETags.of("note", response.getId(), response.getVersion()))
+                    .body(response);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(Map.of("error", e.getMessage()));
@@ -54,28 +75,44 @@ public class NoteController {
 
     @GetMapping
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
-    public ResponseEntity<List<NoteResponse>> getAllNotes(Authentication authentication) {
+    public ResponseEntity<byte[]> getAllNotes(
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch,
+            Authentication authentication) {
         User user = getCurrentUser(authentication);
-        List<Note> notes = noteService.getUserNotes(user.getId());
 
-        List<NoteResponse> response = notes.stream()
+        // Collection version is read before the query; a match skips the query entirely
+        String etag = noteService.getUserNotesETag(user.getId());
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
+        }
+
+        // Otherwise the serialized list is reused until the next write to the user's notes
+        byte[] body = responseCache.get(etag, "/api/notes", () -> noteService.getUserNotes(user.getId()).stream()
                 .map(NoteResponse::new)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
 
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(REVALIDATE)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
     }
 
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
     public ResponseEntity<?> getNoteById(
             @PathVariable Long id,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch,
             Authentication authentication) {
         try {
             User user = getCurrentUser(authentication);
             Note note = noteService.getNoteById(id, user);
-            NoteResponse response = new NoteResponse(note);
+            String etag = ETags.of("note", note.getId(), note.getVersion());
+            if (ETags.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
+            }
 
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(new NoteResponse(note));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(Map.of("error", e.getMessage()));
@@ -90,19 +127,57 @@ public class NoteController {
     public ResponseEntity<?> updateNote(
             @PathVariable Long id,
             @Valid @RequestBody CreateNoteRequest request,
+            @RequestHeader(value = "If-Match", required = false) String ifMatch,
             Authentication authentication) {
         try {
             User user = getCurrentUser(authentication);
-            Note note = noteService.updateNote(id, request, user);
-            NoteResponse response = new NoteResponse(note);
+            NoteResponse response = noteService.updateNote(id, request, user,
+                    ETags.ifMatchVersions(ifMatch, "note", id));
 
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().eTag(ETags.of("note", response.getId(), response.getVersion())).body(response);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(Map.of("error", e.getMessage()));
         } catch (SecurityException e) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(Map.of("error", e.getMessage()));
+        } catch (PreconditionFailedException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * JSON Merge Patch of title and/or content
+     */
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", "application/json"})
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> patchNote(
+            @PathVariable Long id,
+            @RequestBody JsonNode patch,
+            @RequestHeader(value = "If-Match", required = false) String ifMatch,
+            Authentication authentication) {
+        Map<String, Object> changes;
+        try {
+            changes = mergePatchParser.parse(patch, CreateNoteRequest.class, Set.of());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+
+        try {
+            User user = getCurrentUser(authentication);
+            NoteResponse response = noteService.patchNote(id, changes, user,
+                    ETags.ifMatchVersions(ifMatch, "note", id));
+            return ResponseEntity.ok().eTag(ETags.of("note", response.getId(), response.getVersion())).body(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (SecurityException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (PreconditionFailedException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                    .body(Map.of("error", e.getMessage()));
         }
     }
 
@@ -110,10 +185,11 @@ public class NoteController {
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
     public ResponseEntity<?> deleteNote(
             @PathVariable Long id,
+            @RequestHeader(value = "If-Match", required = false) String ifMatch,
             Authentication authentication) {
         try {
             User user = getCurrentUser(authentication);
-            noteService.deleteNote(id, user);
+            noteService.deleteNote(id, user, ETags.ifMatchVersions(ifMatch, "note", id));
 
             return ResponseEntity.noContent().build();
         } catch (IllegalArgumentException e) {
@@ -122,22 +198,29 @@ public class NoteController {
         } catch (SecurityException e) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(Map.of("error", e.getMessage()));
+        } catch (PreconditionFailedException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                    .body(Map.of("error", e.getMessage()));
         }
     }
 
+    /**
+     * Full-text search in title and content, best matches first
+     */
     @GetMapping("/search")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
-    public ResponseEntity<List<NoteResponse>> searchNotes(
+    public ResponseEntity<?> searchNotes(
             @RequestParam String query,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
             Authentication authentication) {
         User user = getCurrentUser(authentication);
-        List<Note> notes = noteService.searchNotes(query, user);
-
-        List<NoteResponse> response = notes.stream()
-                .map(NoteResponse::new)
-                .collect(Collectors.toList());
-
-        return ResponseEntity.ok(response);
+        try {
+            return ResponseEntity.ok(searchService.searchNotes(user.getId(), query, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
     }
 
     @GetMapping("/recent/{days}")
@@ -0,0 +1,73 @@
+package com.example.mybooks.controller;
+
+import com.example.mybooks.model.SecurityEventType;
+import com.example.mybooks.service.SecurityEventStore;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admin endpoint for investigating security events
+ * (e.g. "all events for IP X in the last 6 hours")
+ */
+@RestController
+@RequestMapping("/api/admin/security-events")
+public class SecurityEventAdminController {
+
+    private static final int MAX_HOURS = 24 * 90;
+    private static final int MAX_LIMIT = 5000;
+
+    private final SecurityEventStore eventStore;
+
+    public SecurityEventAdminController(SecurityEventStore eventStore) {
+        this.eventStore = eventStore;
+    }
+
+    /**
+     * Query events by IP address and/or event type
+     * Only accessible by ADMIN role
+     */
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> queryEvents(
+            @RequestParam(required = false) String ip,
+            @RequestParam(required = false) SecurityEventType type,
+            @RequestParam(defaultValue = "6") int hours,
+            @RequestParam(defaultValue = "500") int limit) throws IOException {
+
+        if ((ip == null || ip.isBlank()) && type == null) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Either 'ip' or 'type' is required"));
+        }
+
+        int window = Math.min(Math.max(hours, 1), MAX_HOURS);
+        int max = Math.min(Math.max(limit, 1), MAX_LIMIT);
+
+        Instant to = Instant.now();
+        Instant from = to.minus(Duration.ofHours(window));
+
+        long start = System.nanoTime();
+        List<SecurityEventStore.SecurityEvent> events = eventStore.query(
+                ip == null || ip.isBlank() ? null : ip.trim(), type, from, to, max);
+        long elapsedMicros = (System.nanoTime() - start) / 1000;
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("ip", ip);
+        response.put("type", type);
+        response.put("from", from.toString());
+        response.put("to", to.toString());
+        response.put("count", events.size());
+        response.put("queryTimeMicros", elapsedMicros);
+        response.put("events", events);
+
+        return ResponseEntity.ok(response);
+    }
+}
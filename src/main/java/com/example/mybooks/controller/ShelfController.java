@@ -0,0 +1,146 @@
+package com.example.mybooks.controller;
+
+import com.example.mybooks.dto.CreateShelfRequest;
+import com.example.mybooks.dto.ShelfPlacement;
+import com.example.mybooks.dto.ShelfResponse;
+import com.example.mybooks.model.Shelf;
+import com.example.mybooks.model.User;
+import com.example.mybooks.service.ShelfService;
+import com.example.mybooks.service.UserService;
+import jakarta.validation.Valid;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/shelves")
+public class ShelfController {
+
+    private final ShelfService shelfService;
+    private final UserService userService;
+
+    public ShelfController(ShelfService shelfService, UserService userService) {
+        this.shelfService = shelfService;
+        this.userService = userService;
+    }
+
+    private User getCurrentUser(Authentication authentication) {
+        String email = authentication.getName();
+        return userService.findByEmail(email)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+    }
+
+    @PostMapping
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> createShelf(
+            @Valid @RequestBody CreateShelfRequest request,
+            Authentication authentication) {
+        try {
+            User user = getCurrentUser(authentication);
+            Shelf shelf = shelfService.createShelf(request.getName(), user);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(new ShelfResponse(shelf.getId(), shelf.getName(), 0));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> getShelves(Authentication authentication) {
+        User user = getCurrentUser(authentication);
+        return ResponseEntity.ok(shelfService.getUserShelves(user.getId()));
+    }
+
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> deleteShelf(
+            @PathVariable Long id,
+            Authentication authentication) {
+        try {
+            User user = getCurrentUser(authentication);
+            shelfService.deleteShelf(id, user);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (SecurityException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{id}/books")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> getShelfBooks(
+            @PathVariable Long id,
+            Authentication authentication) {
+        try {
+            User user = getCurrentUser(authentication);
+            return ResponseEntity.ok(shelfService.getShelfBooks(id, user));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (SecurityException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Add a book to the shelf or move it: after afterBookId, before beforeBookId, or at the
+     * end without a body. Only the moved book's row is written.
+     */
+    @PutMapping("/{id}/books/{bookId}")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> placeBook(
+            @PathVariable Long id,
+            @PathVariable Long bookId,
+            @RequestBody(required = false) ShelfPlacement placement,
+            Authentication authentication) {
+        if (placement != null && placement.getAfterBookId() != null && placement.getBeforeBookId() != null) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Give afterBookId or beforeBookId, not both"));
+        }
+        try {
+            User user = getCurrentUser(authentication);
+            shelfService.placeBook(id, bookId, placement, user);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (SecurityException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (DataIntegrityViolationException e) {
+            // Another placement took the same key concurrently
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "Shelf was modified concurrently, please retry"));
+        }
+    }
+
+    @DeleteMapping("/{id}/books/{bookId}")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> removeBook(
+            @PathVariable Long id,
+            @PathVariable Long bookId,
+            Authentication authentication) {
+        try {
+            User user = getCurrentUser(authentication);
+            shelfService.removeBook(id, bookId, user);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (SecurityException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+}
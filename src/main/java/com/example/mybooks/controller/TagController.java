@@ -0,0 +1,133 @@
+package com.example.mybooks.controller;
+
+import com.example.mybooks.model.User;
+import com.example.mybooks.service.TagService;
+import com.example.mybooks.service.UserService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/tags")
+public class TagController {
+
+    private final TagService tagService;
+    private final UserService userService;
+
+    public TagController(TagService tagService, UserService userService) {
+        this.tagService = tagService;
+        this.userService = userService;
+    }
+
+    private User getCurrentUser(Authentication authentication) {
+        String email = authentication.getName();
+        return userService.findByEmail(email)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+    }
+
+    @GetMapping
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> getTags(Authentication authentication) {
+        User user = getCurrentUser(authentication);
+        return ResponseEntity.ok(tagService.getUserTags(user.getId()));
+    }
+
+    @PutMapping("/{name}/books/{bookId}")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> tagBook(
+            @PathVariable String name,
+            @PathVariable Long bookId,
+            Authentication authentication) {
+        try {
+            TagService.normalize(name);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
+        try {
+            User user = getCurrentUser(authentication);
+            tagService.tagBook(name, bookId, user);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (SecurityException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/{name}/books/{bookId}")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> untagBook(
+            @PathVariable String name,
+            @PathVariable Long bookId,
+            Authentication authentication) {
+        try {
+            User user = getCurrentUser(authentication);
+            tagService.untagBook(name, bookId, user);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/{name}")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> deleteTag(
+            @PathVariable String name,
+            Authentication authentication) {
+        try {
+            User user = getCurrentUser(authentication);
+            tagService.deleteTag(name, user);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Books by tag set: all of all=, at least one of any=, none of none= (comma-separated).
+     * Evaluated on in-memory bitmaps; only the returned page of books is read from the database.
+     */
+    @GetMapping("/books")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> findBooks(
+            @RequestParam(required = false) List<String> all,
+            @RequestParam(required = false) List<String> any,
+            @RequestParam(required = false) List<String> none,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            Authentication authentication) {
+        User user = getCurrentUser(authentication);
+        try {
+            return ResponseEntity.ok(tagService.findBooks(user.getId(), all, any, none, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/books/count")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> countBooks(
+            @RequestParam(required = false) List<String> all,
+            @RequestParam(required = false) List<String> any,
+            @RequestParam(required = false) List<String> none,
+            Authentication authentication) {
+        User user = getCurrentUser(authentication);
+        try {
+            return ResponseEntity.ok(Map.of("count", tagService.countBooks(user.getId(), all, any, none)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.mybooks.controller;
+
+import com.example.mybooks.dto.UpdateWorkRequest;
+import com.example.mybooks.service.WorkService;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/works")
+public class WorkController {
+
+    private final WorkService workService;
+
+    public WorkController(WorkService workService) {
+        this.workService = workService;
+    }
+
+    /**
+     * Shared catalog entry by ISBN (10 or 13 digits), or by title and author; answered
+     * from the works cache when possible
+     */
+    @GetMapping("/lookup")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> lookupWork(
+            @RequestParam(required = false) String isbn,
+            @RequestParam(required = false) String title,
+            @RequestParam(required = false) String author) {
+        try {
+            return workService.lookup(isbn, title, author)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                            .body(Map.of("error", "Work not found")));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Correct a work's title, author, year and genre, e.g. when the first copy added had typos
+     * Only accessible by ADMIN role
+     */
+    @PutMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> correctWork(@PathVariable Long id, @Valid @RequestBody UpdateWorkRequest request) {
+        try {
+            return ResponseEntity.ok(workService.correct(id, request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+}
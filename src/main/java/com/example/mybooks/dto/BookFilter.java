@@ -0,0 +1,91 @@
+package com.example.mybooks.dto;
+
+import com.example.mybooks.model.ReadingStatus;
+
+/**
+ * Optional criteria for the book query endpoint; all given criteria are combined with AND.
+ * Ranges are inclusive and may be open on either side.
+ */
+public class BookFilter {
+
+    private ReadingStatus status;
+    private String genre;
+    private Integer minRating;
+    private Integer maxRating;
+    private Integer minYear;
+    private Integer maxYear;
+
+    // Case-sensitive prefix, evaluated as a range on the (user_id, author) index
+    private String author;
+
+    public BookFilter() {}
+
+    public static BookFilter byStatus(ReadingStatus status) {
+        BookFilter filter = new BookFilter();
+        filter.setStatus(status);
+        return filter;
+    }
+
+    public static BookFilter byGenre(String genre) {
+        BookFilter filter = new BookFilter();
+        filter.setGenre(genre);
+        return filter;
+    }
+
+    // Getters and Setters
+    public ReadingStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ReadingStatus status) {
+        this.status = status;
+    }
+
+    public String getGenre() {
+        return genre;
+    }
+
+    public void setGenre(String genre) {
+        this.genre = genre;
+    }
+
+    public Integer getMinRating() {
+        return minRating;
+    }
+
+    public void setMinRating(Integer minRating) {
+        this.minRating = minRating;
+    }
+
+    public Integer getMaxRating() {
+        return maxRating;
+    }
+
+    public void setMaxRating(Integer maxRating) {
+        this.maxRating = maxRating;
+    }
+
+    public Integer getMinYear() {
+        return minYear;
+    }
+
+    public void setMinYear(Integer minYear) {
+        this.minYear = minYear;
+    }
+
+    public Integer getMaxYear() {
+        return maxYear;
+    }
+
+    public void setMaxYear(Integer maxYear) {
+        this.maxYear = maxYear;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public void setAuthor(String author) {
+        this.author = author;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.mybooks.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of a bulk import: counts plus the validation errors of rejected rows.
+ * Row numbers are 1-based data rows (the CSV header is not counted).
+ */
+public class BookImportReport {
+
+    private long imported;
+    private long failed;
+    private List<RowError> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+
+    public BookImportReport() {}
+
+    public static class RowError {
+
+        private long row;
+        private Map<String, String> errors;
+
+        public RowError() {}
+
+        public RowError(long row, Map<String, String> errors) {
+            this.row = row;
+            this.errors = errors;
+        }
+
+        public long getRow() {
+            return row;
+        }
+
+        public void setRow(long row) {
+            this.row = row;
+        }
+
+        public Map<String, String> getErrors() {
+            return errors;
+        }
+
+        public void setErrors(Map<String, String> errors) {
+            this.errors = errors;
+        }
+    }
+
+    // Getters and Setters
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<RowError> errors) {
+        this.errors = errors;
+    }
+
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+
+    public void setErrorsTruncated(boolean errorsTruncated) {
+        this.errorsTruncated = errorsTruncated;
+    }
+}
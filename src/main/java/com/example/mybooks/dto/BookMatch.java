@@ -0,0 +1,65 @@
+package com.example.mybooks.dto;
+
+/**
+ * Fuzzy search result: a book, the field that matched best (title or author) and its
+ * trigram similarity to the query, from 0 to 1
+ */
+public class BookMatch {
+
+    private Long id;
+    private String title;
+    private String author;
+    private String matchedField;
+    private double similarity;
+
+    public BookMatch() {}
+
+    public BookMatch(Long id, String title, String author, String matchedField, double similarity) {
+        this.id = id;
+        this.title = title;
+        this.author = author;
+        this.matchedField = matchedField;
+        this.similarity = similarity;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public void setAuthor(String author) {
+        this.author = author;
+    }
+
+    public String getMatchedField() {
+        return matchedField;
+    }
+
+    public void setMatchedField(String matchedField) {
+        this.matchedField = matchedField;
+    }
+
+    public double getSimilarity() {
+        return similarity;
+    }
+
+    public void setSimilarity(double similarity) {
+        this.similarity = similarity;
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.mybooks.dto;
+
+import com.example.mybooks.model.Book;
+import com.example.mybooks.model.ReadingStatus;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.time.LocalDateTime;
+
+/**
+ * Read model for books. Exposes the owner only as userId, so serializing it
+ * never touches the lazy Book.user association.
+ */
+public class BookResponse {
+
+    private Long id;
+    private String title;
+    private String author;
+    private String isbn;
+    private Integer publicationYear;
+    private String genre;
+    private ReadingStatus readingStatus;
+    private Integer rating;
+    private String notes;
+    private Long userId;
+    private LocalDateTime createdAt;
+
+    // Sent as the ETag header rather than in the body
+    @JsonIgnore
+    private Long version;
+
+    public BookResponse() {}
+
+    public BookResponse(Book book) {
+        this.id = book.getId();
+        this.title = book.getTitle();
+        this.author = book.getAuthor();
+        this.isbn = book.getIsbn();
+        this.publicationYear = book.getPublicationYear();
+        this.genre = book.getGenre();
+        this.readingStatus = book.getReadingStatus();
+        this.rating = book.getRating();
+        this.notes = book.getNotes();
+        this.userId = book.getUser().getId();
+        this.createdAt = book.getCreatedAt();
+        this.version = book.getVersion();
+    }
+
+    /**
+     * Used by JPQL constructor expressions in BookRepository and for RETURNING rows in BookRepositoryCustomImpl
+     */
+    public BookResponse(Long id, String title, String author, String isbn, Integer publicationYear,
+                        String genre, ReadingStatus readingStatus, Integer rating, String notes,
+                        Long userId, LocalDateTime createdAt, Long version) {
+        this.id = id;
+        this.title = title;
+        this.author = author;
+        this.isbn = isbn;
+        this.publicationYear = publicationYear;
+        this.genre = genre;
+        this.readingStatus = readingStatus;
+        this.rating = rating;
+        this.notes = notes;
+        this.userId = userId;
+        this.createdAt = createdAt;
+        this.version = version;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public void setAuthor(String author) {
+        this.author = author;
+    }
+
+    public String getIsbn() {
+        return isbn;
+    }
+
+    public void setIsbn(String isbn) {
+        this.isbn = isbn;
+    }
+
+    public Integer getPublicationYear() {
+        return publicationYear;
+    }
+
+    public void setPublicationYear(Integer publicationYear) {
+        this.publicationYear = publicationYear;
+    }
+
+    public String getGenre() {
+        return genre;
+    }
+
+    public void setGenre(String genre) {
+        this.genre = genre;
+    }
+
+    public ReadingStatus getReadingStatus() {
+        return readingStatus;
+    }
+
+    public void setReadingStatus(ReadingStatus readingStatus) {
+        this.readingStatus = readingStatus;
+    }
+
+    public Integer getRating() {
+        return rating;
+    }
+
+    public void setRating(Integer rating) {
+        this.rating = rating;
+    }
+
+    public String getNotes() {
+        return notes;
+    }
+
+    public void setNotes(String notes) {
+        this.notes = notes;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.mybooks.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Sort options for paginated book listings.
+ * Every option breaks ties by id, so the order is total and cursors are stable.
+ * ID (insertion order) is the default.
+ */
+public enum BookSort {
+    ID("id", "id", Long.class, false),
+    TITLE("title", "title", String.class, false),
+    AUTHOR("author", "author", String.class, false),
+    CREATED_AT("created_at", "createdAt", LocalDateTime.class, true),
+    RATING("rating", "rating", Integer.class, true),
+    PUBLICATION_YEAR("publication_year", "publicationYear", Integer.class, true);
+
+    private final String param;
+    private final String attribute;
+    private final Class<?> valueType;
+    private final boolean nullable;
+
+    BookSort(String param, String attribute, Class<?> valueType, boolean nullable) {
+        this.param = param;
+        this.attribute = attribute;
+        this.valueType = valueType;
+        this.nullable = nullable;
+    }
+
+    public static BookSort fromParam(String param) {
+        for (BookSort sort : values()) {
+            if (sort.param.equalsIgnoreCase(param)) {
+                return sort;
+            }
+        }
+        throw new IllegalArgumentException(
+                "Invalid sort: " + param + " (allowed: id, title, author, created_at, rating, publication_year)");
+    }
+
+    public String getParam() {
+        return param;
+    }
+
+    /**
+     * Book entity attribute the sort is applied to
+     */
+    public String getAttribute() {
+        return attribute;
+    }
+
+    public boolean isNullable() {
+        return nullable;
+    }
+
+    /**
+     * Parse a cursor value written with String.valueOf
+     */
+    public Object parseValue(String value) {
+        if (valueType == Long.class) {
+            return Long.valueOf(value);
+        }
+        if (valueType == Integer.class) {
+            return Integer.valueOf(value);
+        }
+        if (valueType == LocalDateTime.class) {
+            return LocalDateTime.parse(value);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.mybooks.dto;
+
+import java.util.Map;
+
+/**
+ * Library statistics of one user (GET /api/books/stats)
+ */
+public class BookStatsResponse {
+
+    private long total;
+    private Double averageRating;
+    private long ratedCount;
+    private Map<String, Long> byStatus;
+    private Map<String, Long> byGenre;
+    private Map<Integer, Long> byYear;
+
+    public BookStatsResponse() {}
+
+    // Getters and Setters
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public Double getAverageRating() {
+        return averageRating;
+    }
+
+    public void setAverageRating(Double averageRating) {
+        this.averageRating = averageRating;
+    }
+
+    public long getRatedCount() {
+        return ratedCount;
+    }
+
+    public void setRatedCount(long ratedCount) {
+        this.ratedCount = ratedCount;
+    }
+
+    public Map<String, Long> getByStatus() {
+        return byStatus;
+    }
+
+    public void setByStatus(Map<String, Long> byStatus) {
+        this.byStatus = byStatus;
+    }
+
+    public Map<String, Long> getByGenre() {
+        return byGenre;
+    }
+
+    public void setByGenre(Map<String, Long> byGenre) {
+        this.byGenre = byGenre;
+    }
+
+    public Map<Integer, Long> getByYear() {
+        return byYear;
+    }
+
+    public void setByYear(Map<Integer, Long> byYear) {
+        this.byYear = byYear;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.mybooks.dto;
+
+/**
+ * Typeahead suggestion: a title, author or genre of the user's books and the number of
+ * books it occurs in
+ */
+public class BookSuggestion {
+
+    private String text;
+    private String type;
+    private int count;
+
+    public BookSuggestion() {}
+
+    public BookSuggestion(String text, String type, int count) {
+        this.text = text;
+        this.type = type;
+        this.count = count;
+    }
+
+    // Getters and Setters
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.mybooks.dto;
+
+import com.example.mybooks.model.ReadingStatus;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Selects a set of the user's books for a bulk operation.
+ * The selectors are combined with AND; at least one of ids, status or genre is required.
+ */
+public class BulkBookRequest {
+
+    @Size(max = 1000, message = "At most 1000 ids per request")
+    private List<Long> ids;
+
+    private ReadingStatus status;
+
+    @Size(max = 100, message = "Genre must not exceed 100 characters")
+    private String genre;
+
+    // New value for bulk-update
+    private ReadingStatus readingStatus;
+
+    public BulkBookRequest() {}
+
+    public boolean hasSelector() {
+        return (ids != null && !ids.isEmpty()) || status != null || genre != null;
+    }
+
+    // Getters and Setters
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public ReadingStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ReadingStatus status) {
+        this.status = status;
+    }
+
+    public String getGenre() {
+        return genre;
+    }
+
+    public void setGenre(String genre) {
+        this.genre = genre;
+    }
+
+    public ReadingStatus getReadingStatus() {
+        return readingStatus;
+    }
+
+    public void setReadingStatus(ReadingStatus readingStatus) {
+        this.readingStatus = readingStatus;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.mybooks.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bibliographic data for an ISBN from the local dump; title, author and year may be missing
+ */
+public class IsbnMetadata {
+
+    private String isbn;
+    private String title;
+    private String author;
+    private Integer publicationYear;
+
+    public IsbnMetadata() {}
+
+    public IsbnMetadata(String isbn, String title, String author, Integer publicationYear) {
+        this.isbn = isbn;
+        this.title = title;
+        this.author = author;
+        this.publicationYear = publicationYear;
+    }
+
+    // Getters and Setters
+    public String getIsbn() {
+        return isbn;
+    }
+
+    public void setIsbn(String isbn) {
+        this.isbn = isbn;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public void setAuthor(String author) {
+        this.author = author;
+    }
+
+    public Integer getPublicationYear() {
+        return publicationYear;
+    }
+
+    public void setPublicationYear(Integer publicationYear) {
+        this.publicationYear = publicationYear;
+    }
+
+    /**
+     * Names of the fields the dump has no value for, so clients can ask the user for them
+     */
+    public List<String> getMissingFields() {
+        List<String> missing = new ArrayList<>();
+        if (title == null) {
+            missing.add("title");
+        }
+        if (author == null) {
+            missing.add("author");
+        }
+        if (publicationYear == null) {
+            missing.add("publicationYear");
+        }
+        return missing;
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.mybooks.dto;
 
 import com.example.mybooks.model.Note;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.time.LocalDateTime;
 
 public class NoteResponse {
@@ -12,6 +13,10 @@ public class NoteResponse {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
+    // Sent as the ETag header rather than in the body
+    @JsonIgnore
+    private Long version;
+
     public NoteResponse() {}
 
     public NoteResponse(Note note) {
@@ -21,6 +26,21 @@ public class NoteResponse {
         this.userId = note.getUser().getId();
         this.createdAt = note.getCreatedAt();
         this.updatedAt = note.getUpdatedAt();
+        this.version = note.getVersion();
+    }
+
+    /**
+     * Used for RETURNING rows in NoteRepositoryCustomImpl
+     */
+    public NoteResponse(Long id, String title, String content, Long userId,
+                        LocalDateTime createdAt, LocalDateTime updatedAt, Long version) {
+        this.id = id;
+        this.title = title;
+        this.content = content;
+        this.userId = userId;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.version = version;
     }
 
     // Getters and Setters
@@ -71,4 +91,12 @@ public class NoteResponse {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
-}
\ No newline at end of file
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.mybooks.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One full-text search result. The snippet shows the best matching passage with the
+ * matched terms wrapped in [ and ]; a lower score is a better match (SQLite bm25).
+ * author is only set for books.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SearchHit {
+
+    private Long id;
+    private String title;
+    private String author;
+    private String snippet;
+    private double score;
+
+    public SearchHit() {}
+
+    public SearchHit(Long id, String title, String author, String snippet, double score) {
+        this.id = id;
+        this.title = title;
+        this.author = author;
+        this.snippet = snippet;
+        this.score = score;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public void setAuthor(String author) {
+        this.author = author;
+    }
+
+    public String getSnippet() {
+        return snippet;
+    }
+
+    public void setSnippet(String snippet) {
+        this.snippet = snippet;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.mybooks.dto;
+
+/**
+ * Where to put a book on a shelf: right after afterBookId, right before beforeBookId,
+ * or at the end when neither is given. At most one may be set.
+ */
+public class ShelfPlacement {
+
+    private Long afterBookId;
+    private Long beforeBookId;
+
+    public ShelfPlacement() {}
+
+    public ShelfPlacement(Long afterBookId, Long beforeBookId) {
+        this.afterBookId = afterBookId;
+        this.beforeBookId = beforeBookId;
+    }
+
+    // Getters and Setters
+    public Long getAfterBookId() {
+        return afterBookId;
+    }
+
+    public void setAfterBookId(Long afterBookId) {
+        this.afterBookId = afterBookId;
+    }
+
+    public Long getBeforeBookId() {
+        return beforeBookId;
+    }
+
+    public void setBeforeBookId(Long beforeBookId) {
+        this.beforeBookId = beforeBookId;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.mybooks.dto;
+
+/**
+ * A shelf of the user and the number of books on it
+ */
+public class ShelfResponse {
+
+    private Long id;
+    private String name;
+    private long bookCount;
+
+    public ShelfResponse() {}
+
+    public ShelfResponse(Long id, String name, long bookCount) {
+        this.id = id;
+        this.name = name;
+        this.bookCount = bookCount;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getBookCount() {
+        return bookCount;
+    }
+
+    public void setBookCount(long bookCount) {
+        this.bookCount = bookCount;
+    }
+}
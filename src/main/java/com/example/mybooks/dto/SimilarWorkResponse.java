@@ -0,0 +1,75 @@
+package com.example.mybooks.dto;
+
+/**
+ * A work recommended next to a book, with its precomputed similarity score
+ */
+public class SimilarWorkResponse {
+
+    private Long id;
+    private String title;
+    private String author;
+    private Integer publicationYear;
+    private String genre;
+    private double score;
+
+    public SimilarWorkResponse() {}
+
+    public SimilarWorkResponse(Long id, String title, String author, Integer publicationYear, String genre,
+                               double score) {
+        this.id = id;
+        this.title = title;
+        this.author = author;
+        this.publicationYear = publicationYear;
+        this.genre = genre;
+        this.score = score;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public void setAuthor(String author) {
+        this.author = author;
+    }
+
+    public Integer getPublicationYear() {
+        return publicationYear;
+    }
+
+    public void setPublicationYear(Integer publicationYear) {
+        this.publicationYear = publicationYear;
+    }
+
+    public String getGenre() {
+        return genre;
+    }
+
+    public void setGenre(String genre) {
+        this.genre = genre;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
+    }
+}
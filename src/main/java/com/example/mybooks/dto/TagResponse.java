@@ -0,0 +1,34 @@
+package com.example.mybooks.dto;
+
+/**
+ * A tag of the user and the number of books carrying it
+ */
+public class TagResponse {
+
+    private String name;
+    private int bookCount;
+
+    public TagResponse() {}
+
+    public TagResponse(String name, int bookCount) {
+        this.name = name;
+        this.bookCount = bookCount;
+    }
+
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getBookCount() {
+        return bookCount;
+    }
+
+    public void setBookCount(int bookCount) {
+        this.bookCount = bookCount;
+    }
+}
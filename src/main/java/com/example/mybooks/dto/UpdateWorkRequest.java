@@ -0,0 +1,59 @@
+package com.example.mybooks.dto;
+
+import jakarta.validation.constraints.*;
+
+/**
+ * Corrected catalog metadata of a work; the work's key (ISBN, or title and author as first added) stays
+ */
+public class UpdateWorkRequest {
+
+    @NotBlank(message = "Title is required")
+    @Size(min = 1, max = 255, message = "Title must be between 1 and 255 characters")
+    private String title;
+
+    @NotBlank(message = "Author is required")
+    @Size(min = 1, max = 255, message = "Author must be between 1 and 255 characters")
+    private String author;
+
+    @Min(value = 1000, message = "Publication year must be at least 1000")
+    @Max(value = 2100, message = "Publication year cannot be greater than 2100")
+    private Integer publicationYear;
+
+    @Size(max = 100, message = "Genre must not exceed 100 characters")
+    private String genre;
+
+    public UpdateWorkRequest() {}
+
+    // Getters and Setters
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public void setAuthor(String author) {
+        this.author = author;
+    }
+
+    public Integer getPublicationYear() {
+        return publicationYear;
+    }
+
+    public void setPublicationYear(Integer publicationYear) {
+        this.publicationYear = publicationYear;
+    }
+
+    public String getGenre() {
+        return genre;
+    }
+
+    public void setGenre(String genre) {
+        this.genre = genre;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.mybooks.dto;
+
+import com.example.mybooks.model.Work;
+
+/**
+ * Catalog metadata of a work, e.g. to prefill a new book
+ */
+public class WorkResponse {
+
+    private Long id;
+    private String isbn;
+    private String title;
+    private String author;
+    private Integer publicationYear;
+    private String genre;
+
+    public WorkResponse() {}
+
+    public WorkResponse(Work work) {
+        this.id = work.getId();
+        this.isbn = work.getIsbn();
+        this.title = work.getTitle();
+        this.author = work.getAuthor();
+        this.publicationYear = work.getPublicationYear();
+        this.genre = work.getGenre();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getIsbn() {
+        return isbn;
+    }
+
+    public void setIsbn(String isbn) {
+        this.isbn = isbn;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public void setAuthor(String author) {
+        this.author = author;
+    }
+
+    public Integer getPublicationYear() {
+        return publicationYear;
+    }
+
+    public void setPublicationYear(Integer publicationYear) {
+        this.publicationYear = publicationYear;
+    }
+
+    public String getGenre() {
+        return genre;
+    }
+
+    public void setGenre(String genre) {
+        this.genre = genre;
+    }
+}
@@ -3,6 +3,7 @@ package com.example.mybooks.exception;
 import com.example.mybooks.service.SecurityLogger;
 import com.example.mybooks.util.IpUtil;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -169,6 +170,23 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
     }
 
+    /**
+     * Handle stale If-Match versions (412) and lost updates on versioned entities (409)
+     */
+    @ExceptionHandler({PreconditionFailedException.class, OptimisticLockingFailureException.class})
+    public ResponseEntity<Map<String, Object>> handleVersionConflict(RuntimeException ex) {
+        HttpStatus status = ex instanceof PreconditionFailedException
+                ? HttpStatus.PRECONDITION_FAILED
+                : HttpStatus.CONFLICT;
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", "Resource was modified concurrently");
+        response.put("timestamp", System.currentTimeMillis());
+
+        return ResponseEntity.status(status).body(response);
+    }
+
     /**
      * Generic exception handler (500 Internal Server Error)
      */
@@ -0,0 +1,11 @@
+package com.example.mybooks.exception;
+
+/**
+ * The resource changed since the version named in If-Match (HTTP 412)
+ */
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
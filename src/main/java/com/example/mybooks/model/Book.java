@@ -1,14 +1,16 @@
 package com.example.mybooks.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import java.time.LocalDateTime;
 
 @Entity
+@DynamicUpdate
 @Table(name = "books")
 public class Book {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId(table = "books")
     private Long id;
 
     @Column(nullable = false)
@@ -40,6 +42,15 @@ public class Book {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
+    // Shared catalog entry for title, author and ISBN (see WorkService); null until linked
+    @Column(name = "work_id")
+    private Long workId;
+
+    // Incremented on every write, including the native single-statement updates; the ETag is derived from it
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     public Book() {
         this.createdAt = LocalDateTime.now();
     }
@@ -139,4 +150,20 @@ public class Book {
     public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
     }
-}
\ No newline at end of file
+
+    public Long getWorkId() {
+        return workId;
+    }
+
+    public void setWorkId(Long workId) {
+        this.workId = workId;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.mybooks.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * One counter row of a user's library statistics: the number of books (and the sum and count
+ * of their ratings) in a bucket of a dimension, e.g. ("status", "READING") or ("year", "1984").
+ * The "total" dimension has a single "" bucket.
+ *
+ * Rows are maintained with delta upserts by BookStatsRepository in the same transaction as the
+ * book write; a bucket whose count dropped to 0 keeps its row until the next rebuild.
+ */
+@Entity
+@Table(name = "book_stats")
+public class BookStat {
+
+    public static final String TOTAL = "total";
+    public static final String STATUS = "status";
+    public static final String GENRE = "genre";
+    public static final String YEAR = "year";
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(name = "book_count", nullable = false)
+    private long bookCount;
+
+    @Column(name = "rating_sum", nullable = false)
+    private long ratingSum;
+
+    @Column(name = "rating_count", nullable = false)
+    private long ratingCount;
+
+    public BookStat() {
+    }
+
+    // Getters and Setters
+    public Key getId() {
+        return id;
+    }
+
+    public void setId(Key id) {
+        this.id = id;
+    }
+
+    public long getBookCount() {
+        return bookCount;
+    }
+
+    public void setBookCount(long bookCount) {
+        this.bookCount = bookCount;
+    }
+
+    public long getRatingSum() {
+        return ratingSum;
+    }
+
+    public void setRatingSum(long ratingSum) {
+        this.ratingSum = ratingSum;
+    }
+
+    public long getRatingCount() {
+        return ratingCount;
+    }
+
+    public void setRatingCount(long ratingCount) {
+        this.ratingCount = ratingCount;
+    }
+
+    @Embeddable
+    public static class Key implements Serializable {
+
+        @Column(name = "user_id", nullable = false)
+        private Long userId;
+
+        @Column(nullable = false)
+        private String dimension;
+
+        @Column(nullable = false)
+        private String bucket;
+
+        public Key() {
+        }
+
+        public Key(Long userId, String dimension, String bucket) {
+            this.userId = userId;
+            this.dimension = dimension;
+            this.bucket = bucket;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public String getDimension() {
+            return dimension;
+        }
+
+        public String getBucket() {
+            return bucket;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key key)) {
+                return false;
+            }
+            return Objects.equals(userId, key.userId)
+                    && Objects.equals(dimension, key.dimension)
+                    && Objects.equals(bucket, key.bucket);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, dimension, bucket);
+        }
+    }
+}
@@ -1,16 +1,18 @@
 package com.example.mybooks.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import java.time.LocalDateTime;
 
 @Entity
+@DynamicUpdate
 @Table(name = "notes")
 public class Note {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId(table = "notes")
     private Long id;
 
     @NotBlank(message = "Title is required")
@@ -36,6 +38,11 @@ public class Note {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Incremented on every write, including the native single-statement updates; the ETag is derived from it
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     public Note() {
         this.createdAt = LocalDateTime.now();
         this.updatedAt = LocalDateTime.now();
@@ -110,4 +117,12 @@ public class Note {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
-}
\ No newline at end of file
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
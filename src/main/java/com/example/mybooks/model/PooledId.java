@@ -0,0 +1,29 @@
+package com.example.mybooks.model;
+
+import com.example.mybooks.repository.PooledIdGenerator;
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Assigns ids from a block reserved in the id_sequences table instead of using
+ * SQLite rowid/IDENTITY, so Hibernate knows ids before INSERT and can batch inserts.
+ */
+@IdGeneratorType(PooledIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface PooledId {
+
+    /**
+     * Table whose id column the sequence feeds (also the sequence name)
+     */
+    String table();
+
+    /**
+     * Number of ids reserved per round trip to id_sequences
+     */
+    int allocationSize() default 50;
+}
@@ -8,7 +8,7 @@ import java.time.LocalDateTime;
 public class RefreshToken {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId(table = "refresh_tokens")
     private Long id;
 
     @Column(nullable = false, unique = true)
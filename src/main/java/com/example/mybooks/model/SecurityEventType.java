@@ -0,0 +1,42 @@
+package com.example.mybooks.model;
+
+/**
+ * Security event types recorded by SecurityLogger.
+ *
+ * The numeric code is what gets written to the binary event segments,
+ * so existing codes must never be changed or reused.
+ */
+public enum SecurityEventType {
+    FAILED_LOGIN(1),
+    SUCCESSFUL_LOGIN(2),
+    LOGOUT(3),
+    UNAUTHORIZED_ACCESS(4),
+    FORBIDDEN_ACCESS(5),
+    SUSPICIOUS_ACTIVITY(6),
+    REPEATED_INVALID_INPUT(7),
+    SQL_INJECTION_ATTEMPT(8),
+    XSS_ATTEMPT(9),
+    RATE_LIMIT_EXCEEDED(10),
+    TOKEN_REFRESH(11),
+    EXPIRED_TOKEN_USAGE(12),
+    INVALID_TOKEN_USAGE(13);
+
+    private final int code;
+
+    SecurityEventType(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public static SecurityEventType fromCode(int code) {
+        for (SecurityEventType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown security event code: " + code);
+    }
+}
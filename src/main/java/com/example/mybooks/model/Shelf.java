@@ -0,0 +1,71 @@
+package com.example.mybooks.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A user-defined, manually ordered list of books. Its items live in shelf_items, ordered
+ * by fractional keys (OrderKeys) and written natively by ShelfRepository.
+ */
+@Entity
+@Table(name = "shelves")
+public class Shelf {
+
+    @Id
+    @PooledId(table = "shelves")
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    public Shelf() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public Shelf(User user, String name) {
+        this.user = user;
+        this.name = name;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
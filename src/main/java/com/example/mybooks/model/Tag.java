@@ -0,0 +1,57 @@
+package com.example.mybooks.model;
+
+import jakarta.persistence.*;
+
+/**
+ * A user's label for books ("favorites", "book-club-2026"). Names are unique per user and
+ * stored lower case. Links to books live in book_tags, written natively by TagRepository;
+ * set queries over them are answered from memory by TagIndex.
+ */
+@Entity
+@Table(name = "tags")
+public class Tag {
+
+    @Id
+    @PooledId(table = "tags")
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(nullable = false)
+    private String name;
+
+    public Tag() {
+    }
+
+    public Tag(User user, String name) {
+        this.user = user;
+        this.name = name;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.mybooks.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Catalog entry shared by every user's copy of the same book, identified by workKey.
+ * Inserted natively by WorkRepository (ids from AUTOINCREMENT) with the metadata of the
+ * first copy seen; WorkService.correct may fix the metadata later, never the key.
+ */
+@Entity
+@Table(name = "works")
+public class Work {
+
+    @Id
+    private Long id;
+
+    @Column(name = "work_key", nullable = false, unique = true)
+    private String workKey;
+
+    private String isbn;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(nullable = false)
+    private String author;
+
+    @Column(name = "publication_year")
+    private Integer publicationYear;
+
+    private String genre;
+
+    public Work() {
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getWorkKey() {
+        return workKey;
+    }
+
+    public void setWorkKey(String workKey) {
+        this.workKey = workKey;
+    }
+
+    public String getIsbn() {
+        return isbn;
+    }
+
+    public void setIsbn(String isbn) {
+        this.isbn = isbn;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public void setAuthor(String author) {
+        this.author = author;
+    }
+
+    public Integer getPublicationYear() {
+        return publicationYear;
+    }
+
+    public void setPublicationYear(Integer publicationYear) {
+        this.publicationYear = publicationYear;
+    }
+
+    public String getGenre() {
+        return genre;
+    }
+
+    public void setGenre(String genre) {
+        this.genre = genre;
+    }
+}
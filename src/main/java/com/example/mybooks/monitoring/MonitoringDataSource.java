@@ -0,0 +1,176 @@
+package com.example.mybooks.monitoring;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * DataSource wrapper that times every JDBC statement execution.
+ *
+ * Sits below Hibernate, so it sees JPQL, derived queries and native queries alike.
+ * Executions are reported to the current RequestMetricsContext, any open QueryCapture
+ * and, once registered, the SlowQueryLog (with the bound parameters). Result sets are
+ * wrapped too: SQLite computes rows as they are fetched, so time spent in next() also
+ * counts towards the request's JDBC stage.
+ */
+public class MonitoringDataSource extends DelegatingDataSource {
+
+    private volatile SlowQueryLog slowQueryLog;
+
+    public MonitoringDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    void setSlowQueryLog(SlowQueryLog slowQueryLog) {
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                MonitoringDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new ConnectionHandler(connection));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = MonitoringDataSource.invoke(target, method, args);
+
+            if (result instanceof Statement statement) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+                Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                        : statement instanceof PreparedStatement ? PreparedStatement.class
+                        : Statement.class;
+
+                return Proxy.newProxyInstance(
+                        MonitoringDataSource.class.getClassLoader(),
+                        new Class<?>[]{type},
+                        new StatementHandler(target, statement, sql));
+            }
+            return result;
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Connection connection;
+        private final Statement target;
+        private final String preparedSql;
+        private final Map<Integer, Object> parameters = new TreeMap<>();
+
+        StatementHandler(Connection connection, Statement target, String preparedSql) {
+            this.connection = connection;
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (!name.startsWith("execute")) {
+                // setString(1, ...), setLong(2, ...), setNull(3, type)
+                if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                    parameters.put(index, name.equals("setNull") ? null : args[1]);
+                } else if (name.equals("clearParameters")) {
+                    parameters.clear();
+                }
+                return wrapResultSet(proxy, MonitoringDataSource.invoke(target, method, args));
+            }
+
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : preparedSql;
+            long start = System.nanoTime();
+            boolean failed = true;
+            try {
+                Object result = wrapResultSet(proxy, MonitoringDataSource.invoke(target, method, args));
+                failed = false;
+                return result;
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                RequestMetricsContext.recordQuery(sql, elapsed);
+                QueryCapture.record(sql);
+
+                SlowQueryLog log = slowQueryLog;
+                if (log != null) {
+                    log.record(connection, sql, parameters, elapsed, failed);
+                }
+            }
+        }
+    }
+
+    // executeQuery, getResultSet and getGeneratedKeys; anything else is passed through
+    private static Object wrapResultSet(Object statement, Object result) {
+        if (!(result instanceof ResultSet resultSet)) {
+            return result;
+        }
+        return Proxy.newProxyInstance(
+                MonitoringDataSource.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class},
+                new ResultSetHandler(statement, resultSet));
+    }
+
+    private static final class ResultSetHandler implements InvocationHandler {
+
+        private final Object statement;
+        private final ResultSet target;
+
+        ResultSetHandler(Object statement, ResultSet target) {
+            this.statement = statement;
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("getStatement")) {
+                return statement;
+            }
+            if (!name.equals("next")) {
+                return MonitoringDataSource.invoke(target, method, args);
+            }
+            long start = System.nanoTime();
+            try {
+                return MonitoringDataSource.invoke(target, method, args);
+            } finally {
+                RequestMetricsContext.recordStage(RequestMetricsContext.Stage.JDBC, System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.mybooks.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the number of JDBC statements a request issued with its budget.
+ *
+ * Budgets are keyed by "METHOD route template" and fall back to a default:
+ *
+ *   query.budget.default=10
+ *   query.budget.endpoints=GET /api/books=3,GET /api/books/{id}=3
+ *
+ * An exceeded budget is logged with the captured SQL. Statement shapes that repeat
+ * (same SQL with different literals) are called out, since that is what an N+1 looks like.
+ */
+@Component
+public class QueryBudgetChecker {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryBudgetChecker.class);
+
+    // A shape executed this often within one request is reported as a likely N+1
+    private static final int REPEATED_SHAPE_THRESHOLD = 3;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int defaultBudget;
+    private final Map<String, Integer> endpointBudgets;
+
+    public QueryBudgetChecker(
+            MeterRegistry meterRegistry,
+            @Value("${query.budget.enabled:true}") boolean enabled,
+            @Value("${query.budget.default:10}") int defaultBudget,
+            @Value("${query.budget.endpoints:}") String endpoints) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.defaultBudget = defaultBudget;
+        this.endpointBudgets = parseBudgets(endpoints);
+    }
+
+    public int budgetFor(String method, String route) {
+        return endpointBudgets.getOrDefault(method + " " + route, defaultBudget);
+    }
+
+    /**
+     * Warn if the request issued more statements than its endpoint allows
+     */
+    public void check(String method, String route, RequestMetricsContext context) {
+        if (!enabled || "STATIC".equals(route)) {
+            return;
+        }
+
+        int budget = budgetFor(method, route);
+        int count = context.getQueryCount();
+        if (count <= budget) {
+            return;
+        }
+
+        meterRegistry.counter("mybooks.query.budget.exceeded", "route", method + " " + route).increment();
+
+        List<String> statements = context.getStatements();
+        StringBuilder message = new StringBuilder();
+        message.append("Query budget exceeded: ").append(method).append(' ').append(route)
+                .append(" issued ").append(count).append(" statements (budget ").append(budget).append(')');
+
+        repeatedShapes(statements).forEach((shape, times) ->
+                message.append("\n  possible N+1 (").append(times).append("x): ").append(shape));
+
+        message.append("\n  statements");
+        if (statements.size() < count) {
+            message.append(" (first ").append(statements.size()).append(')');
+        }
+        message.append(':');
+        for (String sql : statements) {
+            message.append("\n    ").append(sql);
+        }
+
+        logger.warn(message.toString());
+    }
+
+    static Map<String, Integer> repeatedShapes(List<String> statements) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (String sql : statements) {
+            counts.merge(SqlShape.of(sql), 1, Integer::sum);
+        }
+        counts.values().removeIf(times -> times < REPEATED_SHAPE_THRESHOLD);
+        return counts;
+    }
+
+    private static Map<String, Integer> parseBudgets(String endpoints) {
+        Map<String, Integer> budgets = new HashMap<>();
+        if (endpoints == null || endpoints.isBlank()) {
+            return budgets;
+        }
+        for (String entry : endpoints.split(",")) {
+            int separator = entry.lastIndexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Invalid query budget entry: " + entry);
+            }
+            String endpoint = WHITESPACE.matcher(entry.substring(0, separator).trim()).replaceAll(" ");
+            budgets.put(endpoint, Integer.parseInt(entry.substring(separator + 1).trim()));
+        }
+        return budgets;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.mybooks.monitoring;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Records every JDBC statement executed on the current thread while open.
+ *
+ * Independent of RequestMetricsContext, so it also spans several MockMvc
+ * requests or code that runs outside a request:
+ *
+ *   try (QueryCapture capture = QueryCapture.start()) {
+ *       mockMvc.perform(get("/api/books"));
+ *       assertTrue(capture.getCount() <= 3);
+ *   }
+ */
+public final class QueryCapture implements AutoCloseable {
+
+    private static final ThreadLocal<QueryCapture> CURRENT = new ThreadLocal<>();
+
+    private final List<String> statements = new ArrayList<>();
+    private final QueryCapture previous;
+
+    private QueryCapture(QueryCapture previous) {
+        this.previous = previous;
+    }
+
+    public static QueryCapture start() {
+        QueryCapture capture = new QueryCapture(CURRENT.get());
+        CURRENT.set(capture);
+        return capture;
+    }
+
+    static void record(String sql) {
+        for (QueryCapture capture = CURRENT.get(); capture != null; capture = capture.previous) {
+            capture.statements.add(sql != null ? sql : "<unknown>");
+        }
+    }
+
+    public int getCount() {
+        return statements.size();
+    }
+
+    public List<String> getStatements() {
+        return Collections.unmodifiableList(statements);
+    }
+
+    @Override
+    public void close() {
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+    }
+}
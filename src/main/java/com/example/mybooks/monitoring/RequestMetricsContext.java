@@ -0,0 +1,97 @@
+package com.example.mybooks.monitoring;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-request timing and query accounting.
+ *
+ * Bound to the request thread by RequestMetricsFilter. Code outside a request
+ * (scheduled jobs, startup) sees no context and all recording calls are no-ops.
+ */
+public final class RequestMetricsContext {
+
+    /**
+     * Parts of a request that time is attributed to.
+     * JDBC time overlaps with whichever stage issued the statement.
+     */
+    public enum Stage {
+        RATE_LIMITER,
+        JWT_AUTH,
+        JDBC,
+        SERIALIZATION
+    }
+
+    private static final ThreadLocal<RequestMetricsContext> CURRENT = new ThreadLocal<>();
+
+    // Enough to show an N+1 pattern without holding on to thousands of strings
+    private static final int MAX_CAPTURED_STATEMENTS = 50;
+
+    private final long startNanos = System.nanoTime();
+    private final Map<Stage, Long> stageNanos = new EnumMap<>(Stage.class);
+    private int queryCount;
+    private final List<String> statements = new ArrayList<>();
+
+    private RequestMetricsContext() {
+    }
+
+    static RequestMetricsContext begin() {
+        RequestMetricsContext context = new RequestMetricsContext();
+        CURRENT.set(context);
+        return context;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    public static RequestMetricsContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Attribute elapsed time to a stage of the current request (no-op outside a request)
+     */
+    public static void recordStage(Stage stage, long nanos) {
+        RequestMetricsContext context = CURRENT.get();
+        if (context != null) {
+            context.stageNanos.merge(stage, nanos, Long::sum);
+        }
+    }
+
+    /**
+     * Count one executed JDBC statement against the current request (no-op outside a request)
+     */
+    public static void recordQuery(String sql, long nanos) {
+        RequestMetricsContext context = CURRENT.get();
+        if (context != null) {
+            context.queryCount++;
+            if (context.statements.size() < MAX_CAPTURED_STATEMENTS) {
+                context.statements.add(sql != null ? sql : "<unknown>");
+            }
+            context.stageNanos.merge(Stage.JDBC, nanos, Long::sum);
+        }
+    }
+
+    public long getElapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    public long getStageNanos(Stage stage) {
+        return stageNanos.getOrDefault(stage, 0L);
+    }
+
+    public int getQueryCount() {
+        return queryCount;
+    }
+
+    /**
+     * SQL of the first statements executed by this request (capped)
+     */
+    public List<String> getStatements() {
+        return Collections.unmodifiableList(statements);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.mybooks.monitoring;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Outermost filter: opens a RequestMetricsContext for the request and records
+ * the result under the matched route template (e.g. /api/books/{id}), so that
+ * path variables do not explode the number of series. The same route is used
+ * to look up the request's query budget.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    private final RequestMetricsRegistry registry;
+    private final QueryBudgetChecker queryBudgetChecker;
+
+    public RequestMetricsFilter(RequestMetricsRegistry registry, QueryBudgetChecker queryBudgetChecker) {
+        this.registry = registry;
+        this.queryBudgetChecker = queryBudgetChecker;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+
+        RequestMetricsContext context = RequestMetricsContext.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            try {
+                String route = routeOf(request);
+                registry.record(request.getMethod(), route, response.getStatus(), context);
+                queryBudgetChecker.check(request.getMethod(), route, context);
+            } finally {
+                RequestMetricsContext.end();
+            }
+        }
+    }
+
+    private static String routeOf(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern != null) {
+            return pattern.toString();
+        }
+        // Rejected before reaching a handler (401/403/429) or a static resource
+        return request.getRequestURI().startsWith("/api/") ? "UNMATCHED" : "STATIC";
+    }
+}
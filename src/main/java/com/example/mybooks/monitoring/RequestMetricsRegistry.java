@@ -0,0 +1,99 @@
+package com.example.mybooks.monitoring;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * HDR latency histograms per (method, route template, status).
+ *
+ * Values are recorded in microseconds with 2 significant digits, which keeps each
+ * auto-resizing histogram at a few KB while staying within 1% of the true value.
+ */
+@Component
+public class RequestMetricsRegistry {
+
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private final Map<String, RouteMetrics> routes = new ConcurrentHashMap<>();
+
+    public void record(String method, String route, int status, RequestMetricsContext context) {
+        String key = method + " " + route + " " + status;
+        RouteMetrics metrics = routes.computeIfAbsent(key, k -> new RouteMetrics(method, route, status));
+
+        metrics.total.recordValue(toMicros(context.getElapsedNanos()));
+        metrics.queries.recordValue(context.getQueryCount());
+        for (RequestMetricsContext.Stage stage : RequestMetricsContext.Stage.values()) {
+            metrics.stages.get(stage).recordValue(toMicros(context.getStageNanos(stage)));
+        }
+    }
+
+    /**
+     * Snapshot of all routes, slowest p99 first
+     */
+    public List<Map<String, Object>> snapshot() {
+        List<RouteMetrics> sorted = new ArrayList<>(routes.values());
+        sorted.sort(Comparator.comparingLong((RouteMetrics m) -> m.total.getValueAtPercentile(99.0)).reversed());
+
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (RouteMetrics metrics : sorted) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("method", metrics.method);
+            entry.put("route", metrics.route);
+            entry.put("status", metrics.status);
+            entry.put("count", metrics.total.getTotalCount());
+            entry.put("latencyMs", percentiles(metrics.total, 1000.0));
+
+            Map<String, Object> stages = new LinkedHashMap<>();
+            for (RequestMetricsContext.Stage stage : RequestMetricsContext.Stage.values()) {
+                stages.put(stage.name(), percentiles(metrics.stages.get(stage), 1000.0));
+            }
+            entry.put("stagesMs", stages);
+            entry.put("queriesPerRequest", percentiles(metrics.queries, 1.0));
+
+            result.add(entry);
+        }
+        return result;
+    }
+
+    public void reset() {
+        routes.clear();
+    }
+
+    private static Map<String, Object> percentiles(Histogram histogram, double divisor) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("p50", histogram.getValueAtPercentile(50.0) / divisor);
+        values.put("p95", histogram.getValueAtPercentile(95.0) / divisor);
+        values.put("p99", histogram.getValueAtPercentile(99.0) / divisor);
+        values.put("max", histogram.getMaxValue() / divisor);
+        values.put("mean", Math.round(histogram.getMean() / divisor * 1000.0) / 1000.0);
+        return values;
+    }
+
+    private static long toMicros(long nanos) {
+        return Math.max(0, nanos / 1000);
+    }
+
+    private static final class RouteMetrics {
+
+        final String method;
+        final String route;
+        final int status;
+
+        final Histogram total = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+        final Histogram queries = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+        final Map<RequestMetricsContext.Stage, Histogram> stages = new EnumMap<>(RequestMetricsContext.Stage.class);
+
+        RouteMetrics(String method, String route, int status) {
+            this.method = method;
+            this.route = route;
+            this.status = status;
+            for (RequestMetricsContext.Stage stage : RequestMetricsContext.Stage.values()) {
+                stages.put(stage, new ConcurrentHistogram(SIGNIFICANT_DIGITS));
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.mybooks.monitoring;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Logs JDBC statements slower than a threshold and aggregates them per SQL shape.
+ *
+ * The first time a shape turns up slow, its plan is captured with EXPLAIN QUERY PLAN
+ * on the same connection, and plans that read a whole table (e.g. LOWER(title) LIKE ...)
+ * are flagged. Statements that failed are counted but not explained. Parameter values are
+ * never logged: a string is reduced to its length, anything else to its type, since ids
+ * and numbers can be just as identifying as text.
+ */
+@Component
+public class SlowQueryLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlowQueryLog.class);
+
+    // Bound the number of distinct shapes so a flood of ad-hoc SQL cannot grow the map forever
+    private static final int MAX_SHAPES = 500;
+
+    // "SCAN notes" / "SCAN TABLE notes AS n1_0"; "SCAN ... USING INDEX" is not a table scan
+    private static final Pattern FULL_SCAN = Pattern.compile("^SCAN (TABLE )?\\S+( AS \\S+)?$");
+    private static final Pattern EXPLAINABLE = Pattern.compile("^\\s*(SELECT|WITH|UPDATE|DELETE)\\b",
+            Pattern.CASE_INSENSITIVE);
+
+    private final boolean enabled;
+    private final long thresholdNanos;
+    private final Map<String, SlowStatement> statements = new ConcurrentHashMap<>();
+
+    public SlowQueryLog(
+            DataSource dataSource,
+            @Value("${slow.query.enabled:true}") boolean enabled,
+            @Value("${slow.query.threshold-ms:100}") long thresholdMs) {
+        this.enabled = enabled;
+        this.thresholdNanos = thresholdMs * 1_000_000L;
+        if (dataSource instanceof MonitoringDataSource monitoringDataSource) {
+            monitoringDataSource.setSlowQueryLog(this);
+        }
+    }
+
+    /**
+     * Called for every executed statement; ignores those under the threshold
+     */
+    void record(Connection connection, String sql, Map<Integer, Object> parameters, long nanos, boolean failed) {
+        if (!enabled || sql == null || nanos < thresholdNanos) {
+            return;
+        }
+
+        String shape = SqlShape.of(sql);
+        SlowStatement statement = statements.get(shape);
+        if (statement == null) {
+            if (statements.size() >= MAX_SHAPES) {
+                return;
+            }
+            SlowStatement created = new SlowStatement(shape);
+            SlowStatement existing = statements.putIfAbsent(shape, created);
+            statement = existing != null ? existing : created;
+        }
+
+        String redacted = redact(parameters);
+        statement.record(nanos, redacted);
+
+        // One thread per shape runs EXPLAIN, and only for a statement that actually ran
+        if (!failed && statement.explainClaimed.compareAndSet(false, true)) {
+            List<String> plan = explain(connection, sql);
+            statement.fullScan = plan.stream().anyMatch(line -> FULL_SCAN.matcher(line).matches());
+            statement.plan = plan;
+            logger.warn("Slow query ({} ms): {} params={} plan={}{}",
+                    nanos / 1_000_000, sql, redacted, plan, statement.fullScan ? " [FULL TABLE SCAN]" : "");
+        } else {
+            logger.warn("Slow {}query ({} ms): {} params={}", failed ? "failed " : "",
+                    nanos / 1_000_000, sql, redacted);
+        }
+    }
+
+    /**
+     * Slow statement shapes, highest total time first
+     */
+    public List<Map<String, Object>> snapshot(int limit) {
+        List<SlowStatement> sorted = new ArrayList<>(statements.values());
+        sorted.sort(Comparator.comparingLong((SlowStatement s) -> s.totalNanos.get()).reversed());
+
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (SlowStatement statement : sorted.subList(0, Math.min(limit, sorted.size()))) {
+            long count = statement.count.get();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("sql", statement.shape);
+            entry.put("count", count);
+            entry.put("totalMs", statement.totalNanos.get() / 1_000_000.0);
+            entry.put("avgMs", count == 0 ? 0.0 : statement.totalNanos.get() / 1_000_000.0 / count);
+            entry.put("maxMs", statement.maxNanos.get() / 1_000_000.0);
+            entry.put("lastParameters", statement.lastParameters);
+            entry.put("lastSeen", statement.lastSeen);
+            entry.put("fullTableScan", statement.fullScan);
+            entry.put("plan", statement.plan != null ? statement.plan : List.of());
+            result.add(entry);
+        }
+        return result;
+    }
+
+    public void reset() {
+        statements.clear();
+    }
+
+    private static List<String> explain(Connection connection, String sql) {
+        if (!EXPLAINABLE.matcher(sql).find()) {
+            return List.of();
+        }
+        try {
+            if (!connection.getMetaData().getDatabaseProductName().contains("SQLite")) {
+                return List.of();
+            }
+            List<String> plan = new ArrayList<>();
+            try (Statement explain = connection.createStatement();
+                 ResultSet rs = explain.executeQuery("EXPLAIN QUERY PLAN " + sql)) {
+                while (rs.next()) {
+                    plan.add(rs.getString("detail"));
+                }
+            }
+            return plan;
+        } catch (SQLException e) {
+            return List.of("unavailable: " + e.getMessage());
+        }
+    }
+
+    static String redact(Map<Integer, Object> parameters) {
+        if (parameters == null || parameters.isEmpty()) {
+            return "[]";
+        }
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        for (Object value : parameters.values()) {
+            if (value == null) {
+                joiner.add("null");
+            } else if (value instanceof CharSequence text) {
+                joiner.add("<string:" + text.length() + ">");
+            } else {
+                joiner.add("<" + value.getClass().getSimpleName() + ">");
+            }
+        }
+        return joiner.toString();
+    }
+
+    private static final class SlowStatement {
+        final String shape;
+        final AtomicLong count = new AtomicLong();
+        final AtomicLong totalNanos = new AtomicLong();
+        final AtomicLong maxNanos = new AtomicLong();
+        final AtomicBoolean explainClaimed = new AtomicBoolean();
+        volatile String lastParameters;
+        volatile Instant lastSeen;
+        volatile List<String> plan;
+        volatile boolean fullScan;
+
+        SlowStatement(String shape) {
+            this.shape = shape;
+        }
+
+        void record(long nanos, String parameters) {
+            count.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            lastParameters = parameters;
+            lastSeen = Instant.now();
+        }
+    }
+}
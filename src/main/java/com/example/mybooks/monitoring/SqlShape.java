@@ -0,0 +1,25 @@
+package com.example.mybooks.monitoring;
+
+import java.util.regex.Pattern;
+
+/**
+ * Normalizes SQL text so statements that differ only in literals group together
+ */
+final class SqlShape {
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+\\b");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private SqlShape() {
+    }
+
+    /**
+     * SQL with literals replaced by '?' and whitespace collapsed
+     */
+    static String of(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+}
@@ -1,18 +1,77 @@
 package com.example.mybooks.repository;
 
+import com.example.mybooks.dto.BookResponse;
 import com.example.mybooks.model.Book;
 import com.example.mybooks.model.ReadingStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, BookRepositoryCustom {
 
-    List<Book> findByUserId(Long userId);
+    // Read-side projection: selects the book columns and user_id only, without managed entities
+    String SELECT_BOOK_RESPONSE = "SELECT new com.example.mybooks.dto.BookResponse("
+            + "b.id, b.title, b.author, b.isbn, b.publicationYear, b.genre, b.readingStatus, "
+            + "b.rating, b.notes, b.user.id, b.createdAt, b.version) FROM Book b";
 
-    List<Book> findByUserIdAndReadingStatus(Long userId, ReadingStatus status);
+    @Query(SELECT_BOOK_RESPONSE + " WHERE b.user.id = :userId")
+    List<BookResponse> findResponsesByUserId(@Param("userId") Long userId);
 
-    List<Book> findByUserIdAndGenre(Long userId, String genre);
-}
\ No newline at end of file
+    // Indexed values for typeahead: id, title, author, genre
+    @Query("SELECT b.id, b.title, b.author, b.genre FROM Book b WHERE b.user.id = :userId")
+    List<Object[]> findSuggestionSourcesByUserId(@Param("userId") Long userId);
+
+    @Query(SELECT_BOOK_RESPONSE + " WHERE b.user.id = :userId AND b.readingStatus = :status")
+    List<BookResponse> findResponsesByUserIdAndReadingStatus(@Param("userId") Long userId,
+                                                             @Param("status") ReadingStatus status);
+
+    @Query(SELECT_BOOK_RESPONSE + " WHERE b.user.id = :userId AND b.genre = :genre")
+    List<BookResponse> findResponsesByUserIdAndGenre(@Param("userId") Long userId, @Param("genre") String genre);
+
+    // Forward-only cursor for exports; must be consumed inside a transaction and closed
+    @Query(SELECT_BOOK_RESPONSE + " WHERE b.user.id = :userId ORDER BY b.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<BookResponse> streamResponsesByUserId(@Param("userId") Long userId);
+
+    // Books not linked to a work yet (see WorkBackfillService): id, isbn, title, author, year, genre
+    @Query("SELECT b.id, b.isbn, b.title, b.author, b.publicationYear, b.genre FROM Book b "
+            + "WHERE b.workId IS NULL ORDER BY b.id")
+    List<Object[]> findUnlinkedWorkSources(Pageable pageable);
+
+    // Derived from title, author and ISBN, so it leaves the version alone; a no-op if already linked
+    @Modifying
+    @Query(value = "UPDATE books SET work_id = :workId WHERE id = :id AND work_id IS NOT :workId", nativeQuery = true)
+    int linkWork(@Param("id") Long id, @Param("workId") Long workId);
+
+    // Ids come from TagIndex; the user check keeps a stale index from exposing other users' books
+    @Query(SELECT_BOOK_RESPONSE + " WHERE b.id IN :ids AND b.user.id = :userId ORDER BY b.id")
+    List<BookResponse> findResponsesByIdInAndUserId(@Param("ids") List<Long> ids, @Param("userId") Long userId);
+
+    @Query(SELECT_BOOK_RESPONSE + " WHERE b.id = :id")
+    Optional<BookResponse> findResponseById(@Param("id") Long id);
+
+    @Query(SELECT_BOOK_RESPONSE)
+    List<BookResponse> findAllResponses();
+
+    // Ownership is checked by the statement itself; 0 means missing or not owned
+    @Modifying
+    @Query("DELETE FROM Book b WHERE b.id = :id AND b.user.id = :userId")
+    int deleteOwned(@Param("id") Long id, @Param("userId") Long userId);
+
+    // As deleteOwned, but only if the stored version is one of the If-Match versions
+    @Modifying
+    @Query("DELETE FROM Book b WHERE b.id = :id AND b.user.id = :userId AND b.version IN :versions")
+    int deleteOwnedIfVersion(@Param("id") Long id, @Param("userId") Long userId,
+                             @Param("versions") List<Long> versions);
+}
@@ -0,0 +1,69 @@
+package com.example.mybooks.repository;
+
+import com.example.mybooks.dto.BookResponse;
+import com.example.mybooks.dto.BookSort;
+import com.example.mybooks.dto.CreateBookRequest;
+import com.example.mybooks.dto.SearchHit;
+import com.example.mybooks.model.Book;
+import com.example.mybooks.model.ReadingStatus;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Keyset (seek) pagination, full-text search and set-based / ownership-checked writes for books
+ */
+public interface BookRepositoryCustom {
+
+    /**
+     * Position after the last row of the previous page
+     */
+    record Keyset(Object value, Long id) {
+    }
+
+    /**
+     * Up to limit books matching filter that come after the given keyset
+     * (or from the start when null), ordered by sort then id
+     */
+    List<Book> findKeysetPage(Specification<Book> filter, BookSort sort, boolean descending, Keyset after, int limit);
+
+    /**
+     * Set-based write selection: the owner plus optional ids, status and genre (ANDed)
+     */
+    record Selection(Long userId, List<Long> ids, ReadingStatus status, String genre) {
+    }
+
+    /**
+     * Single UPDATE of reading_status over the selection; returns the affected row count
+     */
+    int updateReadingStatus(Selection selection, ReadingStatus newStatus);
+
+    /**
+     * Single DELETE over the selection; returns the affected row count
+     */
+    int deleteSelection(Selection selection);
+
+    /**
+     * Overwrite the book's fields with one UPDATE ... WHERE id = ? AND user_id = ? RETURNING.
+     * With ifMatchVersions (null for none) the stored version must also be one of them.
+     * Empty if the book does not exist, belongs to another user or has another version.
+     */
+    Optional<BookResponse> updateOwned(Long bookId, Long userId, CreateBookRequest changes,
+                                       List<Long> ifMatchVersions);
+
+    /**
+     * Write only the given properties (CreateBookRequest names), and only if one of them differs
+     * from the stored value. Empty if nothing was written: missing, not owned, version not in
+     * ifMatchVersions (null for no check), or a no-op patch.
+     */
+    Optional<BookResponse> patchOwned(Long bookId, Long userId, Map<String, Object> changes,
+                                      List<Long> ifMatchVersions);
+
+    /**
+     * Up to limit of the user's books matching the FTS5 query, best first (by score, then id),
+     * skipping the first offset
+     */
+    List<SearchHit> search(Long userId, String match, int offset, int limit);
+}
@@ -0,0 +1,277 @@
+package com.example.mybooks.repository;
+
+import com.example.mybooks.dto.BookResponse;
+import com.example.mybooks.dto.BookSort;
+import com.example.mybooks.dto.CreateBookRequest;
+import com.example.mybooks.dto.SearchHit;
+import com.example.mybooks.model.Book;
+import com.example.mybooks.model.ReadingStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.*;
+import org.hibernate.query.NativeQuery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+
+/**
+ * Each page is a range scan on a (user_id, sort column) index: the seek predicate
+ * "col >= :value AND (col > :value OR id > :id)" gives SQLite a lower bound, and
+ * ORDER BY col, id matches the index order (rowid is the implicit last index column).
+ *
+ * Nullable sort columns are walked as two segments, because NULL cannot be compared:
+ * SQLite sorts NULL first, so ascending is [NULLs, values] and descending is [values, NULLs].
+ */
+public class BookRepositoryCustomImpl implements BookRepositoryCustom {
+
+    private static final String RETURNING_BOOK = " RETURNING id, title, author, isbn, publication_year, genre, "
+            + "reading_status, rating, notes, user_id, created_at, version";
+
+    // A null readingStatus keeps the current one, matching the old load-and-save update
+    private static final String UPDATE_OWNED_BOOK = "UPDATE books SET title = :title, author = :author, "
+            + "isbn = :isbn, publication_year = :publicationYear, genre = :genre, "
+            + "reading_status = COALESCE(:readingStatus, reading_status), rating = :rating, notes = :notes, "
+            + "version = version + 1 WHERE id = :id AND user_id = :userId";
+
+    // Appended when the client sent If-Match; the version check happens in the same statement
+    private static final String IF_VERSION = " AND version IN (:versions)";
+
+    // Patchable properties and their columns; also the whitelist for the dynamic SET clause
+    private static final Map<String, String> PATCH_COLUMNS = Map.of(
+            "title", "title",
+            "author", "author",
+            "isbn", "isbn",
+            "publicationYear", "publication_year",
+            "genre", "genre",
+            "readingStatus", "reading_status",
+            "rating", "rating",
+            "notes", "notes");
+
+    private static final FullTextSearch FULL_TEXT = new FullTextSearch(
+            "books_fts", "books", "t.title, t.author", "title author notes", "10.0, 5.0, 1.0", Book.class);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<SearchHit> search(Long userId, String match, int offset, int limit) {
+        return FULL_TEXT.search(entityManager, userId, match, offset, limit);
+    }
+
+    @Override
+    public List<Book> findKeysetPage(Specification<Book> filter, BookSort sort, boolean descending,
+                                     Keyset after, int limit) {
+        boolean nullsFirst = sort.isNullable() && !descending;
+        boolean nullsLast = sort.isNullable() && descending;
+
+        List<Book> page = new ArrayList<>();
+        boolean inNullSegment = after != null ? after.value() == null : nullsFirst;
+
+        if (inNullSegment) {
+            page.addAll(findNullSegment(filter, sort, descending, after, limit));
+            if (page.size() < limit && nullsFirst) {
+                page.addAll(findValueSegment(filter, sort, descending, null, limit - page.size()));
+            }
+        } else {
+            page.addAll(findValueSegment(filter, sort, descending, after, limit));
+            if (page.size() < limit && nullsLast) {
+                page.addAll(findNullSegment(filter, sort, descending, null, limit - page.size()));
+            }
+        }
+        return page;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private List<Book> findValueSegment(Specification<Book> filter, BookSort sort, boolean descending,
+                                        Keyset after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Book> query = cb.createQuery(Book.class);
+        Root<Book> root = query.from(Book.class);
+        Path<Comparable> column = root.get(sort.getAttribute());
+        Path<Long> id = root.get("id");
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(filter.toPredicate(root, query, cb));
+        if (sort.isNullable()) {
+            predicates.add(cb.isNotNull(column));
+        }
+        if (after != null) {
+            Comparable value = (Comparable) after.value();
+            if (descending) {
+                predicates.add(cb.lessThanOrEqualTo(column, value));
+                predicates.add(cb.or(cb.lessThan(column, value), cb.lessThan(id, after.id())));
+            } else {
+                predicates.add(cb.greaterThanOrEqualTo(column, value));
+                predicates.add(cb.or(cb.greaterThan(column, value), cb.greaterThan(id, after.id())));
+            }
+        }
+
+        query.where(predicates.toArray(new Predicate[0]));
+        query.orderBy(descending
+                ? List.of(cb.desc(column), cb.desc(id))
+                : List.of(cb.asc(column), cb.asc(id)));
+
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    private List<Book> findNullSegment(Specification<Book> filter, BookSort sort, boolean descending,
+                                       Keyset after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Book> query = cb.createQuery(Book.class);
+        Root<Book> root = query.from(Book.class);
+        Path<Long> id = root.get("id");
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(filter.toPredicate(root, query, cb));
+        predicates.add(cb.isNull(root.get(sort.getAttribute())));
+        if (after != null) {
+            predicates.add(descending ? cb.lessThan(id, after.id()) : cb.greaterThan(id, after.id()));
+        }
+
+        query.where(predicates.toArray(new Predicate[0]));
+        query.orderBy(descending ? cb.desc(id) : cb.asc(id));
+
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public int updateReadingStatus(Selection selection, ReadingStatus newStatus) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Book> update = cb.createCriteriaUpdate(Book.class);
+        Root<Book> root = update.from(Book.class);
+        update.set(root.<ReadingStatus>get("readingStatus"), newStatus);
+        update.set(root.<Long>get("version"), cb.sum(root.<Long>get("version"), 1L));
+        update.where(selectionPredicates(cb, root, selection));
+        // Bulk statements bypass the persistence context; write pending inserts first
+        entityManager.flush();
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    @Override
+    public int deleteSelection(Selection selection) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaDelete<Book> delete = cb.createCriteriaDelete(Book.class);
+        Root<Book> root = delete.from(Book.class);
+        delete.where(selectionPredicates(cb, root, selection));
+        entityManager.flush();
+        return entityManager.createQuery(delete).executeUpdate();
+    }
+
+    // Ownership is always part of the WHERE clause, so foreign ids are simply not matched
+    private static Predicate[] selectionPredicates(CriteriaBuilder cb, Root<Book> root, Selection selection) {
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(root.get("user").get("id"), selection.userId()));
+        if (selection.ids() != null && !selection.ids().isEmpty()) {
+            predicates.add(root.get("id").in(selection.ids()));
+        }
+        if (selection.status() != null) {
+            predicates.add(cb.equal(root.get("readingStatus"), selection.status()));
+        }
+        if (selection.genre() != null) {
+            predicates.add(cb.equal(root.get("genre"), selection.genre()));
+        }
+        return predicates.toArray(new Predicate[0]);
+    }
+
+    @Override
+    public Optional<BookResponse> updateOwned(Long bookId, Long userId, CreateBookRequest changes,
+                                              List<Long> ifMatchVersions) {
+        String sql = UPDATE_OWNED_BOOK + (ifMatchVersions != null ? IF_VERSION : "") + RETURNING_BOOK;
+        NativeQuery<Tuple> query = returningBook(sql);
+        query.setParameter("title", changes.getTitle());
+        query.setParameter("author", changes.getAuthor());
+        query.setParameter("isbn", changes.getIsbn(), String.class);
+        query.setParameter("publicationYear", changes.getPublicationYear(), Integer.class);
+        query.setParameter("genre", changes.getGenre(), String.class);
+        query.setParameter("readingStatus",
+                changes.getReadingStatus() != null ? changes.getReadingStatus().name() : null, String.class);
+        query.setParameter("rating", changes.getRating(), Integer.class);
+        query.setParameter("notes", changes.getNotes(), String.class);
+        query.setParameter("id", bookId);
+        query.setParameter("userId", userId);
+        if (ifMatchVersions != null) {
+            query.setParameterList("versions", ifMatchVersions);
+        }
+
+        // RETURNING makes the UPDATE produce a result set, so it runs as a query
+        return query.getResultList().stream().map(BookRepositoryCustomImpl::toBookResponse).findFirst();
+    }
+
+    // A books statement ending in RETURNING_BOOK, with the returned columns typed for toBookResponse
+    @SuppressWarnings("unchecked")
+    private NativeQuery<Tuple> returningBook(String sql) {
+        NativeQuery<Tuple> query = entityManager.createNativeQuery(sql, Tuple.class).unwrap(NativeQuery.class);
+        query.addSynchronizedEntityClass(Book.class);
+        query.addScalar("id", Long.class);
+        query.addScalar("title", String.class);
+        query.addScalar("author", String.class);
+        query.addScalar("isbn", String.class);
+        query.addScalar("publication_year", Integer.class);
+        query.addScalar("genre", String.class);
+        query.addScalar("reading_status", String.class);
+        query.addScalar("rating", Integer.class);
+        query.addScalar("notes", String.class);
+        query.addScalar("user_id", Long.class);
+        query.addScalar("created_at", LocalDateTime.class);
+        query.addScalar("version", Long.class);
+        return query;
+    }
+
+    private static BookResponse toBookResponse(Tuple row) {
+        String readingStatus = row.get("reading_status", String.class);
+        return new BookResponse(row.get("id", Long.class), row.get("title", String.class),
+                row.get("author", String.class), row.get("isbn", String.class),
+                row.get("publication_year", Integer.class), row.get("genre", String.class),
+                readingStatus != null ? ReadingStatus.valueOf(readingStatus) : null, row.get("rating", Integer.class),
+                row.get("notes", String.class), row.get("user_id", Long.class),
+                row.get("created_at", LocalDateTime.class), row.get("version", Long.class));
+    }
+
+    /**
+     * Builds "UPDATE books SET a = :p0, b = :p1 WHERE id = ? AND user_id = ? AND (a IS NOT :p0 OR b IS NOT :p1)".
+     * IS NOT is SQLite's null-safe comparison, so a patch that changes nothing matches no row and
+     * writes nothing (no page write, no trigger).
+     */
+    @Override
+    public Optional<BookResponse> patchOwned(Long bookId, Long userId, Map<String, Object> changes,
+                                             List<Long> ifMatchVersions) {
+        StringJoiner set = new StringJoiner(", ");
+        StringJoiner changed = new StringJoiner(" OR ", "(", ")");
+        List<Object> values = new ArrayList<>();
+        for (Map.Entry<String, Object> change : changes.entrySet()) {
+            String column = PATCH_COLUMNS.get(change.getKey());
+            if (column == null) {
+                throw new IllegalArgumentException("Unknown field: " + change.getKey());
+            }
+            String parameter = ":p" + values.size();
+            set.add(column + " = " + parameter);
+            changed.add(column + " IS NOT " + parameter);
+            values.add(change.getValue() instanceof Enum<?> value ? value.name() : change.getValue());
+        }
+
+        String sql = "UPDATE books SET " + set + ", version = version + 1 WHERE id = :id AND user_id = :userId"
+                + (ifMatchVersions != null ? IF_VERSION : "") + " AND " + changed + RETURNING_BOOK;
+        NativeQuery<Tuple> query = returningBook(sql);
+        for (int i = 0; i < values.size(); i++) {
+            Object value = values.get(i);
+            if (value != null) {
+                query.setParameter("p" + i, value);
+            } else {
+                query.setParameter("p" + i, null, String.class);
+            }
+        }
+        query.setParameter("id", bookId);
+        query.setParameter("userId", userId);
+        if (ifMatchVersions != null) {
+            query.setParameterList("versions", ifMatchVersions);
+        }
+
+        return query.getResultList().stream().map(BookRepositoryCustomImpl::toBookResponse).findFirst();
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.mybooks.repository;
+
+import com.example.mybooks.dto.BookFilter;
+import com.example.mybooks.model.Book;
+import com.example.mybooks.model.ReadingStatus;
+import jakarta.persistence.criteria.Expression;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Composable book predicates. Every query starts from ownedBy, so the (user_id, ...)
+ * composite indexes can serve the remaining criteria.
+ */
+public final class BookSpecifications {
+
+    private BookSpecifications() {
+    }
+
+    public static Specification<Book> ownedBy(Long userId) {
+        return (root, query, cb) -> cb.equal(root.get("user").get("id"), userId);
+    }
+
+    public static Specification<Book> hasStatus(ReadingStatus status) {
+        return (root, query, cb) -> cb.equal(root.get("readingStatus"), status);
+    }
+
+    public static Specification<Book> hasGenre(String genre) {
+        return (root, query, cb) -> cb.equal(root.get("genre"), genre);
+    }
+
+    /**
+     * Inclusive range; a null bound leaves that side open
+     */
+    public static Specification<Book> between(String attribute, Integer min, Integer max) {
+        return (root, query, cb) -> {
+            if (min != null && max != null) {
+                return cb.between(root.get(attribute), min, max);
+            }
+            return min != null
+                    ? cb.greaterThanOrEqualTo(root.get(attribute), min)
+                    : cb.lessThanOrEqualTo(root.get(attribute), max);
+        };
+    }
+
+    /**
+     * Case-insensitive prefix match as lower(author) >= prefix AND lower(author) < next(prefix)
+     * rather than LIKE 'prefix%', so the (user_id, lower(author)) index from V17 serves it as a
+     * range. Like SQLite's lower(), only ASCII letters are folded.
+     */
+    public static Specification<Book> authorStartsWith(String prefix) {
+        String lowerPrefix = lowerAscii(prefix);
+        String upperBound = nextPrefix(lowerPrefix);
+        return (root, query, cb) -> {
+            Expression<String> author = cb.lower(root.get("author"));
+            return upperBound != null
+                    ? cb.and(cb.greaterThanOrEqualTo(author, lowerPrefix), cb.lessThan(author, upperBound))
+                    : cb.greaterThanOrEqualTo(author, lowerPrefix);
+        };
+    }
+
+    private static String lowerAscii(String value) {
+        StringBuilder lower = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            lower.append(c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c);
+        }
+        return lower.toString();
+    }
+
+    /**
+     * Smallest string above every string starting with prefix, in code point order (which is
+     * SQLite's BINARY order over UTF-8); null if there is none
+     */
+    static String nextPrefix(String prefix) {
+        int[] codePoints = prefix.codePoints().toArray();
+        for (int i = codePoints.length - 1; i >= 0; i--) {
+            if (codePoints[i] < Character.MAX_CODE_POINT) {
+                int next = codePoints[i] + 1;
+                // Surrogates are not characters; step over them
+                if (next == Character.MIN_SURROGATE) {
+                    next = Character.MAX_SURROGATE + 1;
+                }
+                return new String(codePoints, 0, i) + Character.toString(next);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The owner's books matching every criterion set in the filter
+     */
+    public static Specification<Book> matching(Long userId, BookFilter filter) {
+        Specification<Book> spec = ownedBy(userId);
+        if (filter == null) {
+            return spec;
+        }
+        if (filter.getStatus() != null) {
+            spec = spec.and(hasStatus(filter.getStatus()));
+        }
+        if (filter.getGenre() != null) {
+            spec = spec.and(hasGenre(filter.getGenre()));
+        }
+        if (filter.getMinRating() != null || filter.getMaxRating() != null) {
+            spec = spec.and(between("rating", filter.getMinRating(), filter.getMaxRating()));
+        }
+        if (filter.getMinYear() != null || filter.getMaxYear() != null) {
+            spec = spec.and(between("publicationYear", filter.getMinYear(), filter.getMaxYear()));
+        }
+        if (filter.getAuthor() != null && !filter.getAuthor().isEmpty()) {
+            spec = spec.and(authorStartsWith(filter.getAuthor()));
+        }
+        return spec;
+    }
+}
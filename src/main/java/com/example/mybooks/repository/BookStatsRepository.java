@@ -0,0 +1,19 @@
+package com.example.mybooks.repository;
+
+import com.example.mybooks.model.BookStat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface BookStatsRepository extends JpaRepository<BookStat, BookStat.Key>, BookStatsRepositoryCustom {
+
+    // JPA Method Query - every counter row of one user (a handful per genre and year)
+    List<BookStat> findByIdUserId(Long userId);
+
+    // Users that have books or counters, i.e. everyone a rebuild may change
+    @Query(value = "SELECT user_id FROM books UNION SELECT user_id FROM book_stats", nativeQuery = true)
+    List<Long> findUserIdsWithStats();
+}
@@ -0,0 +1,69 @@
+package com.example.mybooks.repository;
+
+import com.example.mybooks.dto.BookResponse;
+import com.example.mybooks.dto.CreateBookRequest;
+import com.example.mybooks.model.Book;
+import com.example.mybooks.model.ReadingStatus;
+import com.example.mybooks.repository.BookRepositoryCustom.Selection;
+
+import java.util.List;
+
+/**
+ * Delta maintenance of the book_stats counters.
+ *
+ * Each method is one INSERT ... SELECT ... ON CONFLICT DO UPDATE that derives the deltas from
+ * the affected books rows, so it must run in the same transaction as the book write it
+ * accounts for: after an insert, before an update or delete (it reads the old values and
+ * uses the same WHERE clause as the write, so it matches exactly the rows that will change).
+ * A patch is recorded after it applied, from the values read before it.
+ */
+public interface BookStatsRepositoryCustom {
+
+    /**
+     * Count a newly inserted book
+     */
+    void recordInsert(Long bookId);
+
+    /**
+     * Count books inserted by a bulk import (ids firstId..lastId of the user)
+     */
+    void recordImport(Long userId, long firstId, long lastId);
+
+    /**
+     * Move an owned book from its stored values to those of a full update (see BookRepositoryCustom.updateOwned)
+     */
+    void recordUpdate(Long bookId, Long userId, CreateBookRequest changes, List<Long> ifMatchVersions);
+
+    /**
+     * Move an existing book from its stored values to those of the entity about to be saved.
+     * Reads the row without flushing, so it must run before anything writes the entity's changes.
+     */
+    void recordSave(Book book);
+
+    /**
+     * Move a book patched by BookRepositoryCustom.patchOwned from its values before the patch to
+     * the stored ones. Does nothing if no counted value changed.
+     */
+    void recordPatch(BookResponse before, BookResponse patched);
+
+    /**
+     * Uncount an owned book about to be deleted
+     */
+    void recordDelete(Long bookId, Long userId, List<Long> ifMatchVersions);
+
+    /**
+     * Move the selected books to another reading status
+     */
+    void recordStatusChange(Selection selection, ReadingStatus newStatus);
+
+    /**
+     * Uncount the selected books about to be deleted
+     */
+    void recordSelectionDelete(Selection selection);
+
+    /**
+     * Recompute the user's counters from the books table (drift repair). Counters are only
+     * rewritten when they differ from the recount; returns whether they did.
+     */
+    boolean rebuild(Long userId);
+}
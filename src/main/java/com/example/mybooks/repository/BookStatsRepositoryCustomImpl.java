@@ -0,0 +1,240 @@
+package com.example.mybooks.repository;
+
+import com.example.mybooks.dto.BookResponse;
+import com.example.mybooks.dto.CreateBookRequest;
+import com.example.mybooks.model.Book;
+import com.example.mybooks.model.BookStat;
+import com.example.mybooks.model.ReadingStatus;
+import com.example.mybooks.repository.BookRepositoryCustom.Selection;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.FlushMode;
+import org.hibernate.query.NativeQuery;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Every delta is computed by SQLite from the books rows themselves:
+ *
+ *   INSERT INTO book_stats (...)
+ *   SELECT * FROM (SELECT user_id, 'status', reading_status, -1 * COUNT(*), ... FROM books WHERE ... GROUP BY ...
+ *                  UNION ALL ...) WHERE true
+ *   ON CONFLICT (user_id, dimension, bucket) DO UPDATE SET book_count = book_count + excluded.book_count, ...
+ *
+ * An update subtracts the stored values and adds the new ones (given as parameters) in the same
+ * statement, so a single-book write costs one extra statement whatever it changes.
+ * ("WHERE true" resolves SQLite's parsing ambiguity between ON CONFLICT and a join's ON.)
+ */
+public class BookStatsRepositoryCustomImpl implements BookStatsRepositoryCustom {
+
+    private static final String UPSERT = "INSERT INTO book_stats "
+            + "(user_id, dimension, bucket, book_count, rating_sum, rating_count) SELECT * FROM (";
+
+    private static final String ON_CONFLICT = ") WHERE true ON CONFLICT (user_id, dimension, bucket) DO UPDATE SET "
+            + "book_count = book_count + excluded.book_count, rating_sum = rating_sum + excluded.rating_sum, "
+            + "rating_count = rating_count + excluded.rating_count";
+
+    private static final String OWNED = "id = :id AND user_id = :userId";
+
+    // Same check as BookRepositoryCustomImpl, so the delta matches exactly the rows the write changes
+    private static final String IF_VERSION = " AND version IN (:versions)";
+
+    /**
+     * SQL expressions for the counted values of a book: stored columns or new values
+     */
+    private record Facts(String status, String genre, String year, String rating) {
+    }
+
+    private static final Facts STORED = new Facts(
+            "reading_status", "genre", "CAST(publication_year AS TEXT)", "rating");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void recordInsert(Long bookId) {
+        NativeQuery<?> query = upsert(delta(1, STORED, "id = :id"));
+        query.setParameter("id", bookId);
+        query.executeUpdate();
+    }
+
+    @Override
+    public void recordImport(Long userId, long firstId, long lastId) {
+        NativeQuery<?> query = upsert(delta(1, STORED, "user_id = :userId AND id BETWEEN :firstId AND :lastId"));
+        query.setParameter("userId", userId);
+        query.setParameter("firstId", firstId);
+        query.setParameter("lastId", lastId);
+        query.executeUpdate();
+    }
+
+    @Override
+    public void recordUpdate(Long bookId, Long userId, CreateBookRequest changes, List<Long> ifMatchVersions) {
+        // A null readingStatus keeps the current one, as in updateOwned
+        Facts updated = new Facts("COALESCE(:status, reading_status)", ":genre", "CAST(:year AS TEXT)", ":rating");
+        String where = OWNED + (ifMatchVersions != null ? IF_VERSION : "");
+
+        NativeQuery<?> query = upsert(delta(-1, STORED, where) + " UNION ALL " + delta(1, updated, where));
+        bindOwned(query, bookId, userId, ifMatchVersions);
+        query.setParameter("status",
+                changes.getReadingStatus() != null ? changes.getReadingStatus().name() : null, String.class);
+        query.setParameter("genre", changes.getGenre(), String.class);
+        query.setParameter("year", changes.getPublicationYear(), Integer.class);
+        query.setParameter("rating", changes.getRating(), Integer.class);
+        query.executeUpdate();
+    }
+
+    @Override
+    public void recordSave(Book book) {
+        Facts saved = new Facts(":status", ":genre", "CAST(:year AS TEXT)", ":rating");
+        String where = OWNED;
+        // No flush: a managed entity's pending changes would otherwise be read as the stored values
+        NativeQuery<?> query = entityManager.createNativeQuery(
+                        UPSERT + delta(-1, STORED, where) + " UNION ALL " + delta(1, saved, where) + ON_CONFLICT)
+                .unwrap(NativeQuery.class);
+        query.addSynchronizedEntityClass(BookStat.class);
+        query.setHibernateFlushMode(FlushMode.MANUAL);
+        bindOwned(query, book.getId(), book.getUser().getId(), null);
+        query.setParameter("status", book.getReadingStatus() != null ? book.getReadingStatus().name() : null,
+                String.class);
+        query.setParameter("genre", book.getGenre(), String.class);
+        query.setParameter("year", book.getPublicationYear(), Integer.class);
+        query.setParameter("rating", book.getRating(), Integer.class);
+        query.executeUpdate();
+    }
+
+    @Override
+    public void recordPatch(BookResponse before, BookResponse patched) {
+        if (before.getReadingStatus() == patched.getReadingStatus()
+                && Objects.equals(before.getGenre(), patched.getGenre())
+                && Objects.equals(before.getPublicationYear(), patched.getPublicationYear())
+                && Objects.equals(before.getRating(), patched.getRating())) {
+            // Title, author, isbn or notes only: nothing counted changed
+            return;
+        }
+
+        // The row already holds the patched values; the old ones are parameters
+        Facts previous = new Facts(":status", ":genre", "CAST(:year AS TEXT)", ":rating");
+        NativeQuery<?> query = upsert(delta(-1, previous, OWNED) + " UNION ALL " + delta(1, STORED, OWNED));
+        bindOwned(query, patched.getId(), patched.getUserId(), null);
+        query.setParameter("status", before.getReadingStatus() != null ? before.getReadingStatus().name() : null,
+                String.class);
+        query.setParameter("genre", before.getGenre(), String.class);
+        query.setParameter("year", before.getPublicationYear(), Integer.class);
+        query.setParameter("rating", before.getRating(), Integer.class);
+        query.executeUpdate();
+    }
+
+    @Override
+    public void recordDelete(Long bookId, Long userId, List<Long> ifMatchVersions) {
+        NativeQuery<?> query = upsert(delta(-1, STORED, OWNED + (ifMatchVersions != null ? IF_VERSION : "")));
+        bindOwned(query, bookId, userId, ifMatchVersions);
+        query.executeUpdate();
+    }
+
+    @Override
+    public void recordStatusChange(Selection selection, ReadingStatus newStatus) {
+        // Books already in the new status are not moved
+        String where = selectionWhere(selection) + " AND reading_status IS NOT :status";
+        Facts moved = new Facts(":status", STORED.genre(), STORED.year(), STORED.rating());
+        NativeQuery<?> query = upsert(delta(-1, STORED, where) + " UNION ALL " + delta(1, moved, where));
+        bindSelection(query, selection);
+        query.setParameter("status", newStatus.name());
+        query.executeUpdate();
+    }
+
+    @Override
+    public void recordSelectionDelete(Selection selection) {
+        NativeQuery<?> query = upsert(delta(-1, STORED, selectionWhere(selection)));
+        bindSelection(query, selection);
+        query.executeUpdate();
+    }
+
+    @Override
+    public boolean rebuild(Long userId) {
+        entityManager.flush();
+        // Rows whose count dropped to 0 are invisible to readers and can go either way
+        entityManager.createNativeQuery("DELETE FROM book_stats WHERE user_id = :userId AND book_count = 0")
+                .setParameter("userId", userId)
+                .executeUpdate();
+
+        String recount = "SELECT * FROM (" + delta(1, STORED, "user_id = :userId") + ")";
+        String stored = "SELECT user_id, dimension, bucket, book_count, rating_sum, rating_count "
+                + "FROM book_stats WHERE user_id = :userId";
+        Number drift = (Number) entityManager.createNativeQuery(
+                        "SELECT (SELECT COUNT(*) FROM (" + recount + " EXCEPT " + stored + ")) "
+                                + "+ (SELECT COUNT(*) FROM (" + stored + " EXCEPT " + recount + "))")
+                .setParameter("userId", userId)
+                .getSingleResult();
+        if (drift.longValue() == 0) {
+            return false;
+        }
+
+        entityManager.createNativeQuery("DELETE FROM book_stats WHERE user_id = :userId")
+                .setParameter("userId", userId)
+                .executeUpdate();
+        NativeQuery<?> query = upsert(delta(1, STORED, "user_id = :userId"));
+        query.setParameter("userId", userId);
+        query.executeUpdate();
+        return true;
+    }
+
+    private NativeQuery<?> upsert(String deltas) {
+        // The deltas are read from books: pending book inserts must be written first
+        entityManager.flush();
+        NativeQuery<?> query = entityManager.createNativeQuery(UPSERT + deltas + ON_CONFLICT)
+                .unwrap(NativeQuery.class);
+        query.addSynchronizedEntityClass(BookStat.class);
+        return query;
+    }
+
+    private static String delta(int sign, Facts facts, String where) {
+        return part(sign, BookStat.TOTAL, "''", facts.rating(), where)
+                + " UNION ALL " + part(sign, BookStat.STATUS, facts.status(), facts.rating(), where)
+                + " UNION ALL " + part(sign, BookStat.GENRE, facts.genre(), facts.rating(), where)
+                + " UNION ALL " + part(sign, BookStat.YEAR, facts.year(), facts.rating(), where);
+    }
+
+    // Books without a genre or year are counted in the total only
+    private static String part(int sign, String dimension, String bucket, String rating, String where) {
+        return "SELECT user_id, '" + dimension + "', " + bucket + ", " + sign + " * COUNT(*), "
+                + sign + " * COALESCE(SUM(" + rating + "), 0), " + sign + " * COUNT(" + rating + ")"
+                + " FROM books WHERE " + where + " AND " + bucket + " IS NOT NULL GROUP BY user_id, " + bucket;
+    }
+
+    private static void bindOwned(NativeQuery<?> query, Long bookId, Long userId, List<Long> ifMatchVersions) {
+        query.setParameter("id", bookId);
+        query.setParameter("userId", userId);
+        if (ifMatchVersions != null) {
+            query.setParameterList("versions", ifMatchVersions);
+        }
+    }
+
+    // Native form of BookRepositoryCustomImpl.selectionPredicates
+    private static String selectionWhere(Selection selection) {
+        StringBuilder where = new StringBuilder("user_id = :userId");
+        if (selection.ids() != null && !selection.ids().isEmpty()) {
+            where.append(" AND id IN (:ids)");
+        }
+        if (selection.status() != null) {
+            where.append(" AND reading_status = :selectedStatus");
+        }
+        if (selection.genre() != null) {
+            where.append(" AND genre = :selectedGenre");
+        }
+        return where.toString();
+    }
+
+    private static void bindSelection(NativeQuery<?> query, Selection selection) {
+        query.setParameter("userId", selection.userId());
+        if (selection.ids() != null && !selection.ids().isEmpty()) {
+            query.setParameterList("ids", selection.ids());
+        }
+        if (selection.status() != null) {
+            query.setParameter("selectedStatus", selection.status().name());
+        }
+        if (selection.genre() != null) {
+            query.setParameter("selectedGenre", selection.genre());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.mybooks.repository;
+
+import com.example.mybooks.dto.SearchHit;
+import jakarta.persistence.EntityManager;
+import org.hibernate.query.NativeQuery;
+
+import java.util.List;
+
+/**
+ * Ranked, offset-paginated queries over the FTS5 tables of V11/V16 (books_fts, notes_fts).
+ *
+ * The MATCH is scoped to the owner inside the index: "user_id : 42 AND {text columns} : (...)"
+ * intersects the owner's doclist with the terms', so other users' rows are never scored or
+ * joined, however common the term. The plan is: FTS5 lookup, rowid join, sort by (score, id);
+ * the owner is checked again on the joined row, with a unary + so that the planner does not
+ * start from the content table's user_id index and probe the index once per row instead.
+ * bm25 weights make a hit in the title count more than one in the author, and both more than
+ * one in the body; the user_id column weighs 0. Term rarity (bm25's IDF) still comes from the
+ * whole index, which FTS5 keeps per table, not per owner: any user's write moves every score,
+ * so pages are cut by position in the ranking rather than by a score.
+ */
+final class FullTextSearch {
+
+    private final String sql;
+    private final String textColumns;
+    private final Class<?> entityClass;
+
+    /**
+     * @param columns title, author (or NULL) and id columns of the content table t
+     * @param textColumns the searchable FTS columns, e.g. "title author notes"
+     * @param weights bm25 weights, one per FTS text column
+     */
+    FullTextSearch(String ftsTable, String contentTable, String columns, String textColumns, String weights,
+                   Class<?> entityClass) {
+        String hits = "SELECT t.id AS id, " + columns + ", "
+                + "snippet(" + ftsTable + ", -1, '[', ']', '…', 16) AS snippet, "
+                + "bm25(" + ftsTable + ", " + weights + ", 0.0) AS score "
+                + "FROM " + ftsTable + " JOIN " + contentTable + " t ON t.id = " + ftsTable + ".rowid "
+                + "WHERE " + ftsTable + " MATCH :match AND +t.user_id = :userId";
+        this.sql = hits + " ORDER BY score, id LIMIT :limit OFFSET :offset";
+        this.textColumns = textColumns;
+        this.entityClass = entityClass;
+    }
+
+    List<SearchHit> search(EntityManager entityManager, Long userId, String match, int offset, int limit) {
+        NativeQuery<?> query = entityManager.createNativeQuery(sql).unwrap(NativeQuery.class);
+        // Pending inserts of the content table must be flushed (and so indexed) first
+        query.addSynchronizedEntityClass(entityClass);
+        query.setParameter("match", "user_id : " + userId + " AND {" + textColumns + "} : (" + match + ")");
+        query.setParameter("userId", userId);
+        query.setParameter("limit", limit);
+        query.setParameter("offset", offset);
+
+        return query.getResultList().stream()
+                .map(Object[].class::cast)
+                .map(row -> new SearchHit(((Number) row[0]).longValue(), (String) row[1], (String) row[2],
+                        (String) row[3], ((Number) row[4]).doubleValue()))
+                .toList();
+    }
+}
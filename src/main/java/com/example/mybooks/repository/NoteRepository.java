@@ -2,6 +2,7 @@ package com.example.mybooks.repository;
 
 import com.example.mybooks.model.Note;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -11,7 +12,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface NoteRepository extends JpaRepository<Note, Long> {
+public interface NoteRepository extends JpaRepository<Note, Long>, NoteRepositoryCustom {
 
     // JPA Method Query
     List<Note> findByUserId(Long userId);
@@ -24,11 +25,6 @@ public interface NoteRepository extends JpaRepository<Note, Long> {
             nativeQuery = true)
     List<Note> findRecentNotesByUser(@Param("userId") Long userId, @Param("startDate") String startDate);
 
-    // Raw SQL Query - Search by title (with prepared statement)
-    @Query(value = "SELECT * FROM notes WHERE user_id = :userId AND LOWER(title) LIKE LOWER(:searchTerm) ORDER BY created_at DESC",
-            nativeQuery = true)
-    List<Note> searchNotesByTitle(@Param("userId") Long userId, @Param("searchTerm") String searchTerm);
-
     // JPA Query - Count user's notes
     @Query("SELECT COUNT(n) FROM Note n WHERE n.user.id = :userId")
     Long countByUserId(@Param("userId") Long userId);
@@ -36,4 +32,15 @@ public interface NoteRepository extends JpaRepository<Note, Long> {
     // Raw SQL Query - Delete old notes (admin utility)
     @Query(value = "DELETE FROM notes WHERE created_at < :beforeDate", nativeQuery = true)
     void deleteOldNotes(@Param("beforeDate") String beforeDate);
-}
\ No newline at end of file
+
+    // Ownership is checked by the statement itself; 0 means missing or not owned
+    @Modifying
+    @Query("DELETE FROM Note n WHERE n.id = :id AND n.user.id = :userId")
+    int deleteOwned(@Param("id") Long id, @Param("userId") Long userId);
+
+    // As deleteOwned, but only if the stored version is one of the If-Match versions
+    @Modifying
+    @Query("DELETE FROM Note n WHERE n.id = :id AND n.user.id = :userId AND n.version IN :versions")
+    int deleteOwnedIfVersion(@Param("id") Long id, @Param("userId") Long userId,
+                             @Param("versions") List<Long> versions);
+}
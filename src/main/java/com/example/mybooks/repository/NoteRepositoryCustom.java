@@ -0,0 +1,37 @@
+package com.example.mybooks.repository;
+
+import com.example.mybooks.dto.CreateNoteRequest;
+import com.example.mybooks.dto.NoteResponse;
+import com.example.mybooks.dto.SearchHit;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Ownership-checked writes and full-text search for notes
+ */
+public interface NoteRepositoryCustom {
+
+    /**
+     * Overwrite title and content with one UPDATE ... WHERE id = ? AND user_id = ? RETURNING.
+     * With ifMatchVersions (null for none) the stored version must also be one of them.
+     * Empty if the note does not exist, belongs to another user or has another version.
+     */
+    Optional<NoteResponse> updateOwned(Long noteId, Long userId, CreateNoteRequest changes,
+                                       List<Long> ifMatchVersions);
+
+    /**
+     * Write only the given properties (CreateNoteRequest names), and only if one of them differs
+     * from the stored value. Empty if nothing was written: missing, not owned, version not in
+     * ifMatchVersions (null for no check), or a no-op patch.
+     */
+    Optional<NoteResponse> patchOwned(Long noteId, Long userId, Map<String, Object> changes,
+                                      List<Long> ifMatchVersions);
+
+    /**
+     * Up to limit of the user's notes matching the FTS5 query, best first (by score, then id),
+     * skipping the first offset
+     */
+    List<SearchHit> search(Long userId, String match, int offset, int limit);
+}
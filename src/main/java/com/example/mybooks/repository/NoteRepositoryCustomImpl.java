@@ -0,0 +1,123 @@
+package com.example.mybooks.repository;
+
+import com.example.mybooks.dto.CreateNoteRequest;
+import com.example.mybooks.dto.NoteResponse;
+import com.example.mybooks.dto.SearchHit;
+import com.example.mybooks.model.Note;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import org.hibernate.query.NativeQuery;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+
+public class NoteRepositoryCustomImpl implements NoteRepositoryCustom {
+
+    private static final String RETURNING_NOTE =
+            " RETURNING id, title, content, user_id, created_at, updated_at, version";
+
+    private static final String UPDATE_OWNED_NOTE = "UPDATE notes SET title = :title, content = :content, "
+            + "updated_at = :updatedAt, version = version + 1 WHERE id = :id AND user_id = :userId";
+
+    // Appended when the client sent If-Match; the version check happens in the same statement
+    private static final String IF_VERSION = " AND version IN (:versions)";
+
+    // Patchable properties and their columns; also the whitelist for the dynamic SET clause
+    private static final Map<String, String> PATCH_COLUMNS = Map.of(
+            "title", "title",
+            "content", "content");
+
+    private static final FullTextSearch FULL_TEXT = new FullTextSearch(
+            "notes_fts", "notes", "t.title, NULL", "title content", "10.0, 1.0", Note.class);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<NoteResponse> updateOwned(Long noteId, Long userId, CreateNoteRequest changes,
+                                              List<Long> ifMatchVersions) {
+        String sql = UPDATE_OWNED_NOTE + (ifMatchVersions != null ? IF_VERSION : "") + RETURNING_NOTE;
+        NativeQuery<Tuple> query = returningNote(sql);
+        query.setParameter("title", changes.getTitle());
+        query.setParameter("content", changes.getContent());
+        query.setParameter("updatedAt", LocalDateTime.now());
+        query.setParameter("id", noteId);
+        query.setParameter("userId", userId);
+        if (ifMatchVersions != null) {
+            query.setParameterList("versions", ifMatchVersions);
+        }
+
+        // RETURNING makes the UPDATE produce a result set, so it runs as a query
+        return query.getResultList().stream().map(NoteRepositoryCustomImpl::toNoteResponse).findFirst();
+    }
+
+    /**
+     * Same shape as BookRepositoryCustomImpl.patchOwned; updated_at is only bumped when a
+     * patched column actually changes.
+     */
+    @Override
+    public Optional<NoteResponse> patchOwned(Long noteId, Long userId, Map<String, Object> changes,
+                                             List<Long> ifMatchVersions) {
+        StringJoiner set = new StringJoiner(", ");
+        StringJoiner changed = new StringJoiner(" OR ", "(", ")");
+        List<Object> values = new ArrayList<>();
+        for (Map.Entry<String, Object> change : changes.entrySet()) {
+            String column = PATCH_COLUMNS.get(change.getKey());
+            if (column == null) {
+                throw new IllegalArgumentException("Unknown field: " + change.getKey());
+            }
+            String parameter = ":p" + values.size();
+            set.add(column + " = " + parameter);
+            changed.add(column + " IS NOT " + parameter);
+            values.add(change.getValue());
+        }
+
+        String sql = "UPDATE notes SET " + set + ", updated_at = :updatedAt, version = version + 1 "
+                + "WHERE id = :id AND user_id = :userId" + (ifMatchVersions != null ? IF_VERSION : "")
+                + " AND " + changed + RETURNING_NOTE;
+        NativeQuery<Tuple> query = returningNote(sql);
+        for (int i = 0; i < values.size(); i++) {
+            query.setParameter("p" + i, (String) values.get(i), String.class);
+        }
+        query.setParameter("updatedAt", LocalDateTime.now());
+        query.setParameter("id", noteId);
+        query.setParameter("userId", userId);
+        if (ifMatchVersions != null) {
+            query.setParameterList("versions", ifMatchVersions);
+        }
+
+        return query.getResultList().stream().map(NoteRepositoryCustomImpl::toNoteResponse).findFirst();
+    }
+
+    // A notes statement ending in RETURNING_NOTE, with the returned columns typed for toNoteResponse
+    @SuppressWarnings("unchecked")
+    private NativeQuery<Tuple> returningNote(String sql) {
+        NativeQuery<Tuple> query = entityManager.createNativeQuery(sql, Tuple.class).unwrap(NativeQuery.class);
+        query.addSynchronizedEntityClass(Note.class);
+        query.addScalar("id", Long.class);
+        query.addScalar("title", String.class);
+        query.addScalar("content", String.class);
+        query.addScalar("user_id", Long.class);
+        query.addScalar("created_at", LocalDateTime.class);
+        query.addScalar("updated_at", LocalDateTime.class);
+        query.addScalar("version", Long.class);
+        return query;
+    }
+
+    private static NoteResponse toNoteResponse(Tuple row) {
+        return new NoteResponse(row.get("id", Long.class), row.get("title", String.class),
+                row.get("content", String.class), row.get("user_id", Long.class),
+                row.get("created_at", LocalDateTime.class), row.get("updated_at", LocalDateTime.class),
+                row.get("version", Long.class));
+    }
+
+    @Override
+    public List<SearchHit> search(Long userId, String match, int offset, int limit) {
+        return FULL_TEXT.search(entityManager, userId, match, offset, limit);
+    }
+}
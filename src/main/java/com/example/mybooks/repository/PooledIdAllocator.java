@@ -0,0 +1,135 @@
+package com.example.mybooks.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Hi/lo style id allocation backed by the id_sequences table (one row per table).
+ *
+ * Blocks are reserved on the caller's connection, inside its transaction. A separate
+ * connection (as Hibernate's TableGenerator uses) would wait on SQLite's single writer
+ * lock held by that same transaction. Because the reservation can be rolled back with
+ * the caller's transaction, each reservation starts past the highest id this process
+ * has handed out or still holds in its block, and past MAX(id) of the table, so an id
+ * is never issued twice.
+ *
+ * One allocator per table is shared by Hibernate (PooledIdGenerator) and JDBC
+ * bulk inserts (allocateRange), so both draw from the same sequence.
+ */
+public final class PooledIdAllocator {
+
+    private static final Map<String, PooledIdAllocator> ALLOCATORS = new ConcurrentHashMap<>();
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+    private final String table;
+    private final int allocationSize;
+    private final String reserveSql;
+
+    // Current block [next, limit) and the highest id ever issued; guarded by this
+    private long next;
+    private long limit;
+    private long highestIssued;
+
+    private PooledIdAllocator(String table, int allocationSize) {
+        if (!IDENTIFIER.matcher(table).matches()) {
+            throw new IllegalArgumentException("Invalid table name: " + table);
+        }
+        this.table = table;
+        this.allocationSize = allocationSize;
+        this.reserveSql = "UPDATE id_sequences SET next_val = MAX(next_val, ?, "
+                + "(SELECT COALESCE(MAX(id), 0) + 1 FROM " + table + ")) + ? "
+                + "WHERE name = ? RETURNING next_val";
+    }
+
+    public static PooledIdAllocator forTable(String table, int allocationSize) {
+        return ALLOCATORS.computeIfAbsent(table, t -> new PooledIdAllocator(t, allocationSize));
+    }
+
+    public static PooledIdAllocator forTable(String table) {
+        PooledIdAllocator allocator = ALLOCATORS.get(table);
+        if (allocator == null) {
+            throw new IllegalStateException("No @PooledId entity is mapped to table " + table);
+        }
+        return allocator;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    /**
+     * Next id from the in-memory block, reserving a new block when it runs out
+     */
+    public long nextId(Connection connection) throws SQLException {
+        synchronized (this) {
+            if (next < limit) {
+                return issue(next++);
+            }
+        }
+
+        // Reserve outside the monitor: the UPDATE may wait on SQLite's write lock, and the
+        // transaction holding it may itself be waiting here for an id
+        long start = allocateBlock(connection, allocationSize);
+        synchronized (this) {
+            next = start + 1;
+            limit = start + allocationSize;
+            return issue(start);
+        }
+    }
+
+    /**
+     * Reserve count consecutive ids in one round trip (for JDBC bulk inserts); returns the first
+     */
+    public long allocateRange(Connection connection, int count) throws SQLException {
+        long start = allocateBlock(connection, count);
+        synchronized (this) {
+            issue(start + count - 1);
+        }
+        return start;
+    }
+
+    private long issue(long id) {
+        highestIssued = Math.max(highestIssued, id);
+        return id;
+    }
+
+    private long allocateBlock(Connection connection, int count) throws SQLException {
+        // Past the ids issued and the rest of the current block, whose reservation may have
+        // been rolled back while nextId keeps handing it out
+        long floor;
+        synchronized (this) {
+            floor = Math.max(highestIssued, limit - 1) + 1;
+        }
+
+        Long end = reserve(connection, floor, count);
+        if (end == null) {
+            // First use of this sequence on a database that has no row for it yet
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO id_sequences (name, next_val) VALUES (?, 1) ON CONFLICT (name) DO NOTHING")) {
+                insert.setString(1, table);
+                insert.executeUpdate();
+            }
+            end = reserve(connection, floor, count);
+            if (end == null) {
+                throw new SQLException("Could not reserve ids for " + table);
+            }
+        }
+        return end - count;
+    }
+
+    private Long reserve(Connection connection, long floor, int count) throws SQLException {
+        try (PreparedStatement update = connection.prepareStatement(reserveSql)) {
+            update.setLong(1, floor);
+            update.setInt(2, count);
+            update.setString(3, table);
+            try (ResultSet rs = update.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : null;
+            }
+        }
+    }
+}
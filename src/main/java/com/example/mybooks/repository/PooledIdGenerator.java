@@ -0,0 +1,30 @@
+package com.example.mybooks.repository;
+
+import com.example.mybooks.model.PooledId;
+import org.hibernate.HibernateException;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+import java.sql.SQLException;
+
+/**
+ * Hibernate side of @PooledId: hands out ids from the shared PooledIdAllocator
+ * using the session's own connection, inside the current transaction.
+ */
+public class PooledIdGenerator implements IdentifierGenerator {
+
+    private final PooledIdAllocator allocator;
+
+    public PooledIdGenerator(PooledId config) {
+        this.allocator = PooledIdAllocator.forTable(config.table(), config.allocationSize());
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        try {
+            return allocator.nextId(session.getJdbcCoordinator().getLogicalConnection().getPhysicalConnection());
+        } catch (SQLException e) {
+            throw new HibernateException("Could not allocate id for " + allocator.getTable(), e);
+        }
+    }
+}
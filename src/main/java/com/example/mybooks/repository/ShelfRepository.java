@@ -0,0 +1,64 @@
+package com.example.mybooks.repository;
+
+import com.example.mybooks.model.Shelf;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ShelfRepository extends JpaRepository<Shelf, Long> {
+
+    // JPA Method Query
+    boolean existsByUserIdAndName(Long userId, String name);
+
+    // id, name, number of books; by name
+    @Query(value = "SELECT s.id, s.name, COUNT(si.book_id) FROM shelves s "
+            + "LEFT JOIN shelf_items si ON si.shelf_id = s.id WHERE s.user_id = :userId "
+            + "GROUP BY s.id ORDER BY s.name", nativeQuery = true)
+    List<Object[]> findSummariesByUserId(@Param("userId") Long userId);
+
+    // Book ids in shelf order; SQLite hands back Integer or Long depending on the value
+    @Query(value = "SELECT book_id FROM shelf_items WHERE shelf_id = :shelfId ORDER BY sort_key", nativeQuery = true)
+    List<Number> findBookIds(@Param("shelfId") Long shelfId);
+
+    // Neighbour lookups for placing a book; the book itself is skipped, as it is the one moving
+
+    @Query(value = "SELECT sort_key FROM shelf_items WHERE shelf_id = :shelfId AND book_id = :bookId",
+            nativeQuery = true)
+    String findSortKey(@Param("shelfId") Long shelfId, @Param("bookId") Long bookId);
+
+    @Query(value = "SELECT MIN(sort_key) FROM shelf_items WHERE shelf_id = :shelfId AND sort_key > :sortKey "
+            + "AND book_id <> :bookId", nativeQuery = true)
+    String findNextSortKey(@Param("shelfId") Long shelfId, @Param("sortKey") String sortKey,
+                           @Param("bookId") Long bookId);
+
+    @Query(value = "SELECT MAX(sort_key) FROM shelf_items WHERE shelf_id = :shelfId AND sort_key < :sortKey "
+            + "AND book_id <> :bookId", nativeQuery = true)
+    String findPreviousSortKey(@Param("shelfId") Long shelfId, @Param("sortKey") String sortKey,
+                               @Param("bookId") Long bookId);
+
+    @Query(value = "SELECT MAX(sort_key) FROM shelf_items WHERE shelf_id = :shelfId AND book_id <> :bookId",
+            nativeQuery = true)
+    String findLastSortKey(@Param("shelfId") Long shelfId, @Param("bookId") Long bookId);
+
+    // Adds the book or moves it: one row either way
+    @Modifying
+    @Query(value = "INSERT INTO shelf_items (shelf_id, book_id, sort_key) VALUES (:shelfId, :bookId, :sortKey) "
+            + "ON CONFLICT (shelf_id, book_id) DO UPDATE SET sort_key = excluded.sort_key", nativeQuery = true)
+    void placeBook(@Param("shelfId") Long shelfId, @Param("bookId") Long bookId, @Param("sortKey") String sortKey);
+
+    @Modifying
+    @Query(value = "DELETE FROM shelf_items WHERE shelf_id = :shelfId AND book_id = :bookId", nativeQuery = true)
+    int removeBook(@Param("shelfId") Long shelfId, @Param("bookId") Long bookId);
+
+    @Modifying
+    @Query(value = "DELETE FROM shelf_items WHERE shelf_id = :shelfId", nativeQuery = true)
+    int removeAllBooks(@Param("shelfId") Long shelfId);
+
+    @Query(value = "SELECT DISTINCT shelf_id FROM shelf_items WHERE length(sort_key) > :maxLength", nativeQuery = true)
+    List<Number> findShelfIdsWithSortKeysLongerThan(@Param("maxLength") int maxLength);
+}
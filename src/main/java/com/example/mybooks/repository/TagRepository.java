@@ -0,0 +1,30 @@
+package com.example.mybooks.repository;
+
+import com.example.mybooks.model.Tag;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface TagRepository extends JpaRepository<Tag, Long> {
+
+    // JPA Method Query
+    Optional<Tag> findByUserIdAndName(Long userId, String name);
+
+    // Returns 0 if the book already has the tag
+    @Modifying
+    @Query(value = "INSERT OR IGNORE INTO book_tags (tag_id, book_id) VALUES (:tagId, :bookId)", nativeQuery = true)
+    int addBook(@Param("tagId") Long tagId, @Param("bookId") Long bookId);
+
+    @Modifying
+    @Query(value = "DELETE FROM book_tags WHERE tag_id = :tagId AND book_id = :bookId", nativeQuery = true)
+    int removeBook(@Param("tagId") Long tagId, @Param("bookId") Long bookId);
+
+    @Modifying
+    @Query(value = "DELETE FROM book_tags WHERE tag_id = :tagId", nativeQuery = true)
+    int removeAllBooks(@Param("tagId") Long tagId);
+}
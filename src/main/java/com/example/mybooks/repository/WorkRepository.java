@@ -0,0 +1,42 @@
+package com.example.mybooks.repository;
+
+import com.example.mybooks.model.Work;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WorkRepository extends JpaRepository<Work, Long> {
+
+    // JPA Method Query
+    Optional<Work> findByWorkKey(String workKey);
+
+    // Does nothing if a concurrent transaction inserted the same work first
+    @Modifying
+    @Query(value = "INSERT INTO works (work_key, isbn, title, author, publication_year, genre) "
+            + "VALUES (:workKey, :isbn, :title, :author, :publicationYear, :genre) "
+            + "ON CONFLICT (work_key) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("workKey") String workKey, @Param("isbn") String isbn,
+                       @Param("title") String title, @Param("author") String author,
+                       @Param("publicationYear") Integer publicationYear, @Param("genre") String genre);
+
+    /**
+     * Precomputed neighbours of the book's work, best first, as id, title, author, publication_year,
+     * genre and score; works the user already has are skipped. Empty for a book that is missing or
+     * not the user's as well as for one without neighbours.
+     */
+    @Query(value = "SELECT w.id, w.title, w.author, w.publication_year, w.genre, s.score "
+            + "FROM books b "
+            + "JOIN work_similarities s ON s.work_id = b.work_id "
+            + "JOIN works w ON w.id = s.similar_work_id "
+            + "WHERE b.id = :bookId AND b.user_id = :userId "
+            + "AND NOT EXISTS (SELECT 1 FROM books o WHERE o.work_id = s.similar_work_id AND o.user_id = :userId) "
+            + "ORDER BY s.rank LIMIT :limit", nativeQuery = true)
+    List<Object[]> findSimilarToBook(@Param("bookId") Long bookId, @Param("userId") Long userId,
+                                     @Param("limit") int limit);
+}
@@ -1,7 +1,9 @@
 package com.example.mybooks.security;
 
+import com.example.mybooks.monitoring.RequestMetricsContext;
 import com.example.mybooks.service.SecurityLogger;
 import com.example.mybooks.util.IpUtil;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
@@ -38,71 +40,82 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             HttpServletResponse response,
             FilterChain filterChain) throws ServletException, IOException {
 
-        String jwt = null;
-        String username = null;
+        long start = System.nanoTime();
         String ipAddress = IpUtil.getClientIpAddress(request);
 
         try {
-            // Try to get JWT from Authorization header
-            final String authHeader = request.getHeader("Authorization");
-            if (authHeader != null && authHeader.startsWith("Bearer ")) {
-                jwt = authHeader.substring(7);
+            try {
+                authenticate(request, ipAddress);
+            } finally {
+                // Also on the exception path, so failed authentications are not counted as "other"
+                RequestMetricsContext.recordStage(RequestMetricsContext.Stage.JWT_AUTH, System.nanoTime() - start);
             }
+            filterChain.doFilter(request, response);
 
-            // If not in header, try to get from cookie
-            if (jwt == null) {
-                Cookie[] cookies = request.getCookies();
-                if (cookies != null) {
-                    for (Cookie cookie : cookies) {
-                        if ("jwt".equals(cookie.getName())) {
-                            jwt = cookie.getValue();
-                            break;
-                        }
+        } catch (Exception e) {
+            // Task 3: Log unexpected filter error
+            securityLogger.logSuspiciousActivity("FILTER_ERROR",
+                    "Request: " + request.getRequestURI(), ipAddress);
+            filterChain.doFilter(request, response);
+        }
+    }
+
+    private void authenticate(HttpServletRequest request, String ipAddress) {
+        String jwt = null;
+        String username = null;
+
+        // Try to get JWT from Authorization header
+        final String authHeader = request.getHeader("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            jwt = authHeader.substring(7);
+        }
+
+        // If not in header, try to get from cookie
+        if (jwt == null) {
+            Cookie[] cookies = request.getCookies();
+            if (cookies != null) {
+                for (Cookie cookie : cookies) {
+                    if ("jwt".equals(cookie.getName())) {
+                        jwt = cookie.getValue();
+                        break;
                     }
                 }
             }
+        }
 
-            // If JWT exists, validate it
-            if (jwt != null) {
-                try {
-                    username = jwtService.extractUsername(jwt);
+        // If JWT exists, validate it
+        if (jwt != null) {
+            try {
+                Claims claims = jwtService.verify(jwt);
+                username = claims.getSubject();
 
-                    if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
 
-                        if (jwtService.isTokenValid(jwt, userDetails)) {
-                            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                                    userDetails,
-                                    null,
-                                    userDetails.getAuthorities()
-                            );
-                            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                            SecurityContextHolder.getContext().setAuthentication(authToken);
-                        } else {
-                            // Task 3: Log invalid token usage
-                            securityLogger.logInvalidTokenUsage(ipAddress);
-                        }
+                    if (jwtService.isTokenValid(claims, userDetails)) {
+                        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                                userDetails,
+                                null,
+                                userDetails.getAuthorities()
+                        );
+                        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                        SecurityContextHolder.getContext().setAuthentication(authToken);
+                    } else {
+                        // Task 3: Log invalid token usage
+                        securityLogger.logInvalidTokenUsage(ipAddress);
                     }
-                } catch (io.jsonwebtoken.ExpiredJwtException e) {
-                    // Task 3: Log expired token usage attempt
-                    securityLogger.logExpiredTokenUsage(ipAddress);
-                } catch (io.jsonwebtoken.JwtException e) {
-                    // Task 3: Log invalid token usage (malformed, signature invalid, etc.)
-                    securityLogger.logInvalidTokenUsage(ipAddress);
-                } catch (Exception e) {
-                    // Task 3: Log suspicious JWT processing error
-                    securityLogger.logSuspiciousActivity("JWT_PROCESSING_ERROR",
-                            e.getMessage(), ipAddress);
                 }
+            } catch (io.jsonwebtoken.ExpiredJwtException e) {
+                // Task 3: Log expired token usage attempt
+                securityLogger.logExpiredTokenUsage(ipAddress);
+            } catch (io.jsonwebtoken.JwtException e) {
+                // Task 3: Log invalid token usage (malformed, signature invalid, etc.)
+                securityLogger.logInvalidTokenUsage(ipAddress);
+            } catch (Exception e) {
+                // Task 3: Log suspicious JWT processing error
+                securityLogger.logSuspiciousActivity("JWT_PROCESSING_ERROR",
+                        e.getMessage(), ipAddress);
             }
-
-            filterChain.doFilter(request, response);
-
-        } catch (Exception e) {
-            // Task 3: Log unexpected filter error
-            securityLogger.logSuspiciousActivity("FILTER_ERROR",
-                    "Request: " + request.getRequestURI(), ipAddress);
-            filterChain.doFilter(request, response);
         }
     }
-}
\ No newline at end of file
+}
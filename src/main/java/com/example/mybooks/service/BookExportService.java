@@ -0,0 +1,142 @@
+package com.example.mybooks.service;
+
+import com.example.mybooks.dto.BookResponse;
+import com.example.mybooks.repository.BookRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+/**
+ * Streams a user's library from a forward-only cursor straight to an output stream.
+ *
+ * Rows are read as BookResponse projections (not managed entities), so neither the
+ * persistence context nor the response buffer grows with the size of the library.
+ */
+@Service
+public class BookExportService {
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv;charset=UTF-8", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public static Format fromParam(String param) {
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(param)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported export format: " + param);
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    // Push rows to the client regularly; a disconnected client then fails the next flush
+    private static final int FLUSH_EVERY_ROWS = 500;
+
+    private static final String[] CSV_HEADER = {
+            "id", "title", "author", "isbn", "publicationYear", "genre",
+            "readingStatus", "rating", "notes", "createdAt"
+    };
+
+    private final BookRepository bookRepository;
+    private final ObjectMapper objectMapper;
+
+    public BookExportService(BookRepository bookRepository, ObjectMapper objectMapper) {
+        this.bookRepository = bookRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Write all of the user's books to out. An IOException usually means the client went away;
+     * the cursor is closed and the read-only transaction ends either way.
+     */
+    @Transactional(readOnly = true)
+    public long export(Long userId, Format format, OutputStream out) throws IOException {
+        try (Stream<BookResponse> books = bookRepository.streamResponsesByUserId(userId)) {
+            return format == Format.CSV ? writeCsv(books, out) : writeNdjson(books, out);
+        }
+    }
+
+    private long writeNdjson(Stream<BookResponse> books, OutputStream out) throws IOException {
+        long rows = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.setRootValueSeparator(null);
+            for (BookResponse book : (Iterable<BookResponse>) books::iterator) {
+                generator.writeObject(book);
+                generator.writeRaw('\n');
+                if (++rows % FLUSH_EVERY_ROWS == 0) {
+                    generator.flush();
+                }
+            }
+        }
+        return rows;
+    }
+
+    private long writeCsv(Stream<BookResponse> books, OutputStream out) throws IOException {
+        long rows = 0;
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            writer.write(String.join(",", CSV_HEADER));
+            writer.write("\r\n");
+            for (BookResponse book : (Iterable<BookResponse>) books::iterator) {
+                writeCsvRow(writer, book.getId(), book.getTitle(), book.getAuthor(), book.getIsbn(),
+                        book.getPublicationYear(), book.getGenre(), book.getReadingStatus(), book.getRating(),
+                        book.getNotes(), book.getCreatedAt());
+                if (++rows % FLUSH_EVERY_ROWS == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static void writeCsvRow(Writer writer, Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writer.write(csvEscape(values[i].toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * RFC 4180 quoting. Cells starting with a formula character get a leading
+     * apostrophe so spreadsheets do not evaluate them (CSV injection).
+     */
+    static String csvEscape(String value) {
+        if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+}
@@ -0,0 +1,283 @@
+package com.example.mybooks.service;
+
+import com.example.mybooks.dto.BookImportReport;
+import com.example.mybooks.dto.CreateBookRequest;
+import com.example.mybooks.model.ReadingStatus;
+import com.example.mybooks.repository.BookStatsRepository;
+import com.example.mybooks.repository.PooledIdAllocator;
+import com.example.mybooks.util.CsvReader;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Bulk import of books from NDJSON or CSV.
+ *
+ * The body is parsed one row at a time and each row is validated with the
+ * CreateBookRequest constraints. Valid rows are inserted with JDBC batches, one
+ * transaction per chunk, so a large import costs one commit per chunk instead of
+ * one per book. Earlier chunks stay committed if a later one fails. Ids for a chunk
+ * are reserved in one step from the same sequence Hibernate uses for Book, and each chunk
+ * updates the user's book_stats counters in its own transaction.
+ */
+@Service
+public class BookImportService {
+
+    public enum Format {
+        NDJSON, CSV;
+
+        /**
+         * Format for a request Content-Type, or null if unsupported
+         */
+        public static Format fromContentType(String contentType) {
+            if (contentType == null) {
+                return null;
+            }
+            String type = contentType.toLowerCase(Locale.ROOT);
+            if (type.startsWith("application/x-ndjson") || type.startsWith("application/jsonl")) {
+                return NDJSON;
+            }
+            if (type.startsWith("text/csv")) {
+                return CSV;
+            }
+            return null;
+        }
+    }
+
+    private static final String INSERT_BOOK =
+            "INSERT INTO books (id, title, author, isbn, publication_year, genre, reading_status, rating, notes, "
+                    + "user_id, created_at, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    // Keep the report bounded even if every row of a huge file is invalid
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectReader requestReader;
+    private final CollectionVersionService collectionVersions;
+    private final BookStatsRepository bookStatsRepository;
+    private final BookSuggestionService suggestions;
+
+    @Value("${book.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${book.import.max-rows:100000}")
+    private long maxRows;
+
+    public BookImportService(JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             Validator validator,
+                             ObjectMapper objectMapper,
+                             CollectionVersionService collectionVersions,
+                             BookStatsRepository bookStatsRepository,
+                             BookSuggestionService suggestions) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.requestReader = objectMapper.readerFor(CreateBookRequest.class);
+        this.collectionVersions = collectionVersions;
+        this.bookStatsRepository = bookStatsRepository;
+        this.suggestions = suggestions;
+    }
+
+    public BookImportReport importBooks(Long userId, Format format, InputStream body) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        Batch batch = new Batch(userId);
+
+        if (format == Format.CSV) {
+            readCsv(reader, batch);
+        } else {
+            readNdjson(reader, batch);
+        }
+
+        batch.flush();
+        return batch.report;
+    }
+
+    private void readNdjson(BufferedReader reader, Batch batch) throws IOException {
+        String line;
+        long row = 0;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            if (++row > maxRows) {
+                batch.rowLimitReached(row);
+                return;
+            }
+
+            try {
+                batch.add(row, requestReader.readValue(line));
+            } catch (JsonMappingException e) {
+                String field = e.getPath().isEmpty() ? "row" : e.getPath().get(e.getPath().size() - 1).getFieldName();
+                batch.reject(row, Map.of(field != null ? field : "row", "Invalid value"));
+            } catch (JsonProcessingException e) {
+                batch.reject(row, Map.of("row", "Malformed JSON"));
+            }
+        }
+    }
+
+    private void readCsv(BufferedReader reader, Batch batch) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.readRecord();
+        if (header == null) {
+            return;
+        }
+        List<String> columns = new ArrayList<>();
+        for (String name : header) {
+            columns.add(name.trim().replace("_", "").toLowerCase(Locale.ROOT));
+        }
+
+        List<String> record;
+        long row = 0;
+        while ((record = csv.readRecord()) != null) {
+            if (record.size() == 1 && record.get(0).isEmpty()) {
+                continue;
+            }
+            if (++row > maxRows) {
+                batch.rowLimitReached(row);
+                return;
+            }
+
+            CreateBookRequest request = new CreateBookRequest();
+            Map<String, String> errors = new LinkedHashMap<>();
+            for (int i = 0; i < columns.size() && i < record.size(); i++) {
+                String value = unescapeCell(record.get(i));
+                if (value.isEmpty()) {
+                    continue;
+                }
+                try {
+                    switch (columns.get(i)) {
+                        case "title" -> request.setTitle(value);
+                        case "author" -> request.setAuthor(value);
+                        case "isbn" -> request.setIsbn(value);
+                        case "publicationyear" -> request.setPublicationYear(Integer.valueOf(value.trim()));
+                        case "genre" -> request.setGenre(value);
+                        case "readingstatus" -> request.setReadingStatus(
+                                ReadingStatus.valueOf(value.trim().toUpperCase(Locale.ROOT)));
+                        case "rating" -> request.setRating(Integer.valueOf(value.trim()));
+                        case "notes" -> request.setNotes(value);
+                        default -> {
+                            // Unknown columns (e.g. id, createdAt from an export) are ignored
+                        }
+                    }
+                } catch (IllegalArgumentException e) {
+                    errors.put(header.get(i).trim(), "Invalid value");
+                }
+            }
+
+            if (errors.isEmpty()) {
+                batch.add(row, request);
+            } else {
+                batch.reject(row, errors);
+            }
+        }
+    }
+
+    /**
+     * Undo the formula guard added by the CSV export ('=SUM(...) -> =SUM(...))
+     */
+    private static String unescapeCell(String value) {
+        if (value.length() > 1 && value.charAt(0) == '\'' && "=+-@\t\r".indexOf(value.charAt(1)) >= 0) {
+            return value.substring(1);
+        }
+        return value;
+    }
+
+    /**
+     * Collects valid rows and writes them one chunk (= one transaction) at a time
+     */
+    private final class Batch {
+
+        private final Long userId;
+        private final List<Object[]> rows = new ArrayList<>();
+        private final BookImportReport report = new BookImportReport();
+
+        Batch(Long userId) {
+            this.userId = userId;
+        }
+
+        void add(long row, CreateBookRequest request) {
+            Map<String, String> errors = new LinkedHashMap<>();
+            for (ConstraintViolation<CreateBookRequest> violation : validator.validate(request)) {
+                errors.put(violation.getPropertyPath().toString(), violation.getMessage());
+            }
+            if (!errors.isEmpty()) {
+                reject(row, errors);
+                return;
+            }
+
+            rows.add(new Object[]{
+                    null, // id, assigned when the chunk is written
+                    request.getTitle(),
+                    request.getAuthor(),
+                    request.getIsbn(),
+                    request.getPublicationYear(),
+                    request.getGenre(),
+                    (request.getReadingStatus() != null ? request.getReadingStatus() : ReadingStatus.NOT_STARTED).name(),
+                    request.getRating(),
+                    request.getNotes(),
+                    userId,
+                    Timestamp.valueOf(LocalDateTime.now())
+            });
+            if (rows.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void reject(long row, Map<String, String> errors) {
+            report.setFailed(report.getFailed() + 1);
+            if (report.getErrors().size() < MAX_REPORTED_ERRORS) {
+                report.getErrors().add(new BookImportReport.RowError(row, errors));
+            } else {
+                report.setErrorsTruncated(true);
+            }
+        }
+
+        void rowLimitReached(long row) {
+            reject(row, Map.of("row", "Row limit of " + maxRows + " reached; remaining rows were not imported"));
+        }
+
+        void flush() {
+            if (rows.isEmpty()) {
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                collectionVersions.bump(CollectionVersionService.BOOKS, userId);
+                long firstId = jdbcTemplate.execute((ConnectionCallback<Long>) connection ->
+                        PooledIdAllocator.forTable("books").allocateRange(connection, rows.size()));
+                for (int i = 0; i < rows.size(); i++) {
+                    rows.get(i)[0] = firstId + i;
+                }
+                jdbcTemplate.batchUpdate(INSERT_BOOK, rows);
+                // The chunk's ids are contiguous: one statement counts the whole chunk
+                bookStatsRepository.recordImport(userId, firstId, firstId + rows.size() - 1);
+                suggestions.invalidate(userId);
+            });
+            report.setImported(report.getImported() + rows.size());
+            rows.clear();
+        }
+    }
+}
@@ -1,22 +1,61 @@
 package com.example.mybooks.service;
 
+import com.example.mybooks.exception.PreconditionFailedException;
 import com.example.mybooks.model.Book;
 import com.example.mybooks.model.ReadingStatus;
 import com.example.mybooks.model.User;
+import com.example.mybooks.dto.BookFilter;
+import com.example.mybooks.dto.BookResponse;
+import com.example.mybooks.dto.BookSort;
+import com.example.mybooks.dto.BulkBookRequest;
 import com.example.mybooks.dto.CreateBookRequest;
+import com.example.mybooks.dto.CursorPage;
 import com.example.mybooks.repository.BookRepository;
+import com.example.mybooks.repository.BookRepositoryCustom.Keyset;
+import com.example.mybooks.repository.BookRepositoryCustom.Selection;
+import com.example.mybooks.repository.BookSpecifications;
+import com.example.mybooks.repository.BookStatsRepository;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * Every write also applies its delta to the user's book_stats counters (BookStatsRepository)
+ * in the same transaction: after an insert, and before an update or delete, which the delta
+ * reads the old values for. Writes that set title, author or ISBN also link the book to its
+ * work in the shared catalog (WorkService).
+ */
 @Service
 public class BookService {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
     private final BookRepository bookRepository;
+    private final BookStatsRepository bookStatsRepository;
+    private final CollectionVersionService collectionVersions;
+    private final BookSuggestionService suggestions;
+    private final TagIndex tagIndex;
+    private final WorkService workService;
 
-    public BookService(BookRepository bookRepository) {
+    public BookService(BookRepository bookRepository,
+                       BookStatsRepository bookStatsRepository,
+                       CollectionVersionService collectionVersions,
+                       BookSuggestionService suggestions,
+                       TagIndex tagIndex,
+                       WorkService workService) {
         this.bookRepository = bookRepository;
+        this.bookStatsRepository = bookStatsRepository;
+        this.collectionVersions = collectionVersions;
+        this.suggestions = suggestions;
+        this.tagIndex = tagIndex;
+        this.workService = workService;
     }
 
     @Transactional
@@ -32,64 +71,275 @@ public class BookService {
         book.setRating(request.getRating());
         book.setNotes(request.getNotes());
         book.setUser(user);
+        book.setWorkId(resolveWork(book));
 
-        return bookRepository.save(book);
+        collectionVersions.bump(CollectionVersionService.BOOKS, user.getId());
+        Book saved = bookRepository.save(book);
+        bookStatsRepository.recordInsert(saved.getId());
+        suggestions.bookSaved(user.getId(), saved.getId(), saved.getTitle(), saved.getAuthor(), saved.getGenre());
+        return saved;
     }
 
     @Transactional
     public Book saveBook(Book book) {
-        return bookRepository.save(book);
+        Long userId = book.getUser().getId();
+        boolean isNew = book.getId() == null;
+        if (!isNew) {
+            // First thing: the delta is read from the stored row, before any query flushes the entity
+            bookStatsRepository.recordSave(book);
+        }
+        book.setWorkId(resolveWork(book));
+        collectionVersions.bump(CollectionVersionService.BOOKS, userId);
+        Book saved = bookRepository.save(book);
+        if (isNew) {
+            bookStatsRepository.recordInsert(saved.getId());
+        }
+        suggestions.bookSaved(userId, saved.getId(), saved.getTitle(), saved.getAuthor(), saved.getGenre());
+        return saved;
     }
 
-    public List<Book> getUserBooks(Long userId) {
-        return bookRepository.findByUserId(userId);
+    /**
+     * List ETag for the user's books; changes with every write to any of them
+     */
+    public String getUserBooksETag(Long userId) {
+        return collectionVersions.etag(CollectionVersionService.BOOKS, userId);
     }
 
-    public List<Book> getAllBooks() {
-        return bookRepository.findAll();
+    public List<BookResponse> getUserBooks(Long userId) {
+        return bookRepository.findResponsesByUserId(userId);
     }
 
-    public List<Book> getUserBooksByStatus(Long userId, ReadingStatus status) {
-        return bookRepository.findByUserIdAndReadingStatus(userId, status);
+    public List<BookResponse> getAllBooks() {
+        return bookRepository.findAllResponses();
     }
 
-    public List<Book> getUserBooksByGenre(Long userId, String genre) {
-        return bookRepository.findByUserIdAndGenre(userId, genre);
+    public List<BookResponse> getUserBooksByStatus(Long userId, ReadingStatus status) {
+        return bookRepository.findResponsesByUserIdAndReadingStatus(userId, status);
     }
 
-    @Transactional
-    public Book updateBook(Long bookId, CreateBookRequest request, User user) {
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new IllegalArgumentException("Book not found"));
+    public List<BookResponse> getUserBooksByGenre(Long userId, String genre) {
+        return bookRepository.findResponsesByUserIdAndGenre(userId, genre);
+    }
 
-        if (!book.getUser().getId().equals(user.getId())) {
-            throw new SecurityException("Unauthorized to update this book");
+    /**
+     * Keyset-paginated listing of a user's books matching the filter (null for all).
+     * The cursor is opaque to clients and only valid for the sort and direction it was issued with.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<BookResponse> getUserBooksPage(Long userId, BookFilter bookFilter,
+                                             String sortParam, String directionParam,
+                                             String cursor, Integer limit) {
+        BookSort sort = sortParam != null ? BookSort.fromParam(sortParam) : BookSort.ID;
+        boolean descending = parseDescending(directionParam);
+        int pageSize = limit != null ? limit : DEFAULT_PAGE_SIZE;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
         }
 
-        book.setTitle(request.getTitle());
-        book.setAuthor(request.getAuthor());
-        book.setIsbn(request.getIsbn());
-        book.setPublicationYear(request.getPublicationYear());
-        book.setGenre(request.getGenre());
-        if (request.getReadingStatus() != null) {
-            book.setReadingStatus(request.getReadingStatus());
+        if (bookFilter != null) {
+            checkRange("minRating", bookFilter.getMinRating(), "maxRating", bookFilter.getMaxRating());
+            checkRange("minYear", bookFilter.getMinYear(), "maxYear", bookFilter.getMaxYear());
         }
-        book.setRating(request.getRating());
-        book.setNotes(request.getNotes());
+        Specification<Book> filter = BookSpecifications.matching(userId, bookFilter);
+
+        Keyset after = cursor != null ? decodeCursor(cursor, sort, descending) : null;
+
+        // One extra row tells us whether there is a next page
+        List<Book> books = bookRepository.findKeysetPage(filter, sort, descending, after, pageSize + 1);
+        if (books.size() <= pageSize) {
+            return new CursorPage<>(books.stream().map(BookResponse::new).toList(), null);
+        }
+
+        List<Book> items = books.subList(0, pageSize);
+        Book last = items.get(pageSize - 1);
+        return new CursorPage<>(items.stream().map(BookResponse::new).toList(),
+                encodeCursor(sort, descending, sortValue(last, sort), last.getId()));
+    }
+
+    private static void checkRange(String minName, Integer min, String maxName, Integer max) {
+        if (min != null && max != null && min > max) {
+            throw new IllegalArgumentException(minName + " must not be greater than " + maxName);
+        }
+    }
+
+    private static boolean parseDescending(String direction) {
+        if (direction == null || direction.equalsIgnoreCase("asc")) {
+            return false;
+        }
+        if (direction.equalsIgnoreCase("desc")) {
+            return true;
+        }
+        throw new IllegalArgumentException("Invalid direction: " + direction + " (allowed: asc, desc)");
+    }
+
+    private static Object sortValue(Book book, BookSort sort) {
+        return switch (sort) {
+            case ID -> book.getId();
+            case TITLE -> book.getTitle();
+            case AUTHOR -> book.getAuthor();
+            case CREATED_AT -> book.getCreatedAt();
+            case RATING -> book.getRating();
+            case PUBLICATION_YEAR -> book.getPublicationYear();
+        };
+    }
 
-        return bookRepository.save(book);
+    // Cursor format before base64url: "<sort>|<asc|desc>|<id>|N" or "<sort>|<asc|desc>|<id>|V<value>"
+    private static String encodeCursor(BookSort sort, boolean descending, Object value, Long id) {
+        String raw = sort.getParam() + "|" + (descending ? "desc" : "asc") + "|" + id + "|"
+                + (value == null ? "N" : "V" + value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
     }
 
+    private static Keyset decodeCursor(String cursor, BookSort sort, boolean descending) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 4);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (!parts[0].equals(sort.getParam()) || !parts[1].equals(descending ? "desc" : "asc")) {
+            throw new IllegalArgumentException("Cursor does not match the requested sort and direction");
+        }
+
+        try {
+            Long id = Long.valueOf(parts[2]);
+            Object value = parts[3].equals("N") ? null : sort.parseValue(parts[3].substring(1));
+            return new Keyset(value, id);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Set the reading status of all selected books in one UPDATE; returns the number changed.
+     * Ids owned by other users are not matched, so they are silently not counted.
+     */
     @Transactional
-    public void deleteBook(Long bookId, User user) {
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new IllegalArgumentException("Book not found"));
+    public int bulkUpdateStatus(BulkBookRequest request, User user) {
+        if (request.getReadingStatus() == null) {
+            throw new IllegalArgumentException("readingStatus is required");
+        }
+        Selection selection = toSelection(request, user);
+        collectionVersions.bump(CollectionVersionService.BOOKS, user.getId());
+        bookStatsRepository.recordStatusChange(selection, request.getReadingStatus());
+        return bookRepository.updateReadingStatus(selection, request.getReadingStatus());
+    }
 
-        if (!book.getUser().getId().equals(user.getId())) {
-            throw new SecurityException("Unauthorized to delete this book");
+    /**
+     * Delete all selected books in one DELETE; returns the number removed
+     */
+    @Transactional
+    public int bulkDelete(BulkBookRequest request, User user) {
+        Selection selection = toSelection(request, user);
+        collectionVersions.bump(CollectionVersionService.BOOKS, user.getId());
+        bookStatsRepository.recordSelectionDelete(selection);
+        suggestions.invalidate(user.getId());
+        tagIndex.invalidate(user.getId());
+        return bookRepository.deleteSelection(selection);
+    }
+
+    private static Selection toSelection(BulkBookRequest request, User user) {
+        if (!request.hasSelector()) {
+            throw new IllegalArgumentException("Select books by ids, status or genre");
         }
+        return new Selection(user.getId(), request.getIds(), request.getStatus(), request.getGenre());
+    }
+
+    /**
+     * Update with a single ownership-checked statement. ifMatchVersions (null for none) come
+     * from If-Match and are checked by the same statement. Only when nothing was updated is
+     * the book read, to tell a missing book (404) from a foreign one (403) or a stale version (412).
+     * The book is then relinked to the work of its new title, author and ISBN, as on create.
+     */
+    @Transactional
+    public BookResponse updateBook(Long bookId, CreateBookRequest request, User user, List<Long> ifMatchVersions) {
+        collectionVersions.bump(CollectionVersionService.BOOKS, user.getId());
+        bookStatsRepository.recordUpdate(bookId, user.getId(), request, ifMatchVersions);
+        BookResponse updated = bookRepository.updateOwned(bookId, user.getId(), request, ifMatchVersions)
+                .orElseThrow(() -> notWritten(bookId, user, "Unauthorized to update this book"));
+        bookSaved(updated);
+        linkWork(updated);
+        return updated;
+    }
+
+    /**
+     * Apply parsed merge-patch changes. Only the changed columns are written, and a patch
+     * that changes nothing writes nothing, not even the collection version or the stats;
+     * in that case (and for 404/403/412) the current state is read instead. A patch of a
+     * counted property (status, genre, year, rating) reads the book first for the stats delta.
+     */
+    @Transactional
+    public BookResponse patchBook(Long bookId, Map<String, Object> changes, User user, List<Long> ifMatchVersions) {
+        if (!changes.isEmpty()) {
+            BookResponse before = patchesCountedProperty(changes)
+                    ? bookRepository.findResponseById(bookId).orElse(null)
+                    : null;
+            var patched = bookRepository.patchOwned(bookId, user.getId(), changes, ifMatchVersions);
+            if (patched.isPresent()) {
+                collectionVersions.bump(CollectionVersionService.BOOKS, user.getId());
+                if (before != null) {
+                    bookStatsRepository.recordPatch(before, patched.get());
+                }
+                bookSaved(patched.get());
+                if (changes.containsKey("title") || changes.containsKey("author") || changes.containsKey("isbn")) {
+                    linkWork(patched.get());
+                }
+                return patched.get();
+            }
+        }
+        BookResponse current = getBookResponseById(bookId, user);
+        if (ifMatchVersions != null && !ifMatchVersions.contains(current.getVersion())) {
+            throw new PreconditionFailedException("Book has been modified");
+        }
+        return current;
+    }
+
+    @Transactional
+    public void deleteBook(Long bookId, User user, List<Long> ifMatchVersions) {
+        collectionVersions.bump(CollectionVersionService.BOOKS, user.getId());
+        bookStatsRepository.recordDelete(bookId, user.getId(), ifMatchVersions);
+        int deleted = ifMatchVersions != null
+                ? bookRepository.deleteOwnedIfVersion(bookId, user.getId(), ifMatchVersions)
+                : bookRepository.deleteOwned(bookId, user.getId());
+        if (deleted == 0) {
+            throw notWritten(bookId, user, "Unauthorized to delete this book");
+        }
+        suggestions.bookDeleted(user.getId(), bookId);
+        tagIndex.bookDeleted(user.getId(), bookId);
+    }
 
-        bookRepository.delete(book);
+    private static boolean patchesCountedProperty(Map<String, Object> changes) {
+        return changes.containsKey("readingStatus") || changes.containsKey("genre")
+                || changes.containsKey("publicationYear") || changes.containsKey("rating");
+    }
+
+    private void bookSaved(BookResponse book) {
+        suggestions.bookSaved(book.getUserId(), book.getId(), book.getTitle(), book.getAuthor(), book.getGenre());
+    }
+
+    private Long resolveWork(Book book) {
+        return workService.resolve(book.getIsbn(), book.getTitle(), book.getAuthor(),
+                book.getPublicationYear(), book.getGenre());
+    }
+
+    // The work follows title, author and ISBN
+    private void linkWork(BookResponse book) {
+        bookRepository.linkWork(book.getId(), workService.resolve(book.getIsbn(), book.getTitle(),
+                book.getAuthor(), book.getPublicationYear(), book.getGenre()));
+    }
+
+    private RuntimeException notWritten(Long bookId, User user, String unauthorizedMessage) {
+        BookResponse current = bookRepository.findResponseById(bookId).orElse(null);
+        if (current == null) {
+            return new IllegalArgumentException("Book not found");
+        }
+        if (!current.getUserId().equals(user.getId())) {
+            return new SecurityException(unauthorizedMessage);
+        }
+        return new PreconditionFailedException("Book has been modified");
     }
 
     public Book getBookById(Long bookId, User user) {
@@ -102,4 +352,18 @@ public class BookService {
 
         return book;
     }
-}
\ No newline at end of file
+
+    /**
+     * Read-only variant of getBookById that loads the projection instead of the entity
+     */
+    public BookResponse getBookResponseById(Long bookId, User user) {
+        BookResponse book = bookRepository.findResponseById(bookId)
+                .orElseThrow(() -> new IllegalArgumentException("Book not found"));
+
+        if (!book.getUserId().equals(user.getId())) {
+            throw new SecurityException("Unauthorized to access this book");
+        }
+
+        return book;
+    }
+}
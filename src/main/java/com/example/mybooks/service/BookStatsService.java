@@ -0,0 +1,122 @@
+package com.example.mybooks.service;
+
+import com.example.mybooks.dto.BookStatsResponse;
+import com.example.mybooks.model.BookStat;
+import com.example.mybooks.model.ReadingStatus;
+import com.example.mybooks.repository.BookStatsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reads the per-user book_stats counters and repairs them.
+ *
+ * The counters are kept current by BookService and BookImportService (delta upserts in the
+ * write's transaction), so reading them does not depend on the size of the library. The
+ * nightly rebuild recomputes them from the books table, one user per transaction, in case
+ * anything wrote books around those services; only users whose counters were off are
+ * rewritten and get a new collection version.
+ */
+@Service
+public class BookStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookStatsService.class);
+
+    private final BookStatsRepository bookStatsRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CollectionVersionService collectionVersions;
+
+    public BookStatsService(BookStatsRepository bookStatsRepository,
+                            TransactionTemplate transactionTemplate,
+                            CollectionVersionService collectionVersions) {
+        this.bookStatsRepository = bookStatsRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.collectionVersions = collectionVersions;
+    }
+
+    @Transactional(readOnly = true)
+    public BookStatsResponse getStats(Long userId) {
+        BookStatsResponse stats = new BookStatsResponse();
+        Map<String, Long> byStatus = new LinkedHashMap<>();
+        for (ReadingStatus status : ReadingStatus.values()) {
+            byStatus.put(status.name(), 0L);
+        }
+        Map<String, Long> byGenre = new TreeMap<>();
+        Map<Integer, Long> byYear = new TreeMap<>();
+
+        for (BookStat stat : bookStatsRepository.findByIdUserId(userId)) {
+            if (stat.getBookCount() == 0) {
+                continue;
+            }
+            String bucket = stat.getId().getBucket();
+            switch (stat.getId().getDimension()) {
+                case BookStat.TOTAL -> {
+                    stats.setTotal(stat.getBookCount());
+                    stats.setRatedCount(stat.getRatingCount());
+                    if (stat.getRatingCount() > 0) {
+                        stats.setAverageRating(
+                                Math.round(100.0 * stat.getRatingSum() / stat.getRatingCount()) / 100.0);
+                    }
+                }
+                case BookStat.STATUS -> byStatus.put(bucket, stat.getBookCount());
+                case BookStat.GENRE -> byGenre.put(bucket, stat.getBookCount());
+                case BookStat.YEAR -> byYear.put(Integer.valueOf(bucket), stat.getBookCount());
+                default -> {
+                    // Unknown dimensions (from a newer version) are ignored
+                }
+            }
+        }
+
+        stats.setByStatus(byStatus);
+        stats.setByGenre(byGenre);
+        stats.setByYear(byYear);
+        return stats;
+    }
+
+    /**
+     * Number of books of the user: one primary-key lookup
+     */
+    @Transactional(readOnly = true)
+    public long countBooks(Long userId) {
+        return bookStatsRepository.findById(new BookStat.Key(userId, BookStat.TOTAL, ""))
+                .map(BookStat::getBookCount)
+                .orElse(0L);
+    }
+
+    /**
+     * Recount one user; the collection version only moves if a counter was off
+     */
+    @Transactional
+    public boolean rebuild(Long userId) {
+        boolean changed = bookStatsRepository.rebuild(userId);
+        if (changed) {
+            collectionVersions.bump(CollectionVersionService.BOOKS, userId);
+        }
+        return changed;
+    }
+
+    /**
+     * Drift repair: recompute every user's counters from the books table
+     */
+    @Scheduled(cron = "${book.stats.rebuild-cron:0 30 3 * * *}")
+    public void rebuildAll() {
+        long start = System.currentTimeMillis();
+        List<Long> userIds = bookStatsRepository.findUserIdsWithStats();
+        int repaired = 0;
+        for (Long userId : userIds) {
+            if (Boolean.TRUE.equals(transactionTemplate.execute(status -> rebuild(userId)))) {
+                repaired++;
+            }
+        }
+        logger.info("Checked book statistics of {} users ({} repaired) in {} ms",
+                userIds.size(), repaired, System.currentTimeMillis() - start);
+    }
+}
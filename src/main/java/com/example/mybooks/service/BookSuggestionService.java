@@ -0,0 +1,111 @@
+package com.example.mybooks.service;
+
+import com.example.mybooks.dto.BookMatch;
+import com.example.mybooks.dto.BookSuggestion;
+import com.example.mybooks.repository.BookRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Typeahead over titles, authors and genres (SuggestionIndex) and typo-tolerant matching of
+ * titles and authors (TrigramIndex), answered from per-user in-memory indexes.
+ *
+ * The indexes are loaded on the user's first request (one query for id, title, author
+ * and genre of their books), kept in step with book writes through UserIndexes (saving is
+ * idempotent) and dropped after idling for book.suggest.idle-timeout-ms.
+ */
+@Service
+public class BookSuggestionService {
+
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_LIMIT = 50;
+
+    // Share of the query's trigrams a title or author must contain to be a fuzzy match
+    public static final double MIN_SIMILARITY = 0.5;
+
+    private final BookRepository bookRepository;
+    private final long idleTimeoutMillis;
+
+    private final UserIndexes<UserIndex> indexes;
+
+    private static final class UserIndex {
+        final SuggestionIndex suggestions = new SuggestionIndex();
+        final TrigramIndex trigrams = new TrigramIndex();
+
+        void put(Long bookId, String title, String author, String genre) {
+            suggestions.put(bookId, title, author, genre);
+            trigrams.put(bookId, title, author);
+        }
+
+        void remove(Long bookId) {
+            suggestions.remove(bookId);
+            trigrams.remove(bookId);
+        }
+    }
+
+    public BookSuggestionService(BookRepository bookRepository,
+                                 @Value("${book.suggest.idle-timeout-ms:600000}") long idleTimeoutMillis) {
+        this.bookRepository = bookRepository;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.indexes = new UserIndexes<>(UserIndex::new, this::load);
+    }
+
+    public List<BookSuggestion> suggest(Long userId, String prefix, Integer limit) {
+        int size = checkLimit(limit);
+        if (prefix == null || prefix.isBlank()) {
+            throw new IllegalArgumentException("Suggest prefix must not be empty");
+        }
+        return indexes.read(userId, userIndex -> userIndex.suggestions.suggest(prefix, size));
+    }
+
+    /**
+     * Books whose title or author resembles the query despite misspellings, most similar first
+     */
+    public List<BookMatch> fuzzySearch(Long userId, String query, Integer limit) {
+        int size = checkLimit(limit);
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be empty");
+        }
+        return indexes.read(userId, userIndex -> userIndex.trigrams.search(query, size, MIN_SIMILARITY));
+    }
+
+    private static int checkLimit(Integer limit) {
+        int size = limit != null ? limit : DEFAULT_LIMIT;
+        if (size < 1 || size > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        return size;
+    }
+
+    private void load(Long userId, UserIndex userIndex) {
+        for (Object[] book : bookRepository.findSuggestionSourcesByUserId(userId)) {
+            userIndex.put((Long) book[0], (String) book[1], (String) book[2], (String) book[3]);
+        }
+    }
+
+    /**
+     * Book created or its title, author or genre (possibly) changed
+     */
+    public void bookSaved(Long userId, Long bookId, String title, String author, String genre) {
+        indexes.apply(userId, index -> index.put(bookId, title, author, genre));
+    }
+
+    public void bookDeleted(Long userId, Long bookId) {
+        indexes.apply(userId, index -> index.remove(bookId));
+    }
+
+    /**
+     * Drop the user's index; for writes whose rows are not known individually (bulk delete, import)
+     */
+    public void invalidate(Long userId) {
+        indexes.invalidate(userId);
+    }
+
+    @Scheduled(fixedDelayString = "${book.suggest.evict-interval-ms:60000}")
+    public void evictIdle() {
+        indexes.evictIdleSince(System.currentTimeMillis() - idleTimeoutMillis);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.mybooks.service;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user version counters for collections (a user's books, a user's notes), used as list ETags.
+ *
+ * Any write to a collection bumps its counter, so a list request can answer 304 from the
+ * counter alone, without running the query. Counters live in memory: the epoch, random per
+ * process, keeps tags from a previous run from matching after a restart. With several
+ * application instances each would need a shared counter instead.
+ */
+@Service
+public class CollectionVersionService {
+
+    public static final String BOOKS = "books";
+    public static final String NOTES = "notes";
+
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private final ConcurrentMap<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    /**
+     * ETag of the user's collection. Read it before running the list query: a write that
+     * commits in between then only causes one unnecessary refetch, never a stale 304.
+     */
+    public String etag(String collection, Long userId) {
+        return "\"" + collection + "-u" + userId + "-" + epoch + "." + counter(collection, userId).get() + "\"";
+    }
+
+    /**
+     * Record a write to the user's collection. Bumped right away and again after the surrounding
+     * transaction completes, so a tag handed out while the write was still uncommitted
+     * (paired with the old data) does not stay valid.
+     */
+    public void bump(String collection, Long userId) {
+        AtomicLong counter = counter(collection, userId);
+        counter.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    counter.incrementAndGet();
+                }
+            });
+        }
+    }
+
+    private AtomicLong counter(String collection, Long userId) {
+        return versions.computeIfAbsent(collection + ":" + userId, key -> new AtomicLong());
+    }
+}
@@ -0,0 +1,389 @@
+package com.example.mybooks.service;
+
+import com.example.mybooks.dto.IsbnMetadata;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Read-only ISBN-13 to title/author/year index in a memory-mapped file, built once from an
+ * Open Library editions dump (one "type, key, revision, last_modified, JSON" line per
+ * record; plain or .gz).
+ *
+ * File layout: a 16-byte header (magic, version, entry count), the entry table, then the
+ * records. An entry is one long, the ISBN key in the upper 32 bits and the record's offset
+ * into the record area in the lower 32, so sorting the longs sorts by ISBN. The key is the
+ * ISBN-13 without its check digit, 978 counted as 0 and 979 as 1 (below 2^31). A record is
+ * the year (0 if unknown), then title and author, each as an unsigned 16-bit length and
+ * UTF-8 bytes.
+ *
+ * The author is parsed from the edition's by_statement. Many editions only list authors[]
+ * keys, whose names are in separate author records (the authors dump); those are not
+ * resolved, so such ISBNs have no author and callers must ask for it.
+ *
+ * Opening keeps every 512th key (one 4 KB page of the table) in memory, so a lookup is a
+ * binary search on the heap, then within a single table page, then one record read: two or
+ * three pages of the file. Thread-safe; the file is never written once opened.
+ */
+public class IsbnIndex {
+
+    private static final int MAGIC = 0x4D424931; // "MBI1"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int ENTRIES_PER_PAGE = 512;
+    private static final int MAX_FIELD_CHARS = 255;
+
+    // Entries sorted in memory at a time while building
+    private static final int RUN_ENTRIES = 1 << 20;
+
+    // Mappings are limited to 2 GB; segments overlap by more than the largest record
+    private static final long SEGMENT_BYTES = 1L << 30;
+    private static final long SEGMENT_OVERLAP = 1L << 16;
+
+    private static final Pattern YEAR = Pattern.compile("(?<!\\d)(1\\d{3}|20\\d{2})(?!\\d)");
+
+    private final MappedByteBuffer[] segments;
+    private final long count;
+    private final long dataStart;
+    private final long[] pageKeys;
+
+    private IsbnIndex(MappedByteBuffer[] segments, long count) {
+        this.segments = segments;
+        this.count = count;
+        this.dataStart = HEADER_BYTES + count * Long.BYTES;
+        this.pageKeys = new long[(int) ((count + ENTRIES_PER_PAGE - 1) / ENTRIES_PER_PAGE)];
+        for (int page = 0; page < pageKeys.length; page++) {
+            pageKeys[page] = key(entry((long) page * ENTRIES_PER_PAGE));
+        }
+    }
+
+    /**
+     * Map an index file written by build
+     */
+    public static IsbnIndex open(Path indexFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                throw new IOException("Not an ISBN index file: " + indexFile);
+            }
+            MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((size + SEGMENT_BYTES - 1) / SEGMENT_BYTES)];
+            for (int i = 0; i < segments.length; i++) {
+                long start = i * SEGMENT_BYTES;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                        Math.min(size - start, SEGMENT_BYTES + SEGMENT_OVERLAP));
+            }
+            if (segments[0].getInt(0) != MAGIC || segments[0].getInt(4) != VERSION) {
+                throw new IOException("Not an ISBN index file: " + indexFile);
+            }
+            return new IsbnIndex(segments, segments[0].getLong(8));
+        }
+    }
+
+    public long size() {
+        return count;
+    }
+
+    /**
+     * Metadata for an ISBN (10 or 13 digits, hyphens allowed); empty if it is not in the dump
+     */
+    public Optional<IsbnMetadata> find(String isbn) {
+        String isbn13 = WorkService.normalizeIsbn(isbn);
+        if (isbn13 == null || count == 0) {
+            return Optional.empty();
+        }
+        long key = key(isbn13);
+        if (key < 0) {
+            return Optional.empty();
+        }
+
+        // Last page whose first key is <= key, then the entry within that page
+        int page = Arrays.binarySearch(pageKeys, key);
+        if (page < 0) {
+            page = -page - 2;
+            if (page < 0) {
+                return Optional.empty();
+            }
+        }
+        long low = (long) page * ENTRIES_PER_PAGE;
+        long high = Math.min(low + ENTRIES_PER_PAGE, count) - 1;
+        while (low <= high) {
+            long middle = (low + high) >>> 1;
+            long entry = entry(middle);
+            long middleKey = key(entry);
+            if (middleKey < key) {
+                low = middle + 1;
+            } else if (middleKey > key) {
+                high = middle - 1;
+            } else {
+                return Optional.of(record(isbn13, dataStart + (entry & 0xFFFFFFFFL)));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private long entry(long index) {
+        long position = HEADER_BYTES + index * Long.BYTES;
+        return segment(position).getLong(offsetInSegment(position));
+    }
+
+    private IsbnMetadata record(String isbn13, long position) {
+        ByteBuffer segment = segment(position);
+        int offset = offsetInSegment(position);
+        int year = segment.getShort(offset);
+        offset += Short.BYTES;
+        String title = readString(segment, offset);
+        offset += Short.BYTES + Short.toUnsignedInt(segment.getShort(offset));
+        String author = readString(segment, offset);
+        return new IsbnMetadata(isbn13, title.isEmpty() ? null : title, author.isEmpty() ? null : author,
+                year != 0 ? year : null);
+    }
+
+    private static String readString(ByteBuffer segment, int offset) {
+        byte[] bytes = new byte[Short.toUnsignedInt(segment.getShort(offset))];
+        segment.get(offset + Short.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private ByteBuffer segment(long position) {
+        return segments[(int) (position / SEGMENT_BYTES)];
+    }
+
+    private static int offsetInSegment(long position) {
+        return (int) (position % SEGMENT_BYTES);
+    }
+
+    private static long key(long entry) {
+        return entry >>> 32;
+    }
+
+    // -1 for prefixes other than 978 and 979
+    private static long key(String isbn13) {
+        long prefix = switch (isbn13.substring(0, 3)) {
+            case "978" -> 0;
+            case "979" -> 1;
+            default -> -1;
+        };
+        return prefix < 0 ? -1 : prefix * 1_000_000_000L + Long.parseLong(isbn13.substring(3, 12));
+    }
+
+    /**
+     * Convert the dump into an index file, replacing indexFile only once it is complete.
+     * The entries are sorted externally: runs of RUN_ENTRIES (8 MB of heap) are sorted and
+     * spilled to temporary files, then merged into the table; the records are streamed to disk.
+     * Returns the number of ISBNs indexed; the first edition listing an ISBN wins.
+     */
+    public static long build(Path dumpFile, Path indexFile) throws IOException {
+        return build(dumpFile, indexFile, RUN_ENTRIES);
+    }
+
+    static long build(Path dumpFile, Path indexFile, int runEntries) throws IOException {
+        Path directory = indexFile.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path records = Files.createTempFile(directory, "isbn-records", ".tmp");
+        Path partial = Files.createTempFile(directory, "isbn-index", ".tmp");
+        List<Path> runs = new ArrayList<>();
+        try {
+            writeRecords(dumpFile, records, directory, runEntries, runs);
+
+            long unique;
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(partial)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(0);
+                unique = mergeRuns(runs, out);
+                Files.copy(records, out);
+            }
+            // The count is only known after the merge
+            try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, unique), 8);
+            }
+            Files.move(partial, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return unique;
+        } finally {
+            for (Path run : runs) {
+                Files.deleteIfExists(run);
+            }
+            Files.deleteIfExists(records);
+            Files.deleteIfExists(partial);
+        }
+    }
+
+    // Streams one record per edition with an ISBN to recordFile and the entries, in sorted runs, to runs
+    private static void writeRecords(Path dumpFile, Path recordFile, Path directory, int runEntries,
+                                     List<Path> runs) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        long[] entries = new long[runEntries];
+        int size = 0;
+        long offset = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(openDump(dumpFile), StandardCharsets.UTF_8));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(recordFile)))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] columns = line.split("\t", 5);
+                if (columns.length != 5 || !columns[0].equals("/type/edition")) {
+                    continue;
+                }
+                JsonNode edition;
+                try {
+                    edition = objectMapper.readTree(columns[4]);
+                } catch (IOException e) {
+                    continue;
+                }
+                Set<Long> keys = isbnKeys(edition);
+                String title = truncate(edition.path("title").asText(""));
+                if (keys.isEmpty() || title.isEmpty()) {
+                    continue;
+                }
+                if (offset > 0xFFFFFFFFL) {
+                    throw new IOException("Dump too large: records exceed 4 GB");
+                }
+                for (long key : keys) {
+                    if (size == entries.length) {
+                        runs.add(writeRun(directory, entries, size));
+                        size = 0;
+                    }
+                    entries[size++] = key << 32 | offset;
+                }
+                offset += writeRecord(out, year(edition.path("publish_date").asText("")), title,
+                        truncate(author(edition.path("by_statement").asText(""))));
+            }
+        }
+        if (size > 0) {
+            runs.add(writeRun(directory, entries, size));
+        }
+    }
+
+    private static Path writeRun(Path directory, long[] entries, int size) throws IOException {
+        Arrays.sort(entries, 0, size);
+        Path run = Files.createTempFile(directory, "isbn-run", ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run)))) {
+            for (int i = 0; i < size; i++) {
+                out.writeLong(entries[i]);
+            }
+        }
+        return run;
+    }
+
+    /**
+     * Merge the sorted runs into out, keeping the first entry per key: equal keys sort by
+     * record offset, so that is the first edition. Returns the number of entries written.
+     */
+    private static long mergeRuns(List<Path> runs, DataOutputStream out) throws IOException {
+        DataInputStream[] inputs = new DataInputStream[runs.size()];
+        long[] remaining = new long[runs.size()];
+        PriorityQueue<long[]> heads = new PriorityQueue<>(Math.max(1, runs.size()),
+                Comparator.comparingLong(head -> head[0]));
+        try {
+            for (int run = 0; run < inputs.length; run++) {
+                inputs[run] = new DataInputStream(new BufferedInputStream(Files.newInputStream(runs.get(run)), 1 << 16));
+                remaining[run] = Files.size(runs.get(run)) / Long.BYTES;
+                heads.add(new long[]{inputs[run].readLong(), run});
+                remaining[run]--;
+            }
+            long unique = 0;
+            long lastKey = -1;
+            while (!heads.isEmpty()) {
+                long[] head = heads.poll();
+                if (key(head[0]) != lastKey) {
+                    out.writeLong(head[0]);
+                    lastKey = key(head[0]);
+                    unique++;
+                }
+                int run = (int) head[1];
+                if (remaining[run] > 0) {
+                    head[0] = inputs[run].readLong();
+                    remaining[run]--;
+                    heads.add(head);
+                }
+            }
+            return unique;
+        } finally {
+            for (DataInputStream input : inputs) {
+                if (input != null) {
+                    input.close();
+                }
+            }
+        }
+    }
+
+    private static InputStream openDump(Path dumpFile) throws IOException {
+        InputStream in = Files.newInputStream(dumpFile);
+        return dumpFile.getFileName().toString().endsWith(".gz") ? new GZIPInputStream(in, 1 << 16) : in;
+    }
+
+    private static Set<Long> isbnKeys(JsonNode edition) {
+        Set<Long> keys = new LinkedHashSet<>();
+        for (String field : new String[]{"isbn_13", "isbn_10"}) {
+            for (JsonNode isbn : edition.path(field)) {
+                String isbn13 = WorkService.normalizeIsbn(isbn.asText());
+                if (isbn13 != null && key(isbn13) >= 0) {
+                    keys.add(key(isbn13));
+                }
+            }
+        }
+        return keys;
+    }
+
+    private static int writeRecord(DataOutputStream out, int year, String title, String author) throws IOException {
+        byte[] titleBytes = title.getBytes(StandardCharsets.UTF_8);
+        byte[] authorBytes = author.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(year);
+        writeBytes(out, titleBytes);
+        writeBytes(out, authorBytes);
+        return Short.BYTES * 3 + titleBytes.length + authorBytes.length;
+    }
+
+    private static void writeBytes(OutputStream out, byte[] bytes) throws IOException {
+        out.write(bytes.length >>> 8);
+        out.write(bytes.length);
+        out.write(bytes);
+    }
+
+    // Dump dates are free text: "1965", "March 5, 2001", "c1998"
+    private static int year(String publishDate) {
+        Matcher matcher = YEAR.matcher(publishDate);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : 0;
+    }
+
+    // by_statement reads like "by Frank Herbert." or "Frank Herbert ; illustrated by ..."
+    private static String author(String byStatement) {
+        String author = byStatement.split("[;\\[]", 2)[0].trim();
+        if (author.regionMatches(true, 0, "by ", 0, 3)) {
+            author = author.substring(3).trim();
+        }
+        return author.endsWith(".") ? author.substring(0, author.length() - 1).trim() : author;
+    }
+
+    private static String truncate(String value) {
+        String trimmed = value.trim();
+        return trimmed.length() > MAX_FIELD_CHARS ? trimmed.substring(0, MAX_FIELD_CHARS).trim() : trimmed;
+    }
+}
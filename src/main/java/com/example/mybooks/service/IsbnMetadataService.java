@@ -0,0 +1,132 @@
+package com.example.mybooks.service;
+
+import com.example.mybooks.dto.CreateBookRequest;
+import com.example.mybooks.dto.IsbnMetadata;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Offline ISBN lookups against a local bibliographic dump (isbn.metadata.dump-path), no
+ * network involved. The dump is converted into an IsbnIndex file (isbn.metadata.index-path)
+ * when there is none yet or the dump is newer. The conversion runs on a background thread, so
+ * startup does not wait for it; an older index file stays mapped meanwhile. Until an index
+ * is mapped, isAvailable() is false and lookups find nothing.
+ */
+@Service
+public class IsbnMetadataService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IsbnMetadataService.class);
+
+    private final String dumpPath;
+    private final Path indexPath;
+    private volatile IsbnIndex index;
+
+    private final ExecutorService builder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "isbn-index-builder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public IsbnMetadataService(@Value("${isbn.metadata.dump-path:}") String dumpPath,
+                               @Value("${isbn.metadata.index-path:data/isbn-index.bin}") String indexPath) {
+        this.dumpPath = dumpPath;
+        this.indexPath = Paths.get(indexPath).toAbsolutePath().normalize();
+    }
+
+    @PostConstruct
+    public void loadIndex() {
+        Path dump = dumpPath.isBlank() ? null : Paths.get(dumpPath).toAbsolutePath().normalize();
+        if (Files.isRegularFile(indexPath)) {
+            try {
+                mapIndex();
+            } catch (IOException e) {
+                // Rebuilt below if there is a dump
+                logger.warn("Could not map the ISBN index: {}", e.getMessage());
+            }
+        }
+        try {
+            if (dump != null && Files.isRegularFile(dump) && (index == null
+                    || Files.getLastModifiedTime(dump).compareTo(Files.getLastModifiedTime(indexPath)) > 0)) {
+                builder.submit(() -> buildIndex(dump));
+            }
+        } catch (IOException e) {
+            // The application works without it; only enrichment is off
+            logger.error("Could not check the ISBN dump: {}", e.getMessage());
+        }
+    }
+
+    private void buildIndex(Path dump) {
+        try {
+            long start = System.currentTimeMillis();
+            long count = IsbnIndex.build(dump, indexPath);
+            logger.info("Built ISBN index of {} ISBNs from {} in {} ms", count, dump,
+                    System.currentTimeMillis() - start);
+            mapIndex();
+        } catch (IOException | RuntimeException e) {
+            logger.error("Could not build the ISBN index: {}", e.getMessage());
+        }
+    }
+
+    private void mapIndex() throws IOException {
+        index = IsbnIndex.open(indexPath);
+        logger.info("Mapped ISBN index {} ({} ISBNs)", indexPath, index.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        builder.shutdownNow();
+    }
+
+    public boolean isAvailable() {
+        return index != null;
+    }
+
+    /**
+     * Dump data for a 10 or 13 digit ISBN (hyphens allowed)
+     */
+    public Optional<IsbnMetadata> lookup(String isbn) {
+        if (WorkService.normalizeIsbn(isbn) == null) {
+            throw new IllegalArgumentException("ISBN must be a valid 10 or 13 digit ISBN");
+        }
+        IsbnIndex current = index;
+        return current != null ? current.find(isbn) : Optional.empty();
+    }
+
+    /**
+     * Fill in a blank title or author and a missing year from the dump; given values are kept
+     */
+    public void enrich(CreateBookRequest request) {
+        IsbnIndex current = index;
+        if (current == null || request.getIsbn() == null
+                || (!isBlank(request.getTitle()) && !isBlank(request.getAuthor()) && request.getPublicationYear() != null)) {
+            return;
+        }
+        current.find(request.getIsbn()).ifPresent(metadata -> {
+            if (isBlank(request.getTitle())) {
+                request.setTitle(metadata.getTitle());
+            }
+            if (isBlank(request.getAuthor())) {
+                request.setAuthor(metadata.getAuthor());
+            }
+            if (request.getPublicationYear() == null) {
+                request.setPublicationYear(metadata.getPublicationYear());
+            }
+        });
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
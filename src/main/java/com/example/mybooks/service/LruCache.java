@@ -0,0 +1,61 @@
+package com.example.mybooks.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * Thread-safe LRU map bounded by the total weight of its entries (ResponseCache weighs bytes,
+ * WorkService counts entries). Putting an entry evicts the least recently used ones until the
+ * total is back within the limit.
+ */
+final class LruCache<K, V> {
+
+    private final long maxWeight;
+    private final ToLongBiFunction<K, V> weigher;
+
+    // Access-ordered: iteration starts at the least recently used entry
+    private final LinkedHashMap<K, V> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalWeight;
+
+    LruCache(long maxWeight, ToLongBiFunction<K, V> weigher) {
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    synchronized V get(K key) {
+        return entries.get(key);
+    }
+
+    synchronized void put(K key, V value) {
+        V previous = entries.put(key, value);
+        if (previous != null) {
+            totalWeight -= weigher.applyAsLong(key, previous);
+        }
+        totalWeight += weigher.applyAsLong(key, value);
+
+        Iterator<Map.Entry<K, V>> eldest = entries.entrySet().iterator();
+        while (totalWeight > maxWeight && eldest.hasNext()) {
+            Map.Entry<K, V> entry = eldest.next();
+            totalWeight -= weigher.applyAsLong(entry.getKey(), entry.getValue());
+            eldest.remove();
+        }
+    }
+
+    synchronized void remove(K key) {
+        V previous = entries.remove(key);
+        if (previous != null) {
+            totalWeight -= weigher.applyAsLong(key, previous);
+        }
+    }
+
+    synchronized void clear() {
+        entries.clear();
+        totalWeight = 0;
+    }
+
+    synchronized long getTotalWeight() {
+        return totalWeight;
+    }
+}
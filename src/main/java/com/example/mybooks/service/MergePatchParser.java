@@ -0,0 +1,78 @@
+package com.example.mybooks.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Field;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads a JSON Merge Patch (RFC 7396) against a request DTO.
+ *
+ * Members present in the patch become changes (null clears the value); absent members
+ * are left alone. Each value is converted to the DTO field type and checked against the
+ * field's constraints, so a patch accepts exactly what a full request would.
+ */
+@Component
+public class MergePatchParser {
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    public MergePatchParser(ObjectMapper objectMapper, Validator validator) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+    }
+
+    /**
+     * Changed DTO properties in patch order
+     *
+     * @param notNull properties that may be changed but not cleared
+     * @throws IllegalArgumentException if the patch is not an object or a member is unknown or invalid
+     */
+    public Map<String, Object> parse(JsonNode patch, Class<?> requestType, Set<String> notNull) {
+        if (patch == null || !patch.isObject()) {
+            throw new IllegalArgumentException("Patch must be a JSON object");
+        }
+
+        Map<String, Object> changes = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> members = patch.fields();
+        while (members.hasNext()) {
+            Map.Entry<String, JsonNode> member = members.next();
+            String property = member.getKey();
+            Class<?> type = propertyType(requestType, property);
+
+            Object value;
+            try {
+                value = member.getValue().isNull() ? null : objectMapper.convertValue(member.getValue(), type);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(property + ": Invalid value");
+            }
+            if (value == null && notNull.contains(property)) {
+                throw new IllegalArgumentException(property + ": must not be null");
+            }
+
+            Set<? extends ConstraintViolation<?>> violations = validator.validateValue(requestType, property, value);
+            if (!violations.isEmpty()) {
+                throw new IllegalArgumentException(property + ": " + violations.iterator().next().getMessage());
+            }
+            changes.put(property, value);
+        }
+        return changes;
+    }
+
+    private static Class<?> propertyType(Class<?> requestType, String property) {
+        try {
+            Field field = requestType.getDeclaredField(property);
+            return field.getType();
+        } catch (NoSuchFieldException e) {
+            throw new IllegalArgumentException("Unknown field: " + property);
+        }
+    }
+}
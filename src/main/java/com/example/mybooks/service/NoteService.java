@@ -1,22 +1,27 @@
 package com.example.mybooks.service;
 
+import com.example.mybooks.exception.PreconditionFailedException;
 import com.example.mybooks.model.Note;
 import com.example.mybooks.model.User;
 import com.example.mybooks.dto.CreateNoteRequest;
+import com.example.mybooks.dto.NoteResponse;
 import com.example.mybooks.repository.NoteRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class NoteService {
 
     private final NoteRepository noteRepository;
+    private final CollectionVersionService collectionVersions;
 
-    public NoteService(NoteRepository noteRepository) {
+    public NoteService(NoteRepository noteRepository, CollectionVersionService collectionVersions) {
         this.noteRepository = noteRepository;
+        this.collectionVersions = collectionVersions;
     }
 
     @Transactional
@@ -28,6 +33,7 @@ public class NoteService {
         note.setCreatedAt(LocalDateTime.now());
         note.setUpdatedAt(LocalDateTime.now());
 
+        collectionVersions.bump(CollectionVersionService.NOTES, user.getId());
         return noteRepository.save(note);
     }
 
@@ -35,6 +41,13 @@ public class NoteService {
         return noteRepository.findByUserId(userId);
     }
 
+    /**
+     * List ETag for the user's notes; changes with every write to any of them
+     */
+    public String getUserNotesETag(Long userId) {
+        return collectionVersions.etag(CollectionVersionService.NOTES, userId);
+    }
+
     public Note getNoteById(Long noteId, User user) {
         Note note = noteRepository.findById(noteId)
                 .orElseThrow(() -> new IllegalArgumentException("Note not found"));
@@ -47,40 +60,58 @@ public class NoteService {
         return note;
     }
 
+    /**
+     * Access Control: the UPDATE only matches the user's own note (and, with If-Match, its
+     * version). The note is read only when nothing was updated, to tell 404 from 403 and 412.
+     */
     @Transactional
-    public Note updateNote(Long noteId, CreateNoteRequest request, User user) {
-        Note note = noteRepository.findById(noteId)
-                .orElseThrow(() -> new IllegalArgumentException("Note not found"));
+    public NoteResponse updateNote(Long noteId, CreateNoteRequest request, User user, List<Long> ifMatchVersions) {
+        collectionVersions.bump(CollectionVersionService.NOTES, user.getId());
+        return noteRepository.updateOwned(noteId, user.getId(), request, ifMatchVersions)
+                .orElseThrow(() -> notWritten(noteId, user, "Unauthorized to update this note"));
+    }
 
-        // Access Control: user can only update their own notes
-        if (!note.getUser().getId().equals(user.getId())) {
-            throw new SecurityException("Unauthorized to update this note");
+    /**
+     * Apply parsed merge-patch changes; a patch that changes nothing writes nothing,
+     * not even the collection version
+     */
+    @Transactional
+    public NoteResponse patchNote(Long noteId, Map<String, Object> changes, User user, List<Long> ifMatchVersions) {
+        if (!changes.isEmpty()) {
+            var patched = noteRepository.patchOwned(noteId, user.getId(), changes, ifMatchVersions);
+            if (patched.isPresent()) {
+                collectionVersions.bump(CollectionVersionService.NOTES, user.getId());
+                return patched.get();
+            }
         }
-
-        note.setTitle(request.getTitle());
-        note.setContent(request.getContent());
-        note.setUpdatedAt(LocalDateTime.now());
-
-        return noteRepository.save(note);
+        Note current = getNoteById(noteId, user);
+        if (ifMatchVersions != null && !ifMatchVersions.contains(current.getVersion())) {
+            throw new PreconditionFailedException("Note has been modified");
+        }
+        return new NoteResponse(current);
     }
 
+    // Access Control: user can only delete their own notes (checked in the DELETE itself)
     @Transactional
-    public void deleteNote(Long noteId, User user) {
-        Note note = noteRepository.findById(noteId)
-                .orElseThrow(() -> new IllegalArgumentException("Note not found"));
-
-        // Access Control: user can only delete their own notes
-        if (!note.getUser().getId().equals(user.getId())) {
-            throw new SecurityException("Unauthorized to delete this note");
+    public void deleteNote(Long noteId, User user, List<Long> ifMatchVersions) {
+        collectionVersions.bump(CollectionVersionService.NOTES, user.getId());
+        int deleted = ifMatchVersions != null
+                ? noteRepository.deleteOwnedIfVersion(noteId, user.getId(), ifMatchVersions)
+                : noteRepository.deleteOwned(noteId, user.getId());
+        if (deleted == 0) {
+            throw notWritten(noteId, user, "Unauthorized to delete this note");
         }
-
-        noteRepository.delete(note);
     }
 
-    // Using raw SQL query (from repository)
-    public List<Note> searchNotes(String searchTerm, User user) {
-        String searchPattern = "%" + searchTerm + "%";
-        return noteRepository.searchNotesByTitle(user.getId(), searchPattern);
+    private RuntimeException notWritten(Long noteId, User user, String unauthorizedMessage) {
+        Note current = noteRepository.findById(noteId).orElse(null);
+        if (current == null) {
+            return new IllegalArgumentException("Note not found");
+        }
+        if (!current.getUser().getId().equals(user.getId())) {
+            return new SecurityException(unauthorizedMessage);
+        }
+        return new PreconditionFailedException("Note has been modified");
     }
 
     // Using raw SQL query
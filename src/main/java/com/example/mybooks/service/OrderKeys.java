@@ -0,0 +1,123 @@
+package com.example.mybooks.service;
+
+/**
+ * Fractional indexing: string keys whose byte order is the item order, with a key between
+ * any two keys. Inserting or moving an item only assigns it a new key; its neighbours keep
+ * theirs.
+ *
+ * A key is a base-62 fraction (digits 0-9A-Za-z, which sort in ASCII order) without
+ * trailing zeros: "V" is 0.5, "VV" lies between "V" and "W". Keys are never empty, and
+ * SQLite's default BINARY collation compares them exactly as String.compareTo does.
+ * Appending or prepending steps the first digit that can move, so keys grow by one character
+ * per 30 to 60 items added at an end; repeated inserts at the same spot grow them by one
+ * character per ~6 inserts. spread() hands out fresh short keys when they got too long.
+ */
+public final class OrderKeys {
+
+    static final String DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+    private static final int BASE = DIGITS.length();
+
+    private OrderKeys() {
+    }
+
+    /**
+     * A key after lower and before upper; null stands for the start or end of the list
+     */
+    public static String between(String lower, String upper) {
+        if (lower != null && upper != null && lower.compareTo(upper) >= 0) {
+            throw new IllegalArgumentException("Keys out of order: " + lower + " >= " + upper);
+        }
+        if (lower == null && upper == null) {
+            return String.valueOf(DIGITS.charAt(BASE / 2));
+        }
+        if (lower == null) {
+            return before(upper);
+        }
+        if (upper == null) {
+            return after(lower);
+        }
+        return midpoint(lower, upper);
+    }
+
+    // Increment the first digit that is not the largest: "k" -> "l", "zV" -> "zW", "z" -> "z1"
+    private static String after(String key) {
+        for (int i = 0; i < key.length(); i++) {
+            int digit = digit(key.charAt(i));
+            if (digit < BASE - 1) {
+                return key.substring(0, i) + DIGITS.charAt(digit + 1);
+            }
+        }
+        return key + DIGITS.charAt(1);
+    }
+
+    // Decrement the first digit above 1 (a key must not end in 0): "V" -> "U", "1" -> "0V"
+    private static String before(String key) {
+        for (int i = 0; i < key.length(); i++) {
+            int digit = digit(key.charAt(i));
+            if (digit > 1) {
+                return key.substring(0, i) + DIGITS.charAt(digit - 1);
+            }
+        }
+        return midpoint("", key);
+    }
+
+    // Midpoint of two fractions, upper null meaning 1; lower may be "" (0)
+    private static String midpoint(String lower, String upper) {
+        if (upper != null) {
+            // Copy the common prefix, reading missing lower digits as 0
+            int n = 0;
+            while (n < upper.length() && (n < lower.length() ? lower.charAt(n) : DIGITS.charAt(0)) == upper.charAt(n)) {
+                n++;
+            }
+            if (n > 0) {
+                return upper.substring(0, n) + midpoint(lower.substring(Math.min(n, lower.length())), upper.substring(n));
+            }
+        }
+        int lowerDigit = lower.isEmpty() ? 0 : digit(lower.charAt(0));
+        int upperDigit = upper != null ? digit(upper.charAt(0)) : BASE;
+        if (upperDigit - lowerDigit > 1) {
+            return String.valueOf(DIGITS.charAt((lowerDigit + upperDigit + 1) / 2));
+        }
+        // Adjacent first digits: the upper digit alone if upper goes on, else extend lower
+        if (upper != null && upper.length() > 1) {
+            return upper.substring(0, 1);
+        }
+        return DIGITS.charAt(lowerDigit) + midpoint(lower.isEmpty() ? "" : lower.substring(1), null);
+    }
+
+    /**
+     * count ascending keys spaced evenly over the key space, each as short as the count allows
+     * (two characters up to 61 items, three up to 3843, ...)
+     */
+    public static String[] spread(int count) {
+        int length = 1;
+        long space = BASE;
+        while (space < (long) BASE * (count + 1)) {
+            length++;
+            space *= BASE;
+        }
+        String[] keys = new String[count];
+        for (int i = 0; i < count; i++) {
+            long value = space / (count + 1) * (i + 1);
+            char[] digits = new char[length];
+            for (int d = length - 1; d >= 0; d--) {
+                digits[d] = DIGITS.charAt((int) (value % BASE));
+                value /= BASE;
+            }
+            int end = length;
+            while (digits[end - 1] == DIGITS.charAt(0)) {
+                end--;
+            }
+            keys[i] = new String(digits, 0, end);
+        }
+        return keys;
+    }
+
+    private static int digit(char c) {
+        int digit = DIGITS.indexOf(c);
+        if (digit < 0) {
+            throw new IllegalArgumentException("Invalid order key character: " + c);
+        }
+        return digit;
+    }
+}
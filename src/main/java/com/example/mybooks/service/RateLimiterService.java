@@ -1,5 +1,7 @@
 package com.example.mybooks.service;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
@@ -27,6 +29,12 @@ public class RateLimiterService {
     private static final long CLEANUP_INTERVAL = 5 * 60 * 1000;
     private long lastCleanup = System.currentTimeMillis();
 
+    public RateLimiterService(MeterRegistry meterRegistry) {
+        Gauge.builder("mybooks.ratelimit.tracked.keys", requestStore, Map::size)
+                .description("IP/limit-type pairs currently tracked by the rate limiter")
+                .register(meterRegistry);
+    }
+
     /**
      * Check if request is allowed for login endpoint
      * Limit: 5 attempts per minute
@@ -0,0 +1,97 @@
+package com.example.mybooks.service;
+
+import com.example.mybooks.monitoring.RequestMetricsContext;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.UncheckedIOException;
+import java.util.function.Supplier;
+
+/**
+ * Serialized JSON bodies of list responses, keyed by collection ETag and request.
+ *
+ * The collection ETag (see CollectionVersionService) already names the user and the
+ * version of their books or notes, so a write makes every older entry unreachable and
+ * nothing has to be invalidated; stale entries simply age out. A hit returns the stored
+ * bytes without running the query or Jackson. The cache is LRU and bounded by total bytes
+ * (bodies plus keys); a body larger than an eighth of the capacity is not cached.
+ */
+@Service
+public class ResponseCache {
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final long maxBytes;
+    private final Counter hits;
+    private final Counter misses;
+
+    private final LruCache<String, byte[]> entries;
+
+    public ResponseCache(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${response.cache.enabled:true}") boolean enabled,
+            @Value("${response.cache.max-bytes:33554432}") long maxBytes) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.maxBytes = maxBytes;
+        this.entries = new LruCache<>(maxBytes, ResponseCache::weigh);
+        this.hits = meterRegistry.counter("mybooks.response.cache", "result", "hit");
+        this.misses = meterRegistry.counter("mybooks.response.cache", "result", "miss");
+    }
+
+    /**
+     * Cached body for the collection version and request, or the serialized result of the
+     * query (cached for the next caller). Exceptions from the query propagate and nothing is stored.
+     */
+    public byte[] get(String collectionETag, String request, Supplier<?> query) {
+        if (!enabled) {
+            return serialize(query.get());
+        }
+
+        String key = collectionETag + " " + request;
+        byte[] body = entries.get(key);
+        if (body != null) {
+            hits.increment();
+            return body;
+        }
+
+        misses.increment();
+        body = serialize(query.get());
+        put(key, body);
+        return body;
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public long getTotalBytes() {
+        return entries.getTotalWeight();
+    }
+
+    private void put(String key, byte[] body) {
+        if (weigh(key, body) <= maxBytes / 8) {
+            entries.put(key, body);
+        }
+    }
+
+    private static long weigh(String key, byte[] body) {
+        return body.length + 2L * key.length();
+    }
+
+    private byte[] serialize(Object value) {
+        long start = System.nanoTime();
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            RequestMetricsContext.recordStage(RequestMetricsContext.Stage.SERIALIZATION, System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.mybooks.service;
+
+import com.example.mybooks.dto.CursorPage;
+import com.example.mybooks.dto.SearchHit;
+import com.example.mybooks.repository.BookRepository;
+import com.example.mybooks.repository.NoteRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Full-text search over a user's books and notes (SQLite FTS5, see V11 and V16).
+ *
+ * The user's text is never passed to MATCH as query syntax: each word becomes a quoted
+ * phrase and the last one also matches as a prefix, so "dune her" finds "Dune" by
+ * "Frank Herbert" and no input can produce an FTS5 syntax error. All words must match.
+ * Results are ranked by bm25 and paginated by offset, down to MAX_DEPTH hits. bm25 scores
+ * depend on the whole index and change with any user's writes, so a score is no stable
+ * keyset; pages are approximate when the ranking changes between requests.
+ */
+@Service
+public class SearchService {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    // Deepest hit reachable by paging; refine the query instead
+    public static final int MAX_DEPTH = 1000;
+    private static final int MAX_TERMS = 16;
+
+    private final BookRepository bookRepository;
+    private final NoteRepository noteRepository;
+
+    public SearchService(BookRepository bookRepository, NoteRepository noteRepository) {
+        this.bookRepository = bookRepository;
+        this.noteRepository = noteRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<SearchHit> searchBooks(Long userId, String query, String cursor, Integer limit) {
+        String match = toMatch(query);
+        int offset = cursor != null ? decodeCursor(cursor, "books") : 0;
+        int pageSize = Math.min(pageSize(limit), MAX_DEPTH - offset);
+        return page(bookRepository.search(userId, match, offset, pageSize + 1), offset, pageSize,
+                "books");
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<SearchHit> searchNotes(Long userId, String query, String cursor, Integer limit) {
+        String match = toMatch(query);
+        int offset = cursor != null ? decodeCursor(cursor, "notes") : 0;
+        int pageSize = Math.min(pageSize(limit), MAX_DEPTH - offset);
+        return page(noteRepository.search(userId, match, offset, pageSize + 1), offset, pageSize,
+                "notes");
+    }
+
+    /**
+     * FTS5 query for the user's words: "w1" "w2" ... "wn"* (implicit AND)
+     */
+    static String toMatch(String query) {
+        List<String> words = new ArrayList<>();
+        if (query != null) {
+            for (String word : query.trim().split("\\s+")) {
+                if (!word.isEmpty() && words.size() < MAX_TERMS) {
+                    words.add(word);
+                }
+            }
+        }
+        if (words.isEmpty()) {
+            throw new IllegalArgumentException("Search query must not be empty");
+        }
+
+        StringJoiner match = new StringJoiner(" ");
+        for (String word : words) {
+            // Inside an FTS5 string a double quote is escaped by doubling it
+            match.add("\"" + word.replace("\"", "\"\"") + "\"");
+        }
+        return match + "*";
+    }
+
+    private static int pageSize(Integer limit) {
+        int pageSize = limit != null ? limit : DEFAULT_PAGE_SIZE;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return pageSize;
+    }
+
+    // One extra row tells us whether there is a next page
+    private static CursorPage<SearchHit> page(List<SearchHit> hits, int offset, int pageSize, String collection) {
+        int next = offset + pageSize;
+        if (hits.size() <= pageSize || next >= MAX_DEPTH) {
+            return new CursorPage<>(hits.subList(0, Math.min(hits.size(), pageSize)), null);
+        }
+        return new CursorPage<>(hits.subList(0, pageSize), encodeCursor(collection, next));
+    }
+
+    // Cursor format before base64url: "<books|notes>|<offset>"
+    private static String encodeCursor(String collection, int offset) {
+        String raw = collection + "|" + offset;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int decodeCursor(String cursor, String collection) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 2 || !parts[0].equals(collection)) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            int offset = Integer.parseInt(parts[1]);
+            if (offset <= 0 || offset >= MAX_DEPTH) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return offset;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,749 @@
+package com.example.mybooks.service;
+
+import com.example.mybooks.model.SecurityEventType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Structured, queryable store for security events.
+ *
+ * Layout on disk (one set of files per UTC day):
+ * - security-YYYY-MM-DD.seg  append-only binary segment for the current day
+ * - security-YYYY-MM-DD.segz sealed segment, compressed in independent 64 KB blocks
+ * - security-YYYY-MM-DD.idx  sealed index, memory-mapped at query time
+ *
+ * The sealed index holds two sorted sections of fixed-size entries:
+ * (ipHash, timestamp) and (eventType, timestamp), each pointing at a block and an
+ * offset inside that block. A query binary-searches the mapped index and only
+ * inflates the blocks that actually contain matches.
+ *
+ * Unsealed segments (today, or days still waiting to be sealed) are indexed in memory.
+ * The active day only moves forward. An event whose day is already sealed, or being sealed,
+ * (a thread that read the clock just before midnight) goes to the active segment instead, so
+ * a day's files are never written again once sealing starts; queries look one day further
+ * to find such events.
+ */
+@Service
+public class SecurityEventStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(SecurityEventStore.class);
+
+    private static final String PREFIX = "security-";
+    private static final String RAW_SUFFIX = ".seg";
+    private static final String SEALED_SUFFIX = ".segz";
+    private static final String INDEX_SUFFIX = ".idx";
+
+    private static final int SEALED_MAGIC = 0x4D425345;  // "MBSE"
+    private static final int INDEX_MAGIC = 0x4D425349;   // "MBSI"
+    private static final int BLOCK_SIZE = 64 * 1024;
+    private static final int INDEX_HEADER_SIZE = 8;
+    private static final int INDEX_ENTRY_SIZE = 24;
+    // Field lengths are stored as unsigned shorts and UTF-8 needs at most 3 bytes per char
+    private static final int MAX_FIELD_CHARS = 0xffff / 3;
+
+    @Value("${security.events.enabled:true}")
+    private boolean enabled;
+
+    @Value("${security.events.dir:logs/events}")
+    private String directory;
+
+    private Clock clock = Clock.systemUTC();
+
+    private Path root;
+    private LocalDate activeDay;
+
+    private final Map<LocalDate, ActiveSegment> openSegments = new ConcurrentHashMap<>();
+    private final Map<LocalDate, SealedSegment> sealedSegments = new ConcurrentHashMap<>();
+    private final Object sealLock = new Object();
+
+    private final ExecutorService sealer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "security-event-sealer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * A single decoded security event
+     */
+    public record SecurityEvent(Instant timestamp, SecurityEventType type, String ipAddress, String details) {
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            root = Paths.get(directory);
+            Files.createDirectories(root);
+
+            LocalDate today = LocalDate.now(clock);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(root, PREFIX + "*" + RAW_SUFFIX)) {
+                for (Path file : files) {
+                    LocalDate day = dayOf(file, RAW_SUFFIX);
+                    if (day == null) {
+                        continue;
+                    }
+
+                    // Crash between writing the index and deleting the raw segment
+                    if (Files.exists(file(day, INDEX_SUFFIX))) {
+                        Files.delete(file);
+                        continue;
+                    }
+
+                    // Today's segment is reopened right away, so its events stay queryable
+                    openSegments.put(day, new ActiveSegment(file));
+                    if (day.isBefore(today)) {
+                        sealer.submit(() -> seal(day));
+                    } else if (activeDay == null || day.isAfter(activeDay)) {
+                        activeDay = day;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Security event store disabled: cannot open {}", directory, e);
+            enabled = false;
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        sealer.shutdown();
+        synchronized (this) {
+            for (ActiveSegment segment : openSegments.values()) {
+                segment.closeQuietly();
+            }
+            for (SealedSegment segment : sealedSegments.values()) {
+                segment.closeQuietly();
+            }
+        }
+    }
+
+    /**
+     * Append an event to today's segment.
+     * Failures are logged and swallowed: the text log remains the source of truth.
+     */
+    public void append(SecurityEventType type, String ipAddress, String details) {
+        if (!enabled) {
+            return;
+        }
+
+        long now = clock.millis();
+        LocalDate day = Instant.ofEpochMilli(now).atZone(ZoneOffset.UTC).toLocalDate();
+
+        try {
+            synchronized (this) {
+                if (activeDay == null || day.isAfter(activeDay)) {
+                    rotateTo(day);
+                }
+                ActiveSegment segment = openSegments.get(day);
+                if (segment == null || segment.sealing) {
+                    // Late event for a day that is sealed or being sealed
+                    segment = openSegments.get(activeDay);
+                }
+                segment.append(now, type, ipAddress, details);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to append security event {}: {}", type, e.getMessage());
+        }
+    }
+
+    /**
+     * Find events for an IP address and/or event type within a time range, newest first.
+     *
+     * @param ipAddress exact IP address to match (nullable when type is given)
+     * @param type      event type to match (nullable when ipAddress is given)
+     */
+    public List<SecurityEvent> query(String ipAddress, SecurityEventType type,
+                                     Instant from, Instant to, int limit) throws IOException {
+        if (ipAddress == null && type == null) {
+            throw new IllegalArgumentException("Either ipAddress or type is required");
+        }
+        if (!enabled) {
+            return List.of();
+        }
+
+        long fromMillis = from.toEpochMilli();
+        long toMillis = to.toEpochMilli();
+        List<SecurityEvent> results = new ArrayList<>();
+
+        LocalDate firstDay = from.atZone(ZoneOffset.UTC).toLocalDate();
+        // Late events of the last day may have gone to the next day's segment
+        LocalDate lastDay = to.atZone(ZoneOffset.UTC).toLocalDate().plusDays(1);
+
+        for (LocalDate day = lastDay; !day.isBefore(firstDay); day = day.minusDays(1)) {
+            int mark = results.size();
+
+            ActiveSegment active = openSegments.get(day);
+            // A segment closed by the sealer after the lookup is answered by its sealed files
+            if (active == null || !active.query(ipAddress, type, fromMillis, toMillis, results)) {
+                SealedSegment sealed = sealedSegment(day);
+                if (sealed != null) {
+                    sealed.query(ipAddress, type, fromMillis, toMillis, results);
+                }
+            }
+
+            // Segments yield events in append order; flip so same-millisecond events stay newest first
+            Collections.reverse(results.subList(mark, results.size()));
+        }
+
+        results.sort(Comparator.comparing(SecurityEvent::timestamp).reversed());
+        return results.size() > limit ? new ArrayList<>(results.subList(0, limit)) : results;
+    }
+
+    /**
+     * Seal a finished day now instead of waiting for the sealer (used by tests).
+     * The active day cannot be sealed.
+     */
+    void sealDay(LocalDate day) {
+        synchronized (this) {
+            if (activeDay != null && !day.isBefore(activeDay)) {
+                throw new IllegalStateException("Cannot seal the active day " + day);
+            }
+        }
+        seal(day);
+    }
+
+    // Only called with a day after the active one
+    private void rotateTo(LocalDate day) throws IOException {
+        LocalDate previous = activeDay;
+        if (!openSegments.containsKey(day)) {
+            openSegments.put(day, new ActiveSegment(file(day, RAW_SUFFIX)));
+        }
+        activeDay = day;
+
+        if (previous != null) {
+            sealer.submit(() -> seal(previous));
+        }
+    }
+
+    private SealedSegment sealedSegment(LocalDate day) throws IOException {
+        SealedSegment segment = sealedSegments.get(day);
+        if (segment != null) {
+            return segment;
+        }
+
+        synchronized (this) {
+            segment = sealedSegments.get(day);
+            if (segment == null && Files.exists(file(day, INDEX_SUFFIX))) {
+                segment = new SealedSegment(file(day, SEALED_SUFFIX), file(day, INDEX_SUFFIX));
+                sealedSegments.put(day, segment);
+            }
+            return segment;
+        }
+    }
+
+    /**
+     * Compress a finished day into independently inflatable blocks and write its sorted index.
+     */
+    private void seal(LocalDate day) {
+        synchronized (sealLock) {
+            ActiveSegment segment;
+            synchronized (this) {
+                segment = openSegments.get(day);
+                if (segment == null || (activeDay != null && !day.isBefore(activeDay))) {
+                    return;
+                }
+                // From here on, appends for this day go to the active segment
+                segment.sealing = true;
+            }
+            seal(day, segment);
+        }
+    }
+
+    private void seal(LocalDate day, ActiveSegment segment) {
+
+        Path sealedFile = file(day, SEALED_SUFFIX);
+        Path indexFile = file(day, INDEX_SUFFIX);
+        Path sealedTmp = root.resolve(sealedFile.getFileName() + ".tmp");
+        Path indexTmp = root.resolve(indexFile.getFileName() + ".tmp");
+
+        try {
+            List<IndexEntry> ipEntries = new ArrayList<>();
+            List<IndexEntry> typeEntries = new ArrayList<>();
+            List<long[]> blocks = new ArrayList<>();
+
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment.path)));
+                 FileChannel out = FileChannel.open(sealedTmp, StandardOpenOption.CREATE,
+                         StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+
+                ByteArrayOutputStream block = new ByteArrayOutputStream(BLOCK_SIZE + 1024);
+                long remaining = segment.size;
+
+                while (remaining > 0) {
+                    int length = in.readInt();
+                    byte[] body = new byte[length];
+                    in.readFully(body);
+                    remaining -= 4 + length;
+
+                    if (block.size() > 0 && block.size() + 4 + length > BLOCK_SIZE) {
+                        blocks.add(writeBlock(out, block.toByteArray()));
+                        block.reset();
+                    }
+
+                    ByteBuffer header = ByteBuffer.wrap(body);
+                    long timestamp = header.getLong();
+                    int typeCode = header.getShort();
+                    String ip = readString(header);
+
+                    int blockNo = blocks.size();
+                    int offset = block.size();
+                    ipEntries.add(new IndexEntry(ipHash(ip), timestamp, blockNo, offset));
+                    typeEntries.add(new IndexEntry(typeCode, timestamp, blockNo, offset));
+
+                    block.write(ByteBuffer.allocate(4).putInt(length).array());
+                    block.write(body);
+                }
+                if (block.size() > 0) {
+                    blocks.add(writeBlock(out, block.toByteArray()));
+                }
+
+                ByteBuffer footer = ByteBuffer.allocate(blocks.size() * 16 + 8);
+                for (long[] entry : blocks) {
+                    footer.putLong(entry[0]).putInt((int) entry[1]).putInt((int) entry[2]);
+                }
+                footer.putInt(blocks.size()).putInt(SEALED_MAGIC).flip();
+                out.write(footer);
+                out.force(true);
+            }
+
+            ipEntries.sort(IndexEntry.ORDER);
+            typeEntries.sort(IndexEntry.ORDER);
+
+            try (FileChannel out = FileChannel.open(indexTmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocate(INDEX_HEADER_SIZE + 2 * ipEntries.size() * INDEX_ENTRY_SIZE);
+                buffer.putInt(INDEX_MAGIC).putInt(ipEntries.size());
+                for (IndexEntry entry : ipEntries) {
+                    entry.writeTo(buffer);
+                }
+                for (IndexEntry entry : typeEntries) {
+                    entry.writeTo(buffer);
+                }
+                buffer.flip();
+                out.write(buffer);
+                out.force(true);
+            }
+
+            Files.move(sealedTmp, sealedFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.move(indexTmp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            synchronized (this) {
+                openSegments.remove(day);
+                segment.closeQuietly();
+            }
+            Files.deleteIfExists(segment.path);
+
+            logger.info("Sealed security event segment {}: {} events in {} blocks",
+                    day, ipEntries.size(), blocks.size());
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to seal security event segment {}", day, e);
+        }
+    }
+
+    private static long[] writeBlock(FileChannel out, byte[] raw) throws IOException {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 4 + 64);
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(chunk);
+                compressed.write(chunk, 0, count);
+            }
+
+            long position = out.position();
+            byte[] bytes = compressed.toByteArray();
+            out.write(ByteBuffer.wrap(bytes));
+            return new long[]{position, bytes.length, raw.length};
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private Path file(LocalDate day, String suffix) {
+        return root.resolve(PREFIX + day + suffix);
+    }
+
+    private static LocalDate dayOf(Path file, String suffix) {
+        String name = file.getFileName().toString();
+        try {
+            return LocalDate.parse(name.substring(PREFIX.length(), name.length() - suffix.length()));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the IP string, used as the sort key of the IP index section
+     */
+    private static long ipHash(String ip) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : ip.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static byte[] encode(long timestamp, SecurityEventType type, String ip, String details) {
+        byte[] ipBytes = ip.getBytes(StandardCharsets.UTF_8);
+        byte[] detailBytes = details.getBytes(StandardCharsets.UTF_8);
+        int length = 8 + 2 + 2 + ipBytes.length + 2 + detailBytes.length;
+
+        ByteBuffer buffer = ByteBuffer.allocate(4 + length);
+        buffer.putInt(length)
+                .putLong(timestamp)
+                .putShort((short) type.getCode())
+                .putShort((short) ipBytes.length).put(ipBytes)
+                .putShort((short) detailBytes.length).put(detailBytes);
+        return buffer.array();
+    }
+
+    private static SecurityEvent decode(ByteBuffer body) {
+        long timestamp = body.getLong();
+        SecurityEventType type = SecurityEventType.fromCode(body.getShort());
+        String ip = readString(body);
+        String details = readString(body);
+        return new SecurityEvent(Instant.ofEpochMilli(timestamp), type, ip, details);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getShort() & 0xffff;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String truncate(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.length() > MAX_FIELD_CHARS ? value.substring(0, MAX_FIELD_CHARS) : value;
+    }
+
+    private static boolean matches(SecurityEvent event, String ipAddress, SecurityEventType type,
+                                   long from, long to) {
+        long timestamp = event.timestamp().toEpochMilli();
+        return timestamp >= from && timestamp <= to
+                && (ipAddress == null || ipAddress.equals(event.ipAddress()))
+                && (type == null || type == event.type());
+    }
+
+    /**
+     * Segment still being written (or waiting to be sealed), indexed in memory
+     */
+    private static final class ActiveSegment {
+
+        final Path path;
+        final FileChannel channel;
+        long size;
+        // Set (under the store's lock) once sealing starts; the segment takes no more appends
+        boolean sealing;
+        // Set under the segment's monitor when the sealer closes the channel
+        boolean closed;
+
+        final Map<String, Postings> byIp = new HashMap<>();
+        final Map<SecurityEventType, Postings> byType = new EnumMap<>(SecurityEventType.class);
+
+        ActiveSegment(Path path) throws IOException {
+            this.path = path;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            rebuildIndex();
+        }
+
+        /**
+         * Rebuild the in-memory index from an existing file, dropping a torn trailing record
+         */
+        private void rebuildIndex() throws IOException {
+            long fileSize = channel.size();
+            long position = 0;
+            ByteBuffer lengthBuffer = ByteBuffer.allocate(4);
+
+            while (position + 4 <= fileSize) {
+                lengthBuffer.clear();
+                channel.read(lengthBuffer, position);
+                int length = lengthBuffer.flip().getInt();
+                if (length <= 0 || position + 4 + length > fileSize) {
+                    break;
+                }
+
+                ByteBuffer body = ByteBuffer.allocate(length);
+                channel.read(body, position + 4);
+                SecurityEvent event = decode(body.flip());
+                addPosting(event.ipAddress(), event.type(), event.timestamp().toEpochMilli(), position);
+                position += 4 + length;
+            }
+
+            if (position < fileSize) {
+                channel.truncate(position);
+            }
+            size = position;
+            channel.position(size);
+        }
+
+        synchronized void append(long timestamp, SecurityEventType type, String ip, String details)
+                throws IOException {
+            ip = truncate(ip);
+            byte[] record = encode(timestamp, type, ip, truncate(details));
+            ByteBuffer buffer = ByteBuffer.wrap(record);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, size + buffer.position());
+            }
+            addPosting(ip, type, timestamp, size);
+            size += record.length;
+        }
+
+        private void addPosting(String ip, SecurityEventType type, long timestamp, long offset) {
+            byIp.computeIfAbsent(ip, key -> new Postings()).add(timestamp, offset);
+            byType.computeIfAbsent(type, key -> new Postings()).add(timestamp, offset);
+        }
+
+        /**
+         * Add matching events in append order; false (adding nothing) once the segment is closed.
+         * Reads hold the monitor so the sealer cannot close the channel underneath them.
+         */
+        synchronized boolean query(String ipAddress, SecurityEventType type, long from, long to,
+                                   List<SecurityEvent> results) throws IOException {
+            if (closed) {
+                return false;
+            }
+            Postings postings = ipAddress != null ? byIp.get(ipAddress) : byType.get(type);
+            if (postings == null) {
+                return true;
+            }
+            long[] offsets = postings.offsetsBetween(from, to);
+
+            ByteBuffer lengthBuffer = ByteBuffer.allocate(4);
+            for (long offset : offsets) {
+                lengthBuffer.clear();
+                channel.read(lengthBuffer, offset);
+                ByteBuffer body = ByteBuffer.allocate(lengthBuffer.flip().getInt());
+                channel.read(body, offset + 4);
+
+                SecurityEvent event = decode(body.flip());
+                if (matches(event, ipAddress, type, from, to)) {
+                    results.add(event);
+                }
+            }
+            return true;
+        }
+
+        synchronized void closeQuietly() {
+            closed = true;
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // nothing useful to do
+            }
+        }
+    }
+
+    /**
+     * Timestamp-ordered postings list of record offsets
+     */
+    private static final class Postings {
+
+        long[] timestamps = new long[16];
+        long[] offsets = new long[16];
+        int size;
+
+        void add(long timestamp, long offset) {
+            if (size == timestamps.length) {
+                timestamps = Arrays.copyOf(timestamps, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 2);
+            }
+            // Appends are nearly in timestamp order (threads read the clock before taking the
+            // lock, late events); shift the few newer entries to keep the list sorted
+            int at = size;
+            while (at > 0 && timestamps[at - 1] > timestamp) {
+                timestamps[at] = timestamps[at - 1];
+                offsets[at] = offsets[at - 1];
+                at--;
+            }
+            timestamps[at] = timestamp;
+            offsets[at] = offset;
+            size++;
+        }
+
+        long[] offsetsBetween(long from, long to) {
+            int start = 0;
+            int end = size;
+            while (start < end) {
+                int mid = (start + end) >>> 1;
+                if (timestamps[mid] < from) {
+                    start = mid + 1;
+                } else {
+                    end = mid;
+                }
+            }
+
+            int stop = start;
+            while (stop < size && timestamps[stop] <= to) {
+                stop++;
+            }
+            return Arrays.copyOfRange(offsets, start, stop);
+        }
+    }
+
+    /**
+     * Sealed, block-compressed segment with a memory-mapped sorted index
+     */
+    private static final class SealedSegment {
+
+        final FileChannel data;
+        final FileChannel indexChannel;
+        final MappedByteBuffer index;
+        final int count;
+        final long[] blockOffsets;
+        final int[] blockCompressedSizes;
+        final int[] blockRawSizes;
+
+        SealedSegment(Path dataFile, Path indexFile) throws IOException {
+            this.data = FileChannel.open(dataFile, StandardOpenOption.READ);
+            this.indexChannel = FileChannel.open(indexFile, StandardOpenOption.READ);
+            this.index = indexChannel.map(FileChannel.MapMode.READ_ONLY, 0, indexChannel.size());
+
+            if (index.getInt(0) != INDEX_MAGIC) {
+                throw new IOException("Corrupt security event index: " + indexFile);
+            }
+            this.count = index.getInt(4);
+
+            ByteBuffer trailer = ByteBuffer.allocate(8);
+            data.read(trailer, data.size() - 8);
+            int blocks = trailer.flip().getInt();
+            if (trailer.getInt() != SEALED_MAGIC) {
+                throw new IOException("Corrupt security event segment: " + dataFile);
+            }
+
+            ByteBuffer table = ByteBuffer.allocate(blocks * 16);
+            data.read(table, data.size() - 8 - blocks * 16L);
+            table.flip();
+
+            blockOffsets = new long[blocks];
+            blockCompressedSizes = new int[blocks];
+            blockRawSizes = new int[blocks];
+            for (int i = 0; i < blocks; i++) {
+                blockOffsets[i] = table.getLong();
+                blockCompressedSizes[i] = table.getInt();
+                blockRawSizes[i] = table.getInt();
+            }
+        }
+
+        void query(String ipAddress, SecurityEventType type, long from, long to,
+                   List<SecurityEvent> results) throws IOException {
+            int section = ipAddress != null ? 0 : 1;
+            long key = ipAddress != null ? ipHash(ipAddress) : type.getCode();
+
+            Map<Integer, ByteBuffer> inflated = new HashMap<>();
+            for (int i = lowerBound(section, key, from); i < count; i++) {
+                int position = entryPosition(section, i);
+                if (index.getLong(position) != key || index.getLong(position + 8) > to) {
+                    break;
+                }
+
+                int block = index.getInt(position + 16);
+                int offset = index.getInt(position + 20);
+
+                ByteBuffer raw = inflated.get(block);
+                if (raw == null) {
+                    raw = inflate(block);
+                    inflated.put(block, raw);
+                }
+
+                int length = raw.getInt(offset);
+                SecurityEvent event = decode(raw.slice(offset + 4, length));
+                if (matches(event, ipAddress, type, from, to)) {
+                    results.add(event);
+                }
+            }
+        }
+
+        private int lowerBound(int section, long key, long from) {
+            int start = 0;
+            int end = count;
+            while (start < end) {
+                int mid = (start + end) >>> 1;
+                int position = entryPosition(section, mid);
+                long midKey = index.getLong(position);
+                long midTimestamp = index.getLong(position + 8);
+                if (midKey < key || (midKey == key && midTimestamp < from)) {
+                    start = mid + 1;
+                } else {
+                    end = mid;
+                }
+            }
+            return start;
+        }
+
+        private int entryPosition(int section, int i) {
+            return INDEX_HEADER_SIZE + (section * count + i) * INDEX_ENTRY_SIZE;
+        }
+
+        private ByteBuffer inflate(int block) throws IOException {
+            ByteBuffer compressed = ByteBuffer.allocate(blockCompressedSizes[block]);
+            data.read(compressed, blockOffsets[block]);
+
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(compressed.array());
+                byte[] raw = new byte[blockRawSizes[block]];
+                int total = 0;
+                while (total < raw.length && !inflater.finished()) {
+                    total += inflater.inflate(raw, total, raw.length - total);
+                }
+                return ByteBuffer.wrap(raw);
+            } catch (DataFormatException e) {
+                throw new IOException("Corrupt security event block " + block, e);
+            } finally {
+                inflater.end();
+            }
+        }
+
+        void closeQuietly() {
+            try {
+                data.close();
+                indexChannel.close();
+            } catch (IOException ignored) {
+                // nothing useful to do
+            }
+        }
+    }
+
+    private record IndexEntry(long key, long timestamp, int block, int offset) {
+
+        static final Comparator<IndexEntry> ORDER = Comparator
+                .comparingLong(IndexEntry::key)
+                .thenComparingLong(IndexEntry::timestamp);
+
+        void writeTo(ByteBuffer buffer) {
+            buffer.putLong(key).putLong(timestamp).putInt(block).putInt(offset);
+        }
+    }
+}
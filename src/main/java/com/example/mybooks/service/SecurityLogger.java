@@ -1,9 +1,15 @@
 package com.example.mybooks.service;
 
+import com.example.mybooks.model.SecurityEventType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.util.EnumMap;
+import java.util.Map;
+
 /**
  * Task 3: Secure Logging Service
  *
@@ -22,6 +28,21 @@ public class SecurityLogger {
     private static final Logger logger = LoggerFactory.getLogger(SecurityLogger.class);
     private static final Logger suspiciousLogger = LoggerFactory.getLogger("SUSPICIOUS_ACTIVITY");
 
+    private final SecurityEventStore eventStore;
+    private final Map<SecurityEventType, Counter> eventCounters = new EnumMap<>(SecurityEventType.class);
+
+    public SecurityLogger(SecurityEventStore eventStore, MeterRegistry meterRegistry) {
+        this.eventStore = eventStore;
+
+        // Register every type up front so rates start at zero instead of appearing on first event
+        for (SecurityEventType type : SecurityEventType.values()) {
+            eventCounters.put(type, Counter.builder("mybooks.security.events")
+                    .description("Security events recorded by SecurityLogger")
+                    .tag("type", type.name())
+                    .register(meterRegistry));
+        }
+    }
+
     /**
      * Task 3.1: Log failed login attempts (without sensitive data)
      */
@@ -29,6 +50,7 @@ public class SecurityLogger {
         // Sanitize email to prevent log injection
         String sanitizedEmail = sanitizeInput(email);
         logger.warn("FAILED_LOGIN: email={}, ip={}", sanitizedEmail, ipAddress);
+        record(SecurityEventType.FAILED_LOGIN, ipAddress, "email=" + sanitizedEmail);
     }
 
     /**
@@ -37,6 +59,7 @@ public class SecurityLogger {
     public void logSuccessfulLogin(String email, String ipAddress) {
         String sanitizedEmail = sanitizeInput(email);
         logger.info("SUCCESSFUL_LOGIN: email={}, ip={}", sanitizedEmail, ipAddress);
+        record(SecurityEventType.SUCCESSFUL_LOGIN, ipAddress, "email=" + sanitizedEmail);
     }
 
     /**
@@ -45,6 +68,7 @@ public class SecurityLogger {
     public void logLogout(String email, String ipAddress) {
         String sanitizedEmail = sanitizeInput(email);
         logger.info("LOGOUT: email={}, ip={}", sanitizedEmail, ipAddress);
+        record(SecurityEventType.LOGOUT, ipAddress, "email=" + sanitizedEmail);
     }
 
     /**
@@ -53,6 +77,8 @@ public class SecurityLogger {
     public void logUnauthorizedAccess(String endpoint, String ipAddress, String reason) {
         logger.warn("UNAUTHORIZED_ACCESS: endpoint={}, ip={}, reason={}",
                 sanitizeInput(endpoint), ipAddress, sanitizeInput(reason));
+        record(SecurityEventType.UNAUTHORIZED_ACCESS, ipAddress,
+                "endpoint=" + sanitizeInput(endpoint) + ", reason=" + sanitizeInput(reason));
     }
 
     /**
@@ -61,6 +87,8 @@ public class SecurityLogger {
     public void logForbiddenAccess(String endpoint, String email, String ipAddress) {
         logger.warn("FORBIDDEN_ACCESS: endpoint={}, email={}, ip={}",
                 sanitizeInput(endpoint), sanitizeInput(email), ipAddress);
+        record(SecurityEventType.FORBIDDEN_ACCESS, ipAddress,
+                "endpoint=" + sanitizeInput(endpoint) + ", email=" + sanitizeInput(email));
     }
 
     /**
@@ -69,6 +97,8 @@ public class SecurityLogger {
     public void logSuspiciousActivity(String activityType, String details, String ipAddress) {
         suspiciousLogger.warn("SUSPICIOUS_ACTIVITY: type={}, details={}, ip={}",
                 activityType, sanitizeInput(details), ipAddress);
+        record(SecurityEventType.SUSPICIOUS_ACTIVITY, ipAddress,
+                "type=" + activityType + ", details=" + sanitizeInput(details));
     }
 
     /**
@@ -77,6 +107,8 @@ public class SecurityLogger {
     public void logRepeatedInvalidInput(String email, String inputType, int attemptCount) {
         logger.warn("REPEATED_INVALID_INPUT: email={}, type={}, attempts={}",
                 sanitizeInput(email), inputType, attemptCount);
+        record(SecurityEventType.REPEATED_INVALID_INPUT, null,
+                "email=" + sanitizeInput(email) + ", type=" + inputType + ", attempts=" + attemptCount);
     }
 
     /**
@@ -85,6 +117,7 @@ public class SecurityLogger {
     public void logSqlInjectionAttempt(String input, String ipAddress) {
         suspiciousLogger.warn("SQL_INJECTION_ATTEMPT: input={}, ip={}",
                 sanitizeInput(input), ipAddress);
+        record(SecurityEventType.SQL_INJECTION_ATTEMPT, ipAddress, "input=" + sanitizeInput(input));
     }
 
     /**
@@ -93,6 +126,7 @@ public class SecurityLogger {
     public void logXssAttempt(String input, String ipAddress) {
         suspiciousLogger.warn("XSS_ATTEMPT: input={}, ip={}",
                 sanitizeInput(input), ipAddress);
+        record(SecurityEventType.XSS_ATTEMPT, ipAddress, "input=" + sanitizeInput(input));
     }
 
     /**
@@ -100,6 +134,7 @@ public class SecurityLogger {
      */
     public void logRateLimitExceeded(String ipAddress, String endpoint) {
         logger.warn("RATE_LIMIT_EXCEEDED: ip={}, endpoint={}", ipAddress, sanitizeInput(endpoint));
+        record(SecurityEventType.RATE_LIMIT_EXCEEDED, ipAddress, "endpoint=" + sanitizeInput(endpoint));
     }
 
     /**
@@ -107,6 +142,7 @@ public class SecurityLogger {
      */
     public void logTokenRefresh(String email, String ipAddress) {
         logger.info("TOKEN_REFRESH: email={}, ip={}", sanitizeInput(email), ipAddress);
+        record(SecurityEventType.TOKEN_REFRESH, ipAddress, "email=" + sanitizeInput(email));
     }
 
     /**
@@ -114,6 +150,7 @@ public class SecurityLogger {
      */
     public void logExpiredTokenUsage(String ipAddress) {
         logger.warn("EXPIRED_TOKEN_USAGE: ip={}", ipAddress);
+        record(SecurityEventType.EXPIRED_TOKEN_USAGE, ipAddress, "");
     }
 
     /**
@@ -121,6 +158,15 @@ public class SecurityLogger {
      */
     public void logInvalidTokenUsage(String ipAddress) {
         logger.warn("INVALID_TOKEN_USAGE: ip={}", ipAddress);
+        record(SecurityEventType.INVALID_TOKEN_USAGE, ipAddress, "");
+    }
+
+    /**
+     * Count the event and mirror it into the structured, queryable event store
+     */
+    private void record(SecurityEventType type, String ipAddress, String details) {
+        eventCounters.get(type).increment();
+        eventStore.append(type, ipAddress != null ? ipAddress : "unknown", details);
     }
 
     /**
@@ -0,0 +1,183 @@
+package com.example.mybooks.service;
+
+import com.example.mybooks.dto.BookResponse;
+import com.example.mybooks.dto.ShelfPlacement;
+import com.example.mybooks.dto.ShelfResponse;
+import com.example.mybooks.model.Shelf;
+import com.example.mybooks.model.User;
+import com.example.mybooks.repository.BookRepository;
+import com.example.mybooks.repository.ShelfRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Manually ordered shelves. A book's place is its fractional sort key (OrderKeys), chosen
+ * between the keys of its new neighbours, so adding or moving a book is a single-row write
+ * however long the shelf is. Keys grow when books are repeatedly put at the same spot; a
+ * background job gives shelves with keys longer than shelf.rebalance.max-key-length fresh,
+ * evenly spaced ones.
+ */
+@Service
+public class ShelfService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShelfService.class);
+
+    private final ShelfRepository shelfRepository;
+    private final BookRepository bookRepository;
+    private final BookService bookService;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxKeyLength;
+
+    public ShelfService(ShelfRepository shelfRepository,
+                        BookRepository bookRepository,
+                        BookService bookService,
+                        TransactionTemplate transactionTemplate,
+                        @Value("${shelf.rebalance.max-key-length:24}") int maxKeyLength) {
+        this.shelfRepository = shelfRepository;
+        this.bookRepository = bookRepository;
+        this.bookService = bookService;
+        this.transactionTemplate = transactionTemplate;
+        this.maxKeyLength = maxKeyLength;
+    }
+
+    @Transactional
+    public Shelf createShelf(String name, User user) {
+        String trimmed = name.trim();
+        if (shelfRepository.existsByUserIdAndName(user.getId(), trimmed)) {
+            throw new IllegalArgumentException("Shelf already exists: " + trimmed);
+        }
+        return shelfRepository.save(new Shelf(user, trimmed));
+    }
+
+    public List<ShelfResponse> getUserShelves(Long userId) {
+        return shelfRepository.findSummariesByUserId(userId).stream()
+                .map(row -> new ShelfResponse(((Number) row[0]).longValue(), (String) row[1],
+                        ((Number) row[2]).longValue()))
+                .toList();
+    }
+
+    /**
+     * Delete the shelf; its books are kept
+     */
+    @Transactional
+    public void deleteShelf(Long shelfId, User user) {
+        Shelf shelf = getShelfById(shelfId, user);
+        shelfRepository.removeAllBooks(shelf.getId());
+        shelfRepository.delete(shelf);
+    }
+
+    /**
+     * The shelf's books in shelf order
+     */
+    @Transactional(readOnly = true)
+    public List<BookResponse> getShelfBooks(Long shelfId, User user) {
+        getShelfById(shelfId, user);
+        List<Long> ids = shelfRepository.findBookIds(shelfId).stream().map(Number::longValue).toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Integer> positions = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            positions.put(ids.get(i), i);
+        }
+        return bookRepository.findResponsesByIdInAndUserId(ids, user.getId()).stream()
+                .sorted(Comparator.comparing(book -> positions.get(book.getId())))
+                .toList();
+    }
+
+    /**
+     * Put the user's book on the shelf, or move it there if it already is on it.
+     * Writes only the book's own row: its new key lies between its new neighbours' keys.
+     */
+    @Transactional
+    public void placeBook(Long shelfId, Long bookId, ShelfPlacement placement, User user) {
+        getShelfById(shelfId, user);
+        bookService.getBookResponseById(bookId, user);
+
+        Long afterBookId = placement != null ? placement.getAfterBookId() : null;
+        Long beforeBookId = placement != null ? placement.getBeforeBookId() : null;
+        String sortKey;
+        if (afterBookId != null) {
+            String anchor = anchorKey(shelfId, afterBookId, bookId);
+            sortKey = OrderKeys.between(anchor, shelfRepository.findNextSortKey(shelfId, anchor, bookId));
+        } else if (beforeBookId != null) {
+            String anchor = anchorKey(shelfId, beforeBookId, bookId);
+            sortKey = OrderKeys.between(shelfRepository.findPreviousSortKey(shelfId, anchor, bookId), anchor);
+        } else {
+            sortKey = OrderKeys.between(shelfRepository.findLastSortKey(shelfId, bookId), null);
+        }
+        shelfRepository.placeBook(shelfId, bookId, sortKey);
+    }
+
+    private String anchorKey(Long shelfId, Long anchorBookId, Long bookId) {
+        if (anchorBookId.equals(bookId)) {
+            throw new IllegalArgumentException("A book cannot be placed next to itself");
+        }
+        String anchor = shelfRepository.findSortKey(shelfId, anchorBookId);
+        if (anchor == null) {
+            throw new IllegalArgumentException("Book " + anchorBookId + " is not on this shelf");
+        }
+        return anchor;
+    }
+
+    @Transactional
+    public void removeBook(Long shelfId, Long bookId, User user) {
+        getShelfById(shelfId, user);
+        if (shelfRepository.removeBook(shelfId, bookId) == 0) {
+            throw new IllegalArgumentException("Book is not on this shelf");
+        }
+    }
+
+    public Shelf getShelfById(Long shelfId, User user) {
+        Shelf shelf = shelfRepository.findById(shelfId)
+                .orElseThrow(() -> new IllegalArgumentException("Shelf not found"));
+
+        if (!shelf.getUser().getId().equals(user.getId())) {
+            throw new SecurityException("Unauthorized to access this shelf");
+        }
+
+        return shelf;
+    }
+
+    /**
+     * Re-key the shelf's books with evenly spaced short keys, keeping their order.
+     * The rows are deleted and inserted again, as updating them one by one could collide
+     * with the unique (shelf_id, sort_key) index along the way.
+     */
+    @Transactional
+    public void rebalance(Long shelfId) {
+        List<Long> ids = shelfRepository.findBookIds(shelfId).stream().map(Number::longValue).toList();
+        String[] keys = OrderKeys.spread(ids.size());
+        shelfRepository.removeAllBooks(shelfId);
+        for (int i = 0; i < ids.size(); i++) {
+            shelfRepository.placeBook(shelfId, ids.get(i), keys[i]);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${shelf.rebalance.interval-ms:600000}",
+            initialDelayString = "${shelf.rebalance.interval-ms:600000}")
+    public void rebalanceLongKeys() {
+        List<Long> shelfIds = shelfRepository.findShelfIdsWithSortKeysLongerThan(maxKeyLength).stream()
+                .map(Number::longValue)
+                .toList();
+        if (shelfIds.isEmpty()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        for (Long shelfId : shelfIds) {
+            transactionTemplate.executeWithoutResult(status -> rebalance(shelfId));
+        }
+        logger.info("Rebalanced sort keys of {} shelves in {} ms",
+                shelfIds.size(), System.currentTimeMillis() - start);
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.mybooks.service;
+
+import com.example.mybooks.dto.BookSuggestion;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory prefix index over the titles, authors and genres of one user's books.
+ *
+ * Every distinct (type, normalized value) is a term counted by the number of books having it.
+ * A term is reachable from each of its word starts: "Frank Herbert" is stored under
+ * "frank herbert" and "herbert", so "her" finds it. The keys live in a sorted map, so a prefix
+ * is a range scan; the best k terms of the range are kept in a bounded heap.
+ * Books are remembered by id with their indexed values, which makes saving a book an
+ * idempotent replace and lets a delete remove exactly what was added.
+ *
+ * Not thread-safe; BookSuggestionService synchronizes on the instance.
+ */
+public class SuggestionIndex {
+
+    public static final String TITLE = "title";
+    public static final String AUTHOR = "author";
+    public static final String GENRE = "genre";
+
+    private static final String[] TYPES = {TITLE, AUTHOR, GENRE};
+
+    // Long titles are only reachable from their first few words
+    private static final int MAX_WORD_STARTS = 8;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    // Best first: most books, then shorter, then alphabetical
+    private static final Comparator<Term> RANKING = Comparator.comparingInt((Term term) -> -term.count)
+            .thenComparingInt(term -> term.text.length())
+            .thenComparing(term -> term.text);
+
+    private static final class Term {
+        final String type;
+        final String text;
+        final String normalized;
+        int count;
+
+        Term(String type, String text, String normalized) {
+            this.type = type;
+            this.text = text;
+            this.normalized = normalized;
+        }
+    }
+
+    private final Map<Long, String[]> books = new HashMap<>();
+    private final Map<String, Term> terms = new HashMap<>();
+    private final NavigableMap<String, Term> prefixes = new TreeMap<>();
+
+    /**
+     * Add the book, or replace its previously indexed values
+     */
+    public void put(Long bookId, String title, String author, String genre) {
+        String[] values = {title, author, genre};
+        String[] previous = books.put(bookId, values);
+        if (previous != null) {
+            for (int i = 0; i < TYPES.length; i++) {
+                release(TYPES[i], previous[i]);
+            }
+        }
+        for (int i = 0; i < TYPES.length; i++) {
+            acquire(TYPES[i], values[i]);
+        }
+    }
+
+    public void remove(Long bookId) {
+        String[] previous = books.remove(bookId);
+        if (previous != null) {
+            for (int i = 0; i < TYPES.length; i++) {
+                release(TYPES[i], previous[i]);
+            }
+        }
+    }
+
+    /**
+     * Up to limit terms having a word that starts with the prefix, best first
+     */
+    public List<BookSuggestion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+
+        // Worst of the current best at the head; a term reachable from two of its words is seen twice
+        PriorityQueue<Term> best = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        Set<Term> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Term term : prefixes.subMap(key, true, key + Character.MAX_VALUE, false).values()) {
+            if (!seen.add(term)) {
+                continue;
+            }
+            best.add(term);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+
+        List<Term> ranked = new ArrayList<>(best);
+        ranked.sort(RANKING);
+        return ranked.stream().map(term -> new BookSuggestion(term.text, term.type, term.count)).toList();
+    }
+
+    public int size() {
+        return terms.size();
+    }
+
+    private void acquire(String type, String value) {
+        if (value == null) {
+            return;
+        }
+        String normalized = normalize(value).trim();
+        if (normalized.isEmpty()) {
+            return;
+        }
+        Term term = terms.computeIfAbsent(type + '\0' + normalized, key -> {
+            Term created = new Term(type, value.trim(), normalized);
+            for (String suffix : wordStarts(normalized)) {
+                prefixes.put(prefixKey(suffix, created), created);
+            }
+            return created;
+        });
+        term.count++;
+    }
+
+    private void release(String type, String value) {
+        if (value == null) {
+            return;
+        }
+        String normalized = normalize(value).trim();
+        Term term = terms.get(type + '\0' + normalized);
+        if (term == null || --term.count > 0) {
+            return;
+        }
+        terms.remove(type + '\0' + normalized);
+        for (String suffix : wordStarts(normalized)) {
+            prefixes.remove(prefixKey(suffix, term));
+        }
+    }
+
+    // Suffix first so prefix ranges work; type and value make the key unique per term
+    private static String prefixKey(String suffix, Term term) {
+        return suffix + '\0' + term.type + '\0' + term.normalized;
+    }
+
+    private static List<String> wordStarts(String normalized) {
+        List<String> suffixes = new ArrayList<>();
+        for (int i = 0; i < normalized.length() && suffixes.size() < MAX_WORD_STARTS; i++) {
+            if (Character.isLetterOrDigit(normalized.charAt(i))
+                    && (i == 0 || !Character.isLetterOrDigit(normalized.charAt(i - 1)))) {
+                suffixes.add(normalized.substring(i));
+            }
+        }
+        return suffixes;
+    }
+
+    /**
+     * Lower case without accents and with single spaces. Leading space is dropped, a trailing
+     * one kept: typing "frank " should only match "frank" followed by another word.
+     */
+    static String normalize(String value) {
+        String stripped = MARKS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("");
+        return SPACES.matcher(stripped.toLowerCase(Locale.ROOT)).replaceAll(" ").stripLeading();
+    }
+}
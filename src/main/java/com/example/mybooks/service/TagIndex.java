@@ -0,0 +1,167 @@
+package com.example.mybooks.service;
+
+import jakarta.annotation.PostConstruct;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-user in-memory index from tag name to the ids of the tagged books, kept as compressed
+ * (Roaring) bitmaps over 64-bit ids. Intersections, unions and differences of tags are
+ * word-wise operations on those bitmaps, so set queries never touch book_tags.
+ *
+ * All users are loaded at startup in one pass over tags and book_tags; tag writes keep them
+ * in step through UserIndexes. Adding or removing a bit is idempotent.
+ */
+@Service
+public class TagIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(TagIndex.class);
+
+    private static final String SELECT_TAGGED_BOOKS = "SELECT t.user_id, t.name, bt.book_id "
+            + "FROM tags t LEFT JOIN book_tags bt ON bt.tag_id = t.id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final UserIndexes<UserTags> users;
+
+    private static final class UserTags {
+        final Map<String, Roaring64Bitmap> books = new HashMap<>();
+
+        // An unused tag has no books but still exists; bookId null adds just the tag
+        void add(String name, Long bookId) {
+            Roaring64Bitmap bitmap = books.computeIfAbsent(name, key -> new Roaring64Bitmap());
+            if (bookId != null) {
+                bitmap.addLong(bookId);
+            }
+        }
+
+        void optimize() {
+            books.values().forEach(Roaring64Bitmap::runOptimize);
+        }
+    }
+
+    public TagIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.users = new UserIndexes<>(UserTags::new, this::load);
+    }
+
+    @PostConstruct
+    public void loadAll() {
+        long start = System.currentTimeMillis();
+        Map<Long, UserTags> loaded = new HashMap<>();
+        jdbcTemplate.query(SELECT_TAGGED_BOOKS, (RowCallbackHandler) rs ->
+                loaded.computeIfAbsent(rs.getLong(1), id -> new UserTags()).add(rs.getString(2), bookId(rs)));
+        loaded.forEach((userId, tags) -> {
+            tags.optimize();
+            users.putLoaded(userId, tags);
+        });
+        logger.info("Loaded tag index for {} users in {} ms", loaded.size(), System.currentTimeMillis() - start);
+    }
+
+    private void load(Long userId, UserTags tags) {
+        jdbcTemplate.query(SELECT_TAGGED_BOOKS + " WHERE t.user_id = ?",
+                (RowCallbackHandler) rs -> tags.add(rs.getString(2), bookId(rs)), userId);
+        tags.optimize();
+    }
+
+    private static Long bookId(ResultSet rs) throws SQLException {
+        long bookId = rs.getLong(3);
+        return rs.wasNull() ? null : bookId;
+    }
+
+    /**
+     * Books having every tag of all, at least one tag of any and none of the tags of none.
+     * Empty lists are skipped, but all or any must be given; an unknown tag has no books.
+     * The result is a new bitmap that the caller may keep and modify.
+     */
+    public Roaring64Bitmap select(Long userId, Collection<String> all, Collection<String> any,
+                                  Collection<String> none) {
+        if (all.isEmpty() && any.isEmpty()) {
+            throw new IllegalArgumentException("Select books by all or any tags");
+        }
+        return users.read(userId, tags -> {
+            Roaring64Bitmap result = null;
+            for (String name : all) {
+                Roaring64Bitmap bitmap = tags.books.getOrDefault(name, new Roaring64Bitmap());
+                if (result == null) {
+                    result = bitmap.clone();
+                } else {
+                    result.and(bitmap);
+                }
+            }
+            if (!any.isEmpty()) {
+                Roaring64Bitmap union = union(tags, any);
+                if (result == null) {
+                    result = union;
+                } else {
+                    result.and(union);
+                }
+            }
+            if (!none.isEmpty()) {
+                result.andNot(union(tags, none));
+            }
+            return result;
+        });
+    }
+
+    private static Roaring64Bitmap union(UserTags tags, Collection<String> names) {
+        Roaring64Bitmap union = new Roaring64Bitmap();
+        for (String name : names) {
+            Roaring64Bitmap bitmap = tags.books.get(name);
+            if (bitmap != null) {
+                union.or(bitmap);
+            }
+        }
+        return union;
+    }
+
+    /**
+     * The user's tags by name with the number of books carrying each
+     */
+    public Map<String, Integer> counts(Long userId) {
+        return users.read(userId, tags -> {
+            Map<String, Integer> counts = new TreeMap<>();
+            tags.books.forEach((name, bitmap) -> counts.put(name, bitmap.getIntCardinality()));
+            return counts;
+        });
+    }
+
+    public void tagged(Long userId, String name, Long bookId) {
+        users.apply(userId, tags -> tags.add(name, bookId));
+    }
+
+    public void untagged(Long userId, String name, Long bookId) {
+        users.apply(userId, tags -> {
+            Roaring64Bitmap bitmap = tags.books.get(name);
+            if (bitmap != null) {
+                bitmap.removeLong(bookId);
+            }
+        });
+    }
+
+    public void tagDeleted(Long userId, String name) {
+        users.apply(userId, tags -> tags.books.remove(name));
+    }
+
+    public void bookDeleted(Long userId, Long bookId) {
+        users.apply(userId, tags -> tags.books.values().forEach(bitmap -> bitmap.removeLong(bookId)));
+    }
+
+    /**
+     * Drop the user's index; for writes whose rows are not known individually (bulk delete)
+     */
+    public void invalidate(Long userId) {
+        users.invalidate(userId);
+    }
+}
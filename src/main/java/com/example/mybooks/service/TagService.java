@@ -0,0 +1,174 @@
+package com.example.mybooks.service;
+
+import com.example.mybooks.dto.BookResponse;
+import com.example.mybooks.dto.CursorPage;
+import com.example.mybooks.dto.TagResponse;
+import com.example.mybooks.model.Tag;
+import com.example.mybooks.model.User;
+import com.example.mybooks.repository.BookRepository;
+import com.example.mybooks.repository.TagRepository;
+import org.roaringbitmap.longlong.PeekableLongIterator;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Tags on books. Links are written to book_tags and mirrored into TagIndex, which answers
+ * listings and set queries; only the page of books returned is read from the database.
+ * Tag names are trimmed and lower cased, so "SciFi" and "scifi " are the same tag.
+ */
+@Service
+public class TagService {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_QUERY_TAGS = 32;
+
+    // Letters and digits, then also spaces, '_', '.' and '-'; no commas, which separate query lists
+    private static final Pattern TAG_NAME = Pattern.compile("[\\p{L}\\p{N}][\\p{L}\\p{N} _.-]{0,49}");
+
+    private final TagRepository tagRepository;
+    private final BookRepository bookRepository;
+    private final BookService bookService;
+    private final TagIndex tagIndex;
+
+    public TagService(TagRepository tagRepository, BookRepository bookRepository, BookService bookService,
+                      TagIndex tagIndex) {
+        this.tagRepository = tagRepository;
+        this.bookRepository = bookRepository;
+        this.bookService = bookService;
+        this.tagIndex = tagIndex;
+    }
+
+    public List<TagResponse> getUserTags(Long userId) {
+        return tagIndex.counts(userId).entrySet().stream()
+                .map(entry -> new TagResponse(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    /**
+     * Tag the user's book, creating the tag on first use; tagging twice is a no-op
+     */
+    @Transactional
+    public void tagBook(String tagName, Long bookId, User user) {
+        String name = normalize(tagName);
+        bookService.getBookResponseById(bookId, user);
+        Tag tag = tagRepository.findByUserIdAndName(user.getId(), name)
+                .orElseGet(() -> tagRepository.saveAndFlush(new Tag(user, name)));
+        tagRepository.addBook(tag.getId(), bookId);
+        tagIndex.tagged(user.getId(), name, bookId);
+    }
+
+    @Transactional
+    public void untagBook(String tagName, Long bookId, User user) {
+        Tag tag = findTag(tagName, user);
+        tagRepository.removeBook(tag.getId(), bookId);
+        tagIndex.untagged(user.getId(), tag.getName(), bookId);
+    }
+
+    /**
+     * Delete the tag; its books are kept
+     */
+    @Transactional
+    public void deleteTag(String tagName, User user) {
+        Tag tag = findTag(tagName, user);
+        tagRepository.removeAllBooks(tag.getId());
+        tagRepository.delete(tag);
+        tagIndex.tagDeleted(user.getId(), tag.getName());
+    }
+
+    private Tag findTag(String tagName, User user) {
+        return tagRepository.findByUserIdAndName(user.getId(), normalize(tagName))
+                .orElseThrow(() -> new IllegalArgumentException("Tag not found"));
+    }
+
+    /**
+     * Number of books matching the set query; see TagIndex.select
+     */
+    public int countBooks(Long userId, List<String> all, List<String> any, List<String> none) {
+        return tagIndex.select(userId, names(all), names(any), names(none)).getIntCardinality();
+    }
+
+    /**
+     * The user's books matching the set query in id order, paginated by id. The ids are
+     * taken from the bitmap, so a page costs one query for its books whatever the tag sizes.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<BookResponse> findBooks(Long userId, List<String> all, List<String> any, List<String> none,
+                                              String cursor, Integer limit) {
+        int pageSize = limit != null ? limit : DEFAULT_PAGE_SIZE;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        Roaring64Bitmap matches = tagIndex.select(userId, names(all), names(any), names(none));
+
+        // One extra id tells us whether there is a next page
+        List<Long> ids = new ArrayList<>(pageSize + 1);
+        PeekableLongIterator iterator = matches.getLongIterator();
+        if (cursor != null) {
+            iterator.advanceIfNeeded(decodeCursor(cursor) + 1);
+        }
+        while (iterator.hasNext() && ids.size() <= pageSize) {
+            ids.add(iterator.next());
+        }
+        if (ids.isEmpty()) {
+            return new CursorPage<>(List.of(), null);
+        }
+
+        boolean hasMore = ids.size() > pageSize;
+        List<Long> pageIds = hasMore ? ids.subList(0, pageSize) : ids;
+        List<BookResponse> books = bookRepository.findResponsesByIdInAndUserId(pageIds, userId);
+        return new CursorPage<>(books, hasMore ? encodeCursor(pageIds.get(pageSize - 1)) : null);
+    }
+
+    private static Set<String> names(List<String> tagNames) {
+        Set<String> names = new LinkedHashSet<>();
+        if (tagNames != null) {
+            for (String tagName : tagNames) {
+                names.add(normalize(tagName));
+            }
+        }
+        if (names.size() > MAX_QUERY_TAGS) {
+            throw new IllegalArgumentException("At most " + MAX_QUERY_TAGS + " tags per list");
+        }
+        return names;
+    }
+
+    /**
+     * Canonical form of a tag name; IllegalArgumentException if it is not a valid one
+     */
+    public static String normalize(String tagName) {
+        String name = tagName == null ? "" : tagName.trim().toLowerCase(Locale.ROOT);
+        if (!TAG_NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid tag name: 1-50 letters, digits, spaces, '_', '.' or '-'");
+        }
+        return name;
+    }
+
+    // Cursor format before base64url: "tags|<last id>"
+    private static String encodeCursor(Long id) {
+        String raw = "tags|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long decodeCursor(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 2 || !parts[0].equals("tags")) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return Long.parseLong(parts[1]);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
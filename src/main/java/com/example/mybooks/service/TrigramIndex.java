@@ -0,0 +1,185 @@
+package com.example.mybooks.service;
+
+import com.example.mybooks.dto.BookMatch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Trigram inverted index over the titles and authors of one user's books, for typo-tolerant
+ * matching ("dostoyevsky" finds "Fyodor Dostoevsky").
+ *
+ * Each word is padded as "  word " and cut into trigrams (as PostgreSQL's pg_trgm does), so
+ * word starts and ends weigh in. Every book gets a slot; a posting list holds, in ascending
+ * order, slot * 2 + field for each title (0) or author (1) containing the trigram. A query
+ * counts shared trigrams per slot and field by walking only the postings of its own trigrams;
+ * no string comparison happens for books sharing none. A field's similarity is the share
+ * of the query's trigrams it contains, so a short query matches a long title; ties go to the
+ * field closest in size to the query (Jaccard similarity).
+ *
+ * Not thread-safe; BookSuggestionService synchronizes on the owning index.
+ */
+public class TrigramIndex {
+
+    private static final String[] FIELDS = {"title", "author"};
+
+    private record Doc(Long bookId, String[] values, int[] trigramCounts) {
+    }
+
+    private static final class Postings {
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            // Slots only grow, so appending keeps the list sorted
+            values[size++] = value;
+        }
+
+        void remove(int value) {
+            int at = Arrays.binarySearch(values, 0, size, value);
+            if (at >= 0) {
+                System.arraycopy(values, at + 1, values, at, size - at - 1);
+                size--;
+            }
+        }
+    }
+
+    private record Candidate(int slot, int field, double similarity, double jaccard) {
+    }
+
+    private static final Comparator<Candidate> RANKING = Comparator.comparingDouble(Candidate::similarity)
+            .thenComparingDouble(Candidate::jaccard)
+            .reversed()
+            .thenComparingInt(Candidate::slot);
+
+    private final Map<Long, Integer> slots = new HashMap<>();
+    private final List<Doc> docs = new ArrayList<>();
+    private final Map<String, Postings> postings = new HashMap<>();
+
+    /**
+     * Add the book, or replace its previously indexed title and author
+     */
+    public void put(Long bookId, String title, String author) {
+        remove(bookId);
+
+        int slot = docs.size();
+        String[] values = {title, author};
+        int[] counts = new int[FIELDS.length];
+        for (int field = 0; field < FIELDS.length; field++) {
+            Set<String> trigrams = trigrams(values[field]);
+            counts[field] = trigrams.size();
+            for (String trigram : trigrams) {
+                postings.computeIfAbsent(trigram, t -> new Postings()).add(slot * 2 + field);
+            }
+        }
+        docs.add(new Doc(bookId, values, counts));
+        slots.put(bookId, slot);
+
+        // Every update takes a new slot; renumber once most slots belong to replaced books
+        if (docs.size() > 64 && docs.size() > 2 * slots.size()) {
+            compact();
+        }
+    }
+
+    public void remove(Long bookId) {
+        Integer slot = slots.remove(bookId);
+        if (slot == null) {
+            return;
+        }
+        Doc doc = docs.set(slot, null);
+        for (int field = 0; field < FIELDS.length; field++) {
+            for (String trigram : trigrams(doc.values()[field])) {
+                Postings list = postings.get(trigram);
+                list.remove(slot * 2 + field);
+                if (list.size == 0) {
+                    postings.remove(trigram);
+                }
+            }
+        }
+    }
+
+    /**
+     * Up to limit books whose title or author contains at least minSimilarity of the
+     * query's trigrams, best first; each book is reported with its better matching field
+     */
+    public List<BookMatch> search(String query, int limit, double minSimilarity) {
+        Set<String> queryTrigrams = trigrams(query);
+        if (queryTrigrams.isEmpty()) {
+            return List.of();
+        }
+
+        int[] shared = new int[docs.size() * 2];
+        for (String trigram : queryTrigrams) {
+            Postings list = postings.get(trigram);
+            if (list != null) {
+                for (int i = 0; i < list.size; i++) {
+                    shared[list.values[i]]++;
+                }
+            }
+        }
+
+        int needed = (int) Math.ceil(minSimilarity * queryTrigrams.size());
+        List<Candidate> candidates = new ArrayList<>();
+        for (int slot = 0; slot < docs.size(); slot++) {
+            Candidate best = null;
+            for (int field = 0; field < FIELDS.length; field++) {
+                int count = shared[slot * 2 + field];
+                if (count == 0 || count < needed) {
+                    continue;
+                }
+                int fieldTrigrams = docs.get(slot).trigramCounts()[field];
+                Candidate candidate = new Candidate(slot, field, (double) count / queryTrigrams.size(),
+                        (double) count / (queryTrigrams.size() + fieldTrigrams - count));
+                if (best == null || RANKING.compare(candidate, best) < 0) {
+                    best = candidate;
+                }
+            }
+            if (best != null) {
+                candidates.add(best);
+            }
+        }
+
+        candidates.sort(RANKING);
+        return candidates.stream().limit(limit).map(candidate -> {
+            Doc doc = docs.get(candidate.slot());
+            return new BookMatch(doc.bookId(), doc.values()[0], doc.values()[1], FIELDS[candidate.field()],
+                    Math.round(candidate.similarity() * 1000) / 1000.0);
+        }).toList();
+    }
+
+    private void compact() {
+        List<Doc> live = docs.stream().filter(doc -> doc != null).toList();
+        slots.clear();
+        docs.clear();
+        postings.clear();
+        for (Doc doc : live) {
+            put(doc.bookId(), doc.values()[0], doc.values()[1]);
+        }
+    }
+
+    static Set<String> trigrams(String value) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        if (value == null) {
+            return trigrams;
+        }
+        for (String word : SuggestionIndex.normalize(value).split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(padded.substring(i, i + 3));
+            }
+        }
+        return trigrams;
+    }
+}
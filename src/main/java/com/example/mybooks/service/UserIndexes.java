@@ -0,0 +1,125 @@
+package com.example.mybooks.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Per-user in-memory indexes mirroring database rows, kept in step with the writes of the
+ * service that owns them (TagIndex, BookSuggestionService).
+ *
+ * An index is loaded on the user's first read. A write updates a loaded index right away and
+ * again after its transaction commits: changes must be idempotent, and the second apply covers
+ * an index loaded while the write was still uncommitted. After a rollback, or a write whose
+ * rows are not known individually, the index is dropped and reloaded on the next read.
+ * Like CollectionVersionService this is per process.
+ */
+final class UserIndexes<T> {
+
+    private final Supplier<T> factory;
+    private final BiConsumer<Long, T> loader;
+    private final ConcurrentMap<Long, Slot<T>> slots = new ConcurrentHashMap<>();
+
+    private static final class Slot<T> {
+        final T index;
+        boolean loaded;
+        volatile long lastAccess = System.currentTimeMillis();
+
+        Slot(T index) {
+            this.index = index;
+        }
+    }
+
+    /**
+     * @param factory creates an empty index
+     * @param loader fills a new index with the user's rows
+     */
+    UserIndexes(Supplier<T> factory, BiConsumer<Long, T> loader) {
+        this.factory = factory;
+        this.loader = loader;
+    }
+
+    /**
+     * Run the reader on the user's index, loading it first if needed; readers of one user are serialized
+     */
+    <R> R read(Long userId, Function<T, R> reader) {
+        Slot<T> slot = slots.computeIfAbsent(userId, id -> new Slot<>(factory.get()));
+        slot.lastAccess = System.currentTimeMillis();
+        synchronized (slot) {
+            if (!slot.loaded) {
+                loader.accept(userId, slot.index);
+                slot.loaded = true;
+            }
+            return reader.apply(slot.index);
+        }
+    }
+
+    /**
+     * Install an index loaded by the caller (e.g. all users in one pass at startup)
+     */
+    void putLoaded(Long userId, T index) {
+        Slot<T> slot = new Slot<>(index);
+        slot.loaded = true;
+        slots.put(userId, slot);
+    }
+
+    /**
+     * Apply a write to the user's index if it is loaded, now and after the surrounding transaction commits
+     */
+    void apply(Long userId, Consumer<T> change) {
+        applyIfLoaded(userId, change);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        applyIfLoaded(userId, change);
+                    } else {
+                        slots.remove(userId);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Drop the user's index, now and when the surrounding transaction completes
+     */
+    void invalidate(Long userId) {
+        slots.remove(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    slots.remove(userId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Drop the indexes not read since the given time
+     */
+    void evictIdleSince(long idleSince) {
+        slots.values().removeIf(slot -> slot.lastAccess < idleSince);
+    }
+
+    // An index that is not loaded yet will read the change from the database
+    private void applyIfLoaded(Long userId, Consumer<T> change) {
+        Slot<T> slot = slots.get(userId);
+        if (slot == null) {
+            return;
+        }
+        synchronized (slot) {
+            if (slot.loaded) {
+                change.accept(slot.index);
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.mybooks.service;
+
+import com.example.mybooks.repository.BookRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Online migration of books to the works catalog: links books whose work_id is still null,
+ * in batches of works.backfill.batch-size, each in its own short transaction so that
+ * requests can write in between. Runs until nothing is left and then keeps checking every
+ * works.backfill.interval-ms, which also picks up bulk-imported books (the import writes
+ * books without resolving their works) and books updated to a title, author or ISBN that
+ * had no work yet. The check is a lookup in the partial index
+ * idx_books_unlinked, which is empty once everything is linked.
+ */
+@Service
+public class WorkBackfillService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkBackfillService.class);
+
+    private final BookRepository bookRepository;
+    private final WorkService workService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+
+    public WorkBackfillService(BookRepository bookRepository,
+                               WorkService workService,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${works.backfill.enabled:true}") boolean enabled,
+                               @Value("${works.backfill.batch-size:500}") int batchSize) {
+        this.bookRepository = bookRepository;
+        this.workService = workService;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${works.backfill.interval-ms:10000}",
+            initialDelayString = "${works.backfill.initial-delay-ms:30000}")
+    public void backfillUnlinked() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        long total = 0;
+        int linked;
+        do {
+            linked = transactionTemplate.execute(status -> linkBatch(batchSize));
+            total += linked;
+        } while (linked == batchSize);
+        if (total > 0) {
+            logger.info("Linked {} books to works in {} ms", total, System.currentTimeMillis() - start);
+        }
+    }
+
+    /**
+     * Link up to limit unlinked books, lowest ids first; returns how many were linked
+     */
+    @Transactional
+    public int linkBatch(int limit) {
+        List<Object[]> books = bookRepository.findUnlinkedWorkSources(PageRequest.of(0, limit));
+        for (Object[] book : books) {
+            Long workId = workService.resolve((String) book[1], (String) book[2], (String) book[3],
+                    (Integer) book[4], (String) book[5]);
+            bookRepository.linkWork((Long) book[0], workId);
+        }
+        return books.size();
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.mybooks.service;
+
+import com.example.mybooks.dto.UpdateWorkRequest;
+import com.example.mybooks.dto.WorkResponse;
+import com.example.mybooks.model.Work;
+import com.example.mybooks.repository.WorkRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * The shared works catalog: maps a book's ISBN, or its title and author, to the one work
+ * all copies of that book point to (books.work_id).
+ *
+ * A work is identified by its key: "isbn:" and the ISBN as ISBN-13 (ISBN-10 is converted,
+ * hyphens dropped), or without a usable ISBN "ta:" and the title and author lower cased
+ * without accents. Keys resolve through an LRU cache of works.cache.max-entries entries.
+ * A work inserted by a transaction is only cached once that transaction commits.
+ *
+ * A new work takes its metadata from the first copy added; admins correct it with
+ * correct, which keeps the key and drops the cached entry. Books still carry their own
+ * copy of the metadata until the contract step (docs/works-contract.md) moves reads to works.
+ */
+@Service
+public class WorkService {
+
+    private final WorkRepository workRepository;
+    private final Counter hits;
+    private final Counter misses;
+
+    private final LruCache<String, WorkResponse> cache;
+
+    public WorkService(WorkRepository workRepository,
+                       MeterRegistry meterRegistry,
+                       @Value("${works.cache.max-entries:10000}") int maxEntries) {
+        this.workRepository = workRepository;
+        this.cache = new LruCache<>(maxEntries, (key, work) -> 1);
+        this.hits = meterRegistry.counter("mybooks.works.cache", "result", "hit");
+        this.misses = meterRegistry.counter("mybooks.works.cache", "result", "miss");
+    }
+
+    /**
+     * Id of the work for these values, creating it from them if the catalog has none yet.
+     * Must run inside the transaction that links the book.
+     */
+    public Long resolve(String isbn, String title, String author, Integer publicationYear, String genre) {
+        String key = workKey(isbn, title, author);
+        WorkResponse cached = cached(key);
+        if (cached != null) {
+            return cached.getId();
+        }
+
+        Optional<Work> existing = workRepository.findByWorkKey(key);
+        if (existing.isEmpty()) {
+            workRepository.insertIfAbsent(key, normalizeIsbn(isbn), title.trim(), author.trim(),
+                    publicationYear, genre);
+            existing = workRepository.findByWorkKey(key);
+        }
+        Work work = existing.orElseThrow(() -> new IllegalStateException("Work not found after insert: " + key));
+        // The row may still be this transaction's own insert
+        cacheAfterCommit(key, new WorkResponse(work));
+        return work.getId();
+    }
+
+    /**
+     * Catalog entry for an ISBN, or for a title and author when no ISBN is given
+     */
+    public Optional<WorkResponse> lookup(String isbn, String title, String author) {
+        if (normalizeIsbn(isbn) == null && (title == null || title.isBlank() || author == null || author.isBlank())) {
+            throw new IllegalArgumentException("Give a 10 or 13 digit isbn, or a title and an author");
+        }
+        String key = workKey(isbn, title, author);
+        WorkResponse cached = cached(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<WorkResponse> work = workRepository.findByWorkKey(key).map(WorkResponse::new);
+        work.ifPresent(found -> put(key, found));
+        return work;
+    }
+
+    static String workKey(String isbn, String title, String author) {
+        String isbn13 = normalizeIsbn(isbn);
+        if (isbn13 != null) {
+            return "isbn:" + isbn13;
+        }
+        return "ta:" + SuggestionIndex.normalize(title).trim() + "|" + SuggestionIndex.normalize(author).trim();
+    }
+
+    /**
+     * The ISBN as 13 digits, or null if it is missing or has neither 10 nor 13 characters
+     */
+    static String normalizeIsbn(String isbn) {
+        if (isbn == null) {
+            return null;
+        }
+        String compact = isbn.toUpperCase(Locale.ROOT).replaceAll("[^0-9X]", "");
+        if (compact.length() == 13 && compact.chars().allMatch(Character::isDigit)) {
+            return compact;
+        }
+        if (compact.length() == 10 && compact.substring(0, 9).chars().allMatch(Character::isDigit)) {
+            String digits = "978" + compact.substring(0, 9);
+            int sum = 0;
+            for (int i = 0; i < digits.length(); i++) {
+                sum += (digits.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+            }
+            return digits + (10 - sum % 10) % 10;
+        }
+        return null;
+    }
+
+    /**
+     * Replace a work's title, author, year and genre; IllegalArgumentException if there is no such work
+     */
+    @Transactional
+    public WorkResponse correct(Long workId, UpdateWorkRequest request) {
+        Work work = workRepository.findById(workId)
+                .orElseThrow(() -> new IllegalArgumentException("Work not found"));
+        work.setTitle(request.getTitle().trim());
+        work.setAuthor(request.getAuthor().trim());
+        work.setPublicationYear(request.getPublicationYear());
+        work.setGenre(request.getGenre());
+        evict(work.getWorkKey());
+        return new WorkResponse(work);
+    }
+
+    private WorkResponse cached(String key) {
+        WorkResponse work = cache.get(key);
+        if (work != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return work;
+    }
+
+    private void cacheAfterCommit(String key, WorkResponse work) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            put(key, work);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                put(key, work);
+            }
+        });
+    }
+
+    // Now, and again once the transaction is over in case a reader cached the old row meanwhile
+    private void evict(String key) {
+        cache.remove(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.remove(key);
+                }
+            });
+        }
+    }
+
+    private void put(String key, WorkResponse work) {
+        cache.put(key, work);
+    }
+}
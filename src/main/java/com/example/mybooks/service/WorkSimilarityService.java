@@ -0,0 +1,356 @@
+package com.example.mybooks.service;
+
+import com.example.mybooks.dto.SimilarWorkResponse;
+import com.example.mybooks.model.User;
+import com.example.mybooks.repository.WorkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * "Readers who finished this also liked" recommendations, precomputed per work.
+ *
+ * A nightly job takes every user's liked works (books completed or rated 4 or more, at most
+ * similar.books.max-works-per-user per user) and scores each work's neighbours. The works are
+ * partitioned over a fork/join pool; a work's co-reader counts are gathered in a primitive
+ * array indexed by work, from the readers who liked it, and pruned to its
+ * similar.books.top-k best right away, so memory grows with works and likes rather than with
+ * pairs. A neighbour needs at least similar.books.min-co-readers co-readers; its score is the
+ * cosine similarity (co-readers divided by the square root of both works' reader counts),
+ * raised by half for the same author and by a quarter for the same genre.
+ *
+ * The results are written in short batches to a staging table, which then replaces
+ * work_similarities by a rename, so readers never see a half-built table and the endpoint
+ * does no scoring: it is one indexed lookup.
+ */
+@Service
+public class WorkSimilarityService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkSimilarityService.class);
+
+    public static final int DEFAULT_LIMIT = 10;
+    private static final double SAME_AUTHOR_BOOST = 0.5;
+    private static final double SAME_GENRE_BOOST = 0.25;
+
+    // Works per fork/join leaf task, and rows per staging insert transaction
+    private static final int WORKS_PER_TASK = 256;
+    private static final int WRITE_BATCH_ROWS = 5000;
+
+    // Most recently added first, so the per-user cap keeps a reader's recent taste
+    private static final String SELECT_LIKED_WORKS = "SELECT user_id, work_id FROM books "
+            + "WHERE work_id IS NOT NULL AND (reading_status = 'COMPLETED' OR rating >= 4) "
+            + "ORDER BY user_id, id DESC";
+    private static final String SELECT_WORKS = "SELECT id, author, genre FROM works ORDER BY id";
+
+    // Same definition as V15; renamed to work_similarities once filled
+    private static final String CREATE_STAGING = "CREATE TABLE work_similarities_next ("
+            + "work_id INTEGER NOT NULL, rank INTEGER NOT NULL, similar_work_id INTEGER NOT NULL, "
+            + "score REAL NOT NULL, PRIMARY KEY (work_id, rank), "
+            + "FOREIGN KEY (work_id) REFERENCES works(id), "
+            + "FOREIGN KEY (similar_work_id) REFERENCES works(id)) WITHOUT ROWID";
+    private static final String INSERT_STAGED = "INSERT INTO work_similarities_next "
+            + "(work_id, rank, similar_work_id, score) VALUES (?, ?, ?, ?)";
+
+    private final WorkRepository workRepository;
+    private final BookService bookService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int topK;
+    private final int minCoReaders;
+    private final int maxWorksPerUser;
+    private final int parallelism;
+
+    // Works are numbered by their position in Works.ids (ascending ids)
+    private record Works(long[] ids, String[] authors, String[] genres) {
+    }
+
+    private record Neighbour(int work, double score) {
+    }
+
+    private static final Comparator<Neighbour> WORST_FIRST = Comparator.comparingDouble(Neighbour::score)
+            .thenComparing(Comparator.comparingInt(Neighbour::work).reversed());
+
+    public WorkSimilarityService(WorkRepository workRepository,
+                                 BookService bookService,
+                                 JdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${similar.books.top-k:20}") int topK,
+                                 @Value("${similar.books.min-co-readers:2}") int minCoReaders,
+                                 @Value("${similar.books.max-works-per-user:500}") int maxWorksPerUser,
+                                 @Value("${similar.books.parallelism:0}") int parallelism) {
+        this.workRepository = workRepository;
+        this.bookService = bookService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.topK = topK;
+        this.minCoReaders = minCoReaders;
+        this.maxWorksPerUser = maxWorksPerUser;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    /**
+     * Works similar to the user's book that the user does not have yet, best first.
+     * The book is only read separately when there are none, to tell 404 and 403 from an empty list.
+     */
+    @Transactional(readOnly = true)
+    public List<SimilarWorkResponse> getSimilarBooks(Long bookId, User user, int limit) {
+        List<SimilarWorkResponse> similar = workRepository.findSimilarToBook(bookId, user.getId(), limit).stream()
+                .map(row -> new SimilarWorkResponse(((Number) row[0]).longValue(), (String) row[1],
+                        (String) row[2], row[3] != null ? ((Number) row[3]).intValue() : null, (String) row[4],
+                        ((Number) row[5]).doubleValue()))
+                .toList();
+        if (similar.isEmpty()) {
+            bookService.getBookResponseById(bookId, user);
+        }
+        return similar;
+    }
+
+    @Scheduled(cron = "${similar.books.rebuild-cron:0 0 4 * * *}")
+    public void rebuildAll() {
+        long start = System.currentTimeMillis();
+        int works = rebuild();
+        logger.info("Rebuilt similar books for {} works in {} ms", works, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Recompute and replace all of work_similarities; returns the number of works with neighbours
+     */
+    public int rebuild() {
+        Works works = loadWorks();
+        int[][] likedByUser = loadLikedWorks(works.ids());
+        int[][] readers = readersByWork(likedByUser, works.ids().length);
+
+        Neighbour[][] best = new Neighbour[works.ids().length][];
+        ThreadLocal<Counts> counts = ThreadLocal.withInitial(() -> new Counts(works.ids().length));
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new NeighbourTask(works, likedByUser, readers, counts, best, 0, best.length));
+        } finally {
+            pool.shutdown();
+        }
+        return replaceSimilarities(works.ids(), best);
+    }
+
+    // Author and genre, normalized for the boosts, of every work
+    private Works loadWorks() {
+        List<Long> ids = new ArrayList<>();
+        List<String> authors = new ArrayList<>();
+        List<String> genres = new ArrayList<>();
+        jdbcTemplate.query(SELECT_WORKS, (RowCallbackHandler) rs -> {
+            ids.add(rs.getLong(1));
+            authors.add(normalize(rs.getString(2)));
+            genres.add(normalize(rs.getString(3)));
+        });
+        return new Works(ids.stream().mapToLong(Long::longValue).toArray(),
+                authors.toArray(String[]::new), genres.toArray(String[]::new));
+    }
+
+    private static String normalize(String value) {
+        return value == null || value.isBlank() ? null : SuggestionIndex.normalize(value).trim();
+    }
+
+    // Each user's distinct liked works in ascending order, at most maxWorksPerUser of them
+    private int[][] loadLikedWorks(long[] workIds) {
+        List<int[]> likedByUser = new ArrayList<>();
+        int[] works = new int[maxWorksPerUser];
+        int[] size = {0};
+        long[] currentUser = {-1};
+        jdbcTemplate.query(SELECT_LIKED_WORKS, (RowCallbackHandler) rs -> {
+            long userId = rs.getLong(1);
+            if (userId != currentUser[0]) {
+                addUser(likedByUser, works, size[0]);
+                currentUser[0] = userId;
+                size[0] = 0;
+            }
+            int work = Arrays.binarySearch(workIds, rs.getLong(2));
+            if (size[0] < maxWorksPerUser && work >= 0) {
+                works[size[0]++] = work;
+            }
+        });
+        addUser(likedByUser, works, size[0]);
+        return likedByUser.toArray(int[][]::new);
+    }
+
+    private void addUser(List<int[]> likedByUser, int[] works, int size) {
+        // A user who likes a single work pairs it with nothing but still counts as its reader
+        if (size > 0) {
+            likedByUser.add(Arrays.stream(works, 0, size).sorted().distinct().toArray());
+        }
+    }
+
+    // The users (indexes into likedByUser) who liked each work
+    private static int[][] readersByWork(int[][] likedByUser, int workCount) {
+        int[] sizes = new int[workCount];
+        for (int[] works : likedByUser) {
+            for (int work : works) {
+                sizes[work]++;
+            }
+        }
+        int[][] readers = new int[workCount][];
+        for (int work = 0; work < workCount; work++) {
+            readers[work] = new int[sizes[work]];
+            sizes[work] = 0;
+        }
+        for (int user = 0; user < likedByUser.length; user++) {
+            for (int work : likedByUser[user]) {
+                readers[work][sizes[work]++] = user;
+            }
+        }
+        return readers;
+    }
+
+    /**
+     * Fill a staging table in batches of WRITE_BATCH_ROWS, each its own transaction, then swap
+     * it in for work_similarities; returns the number of works with neighbours
+     */
+    private int replaceSimilarities(long[] workIds, Neighbour[][] best) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS work_similarities_next");
+        jdbcTemplate.execute(CREATE_STAGING);
+        int worksWithNeighbours = 0;
+        List<Object[]> rows = new ArrayList<>(WRITE_BATCH_ROWS);
+        for (int work = 0; work < best.length; work++) {
+            if (best[work] == null) {
+                continue;
+            }
+            worksWithNeighbours++;
+            for (int rank = 0; rank < best[work].length; rank++) {
+                rows.add(new Object[]{workIds[work], rank, workIds[best[work][rank].work()], best[work][rank].score()});
+                if (rows.size() == WRITE_BATCH_ROWS) {
+                    insertStaged(rows);
+                    rows.clear();
+                }
+            }
+        }
+        insertStaged(rows);
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("DROP TABLE work_similarities");
+            jdbcTemplate.execute("ALTER TABLE work_similarities_next RENAME TO work_similarities");
+        });
+        return worksWithNeighbours;
+    }
+
+    private void insertStaged(List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_STAGED, rows));
+        }
+    }
+
+    private double score(Works works, int first, int second, int coReaders, int[][] readers) {
+        double boost = 1;
+        if (works.authors()[first] != null && works.authors()[first].equals(works.authors()[second])) {
+            boost += SAME_AUTHOR_BOOST;
+        }
+        if (works.genres()[first] != null && works.genres()[first].equals(works.genres()[second])) {
+            boost += SAME_GENRE_BOOST;
+        }
+        return coReaders / Math.sqrt((double) readers[first].length * readers[second].length) * boost;
+    }
+
+    // Per-thread co-reader counts by work and the works touched, reset after each work
+    private static final class Counts {
+        final int[] coReaders;
+        final int[] touched;
+
+        Counts(int workCount) {
+            this.coReaders = new int[workCount];
+            this.touched = new int[workCount];
+        }
+    }
+
+    /**
+     * Best neighbours of the works in [from, to), written to best. Splits until a partition has
+     * at most WORKS_PER_TASK works; every work is scored by exactly one leaf, so nothing is merged.
+     */
+    private final class NeighbourTask extends RecursiveAction {
+
+        private final Works works;
+        private final int[][] likedByUser;
+        private final int[][] readers;
+        private final ThreadLocal<Counts> counts;
+        private final Neighbour[][] best;
+        private final int from;
+        private final int to;
+
+        NeighbourTask(Works works, int[][] likedByUser, int[][] readers, ThreadLocal<Counts> counts,
+                      Neighbour[][] best, int from, int to) {
+            this.works = works;
+            this.likedByUser = likedByUser;
+            this.readers = readers;
+            this.counts = counts;
+            this.best = best;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= WORKS_PER_TASK) {
+                Counts counts = this.counts.get();
+                for (int work = from; work < to; work++) {
+                    best[work] = neighbours(work, counts);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new NeighbourTask(works, likedByUser, readers, counts, best, from, middle),
+                    new NeighbourTask(works, likedByUser, readers, counts, best, middle, to));
+        }
+
+        // The topK best neighbours, best first, or null if none has minCoReaders co-readers
+        private Neighbour[] neighbours(int work, Counts counts) {
+            int touched = 0;
+            for (int user : readers[work]) {
+                for (int other : likedByUser[user]) {
+                    if (other != work && counts.coReaders[other]++ == 0) {
+                        counts.touched[touched++] = other;
+                    }
+                }
+            }
+
+            // The queue's head is the one to drop next
+            PriorityQueue<Neighbour> queue = null;
+            for (int i = 0; i < touched; i++) {
+                int other = counts.touched[i];
+                int coReaders = counts.coReaders[other];
+                counts.coReaders[other] = 0;
+                if (coReaders < minCoReaders) {
+                    continue;
+                }
+                Neighbour neighbour = new Neighbour(other, score(works, work, other, coReaders, readers));
+                if (queue == null) {
+                    queue = new PriorityQueue<>(WORST_FIRST);
+                }
+                if (queue.size() < topK) {
+                    queue.add(neighbour);
+                } else if (WORST_FIRST.compare(neighbour, queue.peek()) > 0) {
+                    queue.poll();
+                    queue.add(neighbour);
+                }
+            }
+            if (queue == null) {
+                return null;
+            }
+            Neighbour[] sorted = queue.toArray(Neighbour[]::new);
+            Arrays.sort(sorted, WORST_FIRST.reversed());
+            return sorted;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.mybooks.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Strong entity tags derived from a row's id and version, e.g. "book-42-v3"
+ */
+public class ETags {
+
+    // Not a valid version, so an If-Match without any usable tag can never match
+    private static final Long NO_MATCH = -1L;
+
+    public static String of(String kind, Long id, Long version) {
+        return "\"" + kind + "-" + id + "-v" + version + "\"";
+    }
+
+    /**
+     * Versions named by an If-Match header for this resource, or null when there is no
+     * precondition ("*" only requires the resource to exist, which the write checks anyway).
+     * Weak tags never satisfy If-Match (strong comparison, RFC 9110 13.1.1).
+     */
+    public static List<Long> ifMatchVersions(String ifMatch, String kind, Long id) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String prefix = "\"" + kind + "-" + id + "-v";
+        List<Long> versions = new ArrayList<>();
+        for (String tag : ifMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith(prefix) && tag.endsWith("\"") && tag.length() > prefix.length() + 1) {
+                try {
+                    versions.add(Long.valueOf(tag.substring(prefix.length(), tag.length() - 1)));
+                } catch (NumberFormatException e) {
+                    // Not one of our tags; ignore
+                }
+            }
+        }
+        if (versions.isEmpty()) {
+            versions.add(NO_MATCH);
+        }
+        return versions;
+    }
+
+    /**
+     * If-None-Match check (weak comparison): true when the client already has this representation
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
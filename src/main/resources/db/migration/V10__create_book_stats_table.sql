@@ -0,0 +1,29 @@
+-- Per-user library statistics, maintained with delta upserts in the same transaction as
+-- every book write (see BookStatsRepositoryCustomImpl) and rebuilt nightly to repair drift.
+-- dimension: total (bucket ''), status, genre or year; books without genre/year count in total only.
+CREATE TABLE book_stats (
+                            user_id INTEGER NOT NULL,
+                            dimension TEXT NOT NULL,
+                            bucket TEXT NOT NULL,
+                            book_count INTEGER NOT NULL DEFAULT 0,
+                            rating_sum INTEGER NOT NULL DEFAULT 0,
+                            rating_count INTEGER NOT NULL DEFAULT 0,
+                            PRIMARY KEY (user_id, dimension, bucket),
+                            FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+) WITHOUT ROWID;
+
+INSERT INTO book_stats (user_id, dimension, bucket, book_count, rating_sum, rating_count)
+SELECT user_id, 'total', '', COUNT(*), COALESCE(SUM(rating), 0), COUNT(rating)
+FROM books GROUP BY user_id;
+
+INSERT INTO book_stats (user_id, dimension, bucket, book_count, rating_sum, rating_count)
+SELECT user_id, 'status', reading_status, COUNT(*), COALESCE(SUM(rating), 0), COUNT(rating)
+FROM books GROUP BY user_id, reading_status;
+
+INSERT INTO book_stats (user_id, dimension, bucket, book_count, rating_sum, rating_count)
+SELECT user_id, 'genre', genre, COUNT(*), COALESCE(SUM(rating), 0), COUNT(rating)
+FROM books WHERE genre IS NOT NULL GROUP BY user_id, genre;
+
+INSERT INTO book_stats (user_id, dimension, bucket, book_count, rating_sum, rating_count)
+SELECT user_id, 'year', CAST(publication_year AS TEXT), COUNT(*), COALESCE(SUM(rating), 0), COUNT(rating)
+FROM books WHERE publication_year IS NOT NULL GROUP BY user_id, publication_year;
@@ -0,0 +1,47 @@
+-- Full-text search over books (title, author, notes) and notes (title, content).
+-- External-content FTS5 tables: the text lives only in books/notes, the index holds the tokens.
+-- The triggers keep the index in sync with every write, including native UPDATEs and cascades;
+-- updates that touch none of the indexed columns (status, rating, version, ...) skip the index.
+CREATE VIRTUAL TABLE books_fts USING fts5(
+    title, author, notes,
+    content = 'books', content_rowid = 'id',
+    tokenize = 'unicode61 remove_diacritics 2'
+);
+
+CREATE TRIGGER books_fts_insert AFTER INSERT ON books BEGIN
+    INSERT INTO books_fts (rowid, title, author, notes) VALUES (new.id, new.title, new.author, new.notes);
+END;
+
+CREATE TRIGGER books_fts_delete AFTER DELETE ON books BEGIN
+    INSERT INTO books_fts (books_fts, rowid, title, author, notes)
+    VALUES ('delete', old.id, old.title, old.author, old.notes);
+END;
+
+CREATE TRIGGER books_fts_update AFTER UPDATE OF title, author, notes ON books BEGIN
+    INSERT INTO books_fts (books_fts, rowid, title, author, notes)
+    VALUES ('delete', old.id, old.title, old.author, old.notes);
+    INSERT INTO books_fts (rowid, title, author, notes) VALUES (new.id, new.title, new.author, new.notes);
+END;
+
+CREATE VIRTUAL TABLE notes_fts USING fts5(
+    title, content,
+    content = 'notes', content_rowid = 'id',
+    tokenize = 'unicode61 remove_diacritics 2'
+);
+
+CREATE TRIGGER notes_fts_insert AFTER INSERT ON notes BEGIN
+    INSERT INTO notes_fts (rowid, title, content) VALUES (new.id, new.title, new.content);
+END;
+
+CREATE TRIGGER notes_fts_delete AFTER DELETE ON notes BEGIN
+    INSERT INTO notes_fts (notes_fts, rowid, title, content) VALUES ('delete', old.id, old.title, old.content);
+END;
+
+CREATE TRIGGER notes_fts_update AFTER UPDATE OF title, content ON notes BEGIN
+    INSERT INTO notes_fts (notes_fts, rowid, title, content) VALUES ('delete', old.id, old.title, old.content);
+    INSERT INTO notes_fts (rowid, title, content) VALUES (new.id, new.title, new.content);
+END;
+
+-- Index the existing rows
+INSERT INTO books_fts (books_fts) VALUES ('rebuild');
+INSERT INTO notes_fts (notes_fts) VALUES ('rebuild');
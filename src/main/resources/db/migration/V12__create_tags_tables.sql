@@ -0,0 +1,27 @@
+-- Per-user tags and the many-to-many link to books. Tag names are stored lower case.
+-- Set queries over tags are answered from in-memory bitmaps (TagIndex), loaded from these tables.
+CREATE TABLE tags (
+                      id INTEGER PRIMARY KEY AUTOINCREMENT,
+                      user_id INTEGER NOT NULL,
+                      name TEXT NOT NULL,
+                      FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+                      UNIQUE (user_id, name)
+);
+
+CREATE TABLE book_tags (
+                           tag_id INTEGER NOT NULL,
+                           book_id INTEGER NOT NULL,
+                           PRIMARY KEY (tag_id, book_id),
+                           FOREIGN KEY (tag_id) REFERENCES tags(id) ON DELETE CASCADE,
+                           FOREIGN KEY (book_id) REFERENCES books(id) ON DELETE CASCADE
+) WITHOUT ROWID;
+
+CREATE INDEX idx_book_tags_book_id ON book_tags(book_id);
+
+-- Foreign keys are not enforced on our connections: drop the tags of a deleted book here,
+-- whichever statement deleted it
+CREATE TRIGGER book_tags_book_delete AFTER DELETE ON books BEGIN
+    DELETE FROM book_tags WHERE book_id = old.id;
+END;
+
+INSERT INTO id_sequences (name, next_val) VALUES ('tags', 1);
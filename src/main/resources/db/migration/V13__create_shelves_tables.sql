@@ -0,0 +1,31 @@
+-- User-defined, manually ordered shelves of books.
+-- Items are ordered by sort_key, a fractional index (see OrderKeys): a key between any two
+-- keys always exists, so placing or moving a book writes only that book's row.
+CREATE TABLE shelves (
+                         id INTEGER PRIMARY KEY AUTOINCREMENT,
+                         user_id INTEGER NOT NULL,
+                         name TEXT NOT NULL,
+                         created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                         FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+                         UNIQUE (user_id, name)
+);
+
+CREATE TABLE shelf_items (
+                             shelf_id INTEGER NOT NULL,
+                             book_id INTEGER NOT NULL,
+                             sort_key TEXT NOT NULL,
+                             PRIMARY KEY (shelf_id, book_id),
+                             FOREIGN KEY (shelf_id) REFERENCES shelves(id) ON DELETE CASCADE,
+                             FOREIGN KEY (book_id) REFERENCES books(id) ON DELETE CASCADE
+) WITHOUT ROWID;
+
+-- Shelf order and neighbour lookups; unique so two concurrent placements cannot tie
+CREATE UNIQUE INDEX idx_shelf_items_sort_key ON shelf_items(shelf_id, sort_key);
+CREATE INDEX idx_shelf_items_book_id ON shelf_items(book_id);
+
+-- Foreign keys are not enforced on our connections (see V12)
+CREATE TRIGGER shelf_items_book_delete AFTER DELETE ON books BEGIN
+    DELETE FROM shelf_items WHERE book_id = old.id;
+END;
+
+INSERT INTO id_sequences (name, next_val) VALUES ('shelves', 1);
@@ -0,0 +1,24 @@
+-- Shared catalog of works: one row per distinct book, whoever owns it. work_key is the
+-- normalized ISBN-13 ("isbn:9780441013593") or, without an ISBN, the normalized title and
+-- author ("ta:dune|frank herbert"); see WorkService. Rows are only ever inserted, natively,
+-- so ids come from AUTOINCREMENT rather than id_sequences.
+CREATE TABLE works (
+                       id INTEGER PRIMARY KEY AUTOINCREMENT,
+                       work_key TEXT NOT NULL UNIQUE,
+                       isbn TEXT,
+                       title TEXT NOT NULL,
+                       author TEXT NOT NULL,
+                       publication_year INTEGER,
+                       genre TEXT,
+                       created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Existing books are linked online by WorkBackfillService in short batches, not here:
+-- keys are normalized in Java, and one migration transaction would hold the write lock
+-- for the whole table
+ALTER TABLE books ADD COLUMN work_id INTEGER REFERENCES works(id);
+
+CREATE INDEX idx_books_work_id ON books(work_id);
+
+-- Tiny once the backfill is done: finds the books still to link without a scan
+CREATE INDEX idx_books_unlinked ON books(id) WHERE work_id IS NULL;
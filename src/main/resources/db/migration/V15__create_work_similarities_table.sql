@@ -0,0 +1,11 @@
+-- Precomputed "similar books": the top neighbours of each work, ranked 0..K-1, rebuilt as a
+-- whole by WorkSimilarityService. Reading them is one range scan of the primary key.
+CREATE TABLE work_similarities (
+                                   work_id INTEGER NOT NULL,
+                                   rank INTEGER NOT NULL,
+                                   similar_work_id INTEGER NOT NULL,
+                                   score REAL NOT NULL,
+                                   PRIMARY KEY (work_id, rank),
+                                   FOREIGN KEY (work_id) REFERENCES works(id),
+                                   FOREIGN KEY (similar_work_id) REFERENCES works(id)
+) WITHOUT ROWID;
@@ -0,0 +1,62 @@
+-- Scope full-text matches to one user inside the index (see V11).
+-- user_id becomes an indexed FTS column holding the owner's id as a single token, so a search
+-- runs as "user_id : 42 AND {text columns} : (...)": FTS5 intersects the owner's doclist with
+-- the terms' doclists instead of matching every user's rows and filtering them after the join.
+-- It is the last column, so snippet() never prefers it over a text column with a hit, and its
+-- bm25 weight is 0.
+DROP TRIGGER books_fts_insert;
+DROP TRIGGER books_fts_delete;
+DROP TRIGGER books_fts_update;
+DROP TABLE books_fts;
+
+CREATE VIRTUAL TABLE books_fts USING fts5(
+    title, author, notes, user_id,
+    content = 'books', content_rowid = 'id',
+    tokenize = 'unicode61 remove_diacritics 2'
+);
+
+CREATE TRIGGER books_fts_insert AFTER INSERT ON books BEGIN
+    INSERT INTO books_fts (rowid, title, author, notes, user_id)
+    VALUES (new.id, new.title, new.author, new.notes, new.user_id);
+END;
+
+CREATE TRIGGER books_fts_delete AFTER DELETE ON books BEGIN
+    INSERT INTO books_fts (books_fts, rowid, title, author, notes, user_id)
+    VALUES ('delete', old.id, old.title, old.author, old.notes, old.user_id);
+END;
+
+CREATE TRIGGER books_fts_update AFTER UPDATE OF title, author, notes, user_id ON books BEGIN
+    INSERT INTO books_fts (books_fts, rowid, title, author, notes, user_id)
+    VALUES ('delete', old.id, old.title, old.author, old.notes, old.user_id);
+    INSERT INTO books_fts (rowid, title, author, notes, user_id)
+    VALUES (new.id, new.title, new.author, new.notes, new.user_id);
+END;
+
+DROP TRIGGER notes_fts_insert;
+DROP TRIGGER notes_fts_delete;
+DROP TRIGGER notes_fts_update;
+DROP TABLE notes_fts;
+
+CREATE VIRTUAL TABLE notes_fts USING fts5(
+    title, content, user_id,
+    content = 'notes', content_rowid = 'id',
+    tokenize = 'unicode61 remove_diacritics 2'
+);
+
+CREATE TRIGGER notes_fts_insert AFTER INSERT ON notes BEGIN
+    INSERT INTO notes_fts (rowid, title, content, user_id) VALUES (new.id, new.title, new.content, new.user_id);
+END;
+
+CREATE TRIGGER notes_fts_delete AFTER DELETE ON notes BEGIN
+    INSERT INTO notes_fts (notes_fts, rowid, title, content, user_id)
+    VALUES ('delete', old.id, old.title, old.content, old.user_id);
+END;
+
+CREATE TRIGGER notes_fts_update AFTER UPDATE OF title, content, user_id ON notes BEGIN
+    INSERT INTO notes_fts (notes_fts, rowid, title, content, user_id)
+    VALUES ('delete', old.id, old.title, old.content, old.user_id);
+    INSERT INTO notes_fts (rowid, title, content, user_id) VALUES (new.id, new.title, new.content, new.user_id);
+END;
+
+INSERT INTO books_fts (books_fts) VALUES ('rebuild');
+INSERT INTO notes_fts (notes_fts) VALUES ('rebuild');
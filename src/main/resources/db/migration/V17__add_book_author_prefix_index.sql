@@ -0,0 +1,4 @@
+-- Case-insensitive author prefix filter (/api/books/query?author=): BookSpecifications
+-- compares lower(author) with a lower-cased range, which this expression index serves.
+-- SQLite's lower() folds ASCII letters only, and so does the filter.
+CREATE INDEX idx_books_user_author_lower ON books(user_id, lower(author));
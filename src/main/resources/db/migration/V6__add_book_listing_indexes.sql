@@ -0,0 +1,15 @@
+-- Composite indexes for keyset-paginated book listings.
+-- Each one serves "WHERE user_id = ? AND <col> >= ? ORDER BY <col>, id" as a range scan;
+-- id needs no column of its own because the rowid ends every SQLite index entry.
+CREATE INDEX idx_books_user_title ON books(user_id, title);
+CREATE INDEX idx_books_user_author ON books(user_id, author);
+CREATE INDEX idx_books_user_created_at ON books(user_id, created_at);
+CREATE INDEX idx_books_user_rating ON books(user_id, rating);
+CREATE INDEX idx_books_user_publication_year ON books(user_id, publication_year);
+
+-- Filtered listings (/status/{status}, /genre/{genre}) paged by id
+CREATE INDEX idx_books_user_status ON books(user_id, reading_status);
+CREATE INDEX idx_books_user_genre ON books(user_id, genre);
+
+-- Every index above starts with user_id, so the single-column index is redundant
+DROP INDEX IF EXISTS idx_books_user_id;
@@ -0,0 +1,11 @@
+-- Id blocks for @PooledId entities (see PooledIdAllocator).
+-- next_val is the first id not yet reserved; seeded past the existing rows.
+CREATE TABLE id_sequences (
+                              name TEXT PRIMARY KEY,
+                              next_val INTEGER NOT NULL
+);
+
+INSERT INTO id_sequences (name, next_val) SELECT 'users', COALESCE(MAX(id), 0) + 1 FROM users;
+INSERT INTO id_sequences (name, next_val) SELECT 'books', COALESCE(MAX(id), 0) + 1 FROM books;
+INSERT INTO id_sequences (name, next_val) SELECT 'notes', COALESCE(MAX(id), 0) + 1 FROM notes;
+INSERT INTO id_sequences (name, next_val) SELECT 'refresh_tokens', COALESCE(MAX(id), 0) + 1 FROM refresh_tokens;
@@ -0,0 +1,8 @@
+-- Composite indexes for the multi-criteria query endpoint (/api/books/query).
+-- A status filter sorted by creation date ("recently added, still reading") walks this
+-- index in order instead of sorting the user's whole shelf.
+CREATE INDEX idx_books_user_status_created_at ON books(user_id, reading_status, created_at);
+CREATE INDEX idx_books_user_genre_created_at ON books(user_id, genre, created_at);
+
+-- (user_id, reading_status) and (user_id, genre) from V6 stay: paging by id relies on
+-- their implicit rowid order. Rating, year and author ranges use the V6 (user_id, col) indexes.
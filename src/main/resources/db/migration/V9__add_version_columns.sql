@@ -0,0 +1,3 @@
+-- Optimistic locking / ETag versions. Existing rows start at 0.
+ALTER TABLE books ADD COLUMN version INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE notes ADD COLUMN version INTEGER NOT NULL DEFAULT 0;
@@ -6,6 +6,7 @@ import com.example.mybooks.model.Role;
 import com.example.mybooks.model.User;
 import com.example.mybooks.repository.UserRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
@@ -18,6 +19,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -45,6 +47,9 @@ class AuthIntegrationTest {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     private CreateUserRequest validUserRequest;
     private LoginRequest validLoginRequest;
 
@@ -180,6 +185,47 @@ class AuthIntegrationTest {
                 .andExpect(status().isUnauthorized());  // 401 Unauthorized
     }
 
+    @Test
+    @DisplayName("Should count failed logins and security events in metrics")
+    void shouldCountFailedLoginsInMetrics() throws Exception {
+        double failuresBefore = meterRegistry.counter("mybooks.auth.logins", "outcome", "failure").count();
+        double eventsBefore = meterRegistry.counter("mybooks.security.events", "type", "FAILED_LOGIN").count();
+
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validLoginRequest)))
+                .andExpect(status().isUnauthorized());
+
+        assertEquals(failuresBefore + 1,
+                meterRegistry.counter("mybooks.auth.logins", "outcome", "failure").count());
+        assertEquals(eventsBefore + 1,
+                meterRegistry.counter("mybooks.security.events", "type", "FAILED_LOGIN").count());
+    }
+
+    @Test
+    @DisplayName("Should verify the token once per authenticated request")
+    void shouldVerifyTokenOncePerRequest() throws Exception {
+        User user = new User();
+        user.setUsername("testuser");
+        user.setEmail("test@test.com");
+        user.setPassword(passwordEncoder.encode("Test123!"));
+        user.setRole(Role.USER);
+        userRepository.save(user);
+        MvcResult loginResult = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validLoginRequest)))
+                .andExpect(status().isOk())
+                .andReturn();
+        long verificationsBefore = meterRegistry.timer("mybooks.jwt.verification", "outcome", "valid").count();
+
+        mockMvc.perform(get("/api/books")
+                        .cookie(loginResult.getResponse().getCookies()))
+                .andExpect(status().isOk());
+
+        assertEquals(verificationsBefore + 1,
+                meterRegistry.timer("mybooks.jwt.verification", "outcome", "valid").count());
+    }
+
     @Test
     @DisplayName("Should logout successfully")
     void shouldLogoutSuccessfully() throws Exception {
@@ -244,4 +290,26 @@ class AuthIntegrationTest {
                         .cookie(new jakarta.servlet.http.Cookie("jwt", "invalid.jwt.token")))
                 .andExpect(status().isForbidden());  // 403 Forbidden
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should deny Prometheus metrics to anonymous and regular users")
+    void shouldRestrictPrometheusToAdmins() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isForbidden());
+
+        User user = new User();
+        user.setUsername("testuser");
+        user.setEmail("test@test.com");
+        user.setPassword(passwordEncoder.encode("Test123!"));
+        user.setRole(Role.USER);
+        userRepository.save(user);
+        MvcResult userLogin = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validLoginRequest)))
+                .andExpect(status().isOk())
+                .andReturn();
+        mockMvc.perform(get("/actuator/prometheus")
+                        .cookie(userLogin.getResponse().getCookies()))
+                .andExpect(status().isForbidden());
+    }
+}
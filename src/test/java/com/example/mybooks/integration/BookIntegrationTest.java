@@ -3,11 +3,22 @@ package com.example.mybooks.integration;
 import com.example.mybooks.dto.CreateBookRequest;
 import com.example.mybooks.dto.CreateUserRequest;
 import com.example.mybooks.dto.LoginRequest;
+import com.example.mybooks.model.Book;
 import com.example.mybooks.model.ReadingStatus;
+import com.example.mybooks.monitoring.QueryCapture;
 import com.example.mybooks.model.Role;
 import com.example.mybooks.model.User;
 import com.example.mybooks.repository.UserRepository;
+import com.example.mybooks.service.BookService;
+import com.example.mybooks.service.BookStatsService;
+import com.example.mybooks.service.IsbnMetadataService;
+import com.example.mybooks.service.SearchService;
+import com.example.mybooks.service.ShelfService;
+import com.example.mybooks.service.WorkBackfillService;
+import com.example.mybooks.service.WorkSimilarityService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
@@ -18,8 +29,21 @@ import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.mybooks.support.QueryBudgetAssertions.assertStatementsAtMost;
+import static org.hamcrest.Matchers.closeTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -47,6 +71,27 @@ class BookIntegrationTest {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookStatsService bookStatsService;
+
+    @Autowired
+    private ShelfService shelfService;
+
+    @Autowired
+    private WorkBackfillService workBackfillService;
+
+    @Autowired
+    private WorkSimilarityService workSimilarityService;
+
+    @Autowired
+    private IsbnMetadataService isbnMetadataService;
+
     private User testUser;
     private User otherUser;
     private CreateBookRequest bookRequest;
@@ -109,6 +154,23 @@ class BookIntegrationTest {
                 .andExpect(jsonPath("$.readingStatus").value("READING"));
     }
 
+    @Test
+    @DisplayName("Should return a book response, not the entity, for form submissions")
+    void shouldCreateBookFromForm() throws Exception {
+        MvcResult loginResult = login("test@test.com", "Test123!");
+
+        mockMvc.perform(post("/api/upload/book-with-form")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                        .param("title", "Form Book")
+                        .param("author", "Form Author")
+                        .param("readingStatus", "READING"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").isNumber())
+                .andExpect(jsonPath("$.title").value("Form Book"))
+                .andExpect(jsonPath("$.user").doesNotExist());
+    }
+
     @Test
     @DisplayName("Should deny book creation when not authenticated")
     void shouldDenyBookCreationWhenNotAuthenticated() throws Exception {
@@ -147,6 +209,290 @@ class BookIntegrationTest {
                 .andExpect(jsonPath("$[0].title").value("Test Book"));
     }
 
+    @Test
+    @DisplayName("Should list books without per-book queries")
+    void shouldListBooksWithoutPerBookQueries() throws Exception {
+        // Login
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail("test@test.com");
+        loginRequest.setPassword("Test123!");
+
+        MvcResult loginResult = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // Create several books
+        for (int i = 0; i < 5; i++) {
+            bookRequest.setTitle("Test Book " + i);
+            mockMvc.perform(post("/api/books")
+                            .cookie(loginResult.getResponse().getCookies())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(bookRequest)))
+                    .andExpect(status().isCreated());
+        }
+
+        // The test transaction spans all requests: write out the batched inserts first
+        entityManager.flush();
+
+        // User lookup in the JWT filter and in the controller + the book list,
+        // independent of the number of books
+        assertStatementsAtMost(3, () -> mockMvc.perform(get("/api/books")
+                        .cookie(loginResult.getResponse().getCookies()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(5)));
+    }
+
+    @Test
+    @DisplayName("Should page through books with a cursor, nulls last when descending")
+    void shouldPageThroughBooksWithCursor() throws Exception {
+        // Login
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail("test@test.com");
+        loginRequest.setPassword("Test123!");
+
+        MvcResult loginResult = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // Ratings with duplicates and unrated books
+        Integer[] ratings = {3, null, 5, 3, null};
+        for (int i = 0; i < ratings.length; i++) {
+            bookRequest.setTitle("Book " + i);
+            bookRequest.setRating(ratings[i]);
+            mockMvc.perform(post("/api/books")
+                            .cookie(loginResult.getResponse().getCookies())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(bookRequest)))
+                    .andExpect(status().isCreated());
+        }
+
+        List<String> titles = new ArrayList<>();
+        String cursor = null;
+        do {
+            var request = get("/api/books")
+                    .cookie(loginResult.getResponse().getCookies())
+                    .param("sort", "rating")
+                    .param("direction", "desc")
+                    .param("limit", "2");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            MvcResult result = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn();
+
+            JsonNode page = objectMapper.readTree(result.getResponse().getContentAsString());
+            page.get("items").forEach(book -> titles.add(book.get("title").asText()));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+        } while (cursor != null);
+
+        assertEquals(List.of("Book 2", "Book 3", "Book 0", "Book 4", "Book 1"), titles);
+    }
+
+    @Test
+    @DisplayName("Should reject invalid page parameters")
+    void shouldRejectInvalidPageParameters() throws Exception {
+        // Login
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail("test@test.com");
+        loginRequest.setPassword("Test123!");
+
+        MvcResult loginResult = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        mockMvc.perform(get("/api/books")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .param("limit", "1000"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/books")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .param("sort", "isbn"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/books")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should export books as NDJSON and CSV")
+    void shouldExportBooks() throws Exception {
+        // Login
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail("test@test.com");
+        loginRequest.setPassword("Test123!");
+
+        MvcResult loginResult = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // Create books, one with characters that need CSV quoting
+        bookRequest.setTitle("Plain Title");
+        mockMvc.perform(post("/api/books")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookRequest)))
+                .andExpect(status().isCreated());
+        bookRequest.setTitle("Quoted, \"Title\"");
+        mockMvc.perform(post("/api/books")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookRequest)))
+                .andExpect(status().isCreated());
+
+        MvcResult ndjson = mockMvc.perform(get("/api/books/export")
+                        .cookie(loginResult.getResponse().getCookies()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn();
+        String[] lines = ndjson.getResponse().getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("Plain Title", objectMapper.readTree(lines[0]).get("title").asText());
+        assertEquals("Quoted, \"Title\"", objectMapper.readTree(lines[1]).get("title").asText());
+
+        MvcResult csv = mockMvc.perform(get("/api/books/export")
+                        .param("format", "csv")
+                        .cookie(loginResult.getResponse().getCookies()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"books.csv\""))
+                .andReturn();
+        String[] rows = csv.getResponse().getContentAsString().split("\r\n");
+        assertEquals(3, rows.length);
+        assertEquals("id,title,author,isbn,publicationYear,genre,readingStatus,rating,notes,createdAt", rows[0]);
+        assertTrue(rows[2].contains(",\"Quoted, \"\"Title\"\"\",Test Author,"));
+
+        mockMvc.perform(get("/api/books/export")
+                        .param("format", "xml")
+                        .cookie(loginResult.getResponse().getCookies()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should bulk update and delete only the user's own books")
+    void shouldBulkUpdateAndDeleteOwnBooks() throws Exception {
+        MvcResult loginResult = login("test@test.com", "Test123!");
+        MvcResult otherLogin = login("other@test.com", "Test123!");
+
+        List<Long> ownIds = new ArrayList<>();
+        for (String genre : List.of("Fantasy", "Fantasy", "Horror")) {
+            bookRequest.setGenre(genre);
+            ownIds.add(createBook(loginResult));
+        }
+        bookRequest.setGenre("Fantasy");
+        Long foreignId = createBook(otherLogin);
+
+        List<Long> ids = new ArrayList<>(ownIds);
+        ids.add(foreignId);
+        mockMvc.perform(post("/api/books/bulk-update")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                Map.of("ids", ids, "readingStatus", "COMPLETED"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(3));
+
+        mockMvc.perform(get("/api/books/" + foreignId)
+                        .cookie(otherLogin.getResponse().getCookies()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.readingStatus").value("READING"));
+
+        mockMvc.perform(post("/api/books/bulk-delete")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"genre\":\"Fantasy\",\"status\":\"COMPLETED\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(2));
+
+        mockMvc.perform(get("/api/books")
+                        .cookie(loginResult.getResponse().getCookies()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].genre").value("Horror"));
+
+        mockMvc.perform(get("/api/books/" + foreignId)
+                        .cookie(otherLogin.getResponse().getCookies()))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/books/bulk-delete")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should bulk import valid rows and report invalid ones")
+    void shouldBulkImportBooks() throws Exception {
+        // Login
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail("test@test.com");
+        loginRequest.setPassword("Test123!");
+
+        MvcResult loginResult = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String ndjson = """
+                {"title":"Dune","author":"Frank Herbert","rating":5}
+                {"title":"","author":"Nobody"}
+                {"title":"Broken"
+                {"title":"Emma","author":"Jane Austen","readingStatus":"COMPLETED"}
+                """;
+
+        mockMvc.perform(post("/api/books/bulk")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .contentType("application/x-ndjson")
+                        .content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.failed").value(2))
+                .andExpect(jsonPath("$.errors[0].row").value(2))
+                .andExpect(jsonPath("$.errors[0].errors.title").exists())
+                .andExpect(jsonPath("$.errors[1].row").value(3));
+
+        String csv = "title,author,rating,notes\r\n"
+                + "\"Hyperion\",Dan Simmons,4,\"Multi-line,\r\nquoted \"\"notes\"\"\"\r\n"
+                + "Bad Rating,Someone,ten,\r\n";
+
+        mockMvc.perform(post("/api/books/bulk")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.errors[0].row").value(2))
+                .andExpect(jsonPath("$.errors[0].errors.rating").value("Invalid value"));
+
+        mockMvc.perform(get("/api/books")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .param("sort", "title"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(3))
+                .andExpect(jsonPath("$.items[0].title").value("Dune"))
+                .andExpect(jsonPath("$.items[1].readingStatus").value("COMPLETED"))
+                .andExpect(jsonPath("$.items[2].notes").value("Multi-line,\r\nquoted \"notes\""));
+
+        mockMvc.perform(post("/api/books/bulk")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .contentType(MediaType.APPLICATION_XML)
+                        .content("<books/>"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+
     @Test
     @DisplayName("Should NOT see other user's books")
     void shouldNotSeeOtherUsersBooks() throws Exception {
@@ -221,6 +567,1028 @@ class BookIntegrationTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.title").value("Updated Title"))
                 .andExpect(jsonPath("$.readingStatus").value("COMPLETED"));
+
+        // Omitted readingStatus keeps the current one; the write itself is a single statement
+        // (plus the book_stats delta). Dropping the ISBN gives a work key not seen yet, so the
+        // work is looked up, created and linked as well
+        bookRequest.setReadingStatus(null);
+        bookRequest.setIsbn(null);
+        entityManager.flush();
+        assertStatementsAtMost(8, () -> mockMvc.perform(put("/api/books/" + bookId)
+                        .cookie(loginResult.getResponse().getCookies())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.isbn").doesNotExist())
+                .andExpect(jsonPath("$.readingStatus").value("COMPLETED"))
+                .andExpect(jsonPath("$.createdAt").exists()));
+        Number workId = (Number) entityManager.createNativeQuery(
+                        "SELECT w.id FROM works w JOIN books b ON b.work_id = w.id WHERE b.id = :id AND w.isbn IS NULL")
+                .setParameter("id", bookId)
+                .getSingleResult();
+        assertNotNull(workId);
+
+        mockMvc.perform(put("/api/books/" + (bookId + 1000))
+                        .cookie(loginResult.getResponse().getCookies())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookRequest)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Should combine query criteria and page the result")
+    void shouldQueryBooksByCombinedCriteria() throws Exception {
+        MvcResult loginResult = login("test@test.com", "Test123!");
+
+        Object[][] books = {
+                {"Tolkien", "Fantasy", 5, 1954},
+                {"Tolstoy", "Classic", 4, 1869},
+                {"Tolkien", "Fantasy", 3, 1937},
+                {"Pratchett", "Fantasy", 5, 1983},
+                {"Toole", "Fantasy", null, 1980}
+        };
+        for (Object[] book : books) {
+            bookRequest.setAuthor((String) book[0]);
+            bookRequest.setGenre((String) book[1]);
+            bookRequest.setRating((Integer) book[2]);
+            bookRequest.setPublicationYear((Integer) book[3]);
+            createBook(loginResult);
+        }
+        createBook(login("other@test.com", "Test123!"));
+
+        mockMvc.perform(get("/api/books/query")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .param("genre", "Fantasy")
+                        .param("status", "READING")
+                        .param("author", "Tol")
+                        .param("minRating", "4")
+                        .param("maxYear", "1960"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].author").value("Tolkien"))
+                .andExpect(jsonPath("$.items[0].rating").value(5));
+
+        // The author prefix ignores case
+        mockMvc.perform(get("/api/books/query")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .param("author", "tOLK"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].author").value("Tolkien"));
+
+        mockMvc.perform(get("/api/books/query")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .param("minYear", "1900")
+                        .param("maxYear", "1990")
+                        .param("sort", "publication_year")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].publicationYear").value(1937))
+                .andExpect(jsonPath("$.items[1].publicationYear").value(1954))
+                .andExpect(jsonPath("$.hasMore").value(true));
+
+        mockMvc.perform(get("/api/books/query")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .param("minRating", "5")
+                        .param("maxRating", "1"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/books/query")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .param("status", "SHELVED"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should search own books and notes by relevance")
+    void shouldSearchBooksAndNotes() throws Exception {
+        MvcResult loginResult = login("test@test.com", "Test123!");
+
+        String[][] books = {
+                {"Dune", "Frank Herbert", "Desert planet"},
+                {"Children of Dune", "Frank Herbert", null},
+                {"Emma", "Jane Austen", "Read after dune"},
+                {"Persuasion", "Jane Austen", null}
+        };
+        List<Long> ids = new ArrayList<>();
+        for (String[] book : books) {
+            bookRequest.setTitle(book[0]);
+            bookRequest.setAuthor(book[1]);
+            bookRequest.setNotes(book[2]);
+            ids.add(createBook(loginResult));
+        }
+        bookRequest.setTitle("Dune");
+        createBook(login("other@test.com", "Test123!"));
+
+        // Title hits rank before the notes hit; the other user's Dune is not found
+        MvcResult first = mockMvc.perform(get("/api/books/search")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .param("query", "dune")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].title").value("Dune"))
+                .andExpect(jsonPath("$.items[0].snippet").value("[Dune]"))
+                .andExpect(jsonPath("$.items[1].title").value("Children of Dune"))
+                .andExpect(jsonPath("$.hasMore").value(true))
+                .andReturn();
+        String cursor = objectMapper.readTree(first.getResponse().getContentAsString()).get("nextCursor").asText();
+
+        // Other users' writes move every bm25 score but not the position in the ranking
+        bookRequest.setTitle("Dune Messiah");
+        createBook(login("other@test.com", "Test123!"));
+        mockMvc.perform(get("/api/books/search")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .param("query", "dune")
+                        .param("limit", "2")
+                        .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].title").value("Emma"))
+                .andExpect(jsonPath("$.items[0].snippet").value("Read after [dune]"))
+                .andExpect(jsonPath("$.hasMore").value(false));
+
+        // Paging stops at the maximum depth
+        String tooDeep = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("books|" + SearchService.MAX_DEPTH).getBytes(StandardCharsets.UTF_8));
+        mockMvc.perform(get("/api/books/search")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .param("query", "dune")
+                        .param("cursor", tooDeep))
+                .andExpect(status().isBadRequest());
+
+        // Every word must match, the last one as a prefix
+        mockMvc.perform(get("/api/books/search")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .param("query", "jane pers"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].title").value("Persuasion"));
+
+        // The owner column scopes the match but is not searchable itself
+        mockMvc.perform(get("/api/books/search")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .param("query", String.valueOf(testUser.getId())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(0));
+
+        // The index follows updates and deletes
+        bookRequest.setTitle("Arrakis");
+        bookRequest.setNotes(null);
+        mockMvc.perform(put("/api/books/" + ids.get(0))
+                        .cookie(loginResult.getResponse().getCookies())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookRequest)))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/books/" + ids.get(1))
+                        .cookie(loginResult.getResponse().getCookies()))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/books/search")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .param("query", "dune"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].title").value("Emma"));
+
+        mockMvc.perform(get("/api/books/search")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .param("query", "\"unbalanced AND ("))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(0));
+
+        mockMvc.perform(get("/api/books/search")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .param("query", "  "))
+                .andExpect(status().isBadRequest());
+
+        // Notes are searched in their content too
+        mockMvc.perform(post("/api/notes")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Reading plan\",\"content\":\"Finish the Herbert novels in June\"}"))
+                .andExpect(status().isCreated());
+        mockMvc.perform(get("/api/notes/search")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .param("query", "herbert"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].title").value("Reading plan"))
+                .andExpect(jsonPath("$.items[0].snippet").value("Finish the [Herbert] novels in June"))
+                .andExpect(jsonPath("$.items[0].author").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Should suggest and fuzzy-match titles, authors and genres of own books")
+    void shouldSuggestFromOwnBooks() throws Exception {
+        MvcResult loginResult = login("test@test.com", "Test123!");
+
+        bookRequest.setAuthor("Frank Herbert");
+        bookRequest.setTitle("Dune");
+        Long duneId = createBook(loginResult);
+        bookRequest.setTitle("Dune Messiah");
+        createBook(loginResult);
+        bookRequest.setTitle("Hero");
+        bookRequest.setAuthor("Someone Else");
+        createBook(login("other@test.com", "Test123!"));
+
+        mockMvc.perform(get("/api/books/suggest")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .param("q", "her"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].text").value("Frank Herbert"))
+                .andExpect(jsonPath("$[0].type").value("author"))
+                .andExpect(jsonPath("$[0].count").value(2));
+
+        // Writes update the loaded index
+        bookRequest.setTitle("Dune");
+        bookRequest.setAuthor("F. Herbert");
+        mockMvc.perform(put("/api/books/" + duneId)
+                        .cookie(loginResult.getResponse().getCookies())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookRequest)))
+                .andExpect(status().isOk());
+        bookRequest.setTitle("Heretics of Dune");
+        createBook(loginResult);
+
+        mockMvc.perform(get("/api/books/suggest")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .param("q", "her")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].text").value("F. Herbert"))
+                .andExpect(jsonPath("$[0].count").value(2))
+                .andExpect(jsonPath("$[1].text").value("Frank Herbert"))
+                .andExpect(jsonPath("$[1].count").value(1));
+
+        mockMvc.perform(get("/api/books/suggest")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .param("q", " "))
+                .andExpect(status().isBadRequest());
+
+        // The same in-memory indexes answer misspelled queries
+        mockMvc.perform(get("/api/books/fuzzy")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .param("q", "heretiks"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].title").value("Heretics of Dune"))
+                .andExpect(jsonPath("$[0].matchedField").value("title"));
+
+        mockMvc.perform(get("/api/books/fuzzy")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .param("q", "frank herbrt"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].title").value("Dune Messiah"))
+                .andExpect(jsonPath("$[0].matchedField").value("author"));
+    }
+
+    @Test
+    @DisplayName("Should tag own books and select them by tag sets")
+    void shouldQueryBooksByTags() throws Exception {
+        MvcResult loginResult = login("test@test.com", "Test123!");
+        Long[] ids = new Long[4];
+        for (int i = 0; i < ids.length; i++) {
+            bookRequest.setTitle("Book " + i);
+            ids[i] = createBook(loginResult);
+        }
+        Long otherBookId = createBook(login("other@test.com", "Test123!"));
+
+        // sf: 0 1 2, favorite: 1 2 3, read: 2
+        for (int i : new int[]{0, 1, 2}) {
+            tag(loginResult, "SF", ids[i]).andExpect(status().isNoContent());
+        }
+        for (int i : new int[]{1, 2, 3}) {
+            tag(loginResult, "favorite", ids[i]).andExpect(status().isNoContent());
+        }
+        tag(loginResult, "read", ids[2]).andExpect(status().isNoContent());
+        tag(loginResult, "read", ids[2]).andExpect(status().isNoContent());
+        tag(loginResult, "read", otherBookId).andExpect(status().isForbidden());
+        tag(loginResult, "read", 999999L).andExpect(status().isNotFound());
+        tag(loginResult, "a,b", ids[0]).andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/tags")
+                        .cookie(loginResult.getResponse().getCookies()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].name").value("favorite"))
+                .andExpect(jsonPath("$[0].bookCount").value(3))
+                .andExpect(jsonPath("$[2].name").value("sf"))
+                .andExpect(jsonPath("$[2].bookCount").value(3));
+
+        mockMvc.perform(get("/api/tags/books")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .param("all", "sf,favorite")
+                        .param("none", "read"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].id").value(ids[1]))
+                .andExpect(jsonPath("$.hasMore").value(false));
+
+        // Union, paged by id
+        MvcResult firstPage = mockMvc.perform(get("/api/tags/books")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .param("any", "sf,read,unknown")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(ids[0]))
+                .andExpect(jsonPath("$.items[1].id").value(ids[1]))
+                .andExpect(jsonPath("$.hasMore").value(true))
+                .andReturn();
+        String cursor = objectMapper.readTree(firstPage.getResponse().getContentAsString()).get("nextCursor").asText();
+        mockMvc.perform(get("/api/tags/books")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .param("any", "sf,read,unknown")
+                        .param("limit", "2")
+                        .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].id").value(ids[2]))
+                .andExpect(jsonPath("$.hasMore").value(false));
+
+        mockMvc.perform(get("/api/tags/books")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .param("none", "read"))
+                .andExpect(status().isBadRequest());
+
+        // Deleting a book, untagging and deleting a tag update the index
+        mockMvc.perform(delete("/api/books/" + ids[1])
+                        .cookie(loginResult.getResponse().getCookies()))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/api/tags/favorite/books/" + ids[3])
+                        .cookie(loginResult.getResponse().getCookies()))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/tags/books/count")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .param("all", "favorite"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(1));
+
+        mockMvc.perform(delete("/api/tags/SF")
+                        .cookie(loginResult.getResponse().getCookies()))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/api/tags/sf")
+                        .cookie(loginResult.getResponse().getCookies()))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/tags/books/count")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .param("any", "sf,favorite"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(1));
+
+        // The index agrees with book_tags, where the trigger removed the deleted book's links
+        entityManager.flush();
+        Number links = (Number) entityManager.createNativeQuery("SELECT COUNT(*) FROM book_tags").getSingleResult();
+        assertEquals(2, links.intValue());
+
+        // Ids past the 32-bit range are indexed and paged like any other
+        long largeId = 5_000_000_000L;
+        bookRequest.setTitle("Large id");
+        Long bookId = createBook(loginResult);
+        entityManager.flush();
+        entityManager.createNativeQuery("UPDATE books SET id = :largeId WHERE id = :id")
+                .setParameter("largeId", largeId).setParameter("id", bookId).executeUpdate();
+        entityManager.clear();
+        tag(loginResult, "favorite", largeId).andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/tags/books")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .param("all", "favorite")
+                        .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[1].id").value(largeId));
+    }
+
+    @Test
+    @DisplayName("Should order shelf books by moving single rows")
+    void shouldReorderShelfBooks() throws Exception {
+        MvcResult loginResult = login("test@test.com", "Test123!");
+        Long[] ids = new Long[4];
+        for (int i = 0; i < ids.length; i++) {
+            bookRequest.setTitle("Book " + i);
+            ids[i] = createBook(loginResult);
+        }
+
+        MvcResult created = mockMvc.perform(post("/api/shelves")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Summer\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.name").value("Summer"))
+                .andReturn();
+        long shelfId = objectMapper.readTree(created.getResponse().getContentAsString()).get("id").asLong();
+        String books = "/api/shelves/" + shelfId + "/books/";
+
+        // Append 0, 1, 2, add 3 before 1, then move 0 after 2: 3 1 2 0
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(put(books + ids[i])
+                            .cookie(loginResult.getResponse().getCookies()))
+                    .andExpect(status().isNoContent());
+        }
+        mockMvc.perform(put(books + ids[3])
+                        .cookie(loginResult.getResponse().getCookies())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"beforeBookId\":" + ids[1] + "}"))
+                .andExpect(status().isNoContent());
+
+        entityManager.flush();
+        try (QueryCapture capture = QueryCapture.start()) {
+            mockMvc.perform(put(books + ids[0])
+                            .cookie(loginResult.getResponse().getCookies())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"afterBookId\":" + ids[2] + "}"))
+                    .andExpect(status().isNoContent());
+            List<String> writes = capture.getStatements().stream()
+                    .filter(sql -> sql.startsWith("INSERT") || sql.startsWith("UPDATE") || sql.startsWith("DELETE"))
+                    .toList();
+            assertEquals(1, writes.size());
+        }
+
+        mockMvc.perform(get("/api/shelves/" + shelfId + "/books")
+                        .cookie(loginResult.getResponse().getCookies()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(ids[3]))
+                .andExpect(jsonPath("$[1].id").value(ids[1]))
+                .andExpect(jsonPath("$[2].id").value(ids[2]))
+                .andExpect(jsonPath("$[3].id").value(ids[0]));
+
+        mockMvc.perform(put(books + ids[0])
+                        .cookie(loginResult.getResponse().getCookies())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"afterBookId\":" + ids[1] + ",\"beforeBookId\":" + ids[2] + "}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(put(books + ids[0])
+                        .cookie(loginResult.getResponse().getCookies())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"afterBookId\":999999}"))
+                .andExpect(status().isNotFound());
+        MvcResult otherLogin = login("other@test.com", "Test123!");
+        mockMvc.perform(get("/api/shelves/" + shelfId + "/books")
+                        .cookie(otherLogin.getResponse().getCookies()))
+                .andExpect(status().isForbidden());
+
+        // Rebalancing rewrites the keys but keeps the order; deleting a book takes it off the shelf
+        shelfService.rebalance(shelfId);
+        mockMvc.perform(delete("/api/books/" + ids[1])
+                        .cookie(loginResult.getResponse().getCookies()))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/shelves/" + shelfId + "/books")
+                        .cookie(loginResult.getResponse().getCookies()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].id").value(ids[3]))
+                .andExpect(jsonPath("$[1].id").value(ids[2]))
+                .andExpect(jsonPath("$[2].id").value(ids[0]));
+        mockMvc.perform(get("/api/shelves")
+                        .cookie(loginResult.getResponse().getCookies()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Summer"))
+                .andExpect(jsonPath("$[0].bookCount").value(3));
+    }
+
+    @Test
+    @DisplayName("Should link copies of the same book to one shared work")
+    void shouldShareWorksBetweenUsers() throws Exception {
+        bookRequest.setTitle("Dune");
+        bookRequest.setAuthor("Frank Herbert");
+        bookRequest.setIsbn("0441013597");
+        Long ownCopy = createBook(login("test@test.com", "Test123!"));
+        bookRequest.setTitle("Dune (Ace edition)");
+        bookRequest.setIsbn("9780441013593");
+        MvcResult otherLogin = login("other@test.com", "Test123!");
+        Long otherCopy = createBook(otherLogin);
+
+        assertEquals(workId(ownCopy), workId(otherCopy));
+
+        // The first copy seen provides the catalog metadata
+        mockMvc.perform(get("/api/works/lookup")
+                        .cookie(otherLogin.getResponse().getCookies())
+                        .param("isbn", "978-0-441-01359-3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(workId(ownCopy)))
+                .andExpect(jsonPath("$.title").value("Dune"))
+                .andExpect(jsonPath("$.isbn").value("9780441013593"));
+
+        // Admins correct it; the cached entry is replaced and the ISBN still finds the work
+        String correction = "{\"title\":\"Dune\",\"author\":\"Frank Herbert\",\"publicationYear\":1965,"
+                + "\"genre\":\"Science Fiction\"}";
+        mockMvc.perform(put("/api/works/" + workId(ownCopy))
+                        .cookie(otherLogin.getResponse().getCookies())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(correction))
+                .andExpect(status().isForbidden());
+        User admin = new User();
+        admin.setUsername("adminuser");
+        admin.setEmail("admin@test.com");
+        admin.setPassword(passwordEncoder.encode("Test123!"));
+        admin.setRole(Role.ADMIN);
+        userRepository.save(admin);
+        MvcResult adminLogin = login("admin@test.com", "Test123!");
+        mockMvc.perform(put("/api/works/" + workId(ownCopy))
+                        .cookie(adminLogin.getResponse().getCookies())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(correction))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.publicationYear").value(1965));
+        mockMvc.perform(put("/api/works/999999")
+                        .cookie(adminLogin.getResponse().getCookies())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(correction))
+                .andExpect(status().isNotFound());
+        entityManager.flush();
+        mockMvc.perform(get("/api/works/lookup")
+                        .cookie(otherLogin.getResponse().getCookies())
+                        .param("isbn", "0441013597"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.genre").value("Science Fiction"))
+                .andExpect(jsonPath("$.publicationYear").value(1965));
+
+        // Without an ISBN, title and author identify the work; changing them relinks the book
+        bookRequest.setTitle("Emma");
+        bookRequest.setAuthor("Jane Austen");
+        bookRequest.setIsbn(null);
+        Long emma = createBook(otherLogin);
+        mockMvc.perform(get("/api/works/lookup")
+                        .cookie(otherLogin.getResponse().getCookies())
+                        .param("title", "EMMA")
+                        .param("author", "jane austen"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(workId(emma)));
+        mockMvc.perform(patch("/api/books/" + emma)
+                        .cookie(otherLogin.getResponse().getCookies())
+                        .contentType("application/merge-patch+json")
+                        .content("{\"title\":\"Persuasion\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/works/lookup")
+                        .cookie(otherLogin.getResponse().getCookies())
+                        .param("title", "persuasion")
+                        .param("author", "Jane Austen"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(workId(emma)));
+        mockMvc.perform(get("/api/works/lookup")
+                        .cookie(otherLogin.getResponse().getCookies())
+                        .param("title", "Emma"))
+                .andExpect(status().isBadRequest());
+
+        // Books from before the catalog (or from a bulk import) are linked by the backfill
+        entityManager.flush();
+        entityManager.createNativeQuery("UPDATE books SET work_id = NULL").executeUpdate();
+        assertEquals(3, workBackfillService.linkBatch(10));
+        assertEquals(0, workBackfillService.linkBatch(10));
+        entityManager.clear();
+        assertEquals(workId(ownCopy), workId(otherCopy));
+        Number works = (Number) entityManager.createNativeQuery("SELECT COUNT(*) FROM works").getSingleResult();
+        assertEquals(3, works.intValue());
+    }
+
+    @Test
+    @DisplayName("Should recommend books liked by readers of the same book")
+    void shouldRecommendSimilarBooks() throws Exception {
+        User thirdUser = new User();
+        thirdUser.setUsername("thirduser");
+        thirdUser.setEmail("third@test.com");
+        thirdUser.setPassword(passwordEncoder.encode("Test123!"));
+        thirdUser.setRole(Role.USER);
+        userRepository.save(thirdUser);
+
+        MvcResult testLogin = login("test@test.com", "Test123!");
+        MvcResult otherLogin = login("other@test.com", "Test123!");
+        MvcResult thirdLogin = login("third@test.com", "Test123!");
+        bookRequest.setIsbn(null);
+        bookRequest.setGenre("Science Fiction");
+        bookRequest.setRating(null);
+
+        // Two readers liked all three books (completed, or rated 4 or more)
+        for (MvcResult reader : List.of(testLogin, thirdLogin)) {
+            addBook(reader, "Dune", "Frank Herbert", ReadingStatus.COMPLETED, null);
+            addBook(reader, "Dune Messiah", "Frank Herbert", ReadingStatus.READING, 5);
+            addBook(reader, "Neuromancer", "William Gibson", ReadingStatus.COMPLETED, null);
+        }
+        addBook(testLogin, "Emma", "Jane Austen", ReadingStatus.NOT_STARTED, 2);
+        Long otherDune = addBook(otherLogin, "Dune", "Frank Herbert", ReadingStatus.COMPLETED, null);
+
+        entityManager.flush();
+        assertEquals(3, workSimilarityService.rebuild());
+        // A rebuild fills a staging table and renames it over the previous results
+        assertEquals(3, workSimilarityService.rebuild());
+        Number tables = (Number) entityManager.createNativeQuery(
+                "SELECT COUNT(*) FROM sqlite_master WHERE type = 'table' AND name LIKE 'work_similarities%'")
+                .getSingleResult();
+        assertEquals(1, tables.intValue());
+
+        // Same author ranks first among equally co-read books
+        mockMvc.perform(get("/api/books/" + otherDune + "/similar")
+                        .cookie(otherLogin.getResponse().getCookies()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].title").value("Dune Messiah"))
+                .andExpect(jsonPath("$[1].title").value("Neuromancer"))
+                .andExpect(jsonPath("$[1].score").value(closeTo(2 / Math.sqrt(6) * 1.25, 1e-6)));
+        mockMvc.perform(get("/api/books/" + otherDune + "/similar")
+                        .cookie(otherLogin.getResponse().getCookies())
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+
+        // Books the reader already has are not recommended
+        Long testDune = addBook(testLogin, "Dune", "Frank Herbert", ReadingStatus.READING, null);
+        mockMvc.perform(get("/api/books/" + testDune + "/similar")
+                        .cookie(testLogin.getResponse().getCookies()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+
+        mockMvc.perform(get("/api/books/" + otherDune + "/similar")
+                        .cookie(testLogin.getResponse().getCookies()))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/books/" + (otherDune + 1000) + "/similar")
+                        .cookie(otherLogin.getResponse().getCookies()))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/books/" + otherDune + "/similar")
+                        .cookie(otherLogin.getResponse().getCookies())
+                        .param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should fill in books from the local ISBN dump")
+    void shouldAutoFillBooksByIsbn() throws Exception {
+        MvcResult loginResult = login("test@test.com", "Test123!");
+
+        // The index is built in the background at startup
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (!isbnMetadataService.isAvailable() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertTrue(isbnMetadataService.isAvailable());
+
+        MvcResult created = mockMvc.perform(post("/api/books")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"isbn\":\"0441013597\",\"readingStatus\":\"READING\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.title").value("Dune"))
+                .andExpect(jsonPath("$.author").value("Frank Herbert"))
+                .andExpect(jsonPath("$.publicationYear").value(2005))
+                .andExpect(jsonPath("$.isbn").value("0441013597"))
+                .andReturn();
+        Long duneId = objectMapper.readTree(created.getResponse().getContentAsString()).get("id").asLong();
+
+        // A full replacement is not refilled, so the year can be cleared
+        mockMvc.perform(put("/api/books/" + duneId)
+                        .cookie(loginResult.getResponse().getCookies())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"isbn\":\"0441013597\",\"title\":\"Dune\",\"author\":\"Frank Herbert\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.publicationYear").doesNotExist());
+
+        // Given values win over the dump
+        mockMvc.perform(post("/api/books")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"isbn\":\"9780441569595\",\"title\":\"Neuromancer (Sprawl #1)\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.title").value("Neuromancer (Sprawl #1)"))
+                .andExpect(jsonPath("$.author").value("William Gibson"));
+
+        // Unknown to the dump: title and author are still required
+        mockMvc.perform(post("/api/books")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"isbn\":\"9780000000002\"}"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/isbn/978-0-441-17269-6")
+                        .cookie(loginResult.getResponse().getCookies()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.isbn").value("9780441172696"))
+                .andExpect(jsonPath("$.title").value("Dune Messiah"))
+                .andExpect(jsonPath("$.publicationYear").value(1987))
+                .andExpect(jsonPath("$.missingFields[0]").value("author"));
+        mockMvc.perform(get("/api/isbn/9780000000002")
+                        .cookie(loginResult.getResponse().getCookies()))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/isbn/12345")
+                        .cookie(loginResult.getResponse().getCookies()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should update and patch own note in a single statement")
+    void shouldUpdateAndPatchOwnNote() throws Exception {
+        MvcResult loginResult = login("test@test.com", "Test123!");
+        MvcResult created = mockMvc.perform(post("/api/notes")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Reading plan\",\"content\":\"Herbert in June\"}"))
+                .andExpect(status().isCreated())
+                .andReturn();
+        Long noteId = objectMapper.readTree(created.getResponse().getContentAsString()).get("id").asLong();
+
+        mockMvc.perform(put("/api/notes/" + noteId)
+                        .cookie(loginResult.getResponse().getCookies())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Summer plan\",\"content\":\"Herbert in July\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(noteId))
+                .andExpect(jsonPath("$.title").value("Summer plan"))
+                .andExpect(jsonPath("$.createdAt").exists())
+                .andExpect(jsonPath("$.updatedAt").exists());
+
+        mockMvc.perform(patch("/api/notes/" + noteId)
+                        .cookie(loginResult.getResponse().getCookies())
+                        .contentType("application/merge-patch+json")
+                        .content("{\"content\":\"Herbert in August\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Summer plan"))
+                .andExpect(jsonPath("$.content").value("Herbert in August"));
+    }
+
+    @Test
+    @DisplayName("Should patch only the given fields of own book")
+    void shouldPatchOwnBook() throws Exception {
+        MvcResult loginResult = login("test@test.com", "Test123!");
+        Long bookId = createBook(loginResult);
+
+        mockMvc.perform(patch("/api/books/" + bookId)
+                        .cookie(loginResult.getResponse().getCookies())
+                        .contentType("application/merge-patch+json")
+                        .content("{\"readingStatus\":\"COMPLETED\",\"rating\":null}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.readingStatus").value("COMPLETED"))
+                .andExpect(jsonPath("$.rating").doesNotExist())
+                .andExpect(jsonPath("$.title").value("Test Book"))
+                .andExpect(jsonPath("$.notes").value("Great book!"));
+
+        // Same values again: nothing to write (not even the stats or the list ETag), current state is returned
+        String listETag = mockMvc.perform(get("/api/books")
+                        .cookie(loginResult.getResponse().getCookies()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        entityManager.flush();
+        try (QueryCapture capture = QueryCapture.start()) {
+            mockMvc.perform(patch("/api/books/" + bookId)
+                            .cookie(loginResult.getResponse().getCookies())
+                            .contentType("application/merge-patch+json")
+                            .content("{\"readingStatus\":\"COMPLETED\"}"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.readingStatus").value("COMPLETED"));
+            List<String> updates = capture.getStatements().stream()
+                    .filter(sql -> sql.startsWith("UPDATE books"))
+                    .toList();
+            assertEquals(1, updates.size());
+            assertTrue(updates.get(0).startsWith("UPDATE books SET reading_status = ?, version = version + 1 WHERE"));
+            assertTrue(capture.getStatements().stream().noneMatch(sql -> sql.startsWith("INSERT INTO book_stats")));
+        }
+        mockMvc.perform(get("/api/books")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .header("If-None-Match", listETag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(patch("/api/books/" + bookId)
+                        .cookie(loginResult.getResponse().getCookies())
+                        .contentType("application/merge-patch+json")
+                        .content("{\"rating\":9}"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(patch("/api/books/" + bookId)
+                        .cookie(loginResult.getResponse().getCookies())
+                        .contentType("application/merge-patch+json")
+                        .content("{\"title\":null}"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(patch("/api/books/" + bookId)
+                        .cookie(login("other@test.com", "Test123!").getResponse().getCookies())
+                        .contentType("application/merge-patch+json")
+                        .content("{\"title\":\"Hacked!\"}"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @DisplayName("Should honour ETag preconditions on books")
+    void shouldHonourBookETags() throws Exception {
+        MvcResult loginResult = login("test@test.com", "Test123!");
+
+        MvcResult created = mockMvc.perform(post("/api/books")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookRequest)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        Long bookId = objectMapper.readTree(created.getResponse().getContentAsString()).get("id").asLong();
+        String etag = created.getResponse().getHeader("ETag");
+        assertEquals("\"book-" + bookId + "-v0\"", etag);
+
+        mockMvc.perform(get("/api/books/" + bookId)
+                        .cookie(loginResult.getResponse().getCookies())
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(put("/api/books/" + bookId)
+                        .cookie(loginResult.getResponse().getCookies())
+                        .header("If-Match", etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookRequest)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"book-" + bookId + "-v1\""));
+
+        // The first ETag is stale now
+        mockMvc.perform(patch("/api/books/" + bookId)
+                        .cookie(loginResult.getResponse().getCookies())
+                        .header("If-Match", etag)
+                        .contentType("application/merge-patch+json")
+                        .content("{\"rating\":4}"))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(delete("/api/books/" + bookId)
+                        .cookie(loginResult.getResponse().getCookies())
+                        .header("If-Match", etag))
+                .andExpect(status().isPreconditionFailed());
+
+        // Unchanged list: answered from the collection version without reading the books
+        MvcResult list = mockMvc.perform(get("/api/books")
+                        .cookie(loginResult.getResponse().getCookies()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn();
+        String listETag = list.getResponse().getHeader("ETag");
+
+        entityManager.flush();
+        try (QueryCapture capture = QueryCapture.start()) {
+            mockMvc.perform(get("/api/books")
+                            .cookie(loginResult.getResponse().getCookies())
+                            .header("If-None-Match", listETag))
+                    .andExpect(status().isNotModified());
+            assertTrue(capture.getStatements().stream().noneMatch(sql -> sql.contains("from books")),
+                    "304 should not read books: " + capture.getStatements());
+        }
+
+        mockMvc.perform(delete("/api/books/" + bookId)
+                        .cookie(loginResult.getResponse().getCookies())
+                        .header("If-Match", "\"book-" + bookId + "-v1\""))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/books")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .header("If-None-Match", listETag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Should serve unchanged book lists from the response cache")
+    void shouldServeUnchangedListsFromResponseCache() throws Exception {
+        MvcResult loginResult = login("test@test.com", "Test123!");
+        Long bookId = createBook(loginResult);
+
+        String first = mockMvc.perform(get("/api/books?sort=title&limit=10")
+                        .cookie(loginResult.getResponse().getCookies()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.items[0].title").value("Test Book"))
+                .andReturn().getResponse().getContentAsString();
+
+        entityManager.flush();
+        try (QueryCapture capture = QueryCapture.start()) {
+            String second = mockMvc.perform(get("/api/books?sort=title&limit=10")
+                            .cookie(loginResult.getResponse().getCookies()))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            assertEquals(first, second);
+            assertTrue(capture.getStatements().stream().noneMatch(sql -> sql.contains("from books")),
+                    "Cached list should not read books: " + capture.getStatements());
+        }
+
+        // Other parameters are a different entry
+        mockMvc.perform(get("/api/books")
+                        .cookie(loginResult.getResponse().getCookies()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(bookId));
+
+        // A write moves the collection version, so the cached body is not served again
+        mockMvc.perform(patch("/api/books/" + bookId)
+                        .cookie(loginResult.getResponse().getCookies())
+                        .contentType("application/merge-patch+json")
+                        .content("{\"title\":\"Renamed\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/books")
+                        .cookie(loginResult.getResponse().getCookies()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title").value("Renamed"));
+    }
+
+    @Test
+    @DisplayName("Should keep library statistics in step with every kind of write")
+    void shouldMaintainLibraryStats() throws Exception {
+        MvcResult loginResult = login("test@test.com", "Test123!");
+        Long first = createBook(loginResult);
+
+        bookRequest.setGenre("Fantasy");
+        bookRequest.setPublicationYear(1954);
+        bookRequest.setReadingStatus(ReadingStatus.COMPLETED);
+        bookRequest.setRating(4);
+        Long second = createBook(loginResult);
+
+        bookRequest.setGenre(null);
+        bookRequest.setPublicationYear(null);
+        bookRequest.setReadingStatus(ReadingStatus.NOT_STARTED);
+        bookRequest.setRating(null);
+        Long third = createBook(loginResult);
+
+        // Full update without readingStatus keeps READING
+        bookRequest.setGenre("Fantasy");
+        bookRequest.setPublicationYear(2024);
+        bookRequest.setReadingStatus(null);
+        bookRequest.setRating(3);
+        mockMvc.perform(put("/api/books/" + first)
+                        .cookie(loginResult.getResponse().getCookies())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookRequest)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(patch("/api/books/" + second)
+                        .cookie(loginResult.getResponse().getCookies())
+                        .contentType("application/merge-patch+json")
+                        .content("{\"readingStatus\":\"READING\",\"rating\":null}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(patch("/api/books/" + third)
+                        .cookie(loginResult.getResponse().getCookies())
+                        .contentType("application/merge-patch+json")
+                        .content("{\"title\":\"Renamed\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/books/bulk-update")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"genre\":\"Fantasy\",\"readingStatus\":\"COMPLETED\"}"))
+                .andExpect(jsonPath("$.updated").value(2));
+
+        mockMvc.perform(post("/api/books/bulk")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .contentType("application/x-ndjson")
+                        .content("""
+                                {"title":"Imported","author":"A","genre":"Fiction","publicationYear":2000,"rating":2}
+                                {"title":"Bare","author":"B"}
+                                """))
+                .andExpect(jsonPath("$.imported").value(2));
+
+        mockMvc.perform(delete("/api/books/" + third)
+                        .cookie(loginResult.getResponse().getCookies()))
+                .andExpect(status().isNoContent());
+
+        String stats = mockMvc.perform(get("/api/books/stats")
+                        .cookie(loginResult.getResponse().getCookies()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$.total").value(4))
+                .andExpect(jsonPath("$.ratedCount").value(2))
+                .andExpect(jsonPath("$.averageRating").value(2.5))
+                .andExpect(jsonPath("$.byStatus.NOT_STARTED").value(2))
+                .andExpect(jsonPath("$.byStatus.READING").value(0))
+                .andExpect(jsonPath("$.byStatus.COMPLETED").value(2))
+                .andExpect(jsonPath("$.byGenre.Fantasy").value(2))
+                .andExpect(jsonPath("$.byGenre.Fiction").value(1))
+                .andExpect(jsonPath("$.byYear.1954").value(1))
+                .andExpect(jsonPath("$.byYear.2000").value(1))
+                .andExpect(jsonPath("$.byYear.2024").value(1))
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(head("/api/books")
+                        .cookie(loginResult.getResponse().getCookies()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "4"));
+
+        // A full recount finds no drift, so nothing is rewritten and the ETag stays
+        String etag = mockMvc.perform(get("/api/books/stats")
+                        .cookie(loginResult.getResponse().getCookies()))
+                .andReturn().getResponse().getHeader("ETag");
+        assertFalse(bookStatsService.rebuild(testUser.getId()));
+        mockMvc.perform(get("/api/books/stats")
+                        .cookie(loginResult.getResponse().getCookies()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().json(stats, true));
+
+        // Saving a loaded entity applies its delta too
+        entityManager.clear();
+        Book book = entityManager.find(Book.class, second);
+        book.setGenre("Poetry");
+        bookService.saveBook(book);
+        mockMvc.perform(get("/api/books/stats")
+                        .cookie(loginResult.getResponse().getCookies()))
+                .andExpect(jsonPath("$.byGenre.Fantasy").value(1))
+                .andExpect(jsonPath("$.byGenre.Poetry").value(1));
+        assertFalse(bookStatsService.rebuild(testUser.getId()));
+
+        // A write around the services is repaired by the recount
+        entityManager.createNativeQuery("UPDATE books SET genre = 'Drama' WHERE id = :id")
+                .setParameter("id", second)
+                .executeUpdate();
+        assertTrue(bookStatsService.rebuild(testUser.getId()));
+        mockMvc.perform(get("/api/books/stats")
+                        .cookie(loginResult.getResponse().getCookies()))
+                .andExpect(jsonPath("$.byGenre.Drama").value(1))
+                .andExpect(jsonPath("$.byGenre.Poetry").doesNotExist());
     }
 
     @Test
@@ -342,4 +1710,50 @@ class BookIntegrationTest {
                         .cookie(user2LoginResult.getResponse().getCookies()))
                 .andExpect(status().isForbidden());
     }
-}
\ No newline at end of file
+
+    private MvcResult login(String email, String password) throws Exception {
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail(email);
+        loginRequest.setPassword(password);
+
+        return mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk())
+                .andReturn();
+    }
+
+    private Long workId(Long bookId) {
+        entityManager.flush();
+        Object workId = entityManager.createNativeQuery("SELECT work_id FROM books WHERE id = :id")
+                .setParameter("id", bookId)
+                .getSingleResult();
+        assertNotNull(workId);
+        return ((Number) workId).longValue();
+    }
+
+    private ResultActions tag(MvcResult loginResult, String name, Long bookId)
+            throws Exception {
+        return mockMvc.perform(put("/api/tags/" + name + "/books/" + bookId)
+                .cookie(loginResult.getResponse().getCookies()));
+    }
+
+    private Long addBook(MvcResult loginResult, String title, String author, ReadingStatus status,
+                         Integer rating) throws Exception {
+        bookRequest.setTitle(title);
+        bookRequest.setAuthor(author);
+        bookRequest.setReadingStatus(status);
+        bookRequest.setRating(rating);
+        return createBook(loginResult);
+    }
+
+    private Long createBook(MvcResult loginResult) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/books")
+                        .cookie(loginResult.getResponse().getCookies())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookRequest)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("id").asLong();
+    }
+}
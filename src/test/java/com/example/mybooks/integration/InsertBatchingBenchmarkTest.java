@@ -0,0 +1,94 @@
+package com.example.mybooks.integration;
+
+import com.example.mybooks.model.Book;
+import com.example.mybooks.model.Role;
+import com.example.mybooks.model.User;
+import com.example.mybooks.monitoring.QueryCapture;
+import com.example.mybooks.repository.BookRepository;
+import com.example.mybooks.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Insert throughput with @PooledId ids: JDBC batches of 50 vs. one statement per row
+ * (what GenerationType.IDENTITY forces, plus its extra last_insert_rowid() select).
+ *
+ * Excluded from the default build; run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest
+@Transactional
+@DisplayName("Insert Batching Benchmark")
+class InsertBatchingBenchmarkTest {
+
+    private static final int BOOKS = 5000;
+    private static final int ROUNDS = 3;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    @DisplayName("Batched inserts should need far fewer statements than row-by-row inserts")
+    void batchedInsertsBeatRowByRow() {
+        User user = new User();
+        user.setUsername("benchmark");
+        user.setEmail("benchmark@test.com");
+        user.setPassword("unused");
+        user.setRole(Role.USER);
+        userRepository.saveAndFlush(user);
+
+        Result rowByRow = null;
+        Result batched = null;
+        for (int round = 0; round < ROUNDS; round++) {
+            rowByRow = insertBooks(user, 1);
+            batched = insertBooks(user, 50);
+        }
+
+        System.out.printf("row-by-row: %d statements, %.0f inserts/s%n", rowByRow.statements, rowByRow.perSecond());
+        System.out.printf("batched:    %d statements, %.0f inserts/s%n", batched.statements, batched.perSecond());
+
+        assertTrue(batched.statements * 10 < rowByRow.statements);
+    }
+
+    private Result insertBooks(User user, int batchSize) {
+        entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+
+        List<Book> books = new ArrayList<>(BOOKS);
+        for (int i = 0; i < BOOKS; i++) {
+            Book book = new Book("Benchmark Book " + i, "Author " + (i % 100), user);
+            book.setRating(i % 5 + 1);
+            books.add(book);
+        }
+
+        long start = System.nanoTime();
+        try (QueryCapture capture = QueryCapture.start()) {
+            bookRepository.saveAll(books);
+            entityManager.flush();
+            entityManager.clear();
+            return new Result(capture.getCount(), System.nanoTime() - start);
+        }
+    }
+
+    private record Result(int statements, long nanos) {
+        double perSecond() {
+            return BOOKS * 1_000_000_000.0 / nanos;
+        }
+    }
+}
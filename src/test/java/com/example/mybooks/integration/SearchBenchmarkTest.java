@@ -0,0 +1,179 @@
+package com.example.mybooks.integration;
+
+import com.example.mybooks.dto.CursorPage;
+import com.example.mybooks.dto.SearchHit;
+import com.example.mybooks.model.Role;
+import com.example.mybooks.model.User;
+import com.example.mybooks.repository.UserRepository;
+import com.example.mybooks.service.SearchService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Note search latency at 1M notes of one user: FTS5 (bm25, snippets, first page of 20)
+ * vs. the previous LOWER(title) LIKE '%term%' query, and vs. the same LIKE over the content,
+ * which is what finding a word in the text would cost without the index.
+ * The rare term occurs in one note per thousand.
+ *
+ * A second case spreads the notes over 100 users and searches a term every note contains:
+ * the owner-scoped MATCH vs. matching the whole index and filtering the owner after the join.
+ * Scoping saves the join and the filtering of other users' rows; expanding the prefix term
+ * and bm25's document frequencies still read the term's whole doclist, so the gain is bounded.
+ *
+ * Excluded from the default build; run with: mvn test -Pbenchmark (-Dbenchmark.notes=N to resize)
+ */
+@Tag("benchmark")
+@SpringBootTest
+@Transactional
+@DisplayName("Search Benchmark")
+class SearchBenchmarkTest {
+
+    private static final int NOTES = Integer.getInteger("benchmark.notes", 1_000_000);
+    private static final int ROUNDS = 5;
+    private static final int VOCABULARY = 5000;
+    private static final String RARE_TERM = "zephyr";
+    private static final int USERS = 100;
+    private static final String COMMON_TERM = "chapter";
+
+    private static final String LIKE_TITLE = "SELECT * FROM notes WHERE user_id = ? "
+            + "AND LOWER(title) LIKE LOWER(?) ORDER BY created_at DESC";
+    private static final String LIKE_CONTENT = "SELECT * FROM notes WHERE user_id = ? "
+            + "AND (LOWER(title) LIKE LOWER(?) OR LOWER(content) LIKE LOWER(?)) ORDER BY created_at DESC";
+    // The search before the index was scoped by owner: first page of the whole index's matches
+    private static final String UNSCOPED_FTS = "SELECT t.id, t.title, "
+            + "snippet(notes_fts, -1, '[', ']', '…', 16) AS snippet, bm25(notes_fts, 10.0, 1.0, 0.0) AS score "
+            + "FROM notes_fts JOIN notes t ON t.id = notes_fts.rowid "
+            + "WHERE notes_fts MATCH ? AND +t.user_id = ? ORDER BY score, t.id LIMIT 21";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("FTS5 search should beat LIKE scans by far at 1M notes")
+    void ftsBeatsLikeScans() {
+        User user = createUser(0);
+
+        long start = System.nanoTime();
+        insertNotes(List.of(user.getId()));
+        System.out.printf("inserted and indexed %d notes in %d ms%n", NOTES, (System.nanoTime() - start) / 1_000_000);
+
+        String pattern = "%" + RARE_TERM + "%";
+        Result titleLike = measure(() -> jdbcTemplate.queryForList(LIKE_TITLE, user.getId(), pattern).size());
+        Result contentLike = measure(() ->
+                jdbcTemplate.queryForList(LIKE_CONTENT, user.getId(), pattern, pattern).size());
+        Result fts = measure(() -> {
+            CursorPage<SearchHit> page = searchService.searchNotes(user.getId(), RARE_TERM, null, 20);
+            return page.getItems().size();
+        });
+
+        System.out.printf("LIKE title:   %8.2f ms, %d rows%n", titleLike.millis(), titleLike.rows);
+        System.out.printf("LIKE content: %8.2f ms, %d rows%n", contentLike.millis(), contentLike.rows);
+        System.out.printf("FTS5 page:    %8.2f ms, %d rows%n", fts.millis(), fts.rows);
+
+        assertEquals(20, fts.rows);
+        assertEquals(NOTES / 1000, contentLike.rows);
+        assertTrue(fts.nanos * 10 < contentLike.nanos);
+    }
+
+    @Test
+    @DisplayName("A common term should only cost the searching user's notes")
+    void scopedMatchIgnoresOtherUsers() {
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            userIds.add(createUser(i).getId());
+        }
+        Long userId = userIds.get(USERS / 2);
+
+        long start = System.nanoTime();
+        insertNotes(userIds);
+        System.out.printf("inserted and indexed %d notes of %d users in %d ms%n",
+                NOTES, USERS, (System.nanoTime() - start) / 1_000_000);
+
+        Result unscoped = measure(() ->
+                jdbcTemplate.queryForList(UNSCOPED_FTS, "\"" + COMMON_TERM + "\"*", userId).size());
+        Result scoped = measure(() -> searchService.searchNotes(userId, COMMON_TERM, null, 20).getItems().size());
+
+        System.out.printf("FTS5 whole index: %8.2f ms, %d rows%n", unscoped.millis(), unscoped.rows);
+        System.out.printf("FTS5 own notes:   %8.2f ms, %d rows%n", scoped.millis(), scoped.rows);
+
+        assertEquals(21, unscoped.rows);
+        assertEquals(20, scoped.rows);
+        assertTrue(scoped.nanos < unscoped.nanos);
+    }
+
+    private User createUser(int index) {
+        User user = new User();
+        user.setUsername("benchmark" + index);
+        user.setEmail("benchmark" + index + "@test.com");
+        user.setPassword("unused");
+        user.setRole(Role.USER);
+        return userRepository.saveAndFlush(user);
+    }
+
+    // Round-robin over the users; every note contains COMMON_TERM
+    private void insertNotes(List<Long> userIds) {
+        Random random = new Random(42);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>(10_000);
+        for (int i = 0; i < NOTES; i++) {
+            StringBuilder content = new StringBuilder();
+            for (int w = 0; w < 30; w++) {
+                content.append('w').append(random.nextInt(VOCABULARY)).append(' ');
+            }
+            if (i % 1000 == 0) {
+                content.append(RARE_TERM);
+            }
+            content.append(' ').append(COMMON_TERM);
+            batch.add(new Object[] {"Note " + i, content.toString(), userIds.get(i % userIds.size()), now, now});
+            if (batch.size() == 10_000) {
+                flush(batch);
+            }
+        }
+        flush(batch);
+    }
+
+    private void flush(List<Object[]> batch) {
+        jdbcTemplate.batchUpdate("INSERT INTO notes (title, content, user_id, created_at, updated_at) "
+                + "VALUES (?, ?, ?, ?, ?)", batch);
+        batch.clear();
+    }
+
+    // Best of ROUNDS, after one warm-up run
+    private static Result measure(Supplier<Integer> query) {
+        int rows = query.get();
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            rows = query.get();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return new Result(rows, best);
+    }
+
+    private record Result(int rows, long nanos) {
+        double millis() {
+            return nanos / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.mybooks.monitoring;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for SlowQueryLog aggregation, redaction and plan capture
+ */
+@DisplayName("Slow Query Log Tests")
+class SlowQueryLogTest {
+
+    private Connection connection;
+    private SlowQueryLog slowQueryLog;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE notes (id INTEGER PRIMARY KEY, user_id INTEGER, title TEXT)");
+            statement.execute("CREATE INDEX idx_notes_user_id ON notes(user_id)");
+        }
+        slowQueryLog = new SlowQueryLog(mock(DataSource.class), true, 0);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        connection.close();
+    }
+
+    @Test
+    @DisplayName("Should flag full table scans and redact string parameters")
+    void shouldFlagFullTableScans() {
+        String sql = "select n1_0.id from notes n1_0 where lower(n1_0.title) like ?";
+        Map<Integer, Object> parameters = new TreeMap<>(Map.of(1, "%secret%"));
+
+        slowQueryLog.record(connection, sql, parameters, 5_000_000, false);
+        slowQueryLog.record(connection, sql, parameters, 7_000_000, false);
+
+        List<Map<String, Object>> snapshot = slowQueryLog.snapshot(10);
+        assertEquals(1, snapshot.size());
+        assertEquals(2L, snapshot.get(0).get("count"));
+        assertEquals(7.0, snapshot.get(0).get("maxMs"));
+        assertEquals(true, snapshot.get(0).get("fullTableScan"));
+        assertEquals("[<string:8>]", snapshot.get(0).get("lastParameters"));
+    }
+
+    @Test
+    @DisplayName("Should not flag indexed lookups and redact numeric parameters")
+    void shouldNotFlagIndexedLookups() {
+        slowQueryLog.record(connection, "select n1_0.id from notes n1_0 where n1_0.user_id=?",
+                new TreeMap<>(Map.of(1, 42L)), 5_000_000, false);
+
+        Map<String, Object> entry = slowQueryLog.snapshot(10).get(0);
+        assertEquals(false, entry.get("fullTableScan"));
+        assertEquals("[<Long>]", entry.get("lastParameters"));
+        assertFalse(((List<?>) entry.get("plan")).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should count failed statements without explaining them")
+    void shouldNotExplainFailedStatements() {
+        String sql = "select n1_0.id from notes n1_0 where n1_0.user_id=?";
+        slowQueryLog.record(connection, sql, new TreeMap<>(Map.of(1, 42L)), 5_000_000, true);
+
+        Map<String, Object> entry = slowQueryLog.snapshot(10).get(0);
+        assertEquals(1L, entry.get("count"));
+        assertTrue(((List<?>) entry.get("plan")).isEmpty());
+
+        // The next successful execution still captures the plan
+        slowQueryLog.record(connection, sql, new TreeMap<>(Map.of(1, 42L)), 5_000_000, false);
+        assertFalse(((List<?>) slowQueryLog.snapshot(10).get(0).get("plan")).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should ignore statements under the threshold")
+    void shouldIgnoreFastStatements() {
+        SlowQueryLog log = new SlowQueryLog(mock(DataSource.class), true, 100);
+        log.record(connection, "select 1", Map.of(), 1_000_000, false);
+
+        assertTrue(log.snapshot(10).isEmpty());
+    }
+}
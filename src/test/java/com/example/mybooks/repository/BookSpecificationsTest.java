@@ -0,0 +1,30 @@
+package com.example.mybooks.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the upper bound of the author prefix range
+ */
+@DisplayName("BookSpecifications Unit Tests")
+class BookSpecificationsTest {
+
+    @Test
+    @DisplayName("Should bound a prefix by its next code point")
+    void shouldBoundPrefixByNextCodePoint() {
+        assertEquals("tom", BookSpecifications.nextPrefix("tol"));
+        assertEquals(Character.toString(0x1F601), BookSpecifications.nextPrefix(Character.toString(0x1F600)));
+        // The surrogate range is skipped
+        assertEquals("\uE000", BookSpecifications.nextPrefix("\uD7FF"));
+    }
+
+    @Test
+    @DisplayName("Should carry past the largest code point and give no bound when nothing is left")
+    void shouldCarryPastLargestCodePoint() {
+        String max = Character.toString(Character.MAX_CODE_POINT);
+        assertEquals("b", BookSpecifications.nextPrefix("a" + max));
+        assertNull(BookSpecifications.nextPrefix(max + max));
+    }
+}
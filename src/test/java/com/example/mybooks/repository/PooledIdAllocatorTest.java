@@ -0,0 +1,40 @@
+package com.example.mybooks.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the id blocks reserved in id_sequences
+ */
+@DisplayName("PooledIdAllocator Unit Tests")
+class PooledIdAllocatorTest {
+
+    @Test
+    @DisplayName("Should not reserve a range inside a block whose reservation was rolled back")
+    void shouldSkipRolledBackBlock() throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:")) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE id_sequences (name TEXT PRIMARY KEY, next_val INTEGER NOT NULL)");
+                statement.execute("CREATE TABLE allocator_rollback (id INTEGER PRIMARY KEY)");
+            }
+            connection.setAutoCommit(false);
+            PooledIdAllocator allocator = PooledIdAllocator.forTable("allocator_rollback", 10);
+
+            // The block [1, 11) stays in memory although its reservation is undone
+            assertEquals(1, allocator.nextId(connection));
+            connection.rollback();
+
+            long start = allocator.allocateRange(connection, 5);
+            connection.commit();
+            assertEquals(11, start);
+            assertEquals(2, allocator.nextId(connection));
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package com.example.mybooks.service;
 
+import com.example.mybooks.dto.BookResponse;
 import com.example.mybooks.dto.CreateBookRequest;
+import com.example.mybooks.exception.PreconditionFailedException;
 import com.example.mybooks.model.Book;
 import com.example.mybooks.model.ReadingStatus;
 import com.example.mybooks.model.Role;
 import com.example.mybooks.model.User;
 import com.example.mybooks.repository.BookRepository;
+import com.example.mybooks.repository.BookStatsRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
@@ -35,6 +38,21 @@ class BookServiceTest {
     @Mock
     private BookRepository bookRepository;
 
+    @Mock
+    private BookStatsRepository bookStatsRepository;
+
+    @Mock
+    private CollectionVersionService collectionVersions;
+
+    @Mock
+    private BookSuggestionService suggestions;
+
+    @Mock
+    private TagIndex tagIndex;
+
+    @Mock
+    private WorkService workService;
+
     @InjectMocks
     private BookService bookService;
 
@@ -98,6 +116,7 @@ class BookServiceTest {
         assertEquals("Test Book", result.getTitle());
         assertEquals(testUser.getId(), result.getUser().getId());
         verify(bookRepository, times(1)).save(any(Book.class));
+        verify(bookStatsRepository).recordInsert(testBook.getId());
     }
 
     @Test
@@ -122,29 +141,29 @@ class BookServiceTest {
     @DisplayName("Should get user books")
     void shouldGetUserBooks() {
         // Arrange
-        List<Book> books = Arrays.asList(testBook);
-        when(bookRepository.findByUserId(testUser.getId())).thenReturn(books);
+        List<BookResponse> books = Arrays.asList(new BookResponse(testBook));
+        when(bookRepository.findResponsesByUserId(testUser.getId())).thenReturn(books);
 
         // Act
-        List<Book> result = bookService.getUserBooks(testUser.getId());
+        List<BookResponse> result = bookService.getUserBooks(testUser.getId());
 
         // Assert
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals("Test Book", result.get(0).getTitle());
-        verify(bookRepository, times(1)).findByUserId(testUser.getId());
+        verify(bookRepository, times(1)).findResponsesByUserId(testUser.getId());
     }
 
     @Test
     @DisplayName("Should get user books by status")
     void shouldGetUserBooksByStatus() {
         // Arrange
-        List<Book> books = Arrays.asList(testBook);
-        when(bookRepository.findByUserIdAndReadingStatus(testUser.getId(), ReadingStatus.NOT_STARTED))
+        List<BookResponse> books = Arrays.asList(new BookResponse(testBook));
+        when(bookRepository.findResponsesByUserIdAndReadingStatus(testUser.getId(), ReadingStatus.NOT_STARTED))
                 .thenReturn(books);
 
         // Act
-        List<Book> result = bookService.getUserBooksByStatus(testUser.getId(), ReadingStatus.NOT_STARTED);
+        List<BookResponse> result = bookService.getUserBooksByStatus(testUser.getId(), ReadingStatus.NOT_STARTED);
 
         // Assert
         assertNotNull(result);
@@ -156,12 +175,12 @@ class BookServiceTest {
     @DisplayName("Should get user books by genre")
     void shouldGetUserBooksByGenre() {
         // Arrange
-        List<Book> books = Arrays.asList(testBook);
-        when(bookRepository.findByUserIdAndGenre(testUser.getId(), "Fiction"))
+        List<BookResponse> books = Arrays.asList(new BookResponse(testBook));
+        when(bookRepository.findResponsesByUserIdAndGenre(testUser.getId(), "Fiction"))
                 .thenReturn(books);
 
         // Act
-        List<Book> result = bookService.getUserBooksByGenre(testUser.getId(), "Fiction");
+        List<BookResponse> result = bookService.getUserBooksByGenre(testUser.getId(), "Fiction");
 
         // Assert
         assertNotNull(result);
@@ -173,94 +192,114 @@ class BookServiceTest {
     @DisplayName("Should update book successfully")
     void shouldUpdateBookSuccessfully() {
         // Arrange
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
-        when(bookRepository.save(any(Book.class))).thenReturn(testBook);
+        when(bookRepository.updateOwned(1L, 1L, createRequest, null))
+                .thenReturn(Optional.of(new BookResponse(testBook)));
+        when(workService.resolve(testBook.getIsbn(), testBook.getTitle(), testBook.getAuthor(),
+                testBook.getPublicationYear(), testBook.getGenre())).thenReturn(7L);
 
         // Act
-        Book result = bookService.updateBook(1L, createRequest, testUser);
+        BookResponse result = bookService.updateBook(1L, createRequest, testUser, null);
 
         // Assert
         assertNotNull(result);
-        verify(bookRepository, times(1)).findById(1L);
-        verify(bookRepository, times(1)).save(any(Book.class));
+        verify(bookRepository, times(1)).updateOwned(1L, 1L, createRequest, null);
+        verify(bookRepository).linkWork(1L, 7L);
+        verify(bookRepository, never()).findResponseById(any());
+        verify(collectionVersions).bump(CollectionVersionService.BOOKS, 1L);
     }
 
     @Test
     @DisplayName("Should throw exception when updating non-existent book")
     void shouldThrowExceptionWhenUpdatingNonExistentBook() {
         // Arrange
-        when(bookRepository.findById(999L)).thenReturn(Optional.empty());
+        when(bookRepository.updateOwned(999L, 1L, createRequest, null)).thenReturn(Optional.empty());
+        when(bookRepository.findResponseById(999L)).thenReturn(Optional.empty());
 
         // Act & Assert
         IllegalArgumentException exception = assertThrows(
                 IllegalArgumentException.class,
-                () -> bookService.updateBook(999L, createRequest, testUser)
+                () -> bookService.updateBook(999L, createRequest, testUser, null)
         );
 
         assertEquals("Book not found", exception.getMessage());
-        verify(bookRepository, never()).save(any(Book.class));
     }
 
     @Test
     @DisplayName("Should throw exception when user tries to update another user's book")
     void shouldThrowExceptionWhenUpdatingOtherUsersBook() {
         // Arrange
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
+        when(bookRepository.updateOwned(1L, 2L, createRequest, null)).thenReturn(Optional.empty());
+        when(bookRepository.findResponseById(1L)).thenReturn(Optional.of(new BookResponse(testBook)));
 
         // Act & Assert
         SecurityException exception = assertThrows(
                 SecurityException.class,
-                () -> bookService.updateBook(1L, createRequest, otherUser)
+                () -> bookService.updateBook(1L, createRequest, otherUser, null)
         );
 
         assertEquals("Unauthorized to update this book", exception.getMessage());
-        verify(bookRepository, never()).save(any(Book.class));
+    }
+
+    @Test
+    @DisplayName("Should reject update when If-Match version is stale")
+    void shouldRejectUpdateWithStaleVersion() {
+        // Arrange
+        testBook.setVersion(4L);
+        when(bookRepository.updateOwned(1L, 1L, createRequest, List.of(3L))).thenReturn(Optional.empty());
+        when(bookRepository.findResponseById(1L)).thenReturn(Optional.of(new BookResponse(testBook)));
+
+        // Act & Assert
+        assertThrows(
+                PreconditionFailedException.class,
+                () -> bookService.updateBook(1L, createRequest, testUser, List.of(3L))
+        );
     }
 
     @Test
     @DisplayName("Should delete book successfully")
     void shouldDeleteBookSuccessfully() {
         // Arrange
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
+        when(bookRepository.deleteOwned(1L, 1L)).thenReturn(1);
 
         // Act
-        bookService.deleteBook(1L, testUser);
+        bookService.deleteBook(1L, testUser, null);
 
         // Assert
-        verify(bookRepository, times(1)).findById(1L);
-        verify(bookRepository, times(1)).delete(testBook);
+        verify(bookStatsRepository).recordDelete(1L, 1L, null);
+        verify(bookRepository, times(1)).deleteOwned(1L, 1L);
+        verify(bookRepository, never()).findResponseById(any());
     }
 
     @Test
     @DisplayName("Should throw exception when deleting non-existent book")
     void shouldThrowExceptionWhenDeletingNonExistentBook() {
         // Arrange
-        when(bookRepository.findById(999L)).thenReturn(Optional.empty());
+        when(bookRepository.deleteOwned(999L, 1L)).thenReturn(0);
+        when(bookRepository.findResponseById(999L)).thenReturn(Optional.empty());
 
         // Act & Assert
         IllegalArgumentException exception = assertThrows(
                 IllegalArgumentException.class,
-                () -> bookService.deleteBook(999L, testUser)
+                () -> bookService.deleteBook(999L, testUser, null)
         );
 
         assertEquals("Book not found", exception.getMessage());
-        verify(bookRepository, never()).delete(any(Book.class));
     }
 
     @Test
     @DisplayName("Should throw exception when user tries to delete another user's book")
     void shouldThrowExceptionWhenDeletingOtherUsersBook() {
         // Arrange
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
+        when(bookRepository.deleteOwned(1L, 2L)).thenReturn(0);
+        when(bookRepository.findResponseById(1L)).thenReturn(Optional.of(new BookResponse(testBook)));
 
         // Act & Assert
         SecurityException exception = assertThrows(
                 SecurityException.class,
-                () -> bookService.deleteBook(1L, otherUser)
+                () -> bookService.deleteBook(1L, otherUser, null)
         );
 
         assertEquals("Unauthorized to delete this book", exception.getMessage());
-        verify(bookRepository, never()).delete(any(Book.class));
     }
 
     @Test
@@ -293,6 +332,17 @@ class BookServiceTest {
         assertEquals("Unauthorized to access this book", exception.getMessage());
     }
 
+    @Test
+    @DisplayName("Should deny book projection of another user's book")
+    void shouldDenyBookResponseOfOtherUsersBook() {
+        // Arrange
+        when(bookRepository.findResponseById(1L)).thenReturn(Optional.of(new BookResponse(testBook)));
+
+        // Act & Assert
+        assertThrows(SecurityException.class, () -> bookService.getBookResponseById(1L, otherUser));
+        assertEquals(1L, bookService.getBookResponseById(1L, testUser).getUserId());
+    }
+
     @Test
     @DisplayName("Should save book successfully")
     void shouldSaveBookSuccessfully() {
@@ -306,5 +356,7 @@ class BookServiceTest {
         assertNotNull(result);
         assertEquals("Test Book", result.getTitle());
         verify(bookRepository, times(1)).save(testBook);
+        verify(bookStatsRepository, times(1)).recordSave(testBook);
+        verify(bookStatsRepository, never()).rebuild(any());
     }
-}
\ No newline at end of file
+}
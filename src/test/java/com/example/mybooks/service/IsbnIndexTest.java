@@ -0,0 +1,119 @@
+package com.example.mybooks.service;
+
+import com.example.mybooks.dto.IsbnMetadata;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the memory-mapped ISBN index built from an Open Library dump
+ */
+@DisplayName("IsbnIndex Unit Tests")
+class IsbnIndexTest {
+
+    @TempDir
+    Path directory;
+
+    private static String edition(String json) {
+        return "/type/edition\t/books/OL1M\t1\t2021-03-01T10:00:00.000000\t" + json;
+    }
+
+    @Test
+    @DisplayName("Should find editions by ISBN-13 and ISBN-10")
+    void shouldFindEditions() throws IOException {
+        Path dump = directory.resolve("editions.txt");
+        Files.write(dump, List.of(
+                edition("{\"title\":\"Dune\",\"by_statement\":\"by Frank Herbert.\",\"publish_date\":\"August 2005\","
+                        + "\"isbn_10\":[\"0441013597\"],\"isbn_13\":[\"9780441013593\"]}"),
+                "/type/author\t/authors/OL1A\t1\t2021-03-01T10:00:00.000000\t{\"name\":\"Frank Herbert\"}",
+                edition("{\"title\":\"Dune (reprint)\",\"isbn_13\":[\"978-0-441-01359-3\"]}"),
+                edition("{\"title\":\"No ISBN\"}"),
+                edition("not json"),
+                edition("{\"title\":\"Dune Messiah\",\"publish_date\":\"c1987\",\"isbn_10\":[\"0-441-17269-2\"]}")));
+        Path indexFile = directory.resolve("index.bin");
+
+        assertEquals(2, IsbnIndex.build(dump, indexFile));
+        IsbnIndex index = IsbnIndex.open(indexFile);
+
+        IsbnMetadata dune = index.find("0441013597").orElseThrow();
+        assertEquals("9780441013593", dune.getIsbn());
+        // The first edition with an ISBN wins
+        assertEquals("Dune", dune.getTitle());
+        assertEquals("Frank Herbert", dune.getAuthor());
+        assertEquals(2005, dune.getPublicationYear());
+
+        IsbnMetadata messiah = index.find("9780441172696").orElseThrow();
+        assertEquals("Dune Messiah", messiah.getTitle());
+        assertNull(messiah.getAuthor());
+        assertEquals(1987, messiah.getPublicationYear());
+
+        assertTrue(index.find("9780000000002").isEmpty());
+        assertTrue(index.find("9990441013593").isEmpty());
+        assertTrue(index.find("not an isbn").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should find every ISBN across several table pages")
+    void shouldSearchAcrossPages() throws IOException {
+        List<String> lines = new ArrayList<>();
+        // Descending in the dump; the index sorts them
+        for (int i = 1999; i >= 0; i--) {
+            lines.add(edition("{\"title\":\"Book " + i + "\",\"isbn_13\":[\"" + isbn13(i) + "\"]}"));
+        }
+        Path dump = directory.resolve("editions.txt");
+        Files.write(dump, lines);
+        Path indexFile = directory.resolve("index.bin");
+
+        assertEquals(2000, IsbnIndex.build(dump, indexFile));
+        IsbnIndex index = IsbnIndex.open(indexFile);
+        for (int i = 0; i < 2000; i++) {
+            assertEquals("Book " + i, index.find(isbn13(i)).orElseThrow().getTitle());
+        }
+        assertTrue(index.find(isbn13(2000)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should merge sorted runs and keep the first edition of an ISBN")
+    void shouldMergeSortedRuns() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 999; i >= 0; i--) {
+            lines.add(edition("{\"title\":\"Book " + i + "\",\"isbn_13\":[\"" + isbn13(i) + "\"]}"));
+        }
+        // Reprints land in later runs than the first editions
+        for (int i = 0; i < 1000; i += 3) {
+            lines.add(edition("{\"title\":\"Reprint " + i + "\",\"isbn_13\":[\"" + isbn13(i) + "\"]}"));
+        }
+        Path dump = directory.resolve("editions.txt");
+        Files.write(dump, lines);
+        Path indexFile = directory.resolve("index.bin");
+
+        assertEquals(1000, IsbnIndex.build(dump, indexFile, 64));
+        IsbnIndex index = IsbnIndex.open(indexFile);
+        assertEquals(1000, index.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("Book " + i, index.find(isbn13(i)).orElseThrow().getTitle());
+        }
+        try (var files = Files.list(directory)) {
+            assertEquals(List.of("editions.txt", "index.bin"),
+                    files.map(file -> file.getFileName().toString()).sorted().toList());
+        }
+    }
+
+    // Spread over both prefixes, with a valid check digit
+    private static String isbn13(int i) {
+        String digits = (i % 2 == 0 ? "978" : "979") + String.format("%09d", i * 7919L);
+        int sum = 0;
+        for (int d = 0; d < 12; d++) {
+            sum += (digits.charAt(d) - '0') * (d % 2 == 0 ? 1 : 3);
+        }
+        return digits + (10 - sum % 10) % 10;
+    }
+}
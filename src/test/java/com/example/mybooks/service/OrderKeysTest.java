@@ -0,0 +1,82 @@
+package com.example.mybooks.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the fractional sort keys of shelf items
+ */
+@DisplayName("OrderKeys Unit Tests")
+class OrderKeysTest {
+
+    @Test
+    @DisplayName("Should generate keys strictly between their neighbours")
+    void shouldGenerateKeysBetween() {
+        assertEquals("V", OrderKeys.between(null, null));
+        assertEquals("W", OrderKeys.between("V", null));
+        assertEquals("U", OrderKeys.between(null, "V"));
+        assertEquals("z1", OrderKeys.between("z", null));
+        assertEquals("0V", OrderKeys.between(null, "1"));
+        assertEquals("VV", OrderKeys.between("V", "W"));
+        assertEquals("V", OrderKeys.between("U", "VV"));
+        assertEquals("VzV", OrderKeys.between("Vz", "W"));
+        assertThrows(IllegalArgumentException.class, () -> OrderKeys.between("W", "V"));
+        assertThrows(IllegalArgumentException.class, () -> OrderKeys.between("V", "V"));
+    }
+
+    @Test
+    @DisplayName("Should keep the order under random inserts")
+    void shouldKeepOrderUnderRandomInserts() {
+        Random random = new Random(42);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            int at = random.nextInt(keys.size() + 1);
+            String lower = at > 0 ? keys.get(at - 1) : null;
+            String upper = at < keys.size() ? keys.get(at) : null;
+            String key = OrderKeys.between(lower, upper);
+            assertTrue(lower == null || lower.compareTo(key) < 0);
+            assertTrue(upper == null || key.compareTo(upper) < 0);
+            assertFalse(key.endsWith("0"));
+            keys.add(at, key);
+        }
+        assertTrue(keys.stream().allMatch(key -> key.length() <= 6));
+    }
+
+    @Test
+    @DisplayName("Should grow keys slowly when appending and quickly at a single spot")
+    void shouldGrowKeys() {
+        String last = null;
+        for (int i = 0; i < 600; i++) {
+            last = OrderKeys.between(last, null);
+        }
+        assertTrue(last.length() <= 11, last);
+
+        String upper = "W";
+        for (int i = 0; i < 60; i++) {
+            upper = OrderKeys.between("V", upper);
+        }
+        assertTrue(upper.length() > 8, upper);
+    }
+
+    @Test
+    @DisplayName("Should spread short ascending keys")
+    void shouldSpreadKeys() {
+        assertEquals(0, OrderKeys.spread(0).length);
+        for (int count : new int[]{1, 61, 62, 5000}) {
+            String[] keys = OrderKeys.spread(count);
+            assertEquals(count, keys.length);
+            for (int i = 0; i < count; i++) {
+                assertFalse(keys[i].isEmpty() || keys[i].endsWith("0"));
+                assertTrue(i == 0 || keys[i - 1].compareTo(keys[i]) < 0);
+            }
+        }
+        assertTrue(List.of(OrderKeys.spread(61)).stream().allMatch(key -> key.length() <= 2));
+        assertTrue(OrderKeys.spread(5000)[4999].length() <= 4);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.mybooks.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the byte-bounded response cache
+ */
+@DisplayName("ResponseCache Unit Tests")
+class ResponseCacheTest {
+
+    private final AtomicInteger queries = new AtomicInteger();
+
+    private ResponseCache cache(long maxBytes) {
+        return new ResponseCache(new ObjectMapper(), new SimpleMeterRegistry(), true, maxBytes);
+    }
+
+    private List<String> query(String value) {
+        queries.incrementAndGet();
+        return List.of(value);
+    }
+
+    @Test
+    @DisplayName("Should serve the stored bytes until the collection version changes")
+    void shouldReuseBodyForSameVersion() {
+        ResponseCache cache = cache(10_000);
+
+        byte[] first = cache.get("\"books-u1-x.1\"", "/api/books", () -> query("a"));
+        byte[] second = cache.get("\"books-u1-x.1\"", "/api/books", () -> query("b"));
+        byte[] third = cache.get("\"books-u1-x.2\"", "/api/books", () -> query("c"));
+
+        assertEquals("[\"a\"]", new String(first));
+        assertSame(first, second);
+        assertEquals("[\"c\"]", new String(third));
+        assertEquals(2, queries.get());
+    }
+
+    @Test
+    @DisplayName("Should evict least recently used entries to stay within the byte limit")
+    void shouldEvictByTotalBytes() {
+        ResponseCache cache = cache(3_000);
+        String body = "x".repeat(300);
+
+        for (int i = 0; i < 10; i++) {
+            cache.get("\"books-u" + i + "-x.0\"", "/api/books", () -> query(body));
+        }
+
+        assertTrue(cache.getTotalBytes() <= 3_000);
+        // The newest entry is still cached, the oldest is gone
+        cache.get("\"books-u9-x.0\"", "/api/books", () -> query(body));
+        assertEquals(10, queries.get());
+        cache.get("\"books-u0-x.0\"", "/api/books", () -> query(body));
+        assertEquals(11, queries.get());
+    }
+
+    @Test
+    @DisplayName("Should not cache bodies too large for the cache")
+    void shouldSkipOversizedBodies() {
+        ResponseCache cache = cache(1_000);
+
+        cache.get("\"notes-u1-x.0\"", "/api/notes", () -> query("y".repeat(500)));
+
+        assertEquals(0, cache.getTotalBytes());
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.mybooks.service;
+
+import com.example.mybooks.model.SecurityEventType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the binary security event store:
+ * in-memory index for the active day, memory-mapped index after sealing
+ */
+@DisplayName("SecurityEventStore Unit Tests")
+class SecurityEventStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private SecurityEventStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new SecurityEventStore();
+        ReflectionTestUtils.setField(store, "enabled", true);
+        ReflectionTestUtils.setField(store, "directory", directory.toString());
+        store.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    @DisplayName("Should find events by IP in the active segment")
+    void shouldQueryActiveSegmentByIp() throws Exception {
+        store.append(SecurityEventType.FAILED_LOGIN, "10.0.0.1", "email=a@test.com");
+        store.append(SecurityEventType.FAILED_LOGIN, "10.0.0.2", "email=b@test.com");
+        store.append(SecurityEventType.RATE_LIMIT_EXCEEDED, "10.0.0.1", "endpoint=/api/auth/login");
+
+        List<SecurityEventStore.SecurityEvent> events = store.query("10.0.0.1", null,
+                Instant.now().minus(Duration.ofHours(6)), Instant.now(), 100);
+
+        assertEquals(2, events.size());
+        assertTrue(events.stream().allMatch(e -> e.ipAddress().equals("10.0.0.1")));
+        // Newest first
+        assertEquals(SecurityEventType.RATE_LIMIT_EXCEEDED, events.get(0).type());
+    }
+
+    @Test
+    @DisplayName("Should answer the same queries from a sealed, compressed segment")
+    void shouldQuerySealedSegment() throws Exception {
+        LocalDate day = LocalDate.of(2026, 1, 10);
+        Instant noon = day.atTime(12, 0).toInstant(ZoneOffset.UTC);
+        setClock(noon);
+        for (int i = 0; i < 5000; i++) {
+            store.append(i % 2 == 0 ? SecurityEventType.FAILED_LOGIN : SecurityEventType.INVALID_TOKEN_USAGE,
+                    "192.168.1." + (i % 50), "email=user" + i + "@test.com");
+        }
+
+        // The active day is never sealed; the first event of the next day rotates
+        assertThrows(IllegalStateException.class, () -> store.sealDay(day));
+        setClock(noon.plus(Duration.ofDays(1)));
+        store.append(SecurityEventType.SUSPICIOUS_ACTIVITY, "192.168.1.7", "next day");
+        store.sealDay(day);
+
+        assertTrue(Files.exists(directory.resolve("security-" + day + ".idx")));
+        assertTrue(Files.exists(directory.resolve("security-" + day + ".segz")));
+        assertFalse(Files.exists(directory.resolve("security-" + day + ".seg")));
+
+        Instant from = noon.minus(Duration.ofHours(6));
+        Instant to = noon;
+
+        List<SecurityEventStore.SecurityEvent> byIp = store.query("192.168.1.7", null, from, to, 1000);
+        assertEquals(100, byIp.size());
+        assertTrue(byIp.stream().allMatch(e -> e.ipAddress().equals("192.168.1.7")));
+
+        List<SecurityEventStore.SecurityEvent> byType = store.query(null,
+                SecurityEventType.INVALID_TOKEN_USAGE, from, to, 10000);
+        assertEquals(2500, byType.size());
+
+        List<SecurityEventStore.SecurityEvent> both = store.query("192.168.1.7",
+                SecurityEventType.FAILED_LOGIN, from, to, 1000);
+        assertTrue(both.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should keep events that arrive for a day after the next day started")
+    void shouldKeepLateEvents() throws Exception {
+        LocalDate day = LocalDate.of(2026, 1, 10);
+        Instant beforeMidnight = day.plusDays(1).atStartOfDay().toInstant(ZoneOffset.UTC).minusMillis(1);
+        Instant afterMidnight = beforeMidnight.plusMillis(2);
+
+        setClock(beforeMidnight);
+        store.append(SecurityEventType.FAILED_LOGIN, "10.0.0.9", "on time");
+        setClock(afterMidnight);
+        store.append(SecurityEventType.FAILED_LOGIN, "10.0.0.9", "next day");
+        store.sealDay(day);
+
+        // A thread that read the clock before midnight appends after the day was sealed
+        setClock(beforeMidnight);
+        store.append(SecurityEventType.FAILED_LOGIN, "10.0.0.9", "late");
+        assertFalse(Files.exists(directory.resolve("security-" + day + ".seg")));
+
+        Instant from = beforeMidnight.minus(Duration.ofHours(1));
+        assertEquals(List.of("late", "on time"), details(store.query("10.0.0.9", null, from, beforeMidnight, 10)));
+        assertEquals(3, store.query("10.0.0.9", null, from, afterMidnight, 10).size());
+
+        // Still found once the next day is sealed too
+        setClock(afterMidnight.plus(Duration.ofDays(1)));
+        store.append(SecurityEventType.FAILED_LOGIN, "10.0.0.9", "day after");
+        store.sealDay(day.plusDays(1));
+        assertEquals(List.of("late", "on time"), details(store.query("10.0.0.9", null, from, beforeMidnight, 10)));
+    }
+
+    @Test
+    @DisplayName("Should query today's segment right after a restart")
+    void shouldReopenTodaysSegment() throws Exception {
+        store.append(SecurityEventType.FAILED_LOGIN, "10.0.0.3", "before restart");
+        store.close();
+
+        store = new SecurityEventStore();
+        ReflectionTestUtils.setField(store, "enabled", true);
+        ReflectionTestUtils.setField(store, "directory", directory.toString());
+        store.init();
+
+        assertEquals(1, store.query("10.0.0.3", null,
+                Instant.now().minus(Duration.ofHours(6)), Instant.now(), 10).size());
+    }
+
+    @Test
+    @DisplayName("Should keep answering queries while the day is being sealed")
+    void shouldQueryWhileSealing() throws Exception {
+        LocalDate day = LocalDate.of(2026, 1, 12);
+        Instant noon = day.atTime(12, 0).toInstant(ZoneOffset.UTC);
+        setClock(noon);
+        for (int i = 0; i < 2000; i++) {
+            store.append(SecurityEventType.FAILED_LOGIN, "172.16.0." + (i % 20), "attempt " + i);
+        }
+        setClock(noon.plus(Duration.ofDays(1)));
+        store.append(SecurityEventType.FAILED_LOGIN, "172.16.0.99", "next day");
+
+        Instant from = noon.minus(Duration.ofHours(1));
+        AtomicBoolean sealed = new AtomicBoolean();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<Integer> queries = executor.submit(() -> {
+            int runs = 0;
+            while (!sealed.get() || runs == 0) {
+                assertEquals(100, store.query("172.16.0.3", null, from, noon, 1000).size());
+                runs++;
+            }
+            return runs;
+        });
+
+        store.sealDay(day);
+        sealed.set(true);
+        assertTrue(queries.get(30, TimeUnit.SECONDS) > 0);
+        executor.shutdown();
+        assertEquals(100, store.query("172.16.0.3", null, from, noon, 1000).size());
+    }
+
+    @Test
+    @DisplayName("Should reject queries without IP or type")
+    void shouldRejectUnboundedQuery() {
+        assertThrows(IllegalArgumentException.class,
+                () -> store.query(null, null, Instant.now().minusSeconds(60), Instant.now(), 10));
+    }
+
+    private void setClock(Instant instant) {
+        ReflectionTestUtils.setField(store, "clock", Clock.fixed(instant, ZoneOffset.UTC));
+    }
+
+    private static List<String> details(List<SecurityEventStore.SecurityEvent> events) {
+        return events.stream().map(SecurityEventStore.SecurityEvent::details).toList();
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.mybooks.service;
+
+import com.example.mybooks.dto.BookSuggestion;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the in-memory typeahead index
+ */
+@DisplayName("SuggestionIndex Unit Tests")
+class SuggestionIndexTest {
+
+    private static List<String> texts(List<BookSuggestion> suggestions) {
+        return suggestions.stream().map(BookSuggestion::getText).toList();
+    }
+
+    @Test
+    @DisplayName("Should match any word start and rank by number of books")
+    void shouldRankByFrequency() {
+        SuggestionIndex index = new SuggestionIndex();
+        index.put(1L, "Dune", "Frank Herbert", "Science Fiction");
+        index.put(2L, "Dune Messiah", "Frank Herbert", "Science Fiction");
+        index.put(3L, "The Hero with a Thousand Faces", "Joseph Campbell", "Mythology");
+
+        List<BookSuggestion> suggestions = index.suggest("her", 10);
+
+        assertEquals(List.of("Frank Herbert", "The Hero with a Thousand Faces"), texts(suggestions));
+        assertEquals("author", suggestions.get(0).getType());
+        assertEquals(2, suggestions.get(0).getCount());
+        assertEquals(List.of("Dune", "Dune Messiah"), texts(index.suggest("d", 2)));
+        assertEquals(List.of("Science Fiction"), texts(index.suggest("  S", 10)));
+        assertEquals(List.of("Frank Herbert"), texts(index.suggest("frank ", 10)));
+    }
+
+    @Test
+    @DisplayName("Should ignore case and accents")
+    void shouldNormalize() {
+        SuggestionIndex index = new SuggestionIndex();
+        index.put(1L, "Les Misérables", "Victor Hugo", null);
+
+        assertEquals(List.of("Les Misérables"), texts(index.suggest("MISER", 10)));
+        assertTrue(index.suggest("   ", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should replace a saved book's values and forget deleted books")
+    void shouldFollowUpdatesAndDeletes() {
+        SuggestionIndex index = new SuggestionIndex();
+        index.put(1L, "Emma", "Jane Austen", "Classic");
+        index.put(2L, "Persuasion", "Jane Austen", "Classic");
+
+        index.put(1L, "Emma", "J. Austen", "Classic");
+        index.put(1L, "Emma", "J. Austen", "Classic");
+        assertEquals(1, index.suggest("jane", 10).get(0).getCount());
+        assertEquals(List.of("J. Austen", "Jane Austen"), texts(index.suggest("aus", 10)));
+
+        index.remove(2L);
+        index.remove(2L);
+        assertTrue(index.suggest("jane", 10).isEmpty());
+        assertTrue(index.suggest("pers", 10).isEmpty());
+        assertEquals(1, index.suggest("classic", 10).get(0).getCount());
+        assertEquals(3, index.size());
+    }
+}
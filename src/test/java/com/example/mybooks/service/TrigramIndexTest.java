@@ -0,0 +1,62 @@
+package com.example.mybooks.service;
+
+import com.example.mybooks.dto.BookMatch;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the trigram index behind fuzzy book search
+ */
+@DisplayName("TrigramIndex Unit Tests")
+class TrigramIndexTest {
+
+    private static List<Long> ids(List<BookMatch> matches) {
+        return matches.stream().map(BookMatch::getId).toList();
+    }
+
+    @Test
+    @DisplayName("Should find misspelled authors and titles, most similar first")
+    void shouldTolerateTypos() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1L, "Crime and Punishment", "Fyodor Dostoevsky");
+        index.put(2L, "War and Peace", "Leo Tolstoy");
+        index.put(3L, "The Brothers Karamazov", "Fyodor Dostoevsky");
+
+        List<BookMatch> matches = index.search("Dostoyevsky", 10, 0.5);
+        assertEquals(List.of(1L, 3L), ids(matches));
+        assertEquals("author", matches.get(0).getMatchedField());
+        assertTrue(matches.get(0).getSimilarity() >= 0.75);
+
+        assertEquals(List.of(3L), ids(index.search("brothers karamasov", 10, 0.5)));
+        assertEquals("title", index.search("brothers karamasov", 10, 0.5).get(0).getMatchedField());
+        assertEquals(List.of(2L), ids(index.search("tolstoi", 10, 0.5)));
+        assertTrue(index.search("hemingway", 10, 0.5).isEmpty());
+        assertTrue(index.search(" - ", 10, 0.5).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should follow updates and deletes")
+    void shouldFollowUpdatesAndDeletes() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1L, "Emma", "Jane Austen");
+        index.put(2L, "Persuasion", "Jane Austen");
+
+        index.put(1L, "Emma", "Charlotte Bronte");
+        assertEquals(List.of(2L), ids(index.search("austin", 10, 0.5)));
+        assertEquals(List.of(1L), ids(index.search("bronty", 10, 0.5)));
+
+        index.remove(2L);
+        assertTrue(index.search("austin", 10, 0.5).isEmpty());
+
+        // Renumbering after many replacements keeps the matches
+        for (int i = 0; i < 200; i++) {
+            index.put(1L, "Emma " + i, "Charlotte Bronte");
+        }
+        assertEquals(List.of(1L), ids(index.search("bronty", 10, 0.5)));
+        assertEquals("Emma 199", index.search("bronty", 10, 0.5).get(0).getTitle());
+    }
+}
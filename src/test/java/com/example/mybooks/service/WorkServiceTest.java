@@ -0,0 +1,32 @@
+package com.example.mybooks.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the keys identifying works in the shared catalog
+ */
+@DisplayName("WorkService Unit Tests")
+class WorkServiceTest {
+
+    @Test
+    @DisplayName("Should normalize ISBN-10 and ISBN-13 to the same 13 digits")
+    void shouldNormalizeIsbn() {
+        assertEquals("9780441013593", WorkService.normalizeIsbn("9780441013593"));
+        assertEquals("9780441013593", WorkService.normalizeIsbn("0441013597"));
+        assertEquals("9780441013593", WorkService.normalizeIsbn("978-0-441-01359-3"));
+        assertEquals("9780306406157", WorkService.normalizeIsbn("0-306-40615-X"));
+        assertNull(WorkService.normalizeIsbn(null));
+        assertNull(WorkService.normalizeIsbn("12345"));
+    }
+
+    @Test
+    @DisplayName("Should key works by ISBN, else by normalized title and author")
+    void shouldBuildWorkKeys() {
+        assertEquals("isbn:9780441013593", WorkService.workKey("0441013597", "Dune", "Frank Herbert"));
+        assertEquals("ta:les miserables|victor hugo", WorkService.workKey(null, " Les  Misérables", "Victor HUGO "));
+        assertEquals(WorkService.workKey("", "Dune", "Frank Herbert"), WorkService.workKey(null, "dune", "frank herbert"));
+    }
+}
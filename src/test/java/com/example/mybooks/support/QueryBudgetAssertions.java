@@ -0,0 +1,39 @@
+package com.example.mybooks.support;
+
+import com.example.mybooks.monitoring.QueryCapture;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Test helper: assert that a block of code issues at most N JDBC statements.
+ *
+ *   assertStatementsAtMost(2, () -> mockMvc.perform(get("/api/books")).andExpect(status().isOk()));
+ */
+public final class QueryBudgetAssertions {
+
+    @FunctionalInterface
+    public interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+
+    private QueryBudgetAssertions() {
+    }
+
+    /**
+     * Run the action and fail, listing the SQL, if it issued more than maxStatements statements
+     */
+    public static List<String> assertStatementsAtMost(int maxStatements, ThrowingRunnable action) throws Exception {
+        try (QueryCapture capture = QueryCapture.start()) {
+            action.run();
+
+            List<String> statements = capture.getStatements();
+            if (statements.size() > maxStatements) {
+                fail("Expected at most " + maxStatements + " statements but " + statements.size()
+                        + " were executed:\n  " + String.join("\n  ", statements));
+            }
+            return statements;
+        }
+    }
+}